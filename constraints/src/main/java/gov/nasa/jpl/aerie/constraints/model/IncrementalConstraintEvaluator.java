@@ -0,0 +1,291 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Interval;
+import gov.nasa.jpl.aerie.constraints.time.IntervalMap;
+import gov.nasa.jpl.aerie.constraints.time.Segment;
+import gov.nasa.jpl.aerie.constraints.time.Windows;
+import gov.nasa.jpl.aerie.constraints.tree.AbsoluteInterval;
+import gov.nasa.jpl.aerie.constraints.tree.And;
+import gov.nasa.jpl.aerie.constraints.tree.AssignGaps;
+import gov.nasa.jpl.aerie.constraints.tree.DiscreteResource;
+import gov.nasa.jpl.aerie.constraints.tree.DiscreteValue;
+import gov.nasa.jpl.aerie.constraints.tree.Equal;
+import gov.nasa.jpl.aerie.constraints.tree.Expression;
+import gov.nasa.jpl.aerie.constraints.tree.GreaterThan;
+import gov.nasa.jpl.aerie.constraints.tree.GreaterThanOrEqual;
+import gov.nasa.jpl.aerie.constraints.tree.LessThan;
+import gov.nasa.jpl.aerie.constraints.tree.LessThanOrEqual;
+import gov.nasa.jpl.aerie.constraints.tree.Not;
+import gov.nasa.jpl.aerie.constraints.tree.NotEqual;
+import gov.nasa.jpl.aerie.constraints.tree.Or;
+import gov.nasa.jpl.aerie.constraints.tree.Plus;
+import gov.nasa.jpl.aerie.constraints.tree.ProfileExpression;
+import gov.nasa.jpl.aerie.constraints.tree.Rate;
+import gov.nasa.jpl.aerie.constraints.tree.RealResource;
+import gov.nasa.jpl.aerie.constraints.tree.RealValue;
+import gov.nasa.jpl.aerie.constraints.tree.Times;
+import gov.nasa.jpl.aerie.constraints.tree.ViolationsOfWindows;
+import gov.nasa.jpl.aerie.constraints.tree.WindowsValue;
+import gov.nasa.jpl.aerie.constraints.tree.WindowsWrapperExpression;
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static gov.nasa.jpl.aerie.constraints.time.Interval.Inclusivity.Exclusive;
+import static gov.nasa.jpl.aerie.constraints.time.Interval.Inclusivity.Inclusive;
+
+/**
+ * Evaluates a constraint over resource profiles as they are streamed, one window of time at a time.
+ *
+ * <p>
+ *   Only constraints whose value at each instant depends on the resources at that same instant can be evaluated
+ *   this way; see {@link #supports}. Profile chunks are accepted in the order the simulation produces them, and each
+ *   time every resource the constraint reads has advanced at least one window past the last evaluation, the
+ *   constraint is evaluated over the newly covered time and the segments behind it are dropped. Memory use is bounded
+ *   by the window (plus one chunk), rather than by the length of the plan.
+ * </p>
+ *
+ * <p>
+ *   Violations and gaps that cross the edge of a window are joined back together, so that {@link #finish} returns the
+ *   same result as evaluating the constraint over the whole plan at once.
+ * </p>
+ */
+public final class IncrementalConstraintEvaluator implements Consumer<ResourceProfiles> {
+  private final ViolationsOfWindows constraint;
+  private final Instant planStart;
+  private final Interval planBounds;
+  private final EvaluationEnvironment environment;
+  private final Duration window;
+
+  /** The resources read by the constraint that are not provided by the evaluation environment. */
+  private final Set<String> streamedResources;
+
+  private final Map<String, ResourceBuffer<LinearEquation>> realBuffers = new HashMap<>();
+  private final Map<String, ResourceBuffer<SerializedValue>> discreteBuffers = new HashMap<>();
+
+  private Duration evaluatedUntil;
+  private final List<Interval> violations = new ArrayList<>();
+  private final List<Interval> gaps = new ArrayList<>();
+  private boolean finished = false;
+
+  public IncrementalConstraintEvaluator(
+      final Expression<ConstraintResult> constraint,
+      final Instant planStart,
+      final Interval planBounds,
+      final EvaluationEnvironment environment,
+      final Duration window
+  ) {
+    if (!supports(constraint)) {
+      throw new IllegalArgumentException("Constraint cannot be evaluated incrementally: " + constraint.prettyPrint());
+    }
+    if (!window.isPositive()) throw new IllegalArgumentException("Evaluation window must be positive, got " + window);
+
+    this.constraint = (ViolationsOfWindows) constraint;
+    this.planStart = planStart;
+    this.planBounds = planBounds;
+    this.environment = environment;
+    this.window = window;
+    this.evaluatedUntil = planBounds.start;
+
+    final var names = new HashSet<String>();
+    constraint.extractResources(names);
+    names.removeAll(environment.realExternalProfiles().keySet());
+    names.removeAll(environment.discreteExternalProfiles().keySet());
+    this.streamedResources = Set.copyOf(names);
+  }
+
+  /** Whether the given constraint can be evaluated one window at a time. */
+  public static boolean supports(final Expression<ConstraintResult> constraint) {
+    return constraint instanceof ViolationsOfWindows v && isLocal(v.expression);
+  }
+
+  /** Whether the value of the expression at any instant depends only on the value of its inputs at that instant. */
+  private static boolean isLocal(final Expression<?> expression) {
+    return switch (expression) {
+      case RealResource r -> true;
+      case DiscreteResource r -> true;
+      case WindowsWrapperExpression w -> true;
+      case RealValue v -> v.interval().map(IncrementalConstraintEvaluator::isFixed).orElse(true);
+      case DiscreteValue v -> v.interval().map(IncrementalConstraintEvaluator::isFixed).orElse(true);
+      case WindowsValue v -> v.interval().map(IncrementalConstraintEvaluator::isFixed).orElse(true);
+      case And e -> e.expressions.stream().allMatch(IncrementalConstraintEvaluator::isLocal);
+      case Or e -> e.expressions.stream().allMatch(IncrementalConstraintEvaluator::isLocal);
+      case Not e -> isLocal(e.expression);
+      case LessThan e -> isLocal(e.left) && isLocal(e.right);
+      case LessThanOrEqual e -> isLocal(e.left) && isLocal(e.right);
+      case GreaterThan e -> isLocal(e.left) && isLocal(e.right);
+      case GreaterThanOrEqual e -> isLocal(e.left) && isLocal(e.right);
+      case Equal<?> e -> isLocal(e.left) && isLocal(e.right);
+      case NotEqual<?> e -> isLocal(e.left) && isLocal(e.right);
+      case Plus e -> isLocal(e.left) && isLocal(e.right);
+      case Times e -> isLocal(e.profile);
+      case Rate e -> isLocal(e.profile);
+      case AssignGaps<?> e -> isLocal(e.originalProfile()) && isLocal(e.defaultProfile());
+      case ProfileExpression<?> e -> isLocal(e.expression);
+      default -> false;
+    };
+  }
+
+  /** Whether the interval expression evaluates to the same interval no matter which window is being evaluated. */
+  private static boolean isFixed(final Expression<Interval> interval) {
+    return interval instanceof AbsoluteInterval;
+  }
+
+  @Override
+  public void accept(final ResourceProfiles chunk) {
+    if (this.finished) throw new IllegalStateException("Constraint evaluation has already finished");
+
+    for (final var entry : chunk.realProfiles().entrySet()) {
+      if (!this.streamedResources.contains(entry.getKey())) continue;
+      this.realBuffers
+          .computeIfAbsent(entry.getKey(), $ -> new ResourceBuffer<>(this.planBounds.start))
+          .append(entry.getValue().segments(), (start, dynamics) -> new LinearEquation(start, dynamics.initial, dynamics.rate));
+    }
+    for (final var entry : chunk.discreteProfiles().entrySet()) {
+      if (!this.streamedResources.contains(entry.getKey())) continue;
+      this.discreteBuffers
+          .computeIfAbsent(entry.getKey(), $ -> new ResourceBuffer<>(this.planBounds.start))
+          .append(entry.getValue().segments(), (start, value) -> value);
+    }
+
+    final var covered = coveredUntil();
+    if (covered.minus(this.evaluatedUntil).noShorterThan(this.window)) {
+      evaluate(Interval.between(this.evaluatedUntil, Inclusive, covered, Exclusive), false);
+    }
+  }
+
+  /** The violations found so far. Later windows may still extend the last of them. */
+  public List<Violation> violationsSoFar() {
+    return this.violations.stream().map(i -> new Violation(List.of(i), List.of())).toList();
+  }
+
+  /** The time up to which the constraint has been evaluated. */
+  public Duration evaluatedUntil() {
+    return this.evaluatedUntil;
+  }
+
+  /** Evaluates the constraint over the rest of the plan, once every profile chunk has been accepted. */
+  public ConstraintResult finish() {
+    if (!this.finished) {
+      this.finished = true;
+      evaluate(Interval.between(this.evaluatedUntil, Inclusive, this.planBounds.end, this.planBounds.endInclusivity), true);
+    }
+    return new ConstraintResult(violationsSoFar(), List.copyOf(this.gaps));
+  }
+
+  private Duration coveredUntil() {
+    var covered = this.planBounds.end;
+    for (final var name : this.streamedResources) {
+      final ResourceBuffer<?> buffer = this.realBuffers.containsKey(name)
+          ? this.realBuffers.get(name)
+          : this.discreteBuffers.get(name);
+      if (buffer == null) return this.evaluatedUntil;
+      covered = Duration.min(covered, buffer.end);
+    }
+    return covered;
+  }
+
+  private void evaluate(final Interval bounds, final boolean isLast) {
+    final var realProfiles = new HashMap<String, LinearProfile>();
+    for (final var entry : this.realBuffers.entrySet()) {
+      realProfiles.put(entry.getKey(), new LinearProfile(entry.getValue().select(bounds, isLast)));
+    }
+    final var discreteProfiles = new HashMap<String, DiscreteProfile>();
+    for (final var entry : this.discreteBuffers.entrySet()) {
+      discreteProfiles.put(entry.getKey(), new DiscreteProfile(entry.getValue().select(bounds, isLast)));
+    }
+
+    // The window is passed as the bounds of evaluation, but the results still describe the whole plan,
+    //   so that intervals left open by the constraint resolve to the same times in every window.
+    final var results = new SimulationResults(this.planStart, this.planBounds, List.of(), realProfiles, discreteProfiles);
+    final var isFirst = bounds.start.equals(this.planBounds.start);
+    final var windows = this.constraint.expression.evaluate(results, bounds, this.environment).select(
+        // Violations are not clipped to the plan bounds, so only clip them where one window meets another.
+        Interval.between(
+            isFirst ? Duration.MIN_VALUE : bounds.start,
+            isFirst ? Inclusive : bounds.startInclusivity,
+            isLast ? Duration.MAX_VALUE : bounds.end,
+            isLast ? Inclusive : bounds.endInclusivity));
+
+    for (final var violation : windows.iterateEqualTo(false)) appendJoined(this.violations, violation);
+    final var windowGaps = windows.notEqualTo(windows).assignGaps(new Windows(true)).select(bounds);
+    for (final var gap : windowGaps.iterateEqualTo(true)) appendJoined(this.gaps, gap);
+
+    this.evaluatedUntil = bounds.end;
+    for (final var buffer : this.realBuffers.values()) buffer.dropBefore(bounds.end);
+    for (final var buffer : this.discreteBuffers.values()) buffer.dropBefore(bounds.end);
+  }
+
+  /** Adds an interval to a time-ordered list, joining it with the last interval if the window edge split them. */
+  private static void appendJoined(final List<Interval> intervals, final Interval interval) {
+    if (!intervals.isEmpty() && Interval.meets(intervals.getLast(), interval)) {
+      final var last = intervals.removeLast();
+      intervals.add(Interval.unify(last, interval));
+    } else {
+      intervals.add(interval);
+    }
+  }
+
+  /** The segments of one resource that have been streamed but not yet left behind by evaluation. */
+  private static final class ResourceBuffer<V> {
+    private final ArrayDeque<Piece<V>> pieces = new ArrayDeque<>();
+    private Duration end;
+
+    private record Piece<V>(Duration start, Duration end, V value) {}
+
+    ResourceBuffer(final Duration start) {
+      this.end = start;
+    }
+
+    <Dynamics> void append(final List<ProfileSegment<Dynamics>> segments, final PieceFactory<Dynamics, V> factory) {
+      for (final var segment : segments) {
+        final var start = this.end;
+        this.end = start.plus(segment.extent());
+        this.pieces.addLast(new Piece<>(start, this.end, factory.make(start, segment.dynamics())));
+      }
+    }
+
+    /**
+     * The segments overlapping the given bounds.
+     *
+     * As when a finished simulation is loaded whole, the last segment of the final window includes its end point.
+     */
+    IntervalMap<V> select(final Interval bounds, final boolean isLast) {
+      final var builder = IntervalMap.<V>builder();
+      final var iterator = this.pieces.iterator();
+      while (iterator.hasNext()) {
+        final var piece = iterator.next();
+        final var closed = isLast && !iterator.hasNext();
+        final var interval = Interval.between(piece.start, Inclusive, piece.end, closed ? Inclusive : Exclusive);
+        if (!Interval.intersect(interval, bounds).isEmpty()) builder.set(Segment.of(interval, piece.value));
+      }
+      return builder.build();
+    }
+
+    /** Drops the segments that end at or before the given time, since no later window can overlap them. */
+    void dropBefore(final Duration time) {
+      while (!this.pieces.isEmpty() && this.pieces.getFirst().end.noLongerThan(time)) {
+        // Keep the last piece, since the next chunk continues from its end.
+        if (this.pieces.size() == 1) break;
+        this.pieces.removeFirst();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface PieceFactory<Dynamics, V> {
+    V make(Duration start, Dynamics dynamics);
+  }
+}
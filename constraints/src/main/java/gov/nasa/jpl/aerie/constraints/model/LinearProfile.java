@@ -5,10 +5,12 @@ import gov.nasa.jpl.aerie.constraints.time.IntervalMap;
 import gov.nasa.jpl.aerie.constraints.time.Segment;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
 import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -18,6 +20,7 @@ import java.util.function.Function;
 
 import static gov.nasa.jpl.aerie.constraints.time.Interval.Inclusivity.Exclusive;
 import static gov.nasa.jpl.aerie.constraints.time.Interval.Inclusivity.Inclusive;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECOND;
 
 public final class LinearProfile implements Profile<LinearProfile>, Iterable<Segment<LinearEquation>> {
   public final IntervalMap<LinearEquation> profilePieces;
@@ -175,9 +178,27 @@ public final class LinearProfile implements Profile<LinearProfile>, Iterable<Seg
   }
 
   public static LinearProfile fromSimulatedProfile(final List<ProfileSegment<RealDynamics>> simulatedProfile) {
+    if (simulatedProfile instanceof RealProfileColumns columns) return fromSimulatedColumns(columns);
     return fromProfileHelper(Duration.ZERO, simulatedProfile, Optional::of, true);
   }
 
+  /** Reads a simulated profile straight out of its columns, without materializing a {@link ProfileSegment} per segment. */
+  private static LinearProfile fromSimulatedColumns(final RealProfileColumns columns) {
+    final var segments = new ArrayList<Segment<LinearEquation>>(columns.size());
+    var cursor = 0L;
+    for (var i = 0; i < columns.size(); i++) {
+      final var nextCursor = Math.addExact(cursor, columns.extentMicros(i));
+      final var isLast = i == columns.size() - 1;
+      final var start = Duration.of(cursor, MICROSECOND);
+      segments.add(Segment.of(
+          Interval.between(start, Inclusive, Duration.of(nextCursor, MICROSECOND), isLast ? Inclusive : Exclusive),
+          new LinearEquation(start, columns.initial(i), columns.rate(i))));
+      cursor = nextCursor;
+    }
+
+    return new LinearProfile(IntervalMap.of(segments));
+  }
+
   public static LinearProfile fromExternalProfile(final Duration offsetFromPlanStart, final List<ProfileSegment<Optional<RealDynamics>>> externalProfile) {
     return fromProfileHelper(offsetFromPlanStart, externalProfile, $ -> $, false);
   }
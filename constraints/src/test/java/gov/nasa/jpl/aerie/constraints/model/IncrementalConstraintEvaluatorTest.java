@@ -0,0 +1,140 @@
+package gov.nasa.jpl.aerie.constraints.model;
+
+import gov.nasa.jpl.aerie.constraints.time.Interval;
+import gov.nasa.jpl.aerie.constraints.tree.And;
+import gov.nasa.jpl.aerie.constraints.tree.Changes;
+import gov.nasa.jpl.aerie.constraints.tree.DiscreteResource;
+import gov.nasa.jpl.aerie.constraints.tree.DiscreteValue;
+import gov.nasa.jpl.aerie.constraints.tree.Equal;
+import gov.nasa.jpl.aerie.constraints.tree.Expression;
+import gov.nasa.jpl.aerie.constraints.tree.LessThan;
+import gov.nasa.jpl.aerie.constraints.tree.Not;
+import gov.nasa.jpl.aerie.constraints.tree.Or;
+import gov.nasa.jpl.aerie.constraints.tree.Plus;
+import gov.nasa.jpl.aerie.constraints.tree.ProfileExpression;
+import gov.nasa.jpl.aerie.constraints.tree.RealResource;
+import gov.nasa.jpl.aerie.constraints.tree.RealValue;
+import gov.nasa.jpl.aerie.constraints.tree.ViolationsOfWindows;
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalConstraintEvaluatorTest {
+  private static final Instant PLAN_START = Instant.parse("2030-01-01T00:00:00Z");
+
+  @Test
+  public void supportsOnlyPointwiseConstraints() {
+    assertTrue(IncrementalConstraintEvaluator.supports(
+        new ViolationsOfWindows(new LessThan(new RealResource("x"), new RealValue(5)))));
+    assertFalse(IncrementalConstraintEvaluator.supports(
+        new ViolationsOfWindows(new Not(new Changes<>(new ProfileExpression<>(new RealResource("x")))))));
+  }
+
+  @Test
+  public void agreesWithWholePlanEvaluation() {
+    final var random = new Random(7);
+    final List<Expression<ConstraintResult>> constraints = List.of(
+        new ViolationsOfWindows(new LessThan(new RealResource("x"), new RealValue(5))),
+        new ViolationsOfWindows(new Or(
+            new LessThan(new Plus(new RealResource("x"), new RealResource("y")), new RealValue(8)),
+            new Equal<>(new DiscreteResource("mode"), new DiscreteValue(SerializedValue.of("safe"))))),
+        new ViolationsOfWindows(new And(
+            new Not(new Equal<>(new DiscreteResource("mode"), new DiscreteValue(SerializedValue.of("off"))))))
+    );
+
+    for (var trial = 0; trial < 50; trial += 1) {
+      final var duration = Duration.of(200 + random.nextInt(200), MINUTES);
+      final var x = randomRealProfile(random, duration);
+      final var y = randomRealProfile(random, duration);
+      final var mode = randomDiscreteProfile(random, duration);
+      final var bounds = Interval.between(Duration.ZERO, duration);
+
+      final var results = new SimulationResults(
+          PLAN_START,
+          bounds,
+          List.of(),
+          Map.of("x", LinearProfile.fromSimulatedProfile(x), "y", LinearProfile.fromSimulatedProfile(y)),
+          Map.of("mode", DiscreteProfile.fromSimulatedProfile(mode)));
+
+      for (final var constraint : constraints) {
+        final var expected = constraint.evaluate(results, new EvaluationEnvironment());
+
+        final var evaluator = new IncrementalConstraintEvaluator(
+            constraint,
+            PLAN_START,
+            bounds,
+            new EvaluationEnvironment(),
+            Duration.of(1 + random.nextInt(30), MINUTES));
+        for (final var chunk : chunk(random, x, y, mode)) evaluator.accept(chunk);
+
+        assertEquals(expected, evaluator.finish());
+      }
+    }
+  }
+
+  private static List<ProfileSegment<RealDynamics>> randomRealProfile(final Random random, final Duration duration) {
+    final var segments = new ArrayList<ProfileSegment<RealDynamics>>();
+    var remaining = duration;
+    while (remaining.isPositive()) {
+      final var extent = Duration.min(remaining, Duration.of(1 + random.nextInt(20), MINUTES));
+      segments.add(new ProfileSegment<>(extent, RealDynamics.linear(random.nextInt(10), random.nextInt(3) - 1)));
+      remaining = remaining.minus(extent);
+    }
+    return segments;
+  }
+
+  private static List<ProfileSegment<SerializedValue>> randomDiscreteProfile(final Random random, final Duration duration) {
+    final var modes = List.of("safe", "off", "science");
+    final var segments = new ArrayList<ProfileSegment<SerializedValue>>();
+    var remaining = duration;
+    while (remaining.isPositive()) {
+      final var extent = Duration.min(remaining, Duration.of(1 + random.nextInt(20), MINUTES));
+      segments.add(new ProfileSegment<>(extent, SerializedValue.of(modes.get(random.nextInt(modes.size())))));
+      remaining = remaining.minus(extent);
+    }
+    return segments;
+  }
+
+  /** Splits the profiles into chunks the way a simulation streams them, each resource advancing at its own pace. */
+  private static List<ResourceProfiles> chunk(
+      final Random random,
+      final List<ProfileSegment<RealDynamics>> x,
+      final List<ProfileSegment<RealDynamics>> y,
+      final List<ProfileSegment<SerializedValue>> mode)
+  {
+    final var chunks = new ArrayList<ResourceProfiles>();
+    var ix = 0;
+    var iy = 0;
+    var im = 0;
+    while (ix < x.size() || iy < y.size() || im < mode.size()) {
+      final var nx = Math.min(x.size(), ix + random.nextInt(4));
+      final var ny = Math.min(y.size(), iy + random.nextInt(4));
+      final var nm = Math.min(mode.size(), im + random.nextInt(4));
+      chunks.add(new ResourceProfiles(
+          Map.of(
+              "x", ResourceProfile.of(ValueSchema.REAL, x.subList(ix, nx)),
+              "y", ResourceProfile.of(ValueSchema.REAL, y.subList(iy, ny))),
+          Map.of("mode", ResourceProfile.of(ValueSchema.STRING, mode.subList(im, nm)))));
+      ix = nx;
+      iy = ny;
+      im = nm;
+    }
+    return chunks;
+  }
+}
@@ -4,6 +4,7 @@ import gov.nasa.jpl.aerie.constraints.time.Interval;
 import gov.nasa.jpl.aerie.constraints.time.Segment;
 import gov.nasa.jpl.aerie.constraints.time.Windows;
 import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import org.junit.jupiter.api.Test;
@@ -340,4 +341,22 @@ public class LinearProfileTest {
         expected.profilePieces, profile.profilePieces
     );
   }
+
+  @Test
+  public void testConvertFromSimulatedColumns() {
+    final var simulatedProfile = List.of(
+        new ProfileSegment<>(Duration.of(1, SECOND), RealDynamics.linear(1, 1)),
+        new ProfileSegment<>(Duration.ZERO, RealDynamics.linear(2, 0)),
+        new ProfileSegment<>(Duration.of(1, SECOND), RealDynamics.linear(2, 0)),
+        new ProfileSegment<>(Duration.of(1, SECOND), RealDynamics.linear(5, -1)),
+        new ProfileSegment<>(Duration.ZERO, RealDynamics.constant(4))
+    );
+
+    final var expected = LinearProfile.fromSimulatedProfile(simulatedProfile);
+    final var profile = LinearProfile.fromSimulatedProfile(RealProfileColumns.of(simulatedProfile));
+
+    assertIterableEquals(
+        expected.profilePieces, profile.profilePieces
+    );
+  }
 }
@@ -60,5 +60,11 @@ public final class CounterCell<T> {
     public void apply(final CounterCell<T> cell, final T effect) {
       cell.value = cell.adder.apply(cell.value, effect);
     }
+
+    @Override
+    public boolean isStepAdditive() {
+      // A counter is unaffected by the passage of time.
+      return true;
+    }
   }
 }
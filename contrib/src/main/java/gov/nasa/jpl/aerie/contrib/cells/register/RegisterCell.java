@@ -62,5 +62,11 @@ public final class RegisterCell<T> {
         cell.conflicted = true;
       }
     }
+
+    @Override
+    public boolean isStepAdditive() {
+      // A register is unaffected by the passage of time.
+      return true;
+    }
   }
 }
@@ -53,6 +53,12 @@ public final class CellRefV2 {
         cell.dynamics = ErrorCatchingMonad.map(cell.initialDynamics, d ->
             expiring(d.data().step(cell.elapsedTime), d.expiry().minus(cell.elapsedTime)));
       }
+
+      @Override
+      public boolean isStepAdditive() {
+        // Stepping always starts over from the initial dynamics, and durations add exactly.
+        return true;
+      }
     });
   }
 
@@ -0,0 +1,140 @@
+package gov.nasa.jpl.aerie.contrib.streamline.core;
+
+import gov.nasa.jpl.aerie.contrib.streamline.core.monads.ResourceMonad;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+/**
+ * Memoization of derived resources, keyed on the dynamics of the {@link MutableResource}s they read.
+ *
+ * <p>
+ *   A derived resource recomputes its whole derivation every time it's sampled,
+ *   whether by Aerie, by a condition, or by another derived resource.
+ *   A memoized resource instead remembers its latest dynamics, along with the dynamics returned
+ *   by every mutable resource read while computing them, directly or through other memoized resources.
+ *   It reuses those dynamics for as long as each of those mutable resources returns the very same dynamics object.
+ *   Mutable resources return new dynamics whenever an effect is applied or time passes,
+ *   so memoized dynamics are only reused within an instant, and only until one of their sources changes.
+ * </p>
+ * <p>
+ *   Checking memoized dynamics still reads every mutable resource they depend on,
+ *   so Aerie subscribes the caller to the same cells as it would without memoization.
+ * </p>
+ * <p>
+ *   Only reads of mutable resources are tracked. Dynamics are not remembered when computing them read no mutable
+ *   resource, or when they read a resource reported through {@link Memoization#recordUntrackedRead()}.
+ *   Even so, the functions of a memoized derivation must not depend on any other state,
+ *   like a cell allocated directly through {@link gov.nasa.jpl.aerie.merlin.framework.CellRef},
+ *   or it may keep returning dynamics computed before that state changed.
+ * </p>
+ *
+ * @see ResourceMonad#memoizeResources
+ */
+public final class Memoization {
+  private Memoization() {}
+
+  // The reads of the memoized resources being computed on this thread, innermost first.
+  private static final ThreadLocal<ArrayDeque<Reads>> READS = ThreadLocal.withInitial(ArrayDeque::new);
+
+  /** The mutable resources read while computing a memoized resource, and the dynamics each of them returned. */
+  private static final class Reads {
+    private final IdentityHashMap<Resource<?>, Object> dynamics = new IdentityHashMap<>();
+    private boolean untracked = false;
+
+    void add(final Resource<?> source, final Object sourceDynamics) {
+      this.dynamics.putIfAbsent(source, sourceDynamics);
+    }
+  }
+
+  private record Entry<D>(ErrorCatching<Expiring<D>> dynamics, Resource<?>[] sources, Object[] sourceDynamics) {}
+
+  private static final class Memoized<D> implements Resource<D> {
+    private final Resource<D> resource;
+    // Replaced as a whole, so that threads sampling this resource concurrently never see a partial entry.
+    private volatile Entry<D> entry = null;
+
+    Memoized(final Resource<D> resource) {
+      this.resource = resource;
+    }
+
+    @Override
+    public ErrorCatching<Expiring<D>> getDynamics() {
+      final var entry = this.entry;
+      // Checking the entry reads its sources, which records them as reads of any enclosing memoized resource.
+      if (entry != null && isCurrent(entry)) return entry.dynamics();
+
+      final var stack = READS.get();
+      final var reads = new Reads();
+      final ErrorCatching<Expiring<D>> dynamics;
+      stack.push(reads);
+      try {
+        dynamics = this.resource.getDynamics();
+      } finally {
+        stack.pop();
+      }
+
+      final var enclosingReads = stack.peek();
+      if (enclosingReads != null) {
+        reads.dynamics.forEach(enclosingReads::add);
+        enclosingReads.untracked |= reads.untracked;
+      }
+
+      // Without any tracked source, nothing would tell these dynamics apart from those of a later computation.
+      if (reads.untracked || reads.dynamics.isEmpty()) {
+        this.entry = null;
+        return dynamics;
+      }
+
+      final var sources = new Resource<?>[reads.dynamics.size()];
+      final var sourceDynamics = new Object[sources.length];
+      int i = 0;
+      for (final var read : reads.dynamics.entrySet()) {
+        sources[i] = read.getKey();
+        sourceDynamics[i] = read.getValue();
+        ++i;
+      }
+      this.entry = new Entry<>(dynamics, sources, sourceDynamics);
+      return dynamics;
+    }
+  }
+
+  /**
+   * Memoize a derived resource. See {@link Memoization}.
+   */
+  public static <D> Resource<D> memoize(Resource<D> resource) {
+    return new Memoized<>(resource);
+  }
+
+  /**
+   * Whether reads of this resource are tracked, i.e. whether it's a mutable resource or a memoized resource.
+   */
+  public static boolean isTracked(ThinResource<?> resource) {
+    return resource instanceof MutableResource<?> || resource instanceof Memoized<?>;
+  }
+
+  /**
+   * Record that the memoized resource being computed on this thread, if any, read a resource that isn't tracked,
+   * so that neither it nor the memoized resources reading it remember the dynamics they compute.
+   */
+  public static void recordUntrackedRead() {
+    final var reads = READS.get().peek();
+    if (reads != null) reads.untracked = true;
+  }
+
+  /**
+   * Record that a mutable resource returned the given dynamics,
+   * as a read of the memoized resource being computed on this thread, if any.
+   */
+  static void recordRead(Resource<?> source, Object sourceDynamics) {
+    final var reads = READS.get().peek();
+    if (reads != null) reads.add(source, sourceDynamics);
+  }
+
+  private static boolean isCurrent(Entry<?> entry) {
+    for (int i = 0; i < entry.sources().length; ++i) {
+      if (entry.sources()[i].getDynamics() != entry.sourceDynamics()[i]) return false;
+    }
+    return true;
+  }
+}
@@ -56,7 +56,10 @@ public interface MutableResource<D extends Dynamics<?, D>> extends Resource<D> {
 
       @Override
       public ErrorCatching<Expiring<D>> getDynamics() {
-        return cell.get().dynamics;
+        final var dynamics = cell.get().dynamics;
+        // The cell replaces its dynamics whenever it changes, so they identify its version to memoized resources.
+        Memoization.recordRead(this, dynamics);
+        return dynamics;
       }
     };
     if (MutableResourceFlags.DETECT_BUSY_CELLS) {
@@ -2,13 +2,16 @@ package gov.nasa.jpl.aerie.contrib.streamline.core.monads;
 
 import gov.nasa.jpl.aerie.contrib.streamline.core.ErrorCatching;
 import gov.nasa.jpl.aerie.contrib.streamline.core.Expiring;
+import gov.nasa.jpl.aerie.contrib.streamline.core.Memoization;
 import gov.nasa.jpl.aerie.contrib.streamline.core.Resource;
 import gov.nasa.jpl.aerie.contrib.streamline.core.ThinResource;
 import gov.nasa.jpl.aerie.contrib.streamline.debugging.Profiling;
 import gov.nasa.jpl.aerie.contrib.streamline.utils.*;
+import gov.nasa.jpl.aerie.merlin.framework.Scoped;
 import org.apache.commons.lang3.function.TriFunction;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -46,14 +49,72 @@ public final class ResourceMonad {
     profileAllResources = true;
   }
 
+  private static final Scoped<Boolean> memoizeResources = Scoped.create();
+  /**
+   * Turn memoization of {@link Resource}s derived through {@link ResourceMonad} on or off,
+   * returning an {@link AutoCloseable} restoring the previous setting on close. It's off by default.
+   *
+   * <p>
+   *     Applies to resources derived on this thread until the returned token is closed,
+   *     so a model can memoize the resources it derives while it's constructed:
+   * </p>
+   * <pre>
+   * try (final var memoization = ResourceMonad.memoizeResources(true)) {
+   *   // derive resources...
+   * }
+   * </pre>
+   * <p>
+   *     Only derivations whose operands are mutable, memoized, or constant resources are memoized.
+   *     See {@link Memoization} for what memoization does, and what it requires of derivations.
+   * </p>
+   */
+  public static Scoped.UndoToken<Boolean> memoizeResources(boolean memoize) {
+    return memoizeResources.set(memoize);
+  }
+
+  private static boolean memoizingResources() {
+    try {
+      return memoizeResources.get();
+    } catch (Scoped.EmptyDynamicCellException e) {
+      return false;
+    }
+  }
+
+  private static <A> Resource<A> derived(Resource<A> resource, Collection<? extends ThinResource<?>> operands) {
+    if (!memoizingResources()) return resource;
+    // Reads through any other resource wouldn't be tracked, so the memoized dynamics could go stale.
+    for (final var operand : operands) {
+      if (!isTracked(operand)) return resource;
+    }
+    return Memoization.memoize(resource);
+  }
+
+  private static boolean isTracked(ThinResource<?> resource) {
+    return resource instanceof Constant<?> || Memoization.isTracked(resource);
+  }
+
+  /** A resource that always returns the same dynamics, so that it needn't be tracked by memoized resources. */
+  private static final class Constant<A> implements Resource<A> {
+    private final ErrorCatching<Expiring<A>> dynamics;
+
+    Constant(final ErrorCatching<Expiring<A>> dynamics) {
+      this.dynamics = dynamics;
+    }
+
+    @Override
+    public ErrorCatching<Expiring<A>> getDynamics() {
+      return this.dynamics;
+    }
+  }
+
   public static <A> Resource<A> pure(A a) {
-    Resource<A> result = ThinResourceMonad.pure(DynamicsMonad.pure(a))::getDynamics;
+    Resource<A> result = new Constant<>(DynamicsMonad.pure(a));
     if (profileAllResources) result = profile(result);
     return result;
   }
 
   public static <A, B> Resource<B> apply(Resource<A> a, Resource<Function<A, B>> f) {
-    Resource<B> result = ThinResourceMonad.apply(a, ThinResourceMonad.map(f, DynamicsMonad::apply))::getDynamics;
+    Resource<B> result = derived(ThinResourceMonad.apply(a, ThinResourceMonad.map(f, DynamicsMonad::apply))::getDynamics, List.of(a, f));
     addDependency(result, a);
     addDependency(result, f);
     if (profileAllResources) result = profile(result);
@@ -61,7 +122,13 @@ public final class ResourceMonad {
   }
 
   private static <A> ThinResource<ErrorCatching<Expiring<A>>> distribute(ErrorCatching<Expiring<ThinResource<A>>> a) {
-    return () -> DynamicsMonad.map(a, ThinResource::getDynamics);
+    return () -> DynamicsMonad.map(a, ResourceMonad::read);
+  }
+
+  // The resource to read is only known once the outer resource is sampled, so memoization can only check it then.
+  private static <A> A read(ThinResource<A> resource) {
+    if (!isTracked(resource)) Memoization.recordUntrackedRead();
+    return resource.getDynamics();
   }
 
   public static <A> Resource<A> join(Resource<Resource<A>> a) {
@@ -69,7 +136,7 @@ public final class ResourceMonad {
     ThinResource<ErrorCatching<Expiring<ThinResource<ErrorCatching<Expiring<A>>>>>> a$ = map(a, $ -> $);
     // Then use distributivity and basic joins to collapse the type.
     // The ::getDynamics at the end up-converts back to Resource, from ThinResource
-    Resource<A> result = ThinResourceMonad.map(ThinResourceMonad.join(ThinResourceMonad.map(a$, ResourceMonad::distribute)), DynamicsMonad::join)::getDynamics;
+    Resource<A> result = derived(ThinResourceMonad.map(ThinResourceMonad.join(ThinResourceMonad.map(a$, ResourceMonad::distribute)), DynamicsMonad::join)::getDynamics, List.of(a));
     addDependency(result, a);
     if (profileAllResources) result = profile(result);
     return result;
@@ -115,7 +182,7 @@ public final class ResourceMonad {
    * @see ResourceMonad#reduce(Collection, ErrorCatching, BiFunction, String)
    */
   public static <A> Resource<A> reduce(Collection<? extends Resource<A>> operands, ErrorCatching<Expiring<A>> identity, BiFunction<ErrorCatching<Expiring<A>>, ErrorCatching<Expiring<A>>, ErrorCatching<Expiring<A>>> f) {
-    Resource<A> result = ThinResourceMonad.reduce(operands, identity, f)::getDynamics;
+    Resource<A> result = derived(ThinResourceMonad.reduce(operands, identity, f)::getDynamics, operands);
     operands.forEach(op -> addDependency(result, op));
     return result;
   }
@@ -134,11 +201,11 @@ public final class ResourceMonad {
 
   // Not strictly part of this monad, but commonly used to "fill the gap" when deriving resources with partial bindings
   public static <A> Resource<A> pure(Expiring<A> a) {
-    return ThinResourceMonad.pure(ErrorCatchingMonad.pure(a))::getDynamics;
+    return new Constant<>(ErrorCatchingMonad.pure(a));
   }
 
   public static <A> Resource<A> pure(ErrorCatching<Expiring<A>> a) {
-    return ThinResourceMonad.pure(a)::getDynamics;
+    return new Constant<>(a);
   }
 
   // GENERATED CODE START
@@ -12,14 +12,20 @@ public final class Logging {
      */
     public static Logger LOGGER;
 
+    // The registrar LOGGER was built with. Models loaded from the same classes share LOGGER,
+    // so a model built with another registrar needs a logger of its own.
+    private static Registrar LOGGER_REGISTRAR;
+
     /**
      * Initialize the primary logger.
      * This is called when constructing a {@link gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar},
      * and does not need to be called directly by the model.
+     * Initializing a new model replaces the logger of any model built before it.
      */
     public static void init(final Registrar registrar) {
-        if (LOGGER == null) {
+        if (LOGGER == null || LOGGER_REGISTRAR != registrar) {
             LOGGER = new Logger(registrar);
+            LOGGER_REGISTRAR = registrar;
         } else {
             LOGGER.warning("Attempting to re-initialize primary logger. This attempt is being ignored.");
         }
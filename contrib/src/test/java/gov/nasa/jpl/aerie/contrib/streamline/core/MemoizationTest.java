@@ -0,0 +1,127 @@
+package gov.nasa.jpl.aerie.contrib.streamline.core;
+
+import gov.nasa.jpl.aerie.contrib.streamline.core.monads.DynamicsMonad;
+import gov.nasa.jpl.aerie.contrib.streamline.core.monads.ResourceMonad;
+import gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete;
+import gov.nasa.jpl.aerie.merlin.framework.Registrar;
+import gov.nasa.jpl.aerie.merlin.framework.junit.MerlinExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource.resource;
+import static gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource.set;
+import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete.discrete;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.DiscreteResources.constant;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.monads.DiscreteResourceMonad.bind;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.monads.DiscreteResourceMonad.map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MerlinExtension.class)
+@TestInstance(Lifecycle.PER_CLASS)
+class MemoizationTest {
+  private final MutableResource<Discrete<Integer>> x = resource(discrete(1));
+  private final MutableResource<Discrete<Integer>> y = resource(discrete(10));
+  private final MutableResource<Discrete<Boolean>> useX = resource(discrete(true));
+
+  // State that isn't held in a mutable resource, so memoized resources can't tell when it changes.
+  private final int[] external = {100};
+  private final Resource<Discrete<Integer>> untracked = () -> DynamicsMonad.pure(discrete(external[0]));
+
+  private final AtomicInteger sumEvaluations = new AtomicInteger();
+  private final AtomicInteger unmemoizedSumEvaluations = new AtomicInteger();
+  // Derived outside of ResourceMonad.memoizeResources, so it's not memoized.
+  private final Resource<Discrete<Integer>> unmemoizedSum = map(x, y, (x$, y$) -> {
+    unmemoizedSumEvaluations.incrementAndGet();
+    return x$ + y$;
+  });
+
+  private final Resource<Discrete<Integer>> sum;
+  private final Resource<Discrete<Integer>> doubledSum;
+  private final Resource<Discrete<Integer>> chosen;
+  private final Resource<Discrete<Integer>> sumWithUntracked;
+  private final Resource<Discrete<Integer>> chosenOrUntracked;
+  private final Resource<Discrete<Integer>> doubledChosenOrUntracked;
+  private final Resource<Discrete<Integer>> constantPlusExternal;
+
+  public MemoizationTest(final Registrar registrar) {
+    Resources.init();
+    try (final var memoization = ResourceMonad.memoizeResources(true)) {
+      sum = map(x, y, (x$, y$) -> {
+        sumEvaluations.incrementAndGet();
+        return x$ + y$;
+      });
+      doubledSum = map(sum, s -> 2 * s);
+      chosen = bind(useX, u -> u ? x : y);
+      sumWithUntracked = map(x, untracked, Integer::sum);
+      chosenOrUntracked = bind(useX, u -> u ? x : untracked);
+      doubledChosenOrUntracked = map(chosenOrUntracked, v -> 2 * v);
+      constantPlusExternal = map(constant(1), c -> c + external[0]);
+    }
+  }
+
+  @Test
+  void reuses_derived_dynamics_while_sources_are_unchanged() {
+    set(x, discrete(currentValue(x) + 1));
+    final var before = sumEvaluations.get();
+    assertEquals(2 * (currentValue(x) + currentValue(y)), (int) currentValue(doubledSum));
+    assertEquals(2 * (currentValue(x) + currentValue(y)), (int) currentValue(doubledSum));
+    assertEquals(currentValue(x) + currentValue(y), (int) currentValue(sum));
+    assertEquals(1, sumEvaluations.get() - before);
+  }
+
+  @Test
+  void recomputes_derived_dynamics_when_a_source_changes() {
+    currentValue(doubledSum);
+    set(x, discrete(currentValue(x) + 5));
+    assertEquals(2 * (currentValue(x) + currentValue(y)), (int) currentValue(doubledSum));
+    set(y, discrete(currentValue(y) - 3));
+    assertEquals(2 * (currentValue(x) + currentValue(y)), (int) currentValue(doubledSum));
+  }
+
+  @Test
+  void tracks_sources_read_through_bound_resources() {
+    set(useX, discrete(true));
+    assertEquals(currentValue(x), currentValue(chosen));
+    set(x, discrete(currentValue(x) + 1));
+    assertEquals(currentValue(x), currentValue(chosen));
+    set(useX, discrete(false));
+    assertEquals(currentValue(y), currentValue(chosen));
+    set(y, discrete(currentValue(y) + 1));
+    assertEquals(currentValue(y), currentValue(chosen));
+  }
+
+  @Test
+  void does_not_memoize_unless_asked_to() {
+    final var before = unmemoizedSumEvaluations.get();
+    assertEquals(currentValue(x) + currentValue(y), (int) currentValue(unmemoizedSum));
+    assertEquals(currentValue(x) + currentValue(y), (int) currentValue(unmemoizedSum));
+    assertEquals(2, unmemoizedSumEvaluations.get() - before);
+  }
+
+  @Test
+  void does_not_memoize_derivations_reading_untracked_resources() {
+    assertEquals(currentValue(x) + external[0], (int) currentValue(sumWithUntracked));
+    external[0] += 1;
+    assertEquals(currentValue(x) + external[0], (int) currentValue(sumWithUntracked));
+
+    // The untracked resource is only read once the bound resource is sampled.
+    set(useX, discrete(false));
+    assertEquals(external[0], (int) currentValue(chosenOrUntracked));
+    assertEquals(2 * external[0], (int) currentValue(doubledChosenOrUntracked));
+    external[0] += 1;
+    assertEquals(external[0], (int) currentValue(chosenOrUntracked));
+    assertEquals(2 * external[0], (int) currentValue(doubledChosenOrUntracked));
+  }
+
+  @Test
+  void does_not_memoize_derivations_reading_no_sources() {
+    assertEquals(1 + external[0], (int) currentValue(constantPlusExternal));
+    external[0] += 1;
+    assertEquals(1 + external[0], (int) currentValue(constantPlusExternal));
+  }
+}
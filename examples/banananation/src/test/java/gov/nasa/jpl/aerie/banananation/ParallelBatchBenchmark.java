@@ -0,0 +1,99 @@
+package gov.nasa.jpl.aerie.banananation;
+
+import gov.nasa.jpl.aerie.banananation.generated.GeneratedModelType;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.HOURS;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
+
+/**
+ * Compares serial and parallel batch execution on a banananation plan in which thousands of activities start at the
+ * same few instants. Pass the number of activities and the number of threads as arguments.
+ */
+public final class ParallelBatchBenchmark {
+  private static Map<ActivityDirectiveId, ActivityDirective> buildSchedule(final int activityCount) {
+    final var schedule = new HashMap<ActivityDirectiveId, ActivityDirective>();
+    for (var i = 0; i < activityCount; i++) {
+      final var activity = switch (i % 3) {
+        case 0 -> new SerializedActivity("BiteBanana", Map.of("biteSize", SerializedValue.of(0.01)));
+        case 1 -> new SerializedActivity("GrowBanana", Map.of(
+            "quantity", SerializedValue.of(1),
+            "growingDuration", SerializedValue.of(Duration.of(30, MINUTES).in(Duration.MICROSECONDS))));
+        default -> new SerializedActivity("PeelBanana", Map.of("peelDirection", SerializedValue.of("fromStem")));
+      };
+      // Stack the activities on a handful of instants, so that each batch is wide.
+      final var startOffset = Duration.of(i % 10, MINUTES);
+      schedule.put(new ActivityDirectiveId(i), new ActivityDirective(startOffset, activity, null, true));
+    }
+    return schedule;
+  }
+
+  private static long timeSimulation(
+      final int parallelism,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Duration duration
+  ) {
+    final var dataPath = Path.of(SimulationUtility.class.getResource("data/lorem_ipsum.txt").getPath());
+    final var config = new Configuration(
+        Configuration.DEFAULT_PLANT_COUNT,
+        Configuration.DEFAULT_PRODUCER,
+        dataPath,
+        Configuration.DEFAULT_INITIAL_CONDITIONS);
+    final var missionModel = gov.nasa.jpl.aerie.orchestration.simulation.SimulationUtility.instantiateMissionModel(
+        new GeneratedModelType(),
+        Instant.EPOCH,
+        config);
+
+    final var before = System.nanoTime();
+    SimulationDriver.simulate(
+        missionModel,
+        schedule,
+        Instant.EPOCH,
+        duration,
+        Instant.EPOCH,
+        duration,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager(),
+        Optional.empty(),
+        parallelism);
+    return System.nanoTime() - before;
+  }
+
+  public static void main(final String[] args) {
+    final var activityCount = (args.length > 0) ? Integer.parseInt(args[0]) : 3000;
+    final var threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    final var duration = Duration.of(2, HOURS);
+    final var nbRuns = 5;
+
+    final var schedule = buildSchedule(activityCount);
+
+    // Warm up both paths before measuring.
+    timeSimulation(1, schedule, duration);
+    timeSimulation(threads, schedule, duration);
+
+    var totalSerial = 0L;
+    var totalParallel = 0L;
+    for (var i = 0; i < nbRuns; i++) {
+      totalSerial += timeSimulation(1, schedule, duration);
+      totalParallel += timeSimulation(threads, schedule, duration);
+    }
+
+    final var serialMillis = (float) totalSerial / nbRuns / 1_000_000;
+    final var parallelMillis = (float) totalParallel / nbRuns / 1_000_000;
+    System.out.println("activities=%d threads=%d: serial %.1f ms, parallel %.1f ms, speedup = %.2f".formatted(
+        activityCount, threads, serialMillis, parallelMillis, serialMillis / parallelMillis));
+  }
+}
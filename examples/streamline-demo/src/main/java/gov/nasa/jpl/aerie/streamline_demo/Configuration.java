@@ -10,6 +10,9 @@ public final class Configuration {
   @Parameter
   public boolean profileResources = false;
 
+  @Parameter
+  public boolean memoizeResources = false;
+
   @Parameter
   public double approximationTolerance = 1e-2;
 
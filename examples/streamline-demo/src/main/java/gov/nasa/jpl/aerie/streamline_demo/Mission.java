@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.streamline_demo;
 
 import gov.nasa.jpl.aerie.contrib.streamline.core.Resource;
+import gov.nasa.jpl.aerie.contrib.streamline.core.monads.ResourceMonad;
 import gov.nasa.jpl.aerie.contrib.streamline.debugging.Profiling;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
 import gov.nasa.jpl.aerie.merlin.framework.ModelActions;
@@ -14,9 +15,11 @@ public final class Mission {
     var registrar = new Registrar(registrar$, Registrar.ErrorBehavior.Log);
     if (config.traceResources) registrar.setTrace();
     if (config.profileResources) Resource.profileAllResources();
-    dataModel = new DataModel(registrar, config);
-    errorTestingModel = new ErrorTestingModel(registrar, config);
-    approximationModel = new ApproximationModel(registrar, config);
+    try (final var memoization = ResourceMonad.memoizeResources(config.memoizeResources)) {
+      dataModel = new DataModel(registrar, config);
+      errorTestingModel = new ErrorTestingModel(registrar, config);
+      approximationModel = new ApproximationModel(registrar, config);
+    }
     if (config.profilingDumpTime.isPositive()) {
       ModelActions.defer(config.profilingDumpTime, Profiling::dump);
     }
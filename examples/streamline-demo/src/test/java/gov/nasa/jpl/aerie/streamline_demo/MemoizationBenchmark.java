@@ -0,0 +1,102 @@
+package gov.nasa.jpl.aerie.streamline_demo;
+
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.orchestration.simulation.SimulationUtility;
+import gov.nasa.jpl.aerie.streamline_demo.generated.GeneratedModelType;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.Plan;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import gov.nasa.jpl.aerie.types.Timestamp;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.HOURS;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
+
+/**
+ * Compares simulating the streamline demo with and without memoized derived resources,
+ * on a plan that keeps changing the desired rates of the data model.
+ * Pass the number of activities and the simulated duration in hours as arguments.
+ */
+public final class MemoizationBenchmark {
+  private static Map<ActivityDirectiveId, ActivityDirective> buildSchedule(final int activityCount) {
+    final var buckets = new String[] {"A", "B", "C"};
+    final var schedule = new HashMap<ActivityDirectiveId, ActivityDirective>();
+    for (var i = 0; i < activityCount; i++) {
+      // Alternate filling and draining each bucket, so the solver keeps hitting its bounds.
+      final var rate = (i % 2 == 0) ? 1.0 + (i % 7) / 10.0 : -1.5;
+      final var activity = new SerializedActivity("ChangeDesiredRate", Map.of(
+          "bucket", SerializedValue.of(buckets[i % buckets.length]),
+          "rate", SerializedValue.of(rate)));
+      schedule.put(new ActivityDirectiveId(i), new ActivityDirective(Duration.of(i, MINUTES), activity, null, true));
+    }
+    return schedule;
+  }
+
+  private static SimulationResults simulate(
+      final boolean memoize,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Duration duration
+  ) {
+    final var config = new Configuration();
+    config.memoizeResources = memoize;
+    final var missionModel = SimulationUtility.instantiateMissionModel(new GeneratedModelType(), Instant.EPOCH, config);
+
+    final var plan = new Plan(
+        "plan",
+        new Timestamp(Instant.EPOCH),
+        new Timestamp(Instant.EPOCH.plus(duration.in(Duration.MICROSECOND), ChronoUnit.MICROS)),
+        schedule,
+        Map.of());
+
+    try (final var simUtil = new SimulationUtility()) {
+      return simUtil.simulate(missionModel, plan).get();
+    } catch (ExecutionException | InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static long timeSimulation(
+      final boolean memoize,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Duration duration
+  ) {
+    final var before = System.nanoTime();
+    simulate(memoize, schedule, duration);
+    return System.nanoTime() - before;
+  }
+
+  public static void main(final String[] args) {
+    final var activityCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+    final var duration = Duration.of((args.length > 1) ? Integer.parseInt(args[1]) : 24, HOURS);
+    final var nbRuns = 5;
+
+    final var schedule = buildSchedule(activityCount);
+
+    // Memoization must not change the results, only how quickly they're computed.
+    final var plain = simulate(false, schedule, duration);
+    final var memoized = simulate(true, schedule, duration);
+    if (!plain.realProfiles.equals(memoized.realProfiles) || !plain.discreteProfiles.equals(memoized.discreteProfiles)) {
+      throw new AssertionError("Memoized resources produced different profiles");
+    }
+
+    var totalPlain = 0L;
+    var totalMemoized = 0L;
+    for (var i = 0; i < nbRuns; i++) {
+      totalPlain += timeSimulation(false, schedule, duration);
+      totalMemoized += timeSimulation(true, schedule, duration);
+    }
+
+    final var plainMillis = (float) totalPlain / nbRuns / 1_000_000;
+    final var memoizedMillis = (float) totalMemoized / nbRuns / 1_000_000;
+    System.out.println("activities=%d: plain %.1f ms, memoized %.1f ms, speedup = %.2f".formatted(
+        activityCount, plainMillis, memoizedMillis, plainMillis / memoizedMillis));
+  }
+}
@@ -0,0 +1,131 @@
+package gov.nasa.jpl.aerie.streamline_demo;
+
+import gov.nasa.jpl.aerie.merlin.driver.MissionModelLoader;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.model.MerlinPlugin;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.orchestration.simulation.SimulationUtility;
+import gov.nasa.jpl.aerie.streamline_demo.generated.GeneratedMerlinPlugin;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.Plan;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import gov.nasa.jpl.aerie.types.Timestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates the streamline demo repeatedly from a cached plugin,
+ * whose mission models share the static state of the streamline library.
+ */
+public final class MissionModelCacheTest {
+  private Path jar;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    this.jar = Files.createTempFile("streamline-demo", ".jar");
+    // The JAR only registers the plugin. Its classes are found through the loader's parent.
+    try (final var out = new JarOutputStream(Files.newOutputStream(this.jar))) {
+      out.putNextEntry(new JarEntry("META-INF/services/" + MerlinPlugin.class.getCanonicalName()));
+      out.write(GeneratedMerlinPlugin.class.getName().getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    MissionModelLoader.setCacheCapacity(1);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    MissionModelLoader.setCacheCapacity(0);
+    Files.delete(this.jar);
+  }
+
+  @Test
+  public void cachedModelSimulatesLikeTheFirst() throws Exception {
+    final var hitsBefore = MissionModelLoader.getCacheStatistics().hits();
+    final var first = simulate();
+    final var second = simulate();
+    assertEquals(1, MissionModelLoader.getCacheStatistics().hits() - hitsBefore);
+
+    assertEquals(first.realProfiles, second.realProfiles);
+    assertEquals(first.discreteProfiles, second.discreteProfiles);
+    // The error caused by the plan is logged by each simulation, not only by the model first loaded.
+    assertTrue(loggedErrors(first) > 0);
+    assertEquals(loggedErrors(first), loggedErrors(second));
+  }
+
+  private SimulationResults simulate() throws MissionModelLoader.MissionModelLoadException {
+    final var missionModel = MissionModelLoader.loadMissionModel(
+        Instant.EPOCH,
+        SerializedValue.of(Map.of()),
+        this.jar,
+        "streamline-demo",
+        "1");
+
+    final var causeError = new SerializedActivity("CauseError", Map.of(
+        "selection", SerializedValue.of("Counter")));
+    final var plan = new Plan(
+        "plan",
+        new Timestamp(Instant.EPOCH),
+        new Timestamp(Instant.EPOCH.plus(Duration.of(4, HOURS).in(Duration.MICROSECOND), ChronoUnit.MICROS)),
+        Map.of(new ActivityDirectiveId(0), new ActivityDirective(Duration.ZERO, causeError, null, true)),
+        Map.of());
+
+    try (final var simUtil = new SimulationUtility()) {
+      return simUtil.simulate(missionModel, plan).get();
+    } catch (ExecutionException | InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static int loggedErrors(final SimulationResults results) {
+    final var topic = results.topics.stream()
+        .filter(t -> t.getMiddle().equals("ERROR"))
+        .findFirst()
+        .orElseThrow()
+        .getLeft();
+
+    final var count = new EffectTrait<Integer>() {
+      @Override
+      public Integer empty() {
+        return 0;
+      }
+
+      @Override
+      public Integer sequentially(final Integer prefix, final Integer suffix) {
+        return prefix + suffix;
+      }
+
+      @Override
+      public Integer concurrently(final Integer left, final Integer right) {
+        return left + right;
+      }
+    };
+
+    var errors = 0;
+    for (final var graphs : results.events.values()) {
+      for (final var graph : graphs) {
+        errors += graph.evaluate(count, (EventRecord event) -> (event.topicId() == topic) ? 1 : 0);
+      }
+    }
+    return errors;
+  }
+}
@@ -9,16 +9,53 @@ import gov.nasa.jpl.aerie.types.ActivityDirective;
 import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * @param directivesByContent the ids of {@link #activityDirectives}, grouped by directive,
+ *                            so that a directive can be matched against the cache without scanning it
+ */
 public record CachedSimulationEngine(
       Duration endsAt,
       Map<ActivityDirectiveId, ActivityDirective> activityDirectives,
       SimulationEngine simulationEngine,
       Topic<ActivityDirectiveId> activityTopic,
       MissionModel<?> missionModel,
-      InMemorySimulationResourceManager resourceManager
+      InMemorySimulationResourceManager resourceManager,
+      Map<ActivityDirective, List<ActivityDirectiveId>> directivesByContent
   ) {
+  public CachedSimulationEngine(
+      final Duration endsAt,
+      final Map<ActivityDirectiveId, ActivityDirective> activityDirectives,
+      final SimulationEngine simulationEngine,
+      final Topic<ActivityDirectiveId> activityTopic,
+      final MissionModel<?> missionModel,
+      final InMemorySimulationResourceManager resourceManager
+  ) {
+    this(
+        endsAt,
+        activityDirectives,
+        simulationEngine,
+        activityTopic,
+        missionModel,
+        resourceManager,
+        indexByContent(activityDirectives));
+  }
+
+  private static Map<ActivityDirective, List<ActivityDirectiveId>> indexByContent(
+      final Map<ActivityDirectiveId, ActivityDirective> activityDirectives
+  ) {
+    final var index = new HashMap<ActivityDirective, List<ActivityDirectiveId>>(activityDirectives.size());
+    for (final var entry : activityDirectives.entrySet()) {
+      index.computeIfAbsent(entry.getValue(), $ -> new ArrayList<>(1)).add(entry.getKey());
+    }
+    return Collections.unmodifiableMap(index);
+  }
+
   public void freeze() {
     simulationEngine.close();
   }
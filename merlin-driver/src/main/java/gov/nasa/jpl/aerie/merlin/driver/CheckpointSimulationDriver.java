@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,35 +48,45 @@ public class CheckpointSimulationDriver {
       final Duration planDuration
   ) {
     Optional<CachedSimulationEngine> bestCandidate = Optional.empty();
-    final Map<ActivityDirectiveId, ActivityDirectiveId> correspondenceMap = new HashMap<>();
+    Map<ActivityDirectiveId, ActivityDirectiveId> correspondenceMap = Map.of();
     final var minimumStartTimes = getMinimumStartTimes(schedule, planDuration);
+    // Cached engines saved by the same simulation run share their directives, so compute their start times only once.
+    final var minimumStartTimesByCache = new IdentityHashMap<Map<ActivityDirectiveId, ActivityDirective>, Map<ActivityDirectiveId, Duration>>();
+    minimumStartTimesByCache.put(schedule, minimumStartTimes);
     for (final var cachedEngine : cachedEngines) {
       if (bestCandidate.isPresent() && cachedEngine.endsAt().noLongerThan(bestCandidate.get().endsAt()))
         continue;
 
-      final var activityDirectivesInCache = new HashMap<>(cachedEngine.activityDirectives());
       // Find the invalidation time
       var invalidationTime = Duration.MAX_VALUE;
-      final var scheduledActivities = new HashMap<>(schedule);
-      for (final var activity : scheduledActivities.entrySet()) {
-        final var entryToRemove = activityDirectivesInCache.entrySet()
-                                                           .stream()
-                                                           .filter(e -> e.getValue().equals(activity.getValue()))
-                                                           .findFirst();
-        if (entryToRemove.isPresent()) {
-          final var entry = entryToRemove.get();
-          activityDirectivesInCache.remove(entry.getKey());
-          correspondenceMap.put(activity.getKey(), entry.getKey());
+      final var candidateCorrespondence = new HashMap<ActivityDirectiveId, ActivityDirectiveId>();
+      // The number of cached directives with a given content which have been matched so far.
+      final var matchCounts = new HashMap<ActivityDirective, Integer>();
+      for (final var activity : schedule.entrySet()) {
+        final var matches = cachedEngine.directivesByContent().getOrDefault(activity.getValue(), List.of());
+        final var matchCount = matchCounts.getOrDefault(activity.getValue(), 0);
+        if (matchCount < matches.size()) {
+          matchCounts.put(activity.getValue(), matchCount + 1);
+          candidateCorrespondence.put(activity.getKey(), matches.get(matchCount));
         } else {
           invalidationTime = min(invalidationTime, minimumStartTimes.get(activity.getKey()));
         }
       }
-      final var allActs = new HashMap<ActivityDirectiveId, ActivityDirective>();
-      allActs.putAll(cachedEngine.activityDirectives());
-      allActs.putAll(scheduledActivities);
-      final var minimumStartTimeOfActsInCache = getMinimumStartTimes(allActs, planDuration);
-      for (final var activity : activityDirectivesInCache.entrySet()) {
-        invalidationTime = min(invalidationTime, minimumStartTimeOfActsInCache.get(activity.getKey()));
+      if (candidateCorrespondence.size() < cachedEngine.activityDirectives().size()) {
+        final var minimumStartTimeOfActsInCache = minimumStartTimesByCache.computeIfAbsent(
+            cachedEngine.activityDirectives(),
+            $ -> {
+              final var allActs = new HashMap<ActivityDirectiveId, ActivityDirective>();
+              allActs.putAll(cachedEngine.activityDirectives());
+              allActs.putAll(schedule);
+              return getMinimumStartTimes(allActs, planDuration);
+            });
+        for (final var entry : cachedEngine.directivesByContent().entrySet()) {
+          final var ids = entry.getValue();
+          for (int i = matchCounts.getOrDefault(entry.getKey(), 0); i < ids.size(); i++) {
+            invalidationTime = min(invalidationTime, minimumStartTimeOfActsInCache.get(ids.get(i)));
+          }
+        }
       }
       // (1) cachedEngine ends strictly after bestCandidate as per first line of this loop
       // and they both end  before the invalidation time: (2) the bestCandidate has already passed its invalidation time
@@ -83,12 +94,14 @@ public class CheckpointSimulationDriver {
       // (1) + (3) -> cachedEngine is strictly better than bestCandidate
       if (cachedEngine.endsAt().shorterThan(invalidationTime)) {
         bestCandidate = Optional.of(cachedEngine);
+        correspondenceMap = candidateCorrespondence;
       }
     }
 
     bestCandidate.ifPresent(cachedSimulationEngine -> LOGGER.info("Re-using simulation engine at "
                                                                   + cachedSimulationEngine.endsAt()));
-    return bestCandidate.map(cachedSimulationEngine -> Pair.of(cachedSimulationEngine, correspondenceMap));
+    final var bestCorrespondence = correspondenceMap;
+    return bestCandidate.map(cachedSimulationEngine -> Pair.of(cachedSimulationEngine, bestCorrespondence));
   }
 
 
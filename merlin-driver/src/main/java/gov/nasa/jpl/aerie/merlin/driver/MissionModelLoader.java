@@ -8,15 +8,74 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.jar.JarFile;
 
 public final class MissionModelLoader {
+    /**
+     * Identifies the contents of a mission model JAR, so that a JAR replaced at the same path is loaded anew.
+     */
+    private record CacheKey(Path path, String checksum, String name, String version) {}
+
+    public record CacheStatistics(long hits, long misses, int size, int capacity) {}
+
+    private static int cacheCapacity = 0;
+    private static long cacheHits = 0;
+    private static long cacheMisses = 0;
+
+    /**
+     * Loaded mission model plugins, least recently used first. Reusing a plugin reuses its class loader,
+     * so that the mission model's classes are loaded and compiled only once.
+     * Evicted class loaders are not closed, since mission models loaded from them may still be in use.
+     *
+     * Mission models loaded from the same plugin share the static state of their classes, so the cache is disabled
+     * unless a capacity is set. It is only safe for processes that never run two mission models from the same JAR at once.
+     */
+    private static final LinkedHashMap<CacheKey, MerlinPlugin> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CacheKey, MerlinPlugin> eldest) {
+            return this.size() > cacheCapacity;
+        }
+    };
+
+    /**
+     * Set the number of mission model plugins kept loaded. A capacity of zero, the default, disables caching.
+     *
+     * Mission models loaded while caching share the static state of their classes with every other mission model
+     * loaded from the same JAR, so caching must only be enabled if those mission models are never used concurrently.
+     */
+    public static void setCacheCapacity(final int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("The mission model cache capacity cannot be negative");
+
+        synchronized (cache) {
+            cacheCapacity = capacity;
+            final var iterator = cache.entrySet().iterator();
+            while (cache.size() > capacity) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    public static CacheStatistics getCacheStatistics() {
+        synchronized (cache) {
+            return new CacheStatistics(cacheHits, cacheMisses, cache.size(), cacheCapacity);
+        }
+    }
+
     public static ModelType<?, ?> loadModelType(final Path path, final String name, final String version)
     throws MissionModelLoadException
     {
@@ -58,8 +117,34 @@ public final class MissionModelLoader {
         }
     }
 
+    /**
+     * Load the {@link MerlinPlugin} of a mission model JAR, reusing the plugin loaded by a previous call
+     * if the JAR at the given path has not changed since.
+     */
     public static MerlinPlugin loadMissionModelProvider(final Path path, final String name, final String version)
     throws MissionModelLoadException
+    {
+        final var key = new CacheKey(path.toAbsolutePath().normalize(), getChecksum(path, name, version), name, version);
+        synchronized (cache) {
+            final var plugin = cache.get(key);
+            if (plugin != null) {
+                cacheHits += 1;
+                return plugin;
+            }
+            cacheMisses += 1;
+        }
+
+        // Load outside the lock, so that loading one mission model does not hold up requests for another.
+        final var plugin = loadUncachedMissionModelProvider(path, name, version);
+        synchronized (cache) {
+            // If the same JAR was loaded concurrently, share the plugin that was cached first.
+            final var existing = cache.putIfAbsent(key, plugin);
+            return (existing != null) ? existing : plugin;
+        }
+    }
+
+    private static MerlinPlugin loadUncachedMissionModelProvider(final Path path, final String name, final String version)
+    throws MissionModelLoadException
     {
         // Look for a MerlinPlugin implementor in the mission model. For correctness, we're assuming there's
         // only one matching MerlinMissionModel in any given mission model.
@@ -100,6 +185,24 @@ public final class MissionModelLoader {
         }
     }
 
+    private static String getChecksum(final Path jarPath, final String name, final String version)
+    throws MissionModelLoadException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256.
+            throw new Error(ex);
+        }
+
+        try (final var inputStream = new DigestInputStream(Files.newInputStream(jarPath), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (final IOException ex) {
+            throw new MissionModelLoadException(jarPath, name, version, ex);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     private static URL missionModelPathToUrl(final Path path) {
         try {
             return path.toUri().toURL();
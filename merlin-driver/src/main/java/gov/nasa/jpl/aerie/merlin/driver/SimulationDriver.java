@@ -1,5 +1,6 @@
 package gov.nasa.jpl.aerie.merlin.driver;
 
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.engine.SimulationEngine;
 import gov.nasa.jpl.aerie.merlin.driver.engine.SpanException;
 import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
@@ -21,6 +22,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -57,7 +59,179 @@ public final class SimulationDriver {
       final Consumer<Duration> simulationExtentConsumer,
       final SimulationResourceManager resourceManager
   ) {
-    try (final var engine = new SimulationEngine(missionModel.getInitialCells())) {
+    return simulate(
+        missionModel,
+        schedule,
+        simulationStartTime,
+        simulationDuration,
+        planStartTime,
+        planDuration,
+        simulationCanceled,
+        simulationExtentConsumer,
+        resourceManager,
+        Optional.empty());
+  }
+
+  /**
+   * Simulates a plan, recording the time spent on each of the engine's jobs into the given profiler, if any.
+   * The profiler's entries are resolved once simulation ends, whether or not it succeeds.
+   */
+  public static <Model> SimulationResults simulate(
+      final MissionModel<Model> missionModel,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Instant simulationStartTime,
+      final Duration simulationDuration,
+      final Instant planStartTime,
+      final Duration planDuration,
+      final Supplier<Boolean> simulationCanceled,
+      final Consumer<Duration> simulationExtentConsumer,
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler
+  ) {
+    return simulate(
+        missionModel,
+        schedule,
+        simulationStartTime,
+        simulationDuration,
+        planStartTime,
+        planDuration,
+        simulationCanceled,
+        simulationExtentConsumer,
+        resourceManager,
+        profiler,
+        1);
+  }
+
+  /**
+   * Simulates a plan, performing the jobs of each batch on up to `batchParallelism` threads.
+   * A batch parallelism greater than 1 is only safe for mission models whose tasks and resources are thread-safe;
+   * see {@link SimulationEngine} for what this rules out.
+   */
+  public static <Model> SimulationResults simulate(
+      final MissionModel<Model> missionModel,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Instant simulationStartTime,
+      final Duration simulationDuration,
+      final Instant planStartTime,
+      final Duration planDuration,
+      final Supplier<Boolean> simulationCanceled,
+      final Consumer<Duration> simulationExtentConsumer,
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler,
+      final int batchParallelism
+  ) {
+    return simulate(
+        missionModel,
+        schedule,
+        simulationStartTime,
+        simulationDuration,
+        planStartTime,
+        planDuration,
+        simulationCanceled,
+        simulationExtentConsumer,
+        resourceManager,
+        profiler,
+        batchParallelism,
+        (engine, activityTopic) -> engine.computeResults(
+            simulationStartTime,
+            activityTopic,
+            missionModel.getTopics(),
+            resourceManager));
+  }
+
+  /**
+   * Simulates a plan, streaming its results instead of collecting them into a {@link SimulationResults}.
+   * Resource profiles are streamed by the resource manager, while activities and events are streamed to the sink
+   * once simulation ends.
+   *
+   * @return the amount of time that was simulated, which is shorter than the simulation duration if it was canceled
+   */
+  public static <Model> Duration simulate(
+      final MissionModel<Model> missionModel,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Instant simulationStartTime,
+      final Duration simulationDuration,
+      final Instant planStartTime,
+      final Duration planDuration,
+      final Supplier<Boolean> simulationCanceled,
+      final Consumer<Duration> simulationExtentConsumer,
+      final SimulationResourceManager resourceManager,
+      final SimulationResultsSink resultsSink,
+      final Optional<EngineProfiler> profiler
+  ) {
+    return simulate(
+        missionModel,
+        schedule,
+        simulationStartTime,
+        simulationDuration,
+        planStartTime,
+        planDuration,
+        simulationCanceled,
+        simulationExtentConsumer,
+        resourceManager,
+        resultsSink,
+        profiler,
+        1);
+  }
+
+  /**
+   * Simulates a plan, streaming its results, and performing the jobs of each batch on up to `batchParallelism` threads.
+   *
+   * @return the amount of time that was simulated, which is shorter than the simulation duration if it was canceled
+   */
+  public static <Model> Duration simulate(
+      final MissionModel<Model> missionModel,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Instant simulationStartTime,
+      final Duration simulationDuration,
+      final Instant planStartTime,
+      final Duration planDuration,
+      final Supplier<Boolean> simulationCanceled,
+      final Consumer<Duration> simulationExtentConsumer,
+      final SimulationResourceManager resourceManager,
+      final SimulationResultsSink resultsSink,
+      final Optional<EngineProfiler> profiler,
+      final int batchParallelism
+  ) {
+    return simulate(
+        missionModel,
+        schedule,
+        simulationStartTime,
+        simulationDuration,
+        planStartTime,
+        planDuration,
+        simulationCanceled,
+        simulationExtentConsumer,
+        resourceManager,
+        profiler,
+        batchParallelism,
+        (engine, activityTopic) -> {
+          resourceManager.computeProfiles(engine.getElapsedTime());
+          engine.streamResults(simulationStartTime, activityTopic, missionModel.getTopics(), resultsSink);
+          return engine.getElapsedTime();
+        });
+  }
+
+  /** Extracts the results of a simulation from the engine that performed it. */
+  private interface ResultsExtractor<Results> {
+    Results extract(SimulationEngine engine, Topic<ActivityDirectiveId> activityTopic);
+  }
+
+  private static <Model, Results> Results simulate(
+      final MissionModel<Model> missionModel,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final Instant simulationStartTime,
+      final Duration simulationDuration,
+      final Instant planStartTime,
+      final Duration planDuration,
+      final Supplier<Boolean> simulationCanceled,
+      final Consumer<Duration> simulationExtentConsumer,
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler,
+      final int batchParallelism,
+      final ResultsExtractor<Results> resultsExtractor
+  ) {
+    try (final var engine = new SimulationEngine(missionModel.getInitialCells(), profiler, batchParallelism)) {
 
       /* The current real time. */
       simulationExtentConsumer.accept(Duration.ZERO);
@@ -124,10 +298,11 @@ public final class SimulationDriver {
         throw new SimulationException(engine.getElapsedTime(), simulationStartTime, ex.cause);
       } catch (Throwable ex) {
         throw new SimulationException(engine.getElapsedTime(), simulationStartTime, ex);
+      } finally {
+        engine.reportProfile(activityTopic, missionModel.getTopics());
       }
 
-      final var topics = missionModel.getTopics();
-      return engine.computeResults(simulationStartTime, activityTopic, topics, resourceManager);
+      return resultsExtractor.extract(engine, activityTopic);
     }
   }
 
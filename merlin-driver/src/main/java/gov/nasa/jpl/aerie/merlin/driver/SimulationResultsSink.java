@@ -0,0 +1,50 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.types.ActivityInstance;
+import gov.nasa.jpl.aerie.types.ActivityInstanceId;
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.List;
+
+/**
+ * A consumer of the activity and event results of a simulation, which receives them piece by piece
+ * instead of as a whole {@link SimulationResults}, so that they never need to be held in memory all at once.
+ * Resource profiles are streamed separately, by a {@link gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager}.
+ *
+ * <p>
+ *   The topics are accepted first, followed by every finished and unfinished activity, in no particular order,
+ *   followed by the serialized events, in order of increasing time.
+ * </p>
+ */
+public interface SimulationResultsSink {
+  /**
+   * Accept the descriptors of the topics that serialized events may refer to.
+   * @param topics the ID, name, and value schema of each topic
+   */
+  void acceptTopics(List<Triple<Integer, String, ValueSchema>> topics);
+
+  /**
+   * Accept an activity that finished during simulation.
+   * @param id the ID of the activity instance
+   * @param activity the finished activity
+   */
+  void acceptActivity(ActivityInstanceId id, ActivityInstance activity);
+
+  /**
+   * Accept an activity that was still running when simulation ended.
+   * @param id the ID of the activity instance
+   * @param activity the unfinished activity
+   */
+  void acceptUnfinishedActivity(ActivityInstanceId id, UnfinishedActivity activity);
+
+  /**
+   * Accept the serialized events committed at a given time. Called at most once per time.
+   * @param time the amount of time elapsed since the start of simulation. Strictly increasing on subsequent calls.
+   * @param events the event graphs committed at this time, in the order they were committed.
+   */
+  void acceptEvents(Duration time, List<EventGraph<EventRecord>> events);
+}
@@ -1,10 +1,9 @@
 package gov.nasa.jpl.aerie.merlin.driver.engine;
 
-import java.util.UUID;
-
-/** A typed wrapper for condition IDs. */
-public record ConditionId(String id) {
-  public static ConditionId generate() {
-    return new ConditionId(UUID.randomUUID().toString());
-  }
-}
+/**
+ * A typed wrapper for condition IDs.
+ *
+ * <p>IDs are allocated by the {@link SimulationEngine} that owns the condition, and are only unique within that engine
+ * and the engines duplicated from it.</p>
+ */
+public record ConditionId(long id) {}
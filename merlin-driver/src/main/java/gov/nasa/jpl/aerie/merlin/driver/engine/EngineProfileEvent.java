@@ -0,0 +1,34 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** A flight recorder event summarizing the time a simulation engine spent on one kind and key of job. */
+@Name("gov.nasa.jpl.aerie.EngineProfile")
+@Label("Simulation Engine Profile")
+@Category({"Aerie", "Simulation"})
+@Description("Wall time and call counts of the jobs performed by a simulation engine")
+@StackTrace(false)
+public final class EngineProfileEvent extends jdk.jfr.Event {
+  @Label("Job Kind")
+  public String kind;
+
+  @Label("Key")
+  @Description("The activity type of a task or condition, or the name of a resource")
+  public String key;
+
+  @Label("Calls")
+  public long calls;
+
+  @Label("Total Time")
+  @Timespan
+  public long totalNanos;
+
+  @Label("Maximum Time")
+  @Timespan
+  public long maxNanos;
+}
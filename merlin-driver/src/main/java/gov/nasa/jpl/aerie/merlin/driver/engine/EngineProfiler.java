@@ -0,0 +1,176 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Accumulates the wall time and number of calls spent on each job a {@link SimulationEngine} performs.
+ *
+ * <p>
+ *   Task steps are keyed by the type of the activity the task belongs to, condition updates by the type of the
+ *   activity whose task is waiting on the condition, and resource updates by the name of the resource.
+ *   Activity types are only known once the activities have emitted their inputs, so while simulating, the engine
+ *   records task steps and condition updates against spans, and {@link SimulationEngine#reportProfile} later resolves
+ *   each span to its activity type.
+ * </p>
+ *
+ * <p>
+ *   A profiler belongs to a single engine. Forking an engine forks its profiler along with it.
+ *   The profiler is only written from the engine's own thread, including when the engine runs jobs in parallel,
+ *   since the engine defers its bookkeeping until the end of each batch.
+ * </p>
+ */
+public final class EngineProfiler {
+  /** The key of jobs that do not belong to any activity, such as daemon tasks. */
+  public static final String NO_ACTIVITY = "(no activity)";
+
+  public enum JobKind { Task, Condition, Resource }
+
+  public record Entry(JobKind kind, String key, long calls, long totalNanos, long maxNanos) {}
+
+  /** The number of calls, total time, and maximum time for one key, in that order. */
+  private static long[] newStats() {
+    return new long[3];
+  }
+
+  private static void record(final long[] stats, final long nanos) {
+    stats[0] += 1;
+    stats[1] += nanos;
+    stats[2] = Math.max(stats[2], nanos);
+  }
+
+  private static final long NO_SPAN = -1;
+
+  private final Long2ObjectOpenHashMap<long[]> taskStepsBySpan;
+  private final Long2ObjectOpenHashMap<long[]> conditionUpdatesBySpan;
+  private final Map<String, long[]> resourceUpdates;
+
+  private List<Entry> entries = List.of();
+
+  public EngineProfiler() {
+    this.taskStepsBySpan = new Long2ObjectOpenHashMap<>();
+    this.conditionUpdatesBySpan = new Long2ObjectOpenHashMap<>();
+    this.resourceUpdates = new HashMap<>();
+  }
+
+  private EngineProfiler(final EngineProfiler other) {
+    this.taskStepsBySpan = new Long2ObjectOpenHashMap<>(other.taskStepsBySpan.size());
+    for (final var entry : other.taskStepsBySpan.long2ObjectEntrySet()) {
+      this.taskStepsBySpan.put(entry.getLongKey(), entry.getValue().clone());
+    }
+    this.conditionUpdatesBySpan = new Long2ObjectOpenHashMap<>(other.conditionUpdatesBySpan.size());
+    for (final var entry : other.conditionUpdatesBySpan.long2ObjectEntrySet()) {
+      this.conditionUpdatesBySpan.put(entry.getLongKey(), entry.getValue().clone());
+    }
+    this.resourceUpdates = new HashMap<>(other.resourceUpdates.size());
+    for (final var entry : other.resourceUpdates.entrySet()) {
+      this.resourceUpdates.put(entry.getKey(), entry.getValue().clone());
+    }
+  }
+
+  /*package-local*/ EngineProfiler duplicate() {
+    return new EngineProfiler(this);
+  }
+
+  /*package-local*/ void recordTaskStep(final SpanId span, final long nanos) {
+    record(this.taskStepsBySpan.computeIfAbsent(span.id(), $ -> newStats()), nanos);
+  }
+
+  /** Records an update of a condition, given the span of the task waiting on it, if it is known. */
+  /*package-local*/ void recordConditionUpdate(final SpanId origin, final long nanos) {
+    final var key = (origin != null) ? origin.id() : NO_SPAN;
+    record(this.conditionUpdatesBySpan.computeIfAbsent(key, $ -> newStats()), nanos);
+  }
+
+  /*package-local*/ void recordResourceUpdate(final String resource, final long nanos) {
+    record(this.resourceUpdates.computeIfAbsent(resource, $ -> newStats()), nanos);
+  }
+
+  /** Aggregates the recorded jobs by key, given the key of each span. */
+  /*package-local*/ void resolve(final Function<SpanId, String> keyOfSpan) {
+    final var entries = new ArrayList<Entry>();
+    entries.addAll(aggregate(JobKind.Task, this.taskStepsBySpan, keyOfSpan));
+    entries.addAll(aggregate(JobKind.Condition, this.conditionUpdatesBySpan, keyOfSpan));
+    for (final var entry : this.resourceUpdates.entrySet()) {
+      final var stats = entry.getValue();
+      entries.add(new Entry(JobKind.Resource, entry.getKey(), stats[0], stats[1], stats[2]));
+    }
+
+    entries.sort(Comparator.comparing(Entry::kind).thenComparing(Comparator.comparingLong(Entry::totalNanos).reversed()));
+    this.entries = List.copyOf(entries);
+  }
+
+  private static List<Entry> aggregate(
+      final JobKind kind,
+      final Long2ObjectOpenHashMap<long[]> statsBySpan,
+      final Function<SpanId, String> keyOfSpan)
+  {
+    final var statsByKey = new HashMap<String, long[]>();
+    for (final var entry : statsBySpan.long2ObjectEntrySet()) {
+      final var key = (entry.getLongKey() == NO_SPAN) ? NO_ACTIVITY : keyOfSpan.apply(new SpanId(entry.getLongKey()));
+      final var stats = statsByKey.computeIfAbsent(key, $ -> newStats());
+      stats[0] += entry.getValue()[0];
+      stats[1] += entry.getValue()[1];
+      stats[2] = Math.max(stats[2], entry.getValue()[2]);
+    }
+
+    final var entries = new ArrayList<Entry>(statsByKey.size());
+    for (final var entry : statsByKey.entrySet()) {
+      final var stats = entry.getValue();
+      entries.add(new Entry(kind, entry.getKey(), stats[0], stats[1], stats[2]));
+    }
+    return entries;
+  }
+
+  /**
+   * The recorded jobs, aggregated by kind and key, as of the last time the engine reported its profile.
+   * Within each kind, the keys that took the most time come first.
+   */
+  public List<Entry> entries() {
+    return this.entries;
+  }
+
+  public JsonObject toJson() {
+    final var kinds = new HashMap<JobKind, JsonObjectBuilder>();
+    for (final var kind : JobKind.values()) kinds.put(kind, Json.createObjectBuilder());
+
+    for (final var entry : this.entries) {
+      kinds.get(entry.kind()).add(entry.key(), Json
+          .createObjectBuilder()
+          .add("calls", entry.calls())
+          .add("totalNanos", entry.totalNanos())
+          .add("maxNanos", entry.maxNanos()));
+    }
+
+    return Json
+        .createObjectBuilder()
+        .add("tasks", kinds.get(JobKind.Task))
+        .add("conditions", kinds.get(JobKind.Condition))
+        .add("resources", kinds.get(JobKind.Resource))
+        .build();
+  }
+
+  /** Commits one {@link EngineProfileEvent} per entry to the flight recorder, if the event is enabled. */
+  public void emitJfrEvents() {
+    for (final var entry : this.entries) {
+      final var event = new EngineProfileEvent();
+      if (!event.isEnabled()) return;
+
+      event.kind = entry.kind().name();
+      event.key = entry.key();
+      event.calls = entry.calls();
+      event.totalNanos = entry.totalNanos();
+      event.maxNanos = entry.maxNanos();
+      event.commit();
+    }
+  }
+}
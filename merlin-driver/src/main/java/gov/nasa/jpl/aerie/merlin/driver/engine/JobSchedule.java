@@ -1,76 +1,209 @@
 package gov.nasa.jpl.aerie.merlin.driver.engine;
 
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListMap;
 
-public final class JobSchedule<JobRef, TimeRef extends SchedulingInstant> {
-  /** The scheduled time for each upcoming job. */
-  private final Map<JobRef, TimeRef> scheduledJobs = new HashMap<>();
+/**
+ * A time-ordered queue of upcoming jobs, each scheduled at a single {@link SchedulingInstant}.
+ *
+ * <p>
+ *   Jobs are kept in a binary min-heap laid out over parallel primitive arrays, ordered by their time in microseconds
+ *   and then by their {@link SubInstant}. The position of each job in the heap is indexed, so that a job can be
+ *   rescheduled or unscheduled in logarithmic time without allocating. Because the heap holds no per-job objects,
+ *   {@link #duplicate()} is a handful of flat array copies.
+ * </p>
+ *
+ * This class is not thread-safe.
+ */
+public final class JobSchedule<JobRef> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The heap of scheduled jobs, with the time and priority of each job at the same position in the parallel arrays. */
+  private Object[] jobs;
+  private long[] times;
+  private byte[] priorities;
+  private int size = 0;
+
+  /** The position in the heap of each upcoming job. */
+  @DerivedFrom("jobs")
+  private final Object2IntOpenHashMap<JobRef> positions;
+
+  public JobSchedule() {
+    this.jobs = new Object[INITIAL_CAPACITY];
+    this.times = new long[INITIAL_CAPACITY];
+    this.priorities = new byte[INITIAL_CAPACITY];
+    this.positions = new Object2IntOpenHashMap<>();
+    this.positions.defaultReturnValue(-1);
+  }
 
-  /** A time-ordered queue of all tasks whose resumption time is concretely known. */
-  @DerivedFrom("scheduledJobs")
-  private final ConcurrentSkipListMap<TimeRef, Set<JobRef>> queue = new ConcurrentSkipListMap<>();
+  private JobSchedule(final JobSchedule<JobRef> other) {
+    this.jobs = Arrays.copyOf(other.jobs, other.jobs.length);
+    this.times = Arrays.copyOf(other.times, other.times.length);
+    this.priorities = Arrays.copyOf(other.priorities, other.priorities.length);
+    this.size = other.size;
+    this.positions = other.positions.clone();
+  }
 
-  public void schedule(final JobRef job, final TimeRef time) {
-    final var oldTime = this.scheduledJobs.put(job, time);
+  public void schedule(final JobRef job, final SchedulingInstant time) {
+    schedule(job, time.offsetFromStart().in(Duration.MICROSECONDS), time.priority());
+  }
 
-    if (oldTime != null) removeJobFromQueue(oldTime, job);
+  /*package-local*/ void schedule(final JobRef job, final long micros, final SubInstant priority) {
+    final var position = this.positions.getInt(job);
+    if (position >= 0) {
+      final var wasEarlier = compare(this.times[position], this.priorities[position], micros, (byte) priority.ordinal()) < 0;
+      this.times[position] = micros;
+      this.priorities[position] = (byte) priority.ordinal();
+      if (wasEarlier) siftDown(position);
+      else siftUp(position);
+      return;
+    }
 
-    this.queue.computeIfAbsent(time, $ -> new HashSet<>()).add(job);
+    if (this.size == this.jobs.length) grow();
+    final var last = this.size++;
+    this.jobs[last] = job;
+    this.times[last] = micros;
+    this.priorities[last] = (byte) priority.ordinal();
+    this.positions.put(job, last);
+    siftUp(last);
   }
 
   public void unschedule(final JobRef job) {
-    final var oldTime = this.scheduledJobs.remove(job);
-    if (oldTime != null) removeJobFromQueue(oldTime, job);
-  }
-
-  private void removeJobFromQueue(TimeRef time, JobRef job) {
-    var jobsAtOldTime = this.queue.get(time);
-    jobsAtOldTime.remove(job);
-    if (jobsAtOldTime.isEmpty()) {
-      this.queue.remove(time);
-    }
+    final var position = this.positions.removeInt(job);
+    if (position >= 0) removeAt(position);
   }
 
   public Batch<JobRef> extractNextJobs(final Duration maximumTime) {
-    if (this.queue.isEmpty()) return new Batch<>(maximumTime, Collections.emptySet());
+    if (this.size == 0) return new Batch<>(maximumTime, Collections.emptySet());
 
-    final var time = this.queue.firstKey();
-    if (time.project().longerThan(maximumTime)) {
+    final var micros = this.times[0];
+    final var priority = this.priorities[0];
+    if (micros > maximumTime.in(Duration.MICROSECONDS)) {
       return new Batch<>(maximumTime, Collections.emptySet());
     }
 
     // Ready all tasks at the soonest task time.
-    final var entry = this.queue.pollFirstEntry();
-    entry.getValue().forEach(this.scheduledJobs::remove);
-    return new Batch<>(entry.getKey().project(), entry.getValue());
+    final var batch = new HashSet<JobRef>();
+    while (this.size > 0 && this.times[0] == micros && this.priorities[0] == priority) {
+      @SuppressWarnings("unchecked")
+      final var job = (JobRef) this.jobs[0];
+      this.positions.removeInt(job);
+      removeAt(0);
+      batch.add(job);
+    }
+    return new Batch<>(Duration.of(micros, Duration.MICROSECONDS), batch);
   }
 
   public void clear() {
-    this.scheduledJobs.clear();
-    this.queue.clear();
+    Arrays.fill(this.jobs, 0, this.size, null);
+    this.size = 0;
+    this.positions.clear();
   }
 
   public Optional<Duration> peekNextTime() {
-    if(this.queue.isEmpty()) return Optional.empty();
-    return Optional.ofNullable(this.queue.firstKey()).map(SchedulingInstant::offsetFromStart);
+    if (this.size == 0) return Optional.empty();
+    return Optional.of(Duration.of(this.times[0], Duration.MICROSECONDS));
+  }
+
+  /** The number of jobs currently scheduled. */
+  public int size() {
+    return this.size;
   }
 
   public record Batch<JobRef>(Duration offsetFromStart, Set<JobRef> jobs) {}
 
-  public JobSchedule<JobRef, TimeRef> duplicate() {
-    final JobSchedule<JobRef, TimeRef> jobSchedule = new JobSchedule<>();
-    for (final var entry : this.queue.entrySet()) {
-      jobSchedule.queue.put(entry.getKey(), new HashSet<>(entry.getValue()));
+  public JobSchedule<JobRef> duplicate() {
+    return new JobSchedule<>(this);
+  }
+
+  private void removeAt(final int position) {
+    final var last = --this.size;
+    if (position != last) {
+      move(last, position);
+      this.jobs[last] = null;
+      // The job moved into the hole may belong either above or below it.
+      if (!siftUp(position)) siftDown(position);
+    } else {
+      this.jobs[last] = null;
+    }
+  }
+
+  /** Moves the job at position `i` upward until its parent precedes it. Returns whether the job moved. */
+  private boolean siftUp(int i) {
+    final var job = this.jobs[i];
+    final var micros = this.times[i];
+    final var priority = this.priorities[i];
+
+    final var start = i;
+    while (i > 0) {
+      final var parent = (i - 1) >>> 1;
+      if (compare(this.times[parent], this.priorities[parent], micros, priority) <= 0) break;
+      move(parent, i);
+      i = parent;
     }
-    jobSchedule.scheduledJobs.putAll(this.scheduledJobs);
-    return jobSchedule;
+    if (i == start) return false;
+
+    place(job, micros, priority, i);
+    return true;
+  }
+
+  /** Moves the job at position `i` downward until it precedes both of its children. */
+  private void siftDown(int i) {
+    final var job = this.jobs[i];
+    final var micros = this.times[i];
+    final var priority = this.priorities[i];
+
+    final var start = i;
+    final var half = this.size >>> 1;
+    while (i < half) {
+      var child = 2 * i + 1;
+      final var right = child + 1;
+      if (right < this.size
+          && compare(this.times[right], this.priorities[right], this.times[child], this.priorities[child]) < 0)
+      {
+        child = right;
+      }
+      if (compare(micros, priority, this.times[child], this.priorities[child]) <= 0) break;
+      move(child, i);
+      i = child;
+    }
+    if (i == start) return;
+
+    place(job, micros, priority, i);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void move(final int from, final int to) {
+    this.jobs[to] = this.jobs[from];
+    this.times[to] = this.times[from];
+    this.priorities[to] = this.priorities[from];
+    this.positions.put((JobRef) this.jobs[to], to);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void place(final Object job, final long micros, final byte priority, final int position) {
+    this.jobs[position] = job;
+    this.times[position] = micros;
+    this.priorities[position] = priority;
+    this.positions.put((JobRef) job, position);
+  }
+
+  private void grow() {
+    final var capacity = this.jobs.length * 2;
+    this.jobs = Arrays.copyOf(this.jobs, capacity);
+    this.times = Arrays.copyOf(this.times, capacity);
+    this.priorities = Arrays.copyOf(this.priorities, capacity);
+  }
+
+  private static int compare(final long micros1, final byte priority1, final long micros2, final byte priority2) {
+    final var x = Long.compare(micros1, micros2);
+    if (x != 0) return x;
+    return Byte.compare(priority1, priority2);
   }
 }
@@ -3,8 +3,10 @@ package gov.nasa.jpl.aerie.merlin.driver.engine;
 import gov.nasa.jpl.aerie.merlin.driver.MissionModel.SerializableTopic;
 import gov.nasa.jpl.aerie.types.ActivityInstance;
 import gov.nasa.jpl.aerie.types.ActivityInstanceId;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResultsSink;
 import gov.nasa.jpl.aerie.merlin.driver.UnfinishedActivity;
 import gov.nasa.jpl.aerie.merlin.driver.timeline.Event;
 import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
@@ -28,6 +30,7 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 import gov.nasa.jpl.aerie.types.SerializedActivity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.mutable.MutableObject;
@@ -49,9 +52,14 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -61,34 +69,60 @@ import java.util.stream.Collectors;
 public final class SimulationEngine implements AutoCloseable {
   private boolean closed = false;
 
+  /**
+   * The number of threads used to perform the jobs of a single batch.
+   *
+   * <p>
+   *   A value of 1 performs every job on the engine thread. Larger values run the jobs of a batch concurrently, which
+   *   is only safe for mission models whose tasks, conditions, and resources are thread-safe: they must not share
+   *   mutable state outside of cells. Models built on shared, lazily-populated caches (such as memoized streamline
+   *   resources) or on model-wide statics (such as streamline's {@code Resources.CLOCK}) do not meet this bar, and
+   *   must be simulated with a batch parallelism of 1.
+   * </p>
+   */
+  private final int batchParallelism;
+
   /** The set of all jobs waiting for time to pass. */
-  private final JobSchedule<JobId, SchedulingInstant> scheduledJobs;
+  private final JobSchedule<JobId> scheduledJobs;
   /** The set of all jobs waiting on a condition. */
-  private final Map<ConditionId, TaskId> waitingTasks;
+  private final Long2ObjectOpenHashMap<TaskId> waitingTasks;
   /** The set of all tasks blocked on some number of subtasks. */
-  private final Map<TaskId, MutableInt> blockedTasks;
+  private final Long2ObjectOpenHashMap<MutableInt> blockedTasks;
   /** The set of conditions depending on a given set of topics. */
   private final Subscriptions<Topic<?>, ConditionId> waitingConditions;
   /** The set of queries depending on a given set of topics. */
   private final Subscriptions<Topic<?>, ResourceId> waitingResources;
 
   /** The execution state for every task. */
-  private final Map<TaskId, ExecutionState<?>> tasks;
+  private final Long2ObjectOpenHashMap<ExecutionState<?>> tasks;
   /** The getter for each tracked condition. */
   private final Map<ConditionId, Condition> conditions;
   /** The profiling state for each tracked resource. */
   private final Map<ResourceId, Resource<?>> resources;
 
   /** Tasks that have been scheduled, but not started */
-  private final Map<TaskId, Duration> unstartedTasks;
+  private final Long2ObjectOpenHashMap<Duration> unstartedTasks;
 
   /** The set of all spans of work contributed to by modeled tasks. */
   private final Map<SpanId, Span> spans;
   /** A count of the direct contributors to each span, including child spans and tasks. */
-  private final Map<SpanId, MutableInt> spanContributorCount;
+  private final Long2ObjectOpenHashMap<MutableInt> spanContributorCount;
+
+  /**
+   * The next ID to allocate to a span, task, or condition.
+   *
+   * IDs are allocated in increasing order rather than generated at random, so that spawning a task costs no more than
+   * an increment, and so that the maps above can be keyed by primitive IDs.
+   * Jobs of a parallel batch do not touch this counter while they run; see {@link JobEffects#allocateId()}.
+   */
+  private long nextId;
 
   /** A thread pool that modeled tasks can use to keep track of their state between steps. */
   private final ExecutorService executor;
+  /** A thread pool on which the jobs of a batch are performed, if batches are performed in parallel. */
+  private final Optional<ExecutorService> batchExecutor;
+  /** A record of the time spent on each job, if the engine is being profiled. */
+  private final Optional<EngineProfiler> profiler;
 
   /* The top-level simulation timeline. */
   private final TemporalEventSource timeline;
@@ -97,23 +131,43 @@ public final class SimulationEngine implements AutoCloseable {
   private Duration elapsedTime;
 
   public SimulationEngine(LiveCells initialCells) {
+    this(initialCells, Optional.empty());
+  }
+
+  public SimulationEngine(LiveCells initialCells, Optional<EngineProfiler> profiler) {
+    this(initialCells, profiler, 1);
+  }
+
+  /**
+   * Creates an engine that performs the jobs of each batch on up to `batchParallelism` threads.
+   * See {@link #batchParallelism} for the requirements this places on the mission model.
+   */
+  public SimulationEngine(LiveCells initialCells, Optional<EngineProfiler> profiler, int batchParallelism) {
+    if (batchParallelism < 1) {
+      throw new IllegalArgumentException("Batch parallelism must be at least 1, but was " + batchParallelism);
+    }
+
+    this.batchParallelism = batchParallelism;
     timeline = new TemporalEventSource();
     referenceTimeline = new TemporalEventSource();
-    cells = new LiveCells(timeline, initialCells);
+    cells = new LiveCells(timeline, initialCells, batchParallelism > 1);
     elapsedTime = Duration.ZERO;
 
     scheduledJobs = new JobSchedule<>();
-    waitingTasks = new LinkedHashMap<>();
-    blockedTasks = new LinkedHashMap<>();
+    waitingTasks = new Long2ObjectOpenHashMap<>();
+    blockedTasks = new Long2ObjectOpenHashMap<>();
     waitingConditions = new Subscriptions<>();
     waitingResources = new Subscriptions<>();
-    tasks = new LinkedHashMap<>();
+    tasks = new Long2ObjectOpenHashMap<>();
     conditions = new LinkedHashMap<>();
     resources = new LinkedHashMap<>();
-    unstartedTasks = new LinkedHashMap<>();
+    unstartedTasks = new Long2ObjectOpenHashMap<>();
     spans = new LinkedHashMap<>();
-    spanContributorCount = new LinkedHashMap<>();
+    spanContributorCount = new Long2ObjectOpenHashMap<>();
+    nextId = 0;
     executor = Executors.newVirtualThreadPerTaskExecutor();
+    batchExecutor = createBatchExecutor(batchParallelism);
+    this.profiler = profiler;
   }
 
   private SimulationEngine(SimulationEngine other) {
@@ -122,33 +176,46 @@ public final class SimulationEngine implements AutoCloseable {
     other.cells.freeze();
 
     elapsedTime = other.elapsedTime;
+    batchParallelism = other.batchParallelism;
 
     timeline = new TemporalEventSource();
-    cells = new LiveCells(timeline, other.cells);
+    cells = new LiveCells(timeline, other.cells, batchParallelism > 1);
     referenceTimeline = other.combineTimeline();
 
     // New Executor allows other SimulationEngine to be closed
     executor = Executors.newVirtualThreadPerTaskExecutor();
+    batchExecutor = createBatchExecutor(batchParallelism);
     scheduledJobs = other.scheduledJobs.duplicate();
-    waitingTasks = new LinkedHashMap<>(other.waitingTasks);
-    blockedTasks = new LinkedHashMap<>();
-    for (final var entry : other.blockedTasks.entrySet()) {
-      blockedTasks.put(entry.getKey(), new MutableInt(entry.getValue()));
+    waitingTasks = new Long2ObjectOpenHashMap<>(other.waitingTasks);
+    blockedTasks = new Long2ObjectOpenHashMap<>(other.blockedTasks.size());
+    for (final var entry : other.blockedTasks.long2ObjectEntrySet()) {
+      blockedTasks.put(entry.getLongKey(), new MutableInt(entry.getValue()));
     }
     waitingConditions = other.waitingConditions.duplicate();
     waitingResources = other.waitingResources.duplicate();
-    tasks = new LinkedHashMap<>();
-    for (final var entry : other.tasks.entrySet()) {
-      tasks.put(entry.getKey(), entry.getValue().duplicate(executor));
+    tasks = new Long2ObjectOpenHashMap<>(other.tasks.size());
+    for (final var entry : other.tasks.long2ObjectEntrySet()) {
+      tasks.put(entry.getLongKey(), entry.getValue().duplicate(executor));
     }
     conditions = new LinkedHashMap<>(other.conditions);
     resources = new LinkedHashMap<>(other.resources);
-    unstartedTasks = new LinkedHashMap<>(other.unstartedTasks);
+    unstartedTasks = new Long2ObjectOpenHashMap<>(other.unstartedTasks);
     spans = new LinkedHashMap<>(other.spans);
-    spanContributorCount = new LinkedHashMap<>();
-    for (final var entry : other.spanContributorCount.entrySet()) {
-      spanContributorCount.put(entry.getKey(), new MutableInt(entry.getValue().getValue()));
+    spanContributorCount = new Long2ObjectOpenHashMap<>(other.spanContributorCount.size());
+    for (final var entry : other.spanContributorCount.long2ObjectEntrySet()) {
+      spanContributorCount.put(entry.getLongKey(), new MutableInt(entry.getValue().getValue()));
     }
+    nextId = other.nextId;
+    profiler = other.profiler.map(EngineProfiler::duplicate);
+  }
+
+  private static Optional<ExecutorService> createBatchExecutor(final int parallelism) {
+    if (parallelism <= 1) return Optional.empty();
+    return Optional.of(Executors.newFixedThreadPool(parallelism, runnable -> {
+      final var thread = new Thread(runnable, "simulation-batch-worker");
+      thread.setDaemon(true);
+      return thread;
+    }));
   }
 
   /** Initialize the engine by tracking resources and kicking off daemon tasks. **/
@@ -189,6 +256,25 @@ public final class SimulationEngine implements AutoCloseable {
     return elapsedTime;
   }
 
+  /**
+   * A rough estimate of the number of bytes of memory held by the state of this engine.
+   *
+   * The timelines of an engine share their points with the engines it was duplicated from, so the lists of points
+   * already in {@code counted} are left out, and the others are added to it. The state of tasks and cells is opaque
+   * to the engine, so each task is counted at a fixed cost, and cells are part of the fixed cost of the engine.
+   */
+  public long estimatedSizeInBytes(final Set<Object> counted) {
+    final long engineSize = 4096;
+    final long taskSize = 1024;
+    final long entrySize = 64;
+
+    return engineSize
+           + this.timeline.estimatedSizeInBytes(counted)
+           + this.referenceTimeline.estimatedSizeInBytes(counted)
+           + taskSize * (this.tasks.size() + this.unstartedTasks.size())
+           + entrySize * (this.conditions.size() + this.spans.size() + this.waitingTasks.size() + this.blockedTasks.size());
+  }
+
   /** Step the engine forward one batch. **/
   public Status step(Duration simulationDuration) throws Throwable {
     final var nextTime = this.peekNextTime().orElse(Duration.MAX_VALUE);
@@ -239,14 +325,7 @@ public final class SimulationEngine implements AutoCloseable {
   }
 
   private static <Dynamics> RealDynamics extractRealDynamics(final ResourceUpdates.ResourceUpdate<Dynamics> update) {
-    final var resource = update.resource;
-    final var dynamics = update.update.dynamics();
-
-    final var serializedSegment = resource.getOutputType().serialize(dynamics).asMap().orElseThrow();
-    final var initial = serializedSegment.get("initial").asReal().orElseThrow();
-    final var rate = serializedSegment.get("rate").asReal().orElseThrow();
-
-    return RealDynamics.linear(initial, rate);
+    return update.resource.asRealDynamics(update.update.dynamics());
   }
 
   private static <Dynamics> SerializedValue extractDiscreteDynamics(final ResourceUpdates.ResourceUpdate<Dynamics> update) {
@@ -259,15 +338,15 @@ public final class SimulationEngine implements AutoCloseable {
     if (startTime.isNegative()) throw new IllegalArgumentException(
         "Cannot schedule a task before the start time of the simulation");
 
-    final var span = SpanId.generate();
+    final var span = new SpanId(this.nextId++);
     this.spans.put(span, new Span(Optional.empty(), startTime, Optional.empty()));
 
-    final var task = TaskId.generate();
-    this.spanContributorCount.put(span, new MutableInt(1));
-    this.tasks.put(task, new ExecutionState<>(span, Optional.empty(), state.create(this.executor)));
+    final var task = new TaskId(this.nextId++);
+    this.spanContributorCount.put(span.id(), new MutableInt(1));
+    this.tasks.put(task.id(), new ExecutionState<>(span, Optional.empty(), state.create(this.executor)));
     this.scheduledJobs.schedule(JobId.forTask(task), SubInstant.Tasks.at(startTime));
 
-    this.unstartedTasks.put(task, startTime);
+    this.unstartedTasks.put(task.id(), startTime);
 
     return span;
   }
@@ -367,6 +446,10 @@ public final class SimulationEngine implements AutoCloseable {
       final Duration maximumTime
   ) throws SpanException {
     if (this.closed) throw new IllegalStateException("Cannot perform jobs on closed simulation engine");
+    if (this.batchExecutor.isPresent() && jobs.size() > 1) {
+      return this.performJobsInParallel(this.batchExecutor.get(), jobs, context, currentTime, maximumTime);
+    }
+
     var tip = EventGraph.<Event>empty();
     Mutable<Optional<Throwable>> exception = new MutableObject<>(Optional.empty());
     final var resourceUpdates = new ResourceUpdates();
@@ -386,6 +469,126 @@ public final class SimulationEngine implements AutoCloseable {
     return new StepResult(List.of(tip), resourceUpdates, Optional.empty());
   }
 
+  /**
+   * Performs a collection of jobs on a thread pool, producing the same result as performing them one at a time.
+   *
+   * <p>
+   *   Jobs in a batch cannot observe one another's events, so the only interference between them is through the
+   *   engine's own bookkeeping. While the batch runs, every job reads the engine's state as it stood at the start of
+   *   the batch and defers its writes to a {@link JobEffects} log. Once every job has finished, the logs are replayed
+   *   and the jobs' events and resource updates are combined in batch order, exactly as the serial path would have.
+   * </p>
+   */
+  private StepResult performJobsInParallel(
+      final ExecutorService pool,
+      final Collection<JobId> jobs,
+      final LiveCells context,
+      final Duration currentTime,
+      final Duration maximumTime
+  ) throws SpanException {
+    final var orderedJobs = List.copyOf(jobs);
+    final var count = orderedJobs.size();
+
+    @SuppressWarnings("unchecked")
+    final EventGraph<Event>[] graphs = new EventGraph[count];
+    final var effects = new JobEffects[count];
+    final var updates = new ResourceUpdates[count];
+    final var errors = new Throwable[count];
+
+    final var firstId = this.nextId;
+
+    // Hand each worker a contiguous run of jobs, so that small jobs don't drown in scheduling overhead.
+    final var chunkSize = Math.max(1, Math.ceilDiv(count, 4 * this.batchParallelism));
+    final var chunks = new ArrayList<Future<?>>();
+    final var running = new CountDownLatch(Math.ceilDiv(count, chunkSize));
+    final var abandoned = new AtomicBoolean(false);
+    for (var start = 0; start < count; start += chunkSize) {
+      final var from = start;
+      final var to = Math.min(count, start + chunkSize);
+      chunks.add(pool.submit(() -> {
+        try {
+          for (var i = from; i < to && !abandoned.get(); i += 1) {
+            final var index = i;
+            effects[index] = JobEffects.deferred(firstId, index, count);
+            updates[index] = new ResourceUpdates();
+            graphs[index] = TaskFrame.run(orderedJobs.get(index), context, (job, frame) -> {
+              try {
+                this.performJob(job, frame, currentTime, maximumTime, updates[index], effects[index]);
+              } catch (Throwable ex) {
+                errors[index] = ex;
+              }
+            });
+          }
+        } finally {
+          running.countDown();
+        }
+      }));
+    }
+
+    try {
+      running.await();
+    } catch (final InterruptedException ex) {
+      // The chunks hold references to the engine's state, so they must all have stopped before control returns.
+      // Chunks finish the job in hand (jobs cannot be safely abandoned midway) and then skip the rest of their run.
+      abandoned.set(true);
+      awaitUninterruptibly(running);
+      this.skipAllocatedIds(firstId, effects);
+      Thread.currentThread().interrupt();
+      return new StepResult(List.of(EventGraph.empty()), new ResourceUpdates(), Optional.of(ex));
+    }
+    this.skipAllocatedIds(firstId, effects);
+
+    for (final var chunk : chunks) {
+      try {
+        chunk.get();
+      } catch (final InterruptedException ex) {
+        throw new Error("Unreachable: every chunk has already completed", ex);
+      } catch (final ExecutionException ex) {
+        return new StepResult(List.of(EventGraph.empty()), new ResourceUpdates(), Optional.of(ex.getCause()));
+      }
+    }
+
+    // Merge in batch order, stopping after the first failed job just as the serial path does.
+    var tip = EventGraph.<Event>empty();
+    final var resourceUpdates = new ResourceUpdates();
+    for (var i = 0; i < count; i += 1) {
+      effects[i].replay();
+      tip = EventGraph.concurrently(tip, graphs[i]);
+      resourceUpdates.updates().addAll(updates[i].updates());
+
+      if (errors[i] != null) {
+        return new StepResult(List.of(tip), resourceUpdates, Optional.of(errors[i]));
+      }
+    }
+    return new StepResult(List.of(tip), resourceUpdates, Optional.empty());
+  }
+
+  /** Moves the ID counter past every ID allocated by the jobs of a parallel batch. */
+  private void skipAllocatedIds(final long firstId, final JobEffects[] effects) {
+    var reserved = 0L;
+    for (final var effect : effects) {
+      if (effect != null) reserved = Math.max(reserved, effect.idsReserved());
+    }
+    this.nextId = firstId + reserved;
+  }
+
+  private long allocateId(final JobEffects effects) {
+    return (effects.isImmediate()) ? this.nextId++ : effects.allocateId();
+  }
+
+  private static void awaitUninterruptibly(final CountDownLatch latch) {
+    var interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (final InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) Thread.currentThread().interrupt();
+  }
+
   /** Performs a single job. */
   public void performJob(
       final JobId job,
@@ -393,12 +596,23 @@ public final class SimulationEngine implements AutoCloseable {
       final Duration currentTime,
       final Duration maximumTime,
       final ResourceUpdates resourceUpdates
+  ) throws SpanException {
+    this.performJob(job, frame, currentTime, maximumTime, resourceUpdates, JobEffects.IMMEDIATE);
+  }
+
+  private void performJob(
+      final JobId job,
+      final TaskFrame<JobId> frame,
+      final Duration currentTime,
+      final Duration maximumTime,
+      final ResourceUpdates resourceUpdates,
+      final JobEffects effects
   ) throws SpanException {
     switch (job) {
-      case JobId.TaskJobId j -> this.stepTask(j.id(), frame, currentTime);
-      case JobId.SignalJobId j -> this.stepTask(this.waitingTasks.remove(j.id()), frame, currentTime);
-      case JobId.ConditionJobId j -> this.updateCondition(j.id(), frame, currentTime, maximumTime);
-      case JobId.ResourceJobId j -> this.updateResource(j.id(), frame, currentTime, resourceUpdates);
+      case JobId.TaskJobId j -> this.stepTask(j.id(), frame, currentTime, effects);
+      case JobId.SignalJobId j -> this.stepTask(this.takeWaitingTask(j.id(), effects), frame, currentTime, effects);
+      case JobId.ConditionJobId j -> this.updateCondition(j.id(), frame, currentTime, maximumTime, effects);
+      case JobId.ResourceJobId j -> this.updateResource(j.id(), frame, currentTime, resourceUpdates, effects);
       case null -> throw new IllegalArgumentException("Unexpected null value for JobId");
       default -> throw new IllegalArgumentException("Unexpected subtype of %s: %s".formatted(
           JobId.class,
@@ -409,13 +623,55 @@ public final class SimulationEngine implements AutoCloseable {
   /** Perform the next step of a modeled task. */
   public void stepTask(final TaskId task, final TaskFrame<JobId> frame, final Duration currentTime)
   throws SpanException {
+    this.stepTask(task, frame, currentTime, JobEffects.IMMEDIATE);
+  }
+
+  private void stepTask(
+      final TaskId task,
+      final TaskFrame<JobId> frame,
+      final Duration currentTime,
+      final JobEffects effects
+  ) throws SpanException {
     if (this.closed) throw new IllegalStateException("Cannot step task on closed simulation engine");
-    this.unstartedTasks.remove(task);
+    effects.apply(() -> this.unstartedTasks.remove(task.id()));
     // The handler for the next status of the task is responsible
     //   for putting an updated state back into the task set.
-    var state = this.tasks.remove(task);
+    var state = this.takeTask(task, effects);
+
+    if (this.profiler.isEmpty()) {
+      stepEffectModel(task, state, frame, currentTime, effects);
+      return;
+    }
+
+    final var profiler = this.profiler.get();
+    final var start = System.nanoTime();
+    stepEffectModel(task, state, frame, currentTime, effects);
+    final var elapsed = System.nanoTime() - start;
+    effects.apply(() -> profiler.recordTaskStep(state.span(), elapsed));
+  }
+
+  /** Remove a task's execution state from the task set, in preparation for stepping it. */
+  private ExecutionState<?> takeTask(final TaskId task, final JobEffects effects) {
+    if (effects.isImmediate()) return this.tasks.remove(task.id());
+
+    // Tasks spawned earlier in this job have not been published to the task set yet.
+    final var spawned = effects.spawnedTasks.remove(task);
+    effects.apply(() -> this.tasks.remove(task.id()));
+    return (spawned != null) ? spawned : this.tasks.get(task.id());
+  }
 
-    stepEffectModel(task, state, frame, currentTime);
+  /** Remove the task waiting on a condition, in preparation for signalling it. */
+  private TaskId takeWaitingTask(final ConditionId condition, final JobEffects effects) {
+    if (effects.isImmediate()) return this.waitingTasks.remove(condition.id());
+
+    effects.apply(() -> this.waitingTasks.remove(condition.id()));
+    return this.waitingTasks.get(condition.id());
+  }
+
+  /** Add a task to the task set, making it visible to the rest of the job that spawned it. */
+  private void putSpawnedTask(final TaskId task, final ExecutionState<?> state, final JobEffects effects) {
+    if (!effects.isImmediate()) effects.spawnedTasks.put(task, state);
+    effects.apply(() -> this.tasks.put(task.id(), state));
   }
 
   /** Make progress in a task by stepping its associated effect model forward. */
@@ -423,10 +679,11 @@ public final class SimulationEngine implements AutoCloseable {
       final TaskId task,
       final ExecutionState<Output> progress,
       final TaskFrame<JobId> frame,
-      final Duration currentTime
+      final Duration currentTime,
+      final JobEffects effects
   ) throws SpanException {
     // Step the modeling state forward.
-    final var scheduler = new EngineScheduler(currentTime, progress.span(), progress.caller(), frame);
+    final var scheduler = new EngineScheduler(currentTime, progress.span(), progress.caller(), frame, effects);
     final TaskStatus<Output> status;
     try {
       status = progress.state().step(scheduler);
@@ -438,13 +695,13 @@ public final class SimulationEngine implements AutoCloseable {
 
     // Based on the task's return status, update its execution state and schedule its resumption.
     switch (status) {
-      case TaskStatus.Completed<Output> s -> {
+      case TaskStatus.Completed<Output> s -> effects.apply(() -> {
         // Propagate completion up the span hierarchy.
         // TERMINATION: The span hierarchy is a finite tree, so eventually we find a parentless span.
         var span = scheduler.span;
         while (true) {
-          if (this.spanContributorCount.get(span).decrementAndGet() > 0) break;
-          this.spanContributorCount.remove(span);
+          if (this.spanContributorCount.get(span.id()).decrementAndGet() > 0) break;
+          this.spanContributorCount.remove(span.id());
 
           this.spans.compute(span, (_id, $) -> $.close(currentTime));
 
@@ -456,18 +713,20 @@ public final class SimulationEngine implements AutoCloseable {
 
         // Notify any blocked caller of our completion.
         progress.caller().ifPresent($ -> {
-          if (this.blockedTasks.get($).decrementAndGet() == 0) {
-            this.blockedTasks.remove($);
+          if (this.blockedTasks.get($.id()).decrementAndGet() == 0) {
+            this.blockedTasks.remove($.id());
             this.scheduledJobs.schedule(JobId.forTask($), SubInstant.Tasks.at(currentTime));
           }
         });
-      }
+      });
 
       case TaskStatus.Delayed<Output> s -> {
         if (s.delay().isNegative()) throw new IllegalArgumentException("Cannot schedule a task in the past");
 
-        this.tasks.put(task, progress.continueWith(s.continuation()));
-        this.scheduledJobs.schedule(JobId.forTask(task), SubInstant.Tasks.at(currentTime.plus(s.delay())));
+        effects.apply(() -> {
+          this.tasks.put(task.id(), progress.continueWith(s.continuation()));
+          this.scheduledJobs.schedule(JobId.forTask(task), SubInstant.Tasks.at(currentTime.plus(s.delay())));
+        });
       }
 
       case TaskStatus.CallingTask<Output> s -> {
@@ -476,38 +735,45 @@ public final class SimulationEngine implements AutoCloseable {
           case Parent -> scheduler.span;
 
           case Fresh -> {
-            final var freshSpan = SpanId.generate();
-            SimulationEngine.this.spans.put(
-                freshSpan,
-                new Span(Optional.of(scheduler.span), currentTime, Optional.empty()));
-            SimulationEngine.this.spanContributorCount.put(freshSpan, new MutableInt(1));
+            final var freshSpan = new SpanId(SimulationEngine.this.allocateId(effects));
+            effects.apply(() -> {
+              SimulationEngine.this.spans.put(
+                  freshSpan,
+                  new Span(Optional.of(scheduler.span), currentTime, Optional.empty()));
+              SimulationEngine.this.spanContributorCount.put(freshSpan.id(), new MutableInt(1));
+            });
             yield freshSpan;
           }
         };
 
         // Spawn the child task.
-        final var childTask = TaskId.generate();
-        SimulationEngine.this.spanContributorCount.get(scheduler.span).increment();
-        SimulationEngine.this.tasks.put(
+        final var childTask = new TaskId(SimulationEngine.this.allocateId(effects));
+        effects.apply(() -> SimulationEngine.this.spanContributorCount.get(scheduler.span.id()).increment());
+        this.putSpawnedTask(
             childTask,
             new ExecutionState<>(
                 childSpan,
                 Optional.of(task),
-                s.child().create(this.executor)));
+                s.child().create(this.executor)),
+            effects);
         frame.signal(JobId.forTask(childTask));
 
         // Arrange for the parent task to resume.... later.
-        SimulationEngine.this.blockedTasks.put(task, new MutableInt(1));
-        this.tasks.put(task, progress.continueWith(s.continuation()));
+        effects.apply(() -> {
+          SimulationEngine.this.blockedTasks.put(task.id(), new MutableInt(1));
+          this.tasks.put(task.id(), progress.continueWith(s.continuation()));
+        });
       }
 
       case TaskStatus.AwaitingCondition<Output> s -> {
-        final var condition = ConditionId.generate();
-        this.conditions.put(condition, s.condition());
-        this.scheduledJobs.schedule(JobId.forCondition(condition), SubInstant.Conditions.at(currentTime));
+        final var condition = new ConditionId(this.allocateId(effects));
+        effects.apply(() -> {
+          this.conditions.put(condition, s.condition());
+          this.scheduledJobs.schedule(JobId.forCondition(condition), SubInstant.Conditions.at(currentTime));
 
-        this.tasks.put(task, progress.continueWith(s.continuation()));
-        this.waitingTasks.put(condition, task);
+          this.tasks.put(task.id(), progress.continueWith(s.continuation()));
+          this.waitingTasks.put(condition.id(), task);
+        });
       }
     }
   }
@@ -518,24 +784,53 @@ public final class SimulationEngine implements AutoCloseable {
       final TaskFrame<JobId> frame,
       final Duration currentTime,
       final Duration horizonTime
+  ) {
+    this.updateCondition(condition, frame, currentTime, horizonTime, JobEffects.IMMEDIATE);
+  }
+
+  private void updateCondition(
+      final ConditionId condition,
+      final TaskFrame<JobId> frame,
+      final Duration currentTime,
+      final Duration horizonTime,
+      final JobEffects effects
   ) {
     if (this.closed) throw new IllegalStateException("Cannot update condition on closed simulation engine");
+    final var start = (this.profiler.isPresent()) ? System.nanoTime() : 0L;
     final var querier = new EngineQuerier(frame);
     final var prediction = this.conditions
         .get(condition)
         .nextSatisfied(querier, horizonTime.minus(currentTime))
         .map(currentTime::plus);
 
-    this.waitingConditions.subscribeQuery(condition, querier.referencedTopics);
+    if (this.profiler.isPresent()) {
+      final var profiler = this.profiler.get();
+      final var elapsed = System.nanoTime() - start;
+      final var origin = this.getConditionOrigin(condition);
+      effects.apply(() -> profiler.recordConditionUpdate(origin, elapsed));
+    }
 
     final var expiry = querier.expiry.map(currentTime::plus);
-    if (prediction.isPresent() && (expiry.isEmpty() || prediction.get().shorterThan(expiry.get()))) {
-      this.scheduledJobs.schedule(JobId.forSignal(condition), SubInstant.Tasks.at(prediction.get()));
-    } else {
-      // Try checking again later -- where "later" is in some non-zero amount of time!
-      final var nextCheckTime = Duration.max(expiry.orElse(horizonTime), currentTime.plus(Duration.EPSILON));
-      this.scheduledJobs.schedule(JobId.forCondition(condition), SubInstant.Conditions.at(nextCheckTime));
-    }
+    effects.apply(() -> {
+      this.waitingConditions.subscribeQuery(condition, querier.referencedTopics);
+
+      if (prediction.isPresent() && (expiry.isEmpty() || prediction.get().shorterThan(expiry.get()))) {
+        this.scheduledJobs.schedule(JobId.forSignal(condition), SubInstant.Tasks.at(prediction.get()));
+      } else {
+        // Try checking again later -- where "later" is in some non-zero amount of time!
+        final var nextCheckTime = Duration.max(expiry.orElse(horizonTime), currentTime.plus(Duration.EPSILON));
+        this.scheduledJobs.schedule(JobId.forCondition(condition), SubInstant.Conditions.at(nextCheckTime));
+      }
+    });
+  }
+
+  /** Get the span of the task waiting on a condition, or null if no task is known to be waiting on it. */
+  private SpanId getConditionOrigin(final ConditionId condition) {
+    final var task = this.waitingTasks.get(condition.id());
+    if (task == null) return null;
+
+    final var state = this.tasks.get(task.id());
+    return (state != null) ? state.span() : null;
   }
 
   /** Get the current behavior of a given resource and accumulate it into the resource's profile. */
@@ -544,7 +839,18 @@ public final class SimulationEngine implements AutoCloseable {
       final TaskFrame<JobId> frame,
       final Duration currentTime,
       final ResourceUpdates resourceUpdates) {
+    this.updateResource(resourceId, frame, currentTime, resourceUpdates, JobEffects.IMMEDIATE);
+  }
+
+  private void updateResource(
+      final ResourceId resourceId,
+      final TaskFrame<JobId> frame,
+      final Duration currentTime,
+      final ResourceUpdates resourceUpdates,
+      final JobEffects effects
+  ) {
     if (this.closed) throw new IllegalStateException("Cannot update resource on closed simulation engine");
+    final var start = (this.profiler.isPresent()) ? System.nanoTime() : 0L;
     final var querier = new EngineQuerier(frame);
     resourceUpdates.add(new ResourceUpdates.ResourceUpdate<>(
         querier,
@@ -552,12 +858,20 @@ public final class SimulationEngine implements AutoCloseable {
         resourceId,
         this.resources.get(resourceId)));
 
-    this.waitingResources.subscribeQuery(resourceId, querier.referencedTopics);
+    if (this.profiler.isPresent()) {
+      final var profiler = this.profiler.get();
+      final var elapsed = System.nanoTime() - start;
+      effects.apply(() -> profiler.recordResourceUpdate(resourceId.id(), elapsed));
+    }
 
     final var expiry = querier.expiry.map(currentTime::plus);
-    if (expiry.isPresent()) {
-      this.scheduledJobs.schedule(JobId.forResource(resourceId), SubInstant.Resources.at(expiry.get()));
-    }
+    effects.apply(() -> {
+      this.waitingResources.subscribeQuery(resourceId, querier.referencedTopics);
+
+      if (expiry.isPresent()) {
+        this.scheduledJobs.schedule(JobId.forResource(resourceId), SubInstant.Resources.at(expiry.get()));
+      }
+    });
   }
 
   /** Resets all tasks (freeing any held resources). The engine should not be used after being closed. */
@@ -571,15 +885,17 @@ public final class SimulationEngine implements AutoCloseable {
     }
 
     this.executor.shutdownNow();
+    this.batchExecutor.ifPresent(ExecutorService::shutdownNow);
     this.closed = true;
   }
 
   public void unscheduleAfter(final Duration duration) {
     if (this.closed) throw new IllegalStateException("Cannot unschedule jobs on closed simulation engine");
-    for (final var taskId : new ArrayList<>(this.tasks.keySet())) {
-      if (this.unstartedTasks.containsKey(taskId) && this.unstartedTasks.get(taskId).longerThan(duration)) {
+    for (final var taskId : this.tasks.keySet().toLongArray()) {
+      final var startTime = this.unstartedTasks.get(taskId);
+      if (startTime != null && startTime.longerThan(duration)) {
         this.tasks.remove(taskId);
-        this.scheduledJobs.unschedule(JobId.forTask(taskId));
+        this.scheduledJobs.unschedule(JobId.forTask(new TaskId(taskId)));
       }
     }
   }
@@ -605,7 +921,7 @@ public final class SimulationEngine implements AutoCloseable {
       return this.spanToPlannedDirective.get(id);
     }
 
-    public record Trait(Iterable<SerializableTopic<?>> topics, Topic<ActivityDirectiveId> activityTopic)
+    public record Trait(TopicIndex topics, Topic<ActivityDirectiveId> activityTopic)
         implements EffectTrait<Consumer<SpanInfo>>
     {
       @Override
@@ -641,20 +957,21 @@ public final class SimulationEngine implements AutoCloseable {
           ev.extract(this.activityTopic)
             .ifPresent(directiveId -> spanInfo.spanToPlannedDirective.put(ev.provenance(), directiveId));
 
-          for (final var topic : this.topics) {
-            // Identify activity inputs.
-            extractInput(topic, ev, spanInfo);
-
-            // Identify activity outputs.
-            extractOutput(topic, ev, spanInfo);
+          for (final var topic : this.topics.get(ev.topic())) {
+            switch (topic.role()) {
+              // Identify activity inputs.
+              case ActivityInput -> extractInput(topic, ev, spanInfo);
+              // Identify activity outputs.
+              case ActivityOutput -> extractOutput(topic, ev, spanInfo);
+              case Other -> {}
+            }
           }
         };
       }
 
       private static <T>
-      void extractInput(final SerializableTopic<T> topic, final Event ev, final SpanInfo spanInfo) {
-        if (!topic.name().startsWith("ActivityType.Input.")) return;
-
+      void extractInput(final TopicIndex.Entry<T> entry, final Event ev, final SpanInfo spanInfo) {
+        final var topic = entry.topic();
         ev.extract(topic.topic()).ifPresent(input -> {
           final var activityType = topic.name().substring("ActivityType.Input.".length());
 
@@ -665,9 +982,8 @@ public final class SimulationEngine implements AutoCloseable {
       }
 
       private static <T>
-      void extractOutput(final SerializableTopic<T> topic, final Event ev, final SpanInfo spanInfo) {
-        if (!topic.name().startsWith("ActivityType.Output.")) return;
-
+      void extractOutput(final TopicIndex.Entry<T> entry, final Event ev, final SpanInfo spanInfo) {
+        final var topic = entry.topic();
         ev.extract(topic.topic()).ifPresent(output -> {
           spanInfo.output.put(
               ev.provenance(),
@@ -677,6 +993,49 @@ public final class SimulationEngine implements AutoCloseable {
     }
   }
 
+  /**
+   * The serializable topics of a mission model, indexed by the topic whose events they serialize,
+   * so that each event can be matched against only the serializers that apply to it.
+   */
+  private record TopicIndex(
+      Map<Topic<?>, List<Entry<?>>> entries,
+      List<Triple<Integer, String, ValueSchema>> descriptors
+  ) {
+    enum Role { ActivityInput, ActivityOutput, Other }
+
+    record Entry<T>(int id, SerializableTopic<T> topic, Role role) {
+      Optional<SerializedValue> trySerialize(final Event event) {
+        return event.extract(this.topic.topic(), this.topic.outputType()::serialize);
+      }
+    }
+
+    public static TopicIndex of(final Iterable<SerializableTopic<?>> serializableTopics) {
+      final var entries = new HashMap<Topic<?>, List<Entry<?>>>();
+      final var descriptors = new ArrayList<Triple<Integer, String, ValueSchema>>();
+      for (final var serializableTopic : serializableTopics) {
+        final var id = descriptors.size();
+        entries
+            .computeIfAbsent(serializableTopic.topic(), $ -> new ArrayList<>(1))
+            .add(entry(id, serializableTopic));
+        descriptors.add(Triple.of(id, serializableTopic.name(), serializableTopic.outputType().getSchema()));
+      }
+      return new TopicIndex(entries, descriptors);
+    }
+
+    private static <T> Entry<T> entry(final int id, final SerializableTopic<T> topic) {
+      final Role role;
+      if (topic.name().startsWith("ActivityType.Input.")) role = Role.ActivityInput;
+      else if (topic.name().startsWith("ActivityType.Output.")) role = Role.ActivityOutput;
+      else role = Role.Other;
+
+      return new Entry<>(id, topic, role);
+    }
+
+    public List<Entry<?>> get(final Topic<?> topic) {
+      return this.entries.getOrDefault(topic, List.of());
+    }
+  }
+
 
   /**
    * Get an Activity Directive Id from a SpanId, if the span is a descendent of a directive.
@@ -687,7 +1046,7 @@ public final class SimulationEngine implements AutoCloseable {
       final SpanId spanId
   ) {
     // Collect per-span information from the event graph.
-    final var spanInfo = computeSpanInfo(activityTopic, serializableTopics, this.timeline);
+    final var spanInfo = computeSpanInfo(activityTopic, TopicIndex.of(serializableTopics), this.timeline);
 
     // Identify the nearest ancestor directive by walking up the parent
     // span tree. Save the activity trace along the way
@@ -709,6 +1068,30 @@ public final class SimulationEngine implements AutoCloseable {
         activityStackTrace.stream().filter(a -> a != null).collect(Collectors.toList()).reversed());
   }
 
+  /**
+   * Resolves the spans recorded by the engine's profiler to the activity types they belong to,
+   * so that the profiler's entries reflect every job performed so far. Does nothing if the engine is not profiled.
+   */
+  public void reportProfile(
+      final Topic<ActivityDirectiveId> activityTopic,
+      final Iterable<SerializableTopic<?>> serializableTopics
+  ) {
+    if (this.profiler.isEmpty()) return;
+
+    final var spanInfo = computeSpanInfo(activityTopic, TopicIndex.of(serializableTopics), this.combineTimeline());
+    final var activityTypes = new HashMap<SpanId, String>();
+    this.profiler.get().resolve(span -> activityTypes.computeIfAbsent(span, $ -> {
+      // Attribute a span to the nearest activity enclosing it.
+      Optional<SpanId> current = Optional.of($);
+      while (current.isPresent()) {
+        final var input = spanInfo.input().get(current.get());
+        if (input != null) return input.getTypeName();
+        current = this.spans.get(current.get()).parent();
+      }
+      return EngineProfiler.NO_ACTIVITY;
+    }));
+  }
+
   public record SimulationActivityExtract(
       Instant startTime,
       Duration duration,
@@ -718,16 +1101,16 @@ public final class SimulationEngine implements AutoCloseable {
 
   private SpanInfo computeSpanInfo(
       final Topic<ActivityDirectiveId> activityTopic,
-      final Iterable<SerializableTopic<?>> serializableTopics,
+      final TopicIndex topicIndex,
       final TemporalEventSource timeline
   ) {
     // Collect per-span information from the event graph.
     final var spanInfo = new SpanInfo();
 
+    final var trait = new SpanInfo.Trait(topicIndex, activityTopic);
     for (final var point : timeline) {
       if (!(point instanceof TemporalEventSource.TimePoint.Commit p)) continue;
 
-      final var trait = new SpanInfo.Trait(serializableTopics, activityTopic);
       p.events().evaluate(trait, trait::atom).accept(spanInfo);
     }
     return spanInfo;
@@ -740,7 +1123,7 @@ public final class SimulationEngine implements AutoCloseable {
   ) {
     return computeActivitySimulationResults(
         startTime,
-        computeSpanInfo(activityTopic, serializableTopics, combineTimeline())
+        computeSpanInfo(activityTopic, TopicIndex.of(serializableTopics), combineTimeline())
     );
   }
 
@@ -783,6 +1166,32 @@ public final class SimulationEngine implements AutoCloseable {
   public SimulationActivityExtract computeActivitySimulationResults(
       final Instant startTime,
       final SpanInfo spanInfo
+  ) {
+    return computeActivitySimulationResults(startTime, spanInfo, spanToSimulatedActivities(spanInfo));
+  }
+
+  private SimulationActivityExtract computeActivitySimulationResults(
+      final Instant startTime,
+      final SpanInfo spanInfo,
+      final Map<SpanId, ActivityInstanceId> spanToActivityInstanceId
+  ) {
+    final var simulatedActivities = new HashMap<ActivityInstanceId, ActivityInstance>();
+    final var unfinishedActivities = new HashMap<ActivityInstanceId, UnfinishedActivity>();
+    streamActivitySimulationResults(
+        startTime,
+        spanInfo,
+        spanToActivityInstanceId,
+        simulatedActivities::put,
+        unfinishedActivities::put);
+    return new SimulationActivityExtract(startTime, elapsedTime, simulatedActivities, unfinishedActivities);
+  }
+
+  private void streamActivitySimulationResults(
+      final Instant startTime,
+      final SpanInfo spanInfo,
+      final Map<SpanId, ActivityInstanceId> spanToActivityInstanceId,
+      final BiConsumer<ActivityInstanceId, ActivityInstance> simulatedActivities,
+      final BiConsumer<ActivityInstanceId, UnfinishedActivity> unfinishedActivities
   ) {
     // Identify the nearest ancestor *activity* (excluding intermediate anonymous tasks).
     final var activityParents = new HashMap<SpanId, SpanId>();
@@ -802,11 +1211,6 @@ public final class SimulationEngine implements AutoCloseable {
       activityChildren.computeIfAbsent(parent, $ -> new LinkedList<>()).add(activity);
     });
 
-    // Give every task corresponding to a child activity an ID that doesn't conflict with any root activity.
-    final var spanToActivityInstanceId = spanToSimulatedActivities(spanInfo);
-
-    final var simulatedActivities = new HashMap<ActivityInstanceId, ActivityInstance>();
-    final var unfinishedActivities = new HashMap<ActivityInstanceId, UnfinishedActivity>();
     this.spans.forEach((span, state) -> {
       if (!spanInfo.isActivity(span)) return;
 
@@ -817,7 +1221,7 @@ public final class SimulationEngine implements AutoCloseable {
         final var inputAttributes = spanInfo.input().get(span);
         final var outputAttributes = spanInfo.output().get(span);
 
-        simulatedActivities.put(activityId, new ActivityInstance(
+        simulatedActivities.accept(activityId, new ActivityInstance(
             inputAttributes.getTypeName(),
             inputAttributes.getArguments(),
             startTime.plus(state.startOffset().in(Duration.MICROSECONDS), ChronoUnit.MICROS),
@@ -833,7 +1237,7 @@ public final class SimulationEngine implements AutoCloseable {
         ));
       } else {
         final var inputAttributes = spanInfo.input().get(span);
-        unfinishedActivities.put(activityId, new UnfinishedActivity(
+        unfinishedActivities.accept(activityId, new UnfinishedActivity(
             inputAttributes.getTypeName(),
             inputAttributes.getArguments(),
             startTime.plus(state.startOffset().in(Duration.MICROSECONDS), ChronoUnit.MICROS),
@@ -847,26 +1251,34 @@ public final class SimulationEngine implements AutoCloseable {
         ));
       }
     });
-    return new SimulationActivityExtract(startTime, elapsedTime, simulatedActivities, unfinishedActivities);
   }
 
-  private TreeMap<Duration, List<EventGraph<EventRecord>>> createSerializedTimeline(
+  /**
+   * Serializes the events of a timeline, passing the events committed at each time to a consumer
+   * as soon as time advances past them, so that only one time's worth of serialized events is held at once.
+   */
+  private void streamSerializedTimeline(
       final TemporalEventSource combinedTimeline,
-      final Iterable<SerializableTopic<?>> serializableTopics,
+      final TopicIndex topicIndex,
       final HashMap<SpanId, ActivityInstanceId> spanToActivities,
-      final HashMap<SerializableTopic<?>, Integer> serializableTopicToId) {
-    final var serializedTimeline = new TreeMap<Duration, List<EventGraph<EventRecord>>>();
+      final BiConsumer<Duration, List<EventGraph<EventRecord>>> serializedTimeline) {
     var time = Duration.ZERO;
-    for (var point : combinedTimeline.points()) {
+    var batch = new ArrayList<EventGraph<EventRecord>>();
+    for (var point : combinedTimeline) {
       if (point instanceof TemporalEventSource.TimePoint.Delta delta) {
+        if (delta.delta().isZero()) continue;
+
+        if (!batch.isEmpty()) {
+          serializedTimeline.accept(time, batch);
+          batch = new ArrayList<>();
+        }
         time = time.plus(delta.delta());
       } else if (point instanceof TemporalEventSource.TimePoint.Commit commit) {
         final var serializedEventGraph = commit.events().substitute(
             event -> {
-              // TODO can we do this more efficiently?
               EventGraph<EventRecord> output = EventGraph.empty();
-              for (final var serializableTopic : serializableTopics) {
-                Optional<SerializedValue> serializedEvent = trySerializeEvent(event, serializableTopic);
+              for (final var serializableTopic : topicIndex.get(event.topic())) {
+                Optional<SerializedValue> serializedEvent = serializableTopic.trySerialize(event);
                 if (serializedEvent.isPresent()) {
                   // If the event's `provenance` has no simulated activity id, search its ancestors to find the nearest
                   // simulated activity id, if one exists
@@ -888,7 +1300,7 @@ public final class SimulationEngine implements AutoCloseable {
                   output = EventGraph.concurrently(
                       output,
                       EventGraph.atom(
-                          new EventRecord(serializableTopicToId.get(serializableTopic),
+                          new EventRecord(serializableTopic.id(),
                                           activitySpanID,
                                           serializedEvent.get())));
                 }
@@ -897,13 +1309,11 @@ public final class SimulationEngine implements AutoCloseable {
             }
         ).evaluate(new EventGraph.IdentityTrait<>(), EventGraph::atom);
         if (!(serializedEventGraph instanceof EventGraph.Empty)) {
-          serializedTimeline
-              .computeIfAbsent(time, x -> new ArrayList<>())
-              .add(serializedEventGraph);
+          batch.add(serializedEventGraph);
         }
       }
     }
-    return serializedTimeline;
+    if (!batch.isEmpty()) serializedTimeline.accept(time, batch);
   }
 
 
@@ -920,97 +1330,109 @@ public final class SimulationEngine implements AutoCloseable {
       final Iterable<SerializableTopic<?>> serializableTopics,
       final SimulationResourceManager resourceManager
   ) {
-    final var combinedTimeline = this.combineTimeline();
-    // Collect per-task information from the event graph.
-    final var spanInfo = computeSpanInfo(activityTopic, serializableTopics, combinedTimeline);
-
-    // Extract profiles for every resource.
-    final var resourceProfiles = resourceManager.computeProfiles(elapsedTime);
-    final var realProfiles = resourceProfiles.realProfiles();
-    final var discreteProfiles = resourceProfiles.discreteProfiles();
-
-    final var activityResults = computeActivitySimulationResults(startTime, spanInfo);
-
-    final List<Triple<Integer, String, ValueSchema>> topics = new ArrayList<>();
-    final var serializableTopicToId = new HashMap<SerializableTopic<?>, Integer>();
-    for (final var serializableTopic : serializableTopics) {
-      serializableTopicToId.put(serializableTopic, topics.size());
-      topics.add(Triple.of(topics.size(), serializableTopic.name(), serializableTopic.outputType().getSchema()));
-    }
+    return computeResults(startTime, activityTopic, serializableTopics, resourceManager.computeProfiles(elapsedTime));
+  }
 
-    final var serializedTimeline = createSerializedTimeline(
-        combinedTimeline,
+  public SimulationResults computeResults(
+      final Instant startTime,
+      final Topic<ActivityDirectiveId> activityTopic,
+      final Iterable<SerializableTopic<?>> serializableTopics,
+      final SimulationResourceManager resourceManager,
+      final Set<String> resourceNames
+  ) {
+    return computeResults(
+        startTime,
+        activityTopic,
         serializableTopics,
-        spanToSimulatedActivities(spanInfo),
-        serializableTopicToId
-    );
+        resourceManager.computeProfiles(elapsedTime, resourceNames));
+  }
+
+  private SimulationResults computeResults(
+      final Instant startTime,
+      final Topic<ActivityDirectiveId> activityTopic,
+      final Iterable<SerializableTopic<?>> serializableTopics,
+      final ResourceProfiles resourceProfiles
+  ) {
+    final var results = new ResultsCollector();
+    streamResults(startTime, activityTopic, serializableTopics, results);
 
     return new SimulationResults(
-        realProfiles,
-        discreteProfiles,
-        activityResults.simulatedActivities,
-        activityResults.unfinishedActivities,
+        resourceProfiles.realProfiles(),
+        resourceProfiles.discreteProfiles(),
+        results.simulatedActivities,
+        results.unfinishedActivities,
         startTime,
         elapsedTime,
-        topics,
-        serializedTimeline);
+        results.topics,
+        results.events);
   }
 
-  public SimulationResults computeResults(
+  /**
+   * Stream the activity and event results of the simulation so far to a sink,
+   * without collecting them into a {@link SimulationResults}.
+   * Only the per-activity bookkeeping and one time's worth of serialized events are held in memory at once.
+   */
+  public void streamResults(
       final Instant startTime,
       final Topic<ActivityDirectiveId> activityTopic,
       final Iterable<SerializableTopic<?>> serializableTopics,
-      final SimulationResourceManager resourceManager,
-      final Set<String> resourceNames
+      final SimulationResultsSink sink
   ) {
     final var combinedTimeline = this.combineTimeline();
+    final var topicIndex = TopicIndex.of(serializableTopics);
+
     // Collect per-task information from the event graph.
-    final var spanInfo = computeSpanInfo(activityTopic, serializableTopics, combinedTimeline);
+    final var spanInfo = computeSpanInfo(activityTopic, topicIndex, combinedTimeline);
+    // Give every task corresponding to a child activity an ID that doesn't conflict with any root activity.
+    final var spanToActivityInstanceId = spanToSimulatedActivities(spanInfo);
 
-    // Extract profiles for every resource.
-    final var resourceProfiles = resourceManager.computeProfiles(elapsedTime, resourceNames);
-    final var realProfiles = resourceProfiles.realProfiles();
-    final var discreteProfiles = resourceProfiles.discreteProfiles();
+    sink.acceptTopics(topicIndex.descriptors());
+    streamActivitySimulationResults(
+        startTime,
+        spanInfo,
+        spanToActivityInstanceId,
+        sink::acceptActivity,
+        sink::acceptUnfinishedActivity);
+    streamSerializedTimeline(combinedTimeline, topicIndex, spanToActivityInstanceId, sink::acceptEvents);
+  }
 
-    final var activityResults = computeActivitySimulationResults(startTime, spanInfo);
+  /** Collects streamed results in memory, for callers that want a whole {@link SimulationResults}. */
+  private static final class ResultsCollector implements SimulationResultsSink {
+    private List<Triple<Integer, String, ValueSchema>> topics = List.of();
+    private final Map<ActivityInstanceId, ActivityInstance> simulatedActivities = new HashMap<>();
+    private final Map<ActivityInstanceId, UnfinishedActivity> unfinishedActivities = new HashMap<>();
+    private final TreeMap<Duration, List<EventGraph<EventRecord>>> events = new TreeMap<>();
 
-    final List<Triple<Integer, String, ValueSchema>> topics = new ArrayList<>();
-    final var serializableTopicToId = new HashMap<SerializableTopic<?>, Integer>();
-    for (final var serializableTopic : serializableTopics) {
-      serializableTopicToId.put(serializableTopic, topics.size());
-      topics.add(Triple.of(topics.size(), serializableTopic.name(), serializableTopic.outputType().getSchema()));
+    @Override
+    public void acceptTopics(final List<Triple<Integer, String, ValueSchema>> topics) {
+      this.topics = topics;
     }
 
-    final var serializedTimeline = createSerializedTimeline(
-        combinedTimeline,
-        serializableTopics,
-        spanToSimulatedActivities(spanInfo),
-        serializableTopicToId
-    );
+    @Override
+    public void acceptActivity(final ActivityInstanceId id, final ActivityInstance activity) {
+      this.simulatedActivities.put(id, activity);
+    }
 
-    return new SimulationResults(
-        realProfiles,
-        discreteProfiles,
-        activityResults.simulatedActivities,
-        activityResults.unfinishedActivities,
-        startTime,
-        elapsedTime,
-        topics,
-        serializedTimeline);
+    @Override
+    public void acceptUnfinishedActivity(final ActivityInstanceId id, final UnfinishedActivity activity) {
+      this.unfinishedActivities.put(id, activity);
+    }
+
+    @Override
+    public void acceptEvents(final Duration time, final List<EventGraph<EventRecord>> events) {
+      this.events.put(time, events);
+    }
   }
 
   public Span getSpan(SpanId spanId) {
     return this.spans.get(spanId);
   }
 
-
-  private static <EventType> Optional<SerializedValue> trySerializeEvent(
-      Event event,
-      SerializableTopic<EventType> serializableTopic
-  ) {
-    return event.extract(serializableTopic.topic(), serializableTopic.outputType()::serialize);
+  /* package-private */ Map<SpanId, Span> getSpans() {
+    return Collections.unmodifiableMap(this.spans);
   }
 
+
   /** A handle for processing requests from a modeled resource or condition. */
   private static final class EngineQuerier implements Querier {
     private final TaskFrame<JobId> frame;
@@ -1050,17 +1472,20 @@ public final class SimulationEngine implements AutoCloseable {
     private final SpanId span;
     private final Optional<TaskId> caller;
     private final TaskFrame<JobId> frame;
+    private final JobEffects effects;
 
     public EngineScheduler(
         final Duration currentTime,
         final SpanId span,
         final Optional<TaskId> caller,
-        final TaskFrame<JobId> frame)
+        final TaskFrame<JobId> frame,
+        final JobEffects effects)
     {
       this.currentTime = Objects.requireNonNull(currentTime);
       this.span = Objects.requireNonNull(span);
       this.caller = Objects.requireNonNull(caller);
       this.frame = Objects.requireNonNull(frame);
+      this.effects = Objects.requireNonNull(effects);
     }
 
     @Override
@@ -1080,7 +1505,7 @@ public final class SimulationEngine implements AutoCloseable {
       // Append this event to the timeline.
       this.frame.emit(Event.create(topic, event, this.span));
 
-      SimulationEngine.this.invalidateTopic(topic, this.currentTime);
+      this.effects.apply(() -> SimulationEngine.this.invalidateTopic(topic, this.currentTime));
     }
 
     @Override
@@ -1090,24 +1515,27 @@ public final class SimulationEngine implements AutoCloseable {
         case Parent -> this.span;
 
         case Fresh -> {
-          final var freshSpan = SpanId.generate();
-          SimulationEngine.this.spans.put(freshSpan, new Span(Optional.of(this.span), currentTime, Optional.empty()));
-          SimulationEngine.this.spanContributorCount.put(freshSpan, new MutableInt(1));
+          final var freshSpan = new SpanId(SimulationEngine.this.allocateId(this.effects));
+          this.effects.apply(() -> {
+            SimulationEngine.this.spans.put(freshSpan, new Span(Optional.of(this.span), currentTime, Optional.empty()));
+            SimulationEngine.this.spanContributorCount.put(freshSpan.id(), new MutableInt(1));
+          });
           yield freshSpan;
         }
       };
 
-      final var childTask = TaskId.generate();
-      SimulationEngine.this.spanContributorCount.get(this.span).increment();
-      SimulationEngine.this.tasks.put(
+      final var childTask = new TaskId(SimulationEngine.this.allocateId(this.effects));
+      this.effects.apply(() -> SimulationEngine.this.spanContributorCount.get(this.span.id()).increment());
+      SimulationEngine.this.putSpawnedTask(
           childTask,
           new ExecutionState<>(
               childSpan,
               this.caller,
-              state.create(SimulationEngine.this.executor)));
+              state.create(SimulationEngine.this.executor)),
+          this.effects);
       this.frame.signal(JobId.forTask(childTask));
 
-      this.caller.ifPresent($ -> SimulationEngine.this.blockedTasks.get($).increment());
+      this.effects.apply(() -> this.caller.ifPresent($ -> SimulationEngine.this.blockedTasks.get($.id()).increment()));
     }
   }
 
@@ -1142,6 +1570,79 @@ public final class SimulationEngine implements AutoCloseable {
     }
   }
 
+  /**
+   * The writes a job makes to the engine's bookkeeping.
+   *
+   * <p>
+   *   Outside of a parallel batch, writes are applied as soon as they are made. Within a parallel batch, they are
+   *   logged and later replayed in batch order; tasks spawned by the job are kept aside until then, so that the job
+   *   can still step them.
+   * </p>
+   */
+  private static final class JobEffects {
+    static final JobEffects IMMEDIATE = new JobEffects(null, 0, 0);
+
+    private final List<Runnable> log;
+    private final Map<TaskId, ExecutionState<?>> spawnedTasks = new HashMap<>();
+
+    private final long firstId;
+    private final int idStride;
+    private long idsAllocated = 0;
+
+    private JobEffects(final List<Runnable> log, final long firstId, final int idStride) {
+      this.log = log;
+      this.firstId = firstId;
+      this.idStride = idStride;
+    }
+
+    /**
+     * Creates the log for the job at position `index` of a parallel batch of `count` jobs,
+     * whose IDs are drawn from those at or after `firstId`.
+     */
+    static JobEffects deferred(final long firstId, final int index, final int count) {
+      return new JobEffects(new ArrayList<>(), firstId + index, count);
+    }
+
+    /**
+     * Allocates an ID for a span, task, or condition created by a job of a parallel batch.
+     *
+     * <p>
+     *   The k-th ID allocated by the i-th of n jobs is `firstId + k*n + i`. The jobs therefore never allocate the same
+     *   ID, and the IDs a job receives depend only on its position in the batch and on what it does, not on which
+     *   thread performs it or on how its allocations interleave with those of other jobs. Parallel batches number
+     *   everything identically from one run to the next, though differently from serial batches.
+     * </p>
+     */
+    long allocateId() {
+      final var id = this.firstId + this.idsAllocated * this.idStride;
+      this.idsAllocated += 1;
+      return id;
+    }
+
+    /** The number of IDs that jobs of this job's batch must skip past. */
+    long idsReserved() {
+      return this.idsAllocated * this.idStride;
+    }
+
+    boolean isImmediate() {
+      return (this.log == null);
+    }
+
+    void apply(final Runnable effect) {
+      if (this.log == null) {
+        effect.run();
+      } else {
+        this.log.add(effect);
+      }
+    }
+
+    void replay() {
+      if (this.log == null) return;
+      for (final var effect : this.log) effect.run();
+      this.log.clear();
+    }
+  }
+
   /** The state of an executing task. */
   private record ExecutionState<Output>(SpanId span, Optional<TaskId> caller, Task<Output> state) {
     public ExecutionState<Output> continueWith(final Task<Output> newState) {
@@ -1184,24 +1685,10 @@ public final class SimulationEngine implements AutoCloseable {
 
   /**
    * Create a timeline that in the output of the engine's reference timeline combined with its expanded timeline.
+   *
+   * The combined timeline shares the points of both timelines rather than copying them.
    */
   public TemporalEventSource combineTimeline() {
-    final TemporalEventSource combinedTimeline = new TemporalEventSource();
-    for (final var timePoint : referenceTimeline.points()) {
-      if (timePoint instanceof TemporalEventSource.TimePoint.Delta t) {
-        combinedTimeline.add(t.delta());
-      } else if (timePoint instanceof TemporalEventSource.TimePoint.Commit t) {
-        combinedTimeline.add(t.events());
-      }
-    }
-
-    for (final var timePoint : timeline) {
-      if (timePoint instanceof TemporalEventSource.TimePoint.Delta t) {
-        combinedTimeline.add(t.delta());
-      } else if (timePoint instanceof TemporalEventSource.TimePoint.Commit t) {
-        combinedTimeline.add(t.events());
-      }
-    }
-    return combinedTimeline;
+    return this.referenceTimeline.followedBy(this.timeline);
   }
 }
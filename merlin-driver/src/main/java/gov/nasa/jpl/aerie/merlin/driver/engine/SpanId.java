@@ -1,10 +1,9 @@
 package gov.nasa.jpl.aerie.merlin.driver.engine;
 
-import java.util.UUID;
-
-/** A typed wrapper for span IDs. */
-public record SpanId(String id) {
-  public static SpanId generate() {
-    return new SpanId(UUID.randomUUID().toString());
-  }
-}
+/**
+ * A typed wrapper for span IDs.
+ *
+ * <p>IDs are allocated by the {@link SimulationEngine} that owns the span, and are only unique within that engine
+ * and the engines duplicated from it.</p>
+ */
+public record SpanId(long id) {}
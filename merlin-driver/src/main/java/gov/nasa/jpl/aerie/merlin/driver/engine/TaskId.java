@@ -1,10 +1,9 @@
 package gov.nasa.jpl.aerie.merlin.driver.engine;
 
-import java.util.UUID;
-
-/** A typed wrapper for task IDs. */
-public record TaskId(String id) {
-  public static TaskId generate() {
-    return new TaskId(UUID.randomUUID().toString());
-  }
-}
+/**
+ * A typed wrapper for task IDs.
+ *
+ * <p>IDs are allocated by the {@link SimulationEngine} that owns the task, and are only unique within that engine
+ * and the engines duplicated from it.</p>
+ */
+public record TaskId(long id) {}
@@ -0,0 +1,65 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.util.HashMap;
+
+/**
+ * Appends samples of discrete resources to their segments, keeping the segments compact.
+ *
+ * <p>
+ *   A discrete resource is re-sampled whenever a cell it depends on expires or changes, which often leaves its value
+ *   unchanged. A sample equal to the latest segment of its resource extends that segment instead of starting a new one,
+ *   and values that recur within or across resources, such as enum strings and small structs, share a single instance.
+ * </p>
+ */
+public final class DiscreteSegmentCompactor {
+  // Bounds the memory held by values that turn out not to recur, such as those of counters.
+  private static final int MAX_INTERNED_VALUES = 4096;
+
+  private final boolean keepRawSamples;
+  private final HashMap<SerializedValue, SerializedValue> internedValues = new HashMap<>();
+
+  /**
+   * @param keepRawSamples whether to keep every sample as its own segment, as it was received,
+   *     so that the segments show each time a resource was re-sampled
+   */
+  DiscreteSegmentCompactor(final boolean keepRawSamples) {
+    this.keepRawSamples = keepRawSamples;
+  }
+
+  /** Create a compactor that handles samples the same way as another, without sharing its interned values. */
+  DiscreteSegmentCompactor(final DiscreteSegmentCompactor other) {
+    this.keepRawSamples = other.keepRawSamples;
+  }
+
+  /**
+   * Append a sample of a discrete resource to its segments, unless it only repeats the latest segment.
+   * @param segments the segments of the sampled resource
+   * @param elapsedTime the time at which the resource was sampled. Must not precede the latest segment.
+   * @param value the sampled value
+   */
+  void append(final ResourceSegments<SerializedValue> segments, final Duration elapsedTime, final SerializedValue value) {
+    final var list = segments.segments();
+    if (this.keepRawSamples) {
+      list.add(new ResourceSegments.Segment<>(elapsedTime, value));
+      return;
+    }
+
+    if (!list.isEmpty()) {
+      final var latest = list.getLast().dynamics();
+      if (latest == value || latest.equals(value)) return;
+    }
+
+    list.add(new ResourceSegments.Segment<>(elapsedTime, intern(value)));
+  }
+
+  private SerializedValue intern(final SerializedValue value) {
+    final var interned = this.internedValues.get(value);
+    if (interned != null) return interned;
+
+    if (this.internedValues.size() < MAX_INTERNED_VALUES) this.internedValues.put(value, value);
+    return value;
+  }
+}
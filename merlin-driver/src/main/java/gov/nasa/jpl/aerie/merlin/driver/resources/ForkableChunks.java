@@ -0,0 +1,168 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Append-only storage for a sequence of elements, laid out in chunks that are shared between the forks of a sequence.
+ *
+ * <p>
+ *   Each chunk links back to the chunk before it, so forking a sequence only copies a reference to its last chunk.
+ *   Chunks are never modified once an element has been written to them, except by appending to their free space.
+ *   The free space of a chunk goes to whichever fork appends to it first. Any other fork that appends afterwards copies
+ *   its share of that chunk before appending, so that forks only ever pay for the history they do not have in common.
+ * </p>
+ * <p>
+ *   A sequence holding a chunk also holds every chunk before it, so the chunks that a sequence shares with others
+ *   always come before those it holds alone.
+ * </p>
+ *
+ * @param <Data> the arrays in which a chunk stores its elements
+ */
+final class ForkableChunks<Data> {
+  /** How the elements of a chunk are laid out in memory. */
+  interface Layout<Data> {
+    Data allocate(int capacity);
+
+    void copy(Data from, Data to, int length);
+  }
+
+  static final class Chunk<Data> {
+    final Chunk<Data> previous;
+    /** The index, within the whole sequence, of the first element of this chunk. */
+    final int offset;
+    final int capacity;
+    final Data data;
+    /** The number of elements of this chunk that have been claimed by some fork of the sequence. */
+    private final AtomicInteger claimed;
+
+    private Chunk(final Chunk<Data> previous, final int offset, final int capacity, final Data data, final int claimed) {
+      this.previous = previous;
+      this.offset = offset;
+      this.capacity = capacity;
+      this.data = data;
+      this.claimed = new AtomicInteger(claimed);
+    }
+  }
+
+  private static final int MIN_CHUNK_CAPACITY = 8;
+  private static final int MAX_CHUNK_CAPACITY = 1024;
+
+  private final Layout<Data> layout;
+  private final int initialChunkCapacity;
+  private Chunk<Data> tail;
+  private int size;
+
+  ForkableChunks(final Layout<Data> layout) {
+    this(layout, MIN_CHUNK_CAPACITY);
+  }
+
+  ForkableChunks(final Layout<Data> layout, final int initialChunkCapacity) {
+    this.layout = layout;
+    this.initialChunkCapacity = Math.min(Math.max(initialChunkCapacity, MIN_CHUNK_CAPACITY), MAX_CHUNK_CAPACITY);
+    this.tail = null;
+    this.size = 0;
+  }
+
+  private ForkableChunks(final ForkableChunks<Data> other) {
+    this.layout = other.layout;
+    this.initialChunkCapacity = other.initialChunkCapacity;
+    this.tail = other.tail;
+    this.size = other.size;
+  }
+
+  /** Create a sequence with the same elements as this one, sharing their storage. Takes constant time. */
+  public ForkableChunks<Data> fork() {
+    return new ForkableChunks<>(this);
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Make room for one more element at the end of this sequence.
+   * @return the chunk to write the new element to, at index {@code size() - 1 - offset}
+   */
+  public Chunk<Data> claimNext() {
+    final var tail = this.tail;
+    final var tailSize = (tail == null) ? 0 : this.size - tail.offset;
+
+    if (tail == null || tailSize == tail.capacity) {
+      // Chunks grow along with the sequence, so that short sequences stay small and long ones need few chunks.
+      final var capacity = (tail == null)
+          ? this.initialChunkCapacity
+          : Math.min(Math.max(this.size, this.initialChunkCapacity), MAX_CHUNK_CAPACITY);
+      this.tail = new Chunk<>(tail, this.size, capacity, this.layout.allocate(capacity), 1);
+    } else if (!tail.claimed.compareAndSet(tailSize, tailSize + 1)) {
+      // Another fork has already appended to this chunk, so this fork diverges from it here.
+      final var copy = this.layout.allocate(tail.capacity);
+      this.layout.copy(tail.data, copy, tailSize);
+      this.tail = new Chunk<>(tail.previous, tail.offset, tail.capacity, copy, tailSize + 1);
+    }
+
+    this.size += 1;
+    return this.tail;
+  }
+
+  /** The chunk holding the element at the given index, which must be within bounds. */
+  public Chunk<Data> chunkOf(final int index) {
+    var chunk = this.tail;
+    while (chunk.offset > index) chunk = chunk.previous;
+    return chunk;
+  }
+
+  /** The chunks of this sequence, in order. Only the first {@code size() - offset} elements of the last are in this sequence. */
+  public List<Chunk<Data>> chunks() {
+    final var chunks = new ArrayList<Chunk<Data>>();
+    for (var chunk = this.tail; chunk != null; chunk = chunk.previous) chunks.add(chunk);
+    Collections.reverse(chunks);
+    return chunks;
+  }
+
+  /**
+   * Estimate the memory held by the chunks of this sequence that are not in {@code counted} yet, then add them to it,
+   * so that chunks shared between several sequences are only counted for the first of them.
+   * @param counted the chunks counted so far. Must only hold chunks added by this method.
+   * @param chunkSize the estimated number of bytes held by the data of a chunk
+   */
+  public long estimatedSizeInBytes(final Set<Object> counted, final ToLongFunction<Data> chunkSize) {
+    long size = 0;
+    // Once a chunk has been counted, so have all the chunks before it.
+    for (var chunk = this.tail; chunk != null && counted.add(chunk); chunk = chunk.previous) {
+      size += 32 + chunkSize.applyAsLong(chunk.data);
+    }
+    return size;
+  }
+
+  /**
+   * The number of elements at the start of this sequence that are held in the given chunks,
+   * which must include every chunk before any chunk they include.
+   */
+  public int sharedLength(final Set<Object> chunks) {
+    for (var chunk = this.tail; chunk != null; chunk = chunk.previous) {
+      if (chunks.contains(chunk)) return Math.min(this.size, chunk.offset + chunk.capacity);
+    }
+    return 0;
+  }
+
+  /** Drop the elements of this sequence beyond the given length. Other forks of this sequence keep them. */
+  public void truncate(final int length) {
+    if (length < 0 || length > this.size) throw new IndexOutOfBoundsException(length);
+    if (length == 0) {
+      clear();
+    } else {
+      this.tail = chunkOf(length - 1);
+      this.size = length;
+    }
+  }
+
+  public void clear() {
+    this.tail = null;
+    this.size = 0;
+  }
+}
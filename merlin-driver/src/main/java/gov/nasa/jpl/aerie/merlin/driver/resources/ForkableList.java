@@ -0,0 +1,130 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * An append-only list whose forks share the elements they have in common. See {@link ForkableChunks}.
+ *
+ * <p>
+ *   Elements are best read in order, through {@link #iterator()}.
+ *   Reading by index walks back from the last element, which is only cheap near the end of the list.
+ * </p>
+ */
+final class ForkableList<E> extends AbstractList<E> {
+  private static final ForkableChunks.Layout<Object[]> LAYOUT = new ForkableChunks.Layout<>() {
+    @Override
+    public Object[] allocate(final int capacity) {
+      return new Object[capacity];
+    }
+
+    @Override
+    public void copy(final Object[] from, final Object[] to, final int length) {
+      System.arraycopy(from, 0, to, 0, length);
+    }
+  };
+
+  private final ForkableChunks<Object[]> chunks;
+
+  ForkableList() {
+    this.chunks = new ForkableChunks<>(LAYOUT);
+  }
+
+  ForkableList(final int initialCapacity) {
+    this.chunks = new ForkableChunks<>(LAYOUT, initialCapacity);
+  }
+
+  private ForkableList(final ForkableChunks<Object[]> chunks) {
+    this.chunks = chunks;
+  }
+
+  /** Create a list with the same elements as this one, sharing their storage. Takes constant time. */
+  public ForkableList<E> fork() {
+    return new ForkableList<>(this.chunks.fork());
+  }
+
+  @Override
+  public int size() {
+    return this.chunks.size();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(final int index) {
+    Objects.checkIndex(index, this.chunks.size());
+    final var chunk = this.chunks.chunkOf(index);
+    return (E) chunk.data[index - chunk.offset];
+  }
+
+  @Override
+  public boolean add(final E element) {
+    final var chunk = this.chunks.claimNext();
+    chunk.data[this.chunks.size() - 1 - chunk.offset] = element;
+    this.modCount += 1;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    this.chunks.clear();
+    this.modCount += 1;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    final var chunks = this.chunks.chunks();
+    final var size = this.chunks.size();
+
+    return new Iterator<>() {
+      private int chunkIndex = 0;
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.index < size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        var chunk = chunks.get(this.chunkIndex);
+        if (this.index - chunk.offset == chunk.capacity) chunk = chunks.get(++this.chunkIndex);
+        return (E) chunk.data[this.index++ - chunk.offset];
+      }
+    };
+  }
+
+  /**
+   * Estimate the memory held by the storage of this list that is not in {@code counted} yet, then add it.
+   * See {@link ForkableChunks#estimatedSizeInBytes}.
+   * @param elementSize the estimated number of bytes held by an element
+   */
+  @SuppressWarnings("unchecked")
+  long estimatedSizeInBytes(final Set<Object> counted, final ToLongFunction<E> elementSize) {
+    return this.chunks.estimatedSizeInBytes(counted, data -> {
+      // The slots of a shared chunk may hold the elements of other forks, which are held all the same.
+      long size = 16 + 8L * data.length;
+      for (final var element : data) {
+        if (element != null) size += elementSize.applyAsLong((E) element);
+      }
+      return size;
+    });
+  }
+
+  /** The number of elements at the start of this list whose storage is in the given set. See {@link ForkableChunks#sharedLength}. */
+  int sharedLength(final Set<Object> storage) {
+    return this.chunks.sharedLength(storage);
+  }
+
+  /** Drop the elements of this list beyond the given length. Forks of this list keep them. */
+  void truncate(final int length) {
+    this.chunks.truncate(length);
+    this.modCount += 1;
+  }
+}
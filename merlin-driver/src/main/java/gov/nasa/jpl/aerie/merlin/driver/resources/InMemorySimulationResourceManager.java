@@ -7,9 +7,14 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,30 +22,47 @@ import java.util.Set;
  * A variant of the SimulationResourceManager that keeps all segments in memory
  */
 public class InMemorySimulationResourceManager implements SimulationResourceManager {
-  private final HashMap<String, ResourceSegments<RealDynamics>> realResourceSegments;
+  private final HashMap<String, RealResourceSegments> realResourceSegments;
   private final HashMap<String, ResourceSegments<SerializedValue>> discreteResourceSegments;
+  private final DiscreteSegmentCompactor discreteSegmentCompactor;
 
   private Duration lastReceivedTime;
 
+  /** Where the segments of this manager have been spilled to, or null if they are held in memory. */
+  private ResourceSegmentsSpill spill;
+
+  /** Creates a resource manager that keeps every sample of a discrete resource as its own segment. */
   public InMemorySimulationResourceManager() {
+    this(true);
+  }
+
+  /**
+   * @param keepRawDiscreteSamples whether to keep every sample of a discrete resource as its own segment.
+   *     Otherwise, a sample equal to the latest segment of its resource extends that segment,
+   *     and values that recur share a single instance.
+   */
+  public InMemorySimulationResourceManager(final boolean keepRawDiscreteSamples) {
     this.realResourceSegments = new HashMap<>();
     this.discreteResourceSegments = new HashMap<>();
+    this.discreteSegmentCompactor = new DiscreteSegmentCompactor(keepRawDiscreteSamples);
     lastReceivedTime = Duration.ZERO;
   }
 
   public InMemorySimulationResourceManager(InMemorySimulationResourceManager other) {
+    other.restore();
     this.realResourceSegments = new HashMap<>(other.realResourceSegments.size());
     this.discreteResourceSegments = new HashMap<>(other.discreteResourceSegments.size());
+    this.discreteSegmentCompactor = new DiscreteSegmentCompactor(other.discreteSegmentCompactor);
 
     this.lastReceivedTime = other.lastReceivedTime;
 
     // Deep copy the resource maps
     for(final var entry : other.realResourceSegments.entrySet()) {
-      final var segments = entry.getValue().deepCopy();
+      final var segments = entry.getValue().fork();
       realResourceSegments.put(entry.getKey(), segments);
     }
     for(final var entry : other.discreteResourceSegments.entrySet()) {
-      final var segments = entry.getValue().deepCopy();
+      final var segments = entry.getValue().fork();
       discreteResourceSegments.put(entry.getKey(), segments);
     }
   }
@@ -51,6 +73,125 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
   public void clear() {
     realResourceSegments.clear();
     discreteResourceSegments.clear();
+
+    if (spill != null) {
+      try {
+        spill.delete();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      spill = null;
+    }
+  }
+
+  /**
+   * Write the segments of this manager out to a file and release them from memory.
+   * They are read back the next time this manager is used, or when {@link #restore()} is called.
+   * @param file the file to write the segments to. It is deleted once the segments have been read back.
+   */
+  public void spillTo(final Path file) throws IOException {
+    spillTo(file, Set.of());
+  }
+
+  /**
+   * Write the segments of this manager out to a file and release them from memory, except for those whose storage
+   * other managers keep in memory anyway. Forks of a manager share the storage of the segments they have in common,
+   * so that releasing it from one of them would not free any memory, and reading it back would duplicate it.
+   * The segments are read back the next time this manager is used, or when {@link #restore()} is called.
+   * @param file the file to write the segments to. It is deleted once the segments have been read back.
+   * @param retained the storage of the segments of the managers that stay in memory,
+   *     as collected by {@link #estimatedSizeInBytes(Set)}
+   */
+  public void spillTo(final Path file, final Set<Object> retained) throws IOException {
+    if (spill != null) return;
+
+    spill = ResourceSegmentsSpill.write(file, realResourceSegments, discreteResourceSegments, retained);
+  }
+
+  /** Whether the segments of this manager are currently spilled to a file. */
+  public boolean isSpilled() {
+    return spill != null;
+  }
+
+  /**
+   * Read the segments of this manager back into memory, if they have been spilled to a file.
+   */
+  public void restore() {
+    if (spill == null) return;
+
+    try {
+      spill.readInto(realResourceSegments, discreteResourceSegments);
+      spill.delete();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Unable to read back spilled resource segments", e);
+    }
+    spill = null;
+  }
+
+  /**
+   * An estimate of the number of bytes of memory held by the segments of this manager,
+   * including the storage it shares with its forks. Segments spilled to a file do not count.
+   */
+  public long estimatedSizeInBytes() {
+    return estimatedSizeInBytes(new HashSet<>());
+  }
+
+  /**
+   * An estimate of the number of bytes of memory held by the segments of this manager, leaving out their storage
+   * already in {@code counted}, which is then added to it. Passing the same set to forks of a manager
+   * counts the storage they share only once. Segments spilled to a file do not count.
+   * @param counted the storage counted so far, as collected by this method. It is compared by identity.
+   */
+  public long estimatedSizeInBytes(final Set<Object> counted) {
+    long size = 0;
+    for (final var segments : realResourceSegments.values()) {
+      size += segments.estimatedSizeInBytes(counted);
+    }
+    for (final var segments : discreteResourceSegments.values()) {
+      // The segment and its start offset
+      size += segments.segments().estimatedSizeInBytes(counted, segment -> 48 + estimatedSizeInBytes(segment.dynamics()));
+    }
+    return size;
+  }
+
+  private static long estimatedSizeInBytes(final SerializedValue value) {
+    return value.match(new SerializedValue.Visitor<>() {
+      @Override
+      public Long onNull() {
+        return 16L;
+      }
+
+      @Override
+      public Long onNumeric(final BigDecimal value) {
+        return 48L;
+      }
+
+      @Override
+      public Long onBoolean(final boolean value) {
+        return 16L;
+      }
+
+      @Override
+      public Long onString(final String value) {
+        return 56L + value.length();
+      }
+
+      @Override
+      public Long onMap(final Map<String, SerializedValue> value) {
+        long size = 64;
+        for (final var entry : value.entrySet()) {
+          size += 32 + onString(entry.getKey()) + estimatedSizeInBytes(entry.getValue());
+        }
+        return size;
+      }
+
+      @Override
+      public Long onList(final List<SerializedValue> value) {
+        long size = 32;
+        for (final var element : value) size += 8 + estimatedSizeInBytes(element);
+        return size;
+      }
+    });
   }
 
   /**
@@ -59,6 +200,7 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
    */
   @Override
   public ResourceProfiles computeProfiles(final Duration elapsedDuration) {
+    restore();
     final var keySet = new HashSet<>(realResourceSegments.keySet());
     keySet.addAll(discreteResourceSegments.keySet());
     return computeProfiles(elapsedDuration, keySet);
@@ -71,28 +213,21 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
    */
   @Override
   public ResourceProfiles computeProfiles(final Duration elapsedDuration, Set<String> resources) {
+    restore();
     final var profiles = new ResourceProfiles(new HashMap<>(), new HashMap<>());
 
     // Compute Real Profiles
     for(final var resource : realResourceSegments.entrySet()) {
       final var name = resource.getKey();
-      final var schema = resource.getValue().valueSchema();
-      final var segments = resource.getValue().segments();
+      final var segments = resource.getValue();
 
       if(!resources.contains(name)) continue;
 
-      profiles.realProfiles().put(name, new ResourceProfile<>(schema, new ArrayList<>()));
-      final var profile = profiles.realProfiles().get(name).segments();
-
-      for(int i = 0; i < segments.size()-1; i++) {
-        final var segment = segments.get(i);
-        final var nextSegment = segments.get(i+1);
-        profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
-      }
+      final var profile = segments.completedSegments(segments.size());
+      profiles.realProfiles().put(name, new ResourceProfile<>(segments.valueSchema(), profile));
 
       // Process final segment
-      final var finalSegment = segments.getLast();
-      profile.add(new ProfileSegment<>(elapsedDuration.minus(finalSegment.startOffset()), finalSegment.dynamics()));
+      profile.add(segments.finalSegment(elapsedDuration));
     }
 
     // Compute Discrete Profiles
@@ -103,18 +238,20 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
 
       if(!resources.contains(name)) continue;
 
-      profiles.discreteProfiles().put(name, new ResourceProfile<>(schema, new ArrayList<>()));
+      profiles.discreteProfiles().put(name, new ResourceProfile<>(schema, new ArrayList<>(segments.size())));
       final var profile = profiles.discreteProfiles().get(name).segments();
 
-      for(int i = 0; i < segments.size()-1; i++) {
-        final var segment = segments.get(i);
-        final var nextSegment = segments.get(i+1);
-        profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
+      // Segments are read in order, since their storage is shared with forks of this manager and not indexed.
+      ResourceSegments.Segment<SerializedValue> segment = null;
+      for(final var nextSegment : segments) {
+        if(segment != null) {
+          profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
+        }
+        segment = nextSegment;
       }
 
       // Process final segment
-      final var finalSegment = segments.getLast();
-      profile.add(new ProfileSegment<>(elapsedDuration.minus(finalSegment.startOffset()), finalSegment.dynamics()));
+      profile.add(new ProfileSegment<>(elapsedDuration.minus(segment.startOffset()), segment.dynamics()));
     }
 
     return profiles;
@@ -138,6 +275,7 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
                                              .formatted(elapsedTime, lastReceivedTime));
     }
     lastReceivedTime = elapsedTime;
+    restore();
 
     for(final var e : realResourceUpdates.entrySet()) {
       final var resourceName = e.getKey();
@@ -146,21 +284,20 @@ public class InMemorySimulationResourceManager implements SimulationResourceMana
       realResourceSegments
           .computeIfAbsent(
               resourceName,
-              r -> new ResourceSegments<>(resourceSegment.getLeft(), new ArrayList<>()))
-          .segments()
-          .add(new ResourceSegments.Segment<>(elapsedTime, resourceSegment.getRight()));
+              r -> new RealResourceSegments(resourceSegment.getLeft()))
+          .add(elapsedTime, resourceSegment.getRight());
     }
 
     for(final var e : discreteResourceUpdates.entrySet()) {
       final var resourceName = e.getKey();
       final var resourceSegment = e.getValue();
 
-      discreteResourceSegments
-          .computeIfAbsent(
+      discreteSegmentCompactor.append(
+          discreteResourceSegments.computeIfAbsent(
               resourceName,
-              r -> new ResourceSegments<>(resourceSegment.getLeft(), new ArrayList<>()))
-          .segments()
-          .add(new ResourceSegments.Segment<>(elapsedTime, resourceSegment.getRight()));
+              r -> new ResourceSegments<>(resourceSegment.getLeft())),
+          elapsedTime,
+          resourceSegment.getRight());
     }
 
   }
@@ -0,0 +1,121 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECOND;
+
+/**
+ * The segments of a real profile, stored column by column in parallel primitive arrays
+ * rather than as one {@link ProfileSegment} and {@link RealDynamics} per segment.
+ *
+ * <p>
+ *   This is still a list of profile segments, so that it can be used wherever a real profile is expected,
+ *   but each segment is only materialized when it is read through the {@link List} interface.
+ *   Consumers that care about the cost of a profile should read the columns directly,
+ *   through {@link #extentMicros}, {@link #initial}, and {@link #rate}.
+ * </p>
+ */
+public final class RealProfileColumns extends AbstractList<ProfileSegment<RealDynamics>> implements RandomAccess {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] extents;
+  private double[] initials;
+  private double[] rates;
+  private int size;
+
+  public RealProfileColumns() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public RealProfileColumns(final int capacity) {
+    if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative, but was %d".formatted(capacity));
+    this.extents = new long[capacity];
+    this.initials = new double[capacity];
+    this.rates = new double[capacity];
+    this.size = 0;
+  }
+
+  /** Copies a real profile into columns, or returns it as is if it is already stored in columns. */
+  public static RealProfileColumns of(final List<ProfileSegment<RealDynamics>> segments) {
+    if (segments instanceof RealProfileColumns columns) return columns;
+
+    final var columns = new RealProfileColumns(segments.size());
+    for (final var segment : segments) columns.add(segment);
+    return columns;
+  }
+
+  /**
+   * Appends a segment to the end of this profile.
+   * @param extentMicros the extent of the segment, in microseconds
+   * @param initial the value of the resource at the start of the segment
+   * @param rate the rate of change of the resource over the segment, in units per second
+   */
+  public void append(final long extentMicros, final double initial, final double rate) {
+    if (this.size == this.extents.length) grow();
+
+    this.extents[this.size] = extentMicros;
+    this.initials[this.size] = initial;
+    this.rates[this.size] = rate;
+    this.size += 1;
+    this.modCount += 1;
+  }
+
+  private void grow() {
+    final var capacity = Math.max(DEFAULT_CAPACITY, this.extents.length + (this.extents.length >> 1));
+    this.extents = Arrays.copyOf(this.extents, capacity);
+    this.initials = Arrays.copyOf(this.initials, capacity);
+    this.rates = Arrays.copyOf(this.rates, capacity);
+  }
+
+  /** The extent of the segment at the given index, in microseconds. */
+  public long extentMicros(final int index) {
+    return this.extents[checkIndex(index)];
+  }
+
+  /** The value of the resource at the start of the segment at the given index. */
+  public double initial(final int index) {
+    return this.initials[checkIndex(index)];
+  }
+
+  /** The rate of change of the resource over the segment at the given index, in units per second. */
+  public double rate(final int index) {
+    return this.rates[checkIndex(index)];
+  }
+
+  private int checkIndex(final int index) {
+    return Objects.checkIndex(index, this.size);
+  }
+
+  @Override
+  public ProfileSegment<RealDynamics> get(final int index) {
+    checkIndex(index);
+    return new ProfileSegment<>(
+        Duration.of(this.extents[index], MICROSECOND),
+        RealDynamics.linear(this.initials[index], this.rates[index]));
+  }
+
+  @Override
+  public boolean add(final ProfileSegment<RealDynamics> segment) {
+    append(segment.extent().in(MICROSECOND), segment.dynamics().initial, segment.dynamics().rate);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    this.size = 0;
+    this.modCount += 1;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+}
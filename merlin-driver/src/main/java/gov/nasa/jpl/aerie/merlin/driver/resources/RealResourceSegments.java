@@ -0,0 +1,178 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Set;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECOND;
+
+/**
+ * The updates received for a real resource, stored by start offset in parallel primitive arrays.
+ * The columnar counterpart of {@link ResourceSegments}, from which {@link RealProfileColumns} are computed.
+ *
+ * <p>
+ *   The arrays are split in chunks shared with the forks of these segments, see {@link ForkableChunks}.
+ * </p>
+ */
+final class RealResourceSegments {
+  private record Columns(long[] startOffsets, double[] initials, double[] rates) {}
+
+  private static final ForkableChunks.Layout<Columns> LAYOUT = new ForkableChunks.Layout<>() {
+    @Override
+    public Columns allocate(final int capacity) {
+      return new Columns(new long[capacity], new double[capacity], new double[capacity]);
+    }
+
+    @Override
+    public void copy(final Columns from, final Columns to, final int length) {
+      System.arraycopy(from.startOffsets, 0, to.startOffsets, 0, length);
+      System.arraycopy(from.initials, 0, to.initials, 0, length);
+      System.arraycopy(from.rates, 0, to.rates, 0, length);
+    }
+  };
+
+  private final ValueSchema valueSchema;
+  private final ForkableChunks<Columns> chunks;
+
+  RealResourceSegments(final ValueSchema valueSchema) {
+    this.valueSchema = valueSchema;
+    this.chunks = new ForkableChunks<>(LAYOUT);
+  }
+
+  RealResourceSegments(final ValueSchema valueSchema, final int capacity) {
+    this.valueSchema = valueSchema;
+    this.chunks = new ForkableChunks<>(LAYOUT, capacity);
+  }
+
+  private RealResourceSegments(final RealResourceSegments other) {
+    this.valueSchema = other.valueSchema;
+    this.chunks = other.chunks.fork();
+  }
+
+  /** Copy these segments, sharing the storage of those received so far with the copy. */
+  public RealResourceSegments fork() {
+    return new RealResourceSegments(this);
+  }
+
+  public ValueSchema valueSchema() {
+    return this.valueSchema;
+  }
+
+  public int size() {
+    return this.chunks.size();
+  }
+
+  public void add(final Duration startOffset, final RealDynamics dynamics) {
+    add(startOffset.in(MICROSECOND), dynamics.initial, dynamics.rate);
+  }
+
+  private void add(final long startOffset, final double initial, final double rate) {
+    final var chunk = this.chunks.claimNext();
+    final var index = this.chunks.size() - 1 - chunk.offset;
+    chunk.data.startOffsets[index] = startOffset;
+    chunk.data.initials[index] = initial;
+    chunk.data.rates[index] = rate;
+  }
+
+  /**
+   * Compute the segments that have been completed by a later update, leaving room for the final segment.
+   * @param capacity the minimum capacity of the returned profile
+   */
+  public RealProfileColumns completedSegments(final int capacity) {
+    final var size = this.chunks.size();
+    final var profile = new RealProfileColumns(Math.max(capacity, size));
+
+    // Each segment is completed by the start of the next, so every segment is appended once the next has been read.
+    long startOffset = 0;
+    double initial = 0;
+    double rate = 0;
+    for (final var chunk : this.chunks.chunks()) {
+      final var length = Math.min(chunk.capacity, size - chunk.offset);
+      for (int i = 0; i < length; i++) {
+        final var nextStartOffset = chunk.data.startOffsets[i];
+        if (chunk.offset + i > 0) profile.append(nextStartOffset - startOffset, initial, rate);
+
+        startOffset = nextStartOffset;
+        initial = chunk.data.initials[i];
+        rate = chunk.data.rates[i];
+      }
+    }
+    return profile;
+  }
+
+  /**
+   * Compute the final segment, which has not been completed by any update.
+   * @param end the time at which to end the final segment
+   */
+  public ProfileSegment<RealDynamics> finalSegment(final Duration end) {
+    final var last = this.chunks.size() - 1;
+    if (last < 0) throw new IllegalStateException("No segments have been received");
+
+    final var chunk = this.chunks.chunkOf(last);
+    final var index = last - chunk.offset;
+    return new ProfileSegment<>(
+        end.minus(Duration.of(chunk.data.startOffsets[index], MICROSECOND)),
+        RealDynamics.linear(chunk.data.initials[index], chunk.data.rates[index]));
+  }
+
+  /** Remove the completed segments, leaving only the final segment. */
+  public void removeCompletedSegments() {
+    final var last = this.chunks.size() - 1;
+    if (last <= 0) return;
+
+    final var chunk = this.chunks.chunkOf(last);
+    final var index = last - chunk.offset;
+    this.chunks.clear();
+    add(chunk.data.startOffsets[index], chunk.data.initials[index], chunk.data.rates[index]);
+  }
+
+  public void clear() {
+    this.chunks.clear();
+  }
+
+  /**
+   * An estimate of the number of bytes of memory held by the storage of these segments that is not in {@code counted} yet,
+   * which is then added to it. See {@link ForkableChunks#estimatedSizeInBytes}.
+   */
+  public long estimatedSizeInBytes(final Set<Object> counted) {
+    return this.chunks.estimatedSizeInBytes(counted, columns -> 48 + 24L * columns.startOffsets.length);
+  }
+
+  /** The number of segments at the start of these whose storage is in the given set. See {@link ForkableChunks#sharedLength}. */
+  public int sharedLength(final Set<Object> storage) {
+    return this.chunks.sharedLength(storage);
+  }
+
+  /** Drop the segments beyond the given number. Forks of these segments keep them. */
+  public void truncate(final int length) {
+    this.chunks.truncate(length);
+  }
+
+  /** Write the segments from the given index on, but not their value schema, to the given output. */
+  public void writeTo(final DataOutput out, final int from) throws IOException {
+    final var size = this.chunks.size();
+    out.writeInt(size - from);
+    for (final var chunk : this.chunks.chunks()) {
+      final var length = Math.min(chunk.capacity, size - chunk.offset);
+      for (int i = Math.max(0, from - chunk.offset); i < length; i++) {
+        out.writeLong(chunk.data.startOffsets[i]);
+        out.writeDouble(chunk.data.initials[i]);
+        out.writeDouble(chunk.data.rates[i]);
+      }
+    }
+  }
+
+  /** Append segments previously written by {@link #writeTo}. */
+  public void readFrom(final DataInput in) throws IOException {
+    final var size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      add(in.readLong(), in.readDouble(), in.readDouble());
+    }
+  }
+}
@@ -3,18 +3,19 @@ package gov.nasa.jpl.aerie.merlin.driver.resources;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 
-import java.util.ArrayList;
-
-record ResourceSegments<T> (ValueSchema valueSchema, ArrayList<Segment<T>> segments) {
+record ResourceSegments<T> (ValueSchema valueSchema, ForkableList<Segment<T>> segments) {
     record Segment<T> (Duration startOffset, T dynamics) {}
 
+    ResourceSegments(ValueSchema valueSchema) {
+      this(valueSchema, new ForkableList<>());
+    }
+
     ResourceSegments(ValueSchema valueSchema, int threshold) {
-      this(valueSchema, new ArrayList<>(threshold));
+      this(valueSchema, new ForkableList<>(threshold));
     }
 
-    public ResourceSegments<T> deepCopy(){
-      ArrayList<Segment<T>> segmentsCopy = new ArrayList<>(this.segments.size());
-      segmentsCopy.addAll(this.segments);
-      return new ResourceSegments<>(valueSchema, segmentsCopy);
+    /** Copy these segments, sharing the storage of those received so far with the copy. */
+    public ResourceSegments<T> fork(){
+      return new ResourceSegments<>(valueSchema, segments.fork());
     }
 }
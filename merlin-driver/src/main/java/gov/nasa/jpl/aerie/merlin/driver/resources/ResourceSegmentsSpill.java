@@ -0,0 +1,235 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECOND;
+
+/**
+ * The resource segments of an {@link InMemorySimulationResourceManager}, written out to a local file.
+ *
+ * <p>
+ *   Segments whose storage is retained in memory by forks of the manager are not written out, since releasing them
+ *   would not free any memory, and reading them back would duplicate them. They stay in the manager instead,
+ *   along with the value schemas of the resources, and the spilled segments are appended to them when read back.
+ * </p>
+ */
+final class ResourceSegmentsSpill {
+  private final Path file;
+  private final List<String> realResources;
+  private final List<String> discreteResources;
+
+  private ResourceSegmentsSpill(final Path file, final List<String> realResources, final List<String> discreteResources) {
+    this.file = file;
+    this.realResources = realResources;
+    this.discreteResources = discreteResources;
+  }
+
+  /**
+   * Write the given segments to a file, replacing any previous content of that file, and drop them from memory.
+   * @param file the file to write the segments to
+   * @param realSegments the segments of the real resources
+   * @param discreteSegments the segments of the discrete resources
+   * @param retained the storage that stays in memory anyway. The segments held in it are kept rather than written out.
+   */
+  public static ResourceSegmentsSpill write(
+      final Path file,
+      final Map<String, RealResourceSegments> realSegments,
+      final Map<String, ResourceSegments<SerializedValue>> discreteSegments,
+      final Set<Object> retained
+  ) throws IOException {
+    final var realResources = new ArrayList<String>(realSegments.size());
+    final var discreteResources = new ArrayList<String>(discreteSegments.size());
+
+    try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      for (final var entry : realSegments.entrySet()) {
+        realResources.add(entry.getKey());
+        final var segments = entry.getValue();
+        final var kept = segments.sharedLength(retained);
+        segments.writeTo(out, kept);
+        segments.truncate(kept);
+      }
+      for (final var entry : discreteSegments.entrySet()) {
+        discreteResources.add(entry.getKey());
+        final var segments = entry.getValue().segments();
+        final var kept = segments.sharedLength(retained);
+        out.writeInt(segments.size() - kept);
+        var index = 0;
+        for (final var segment : segments) {
+          if (index++ < kept) continue;
+          out.writeLong(segment.startOffset().in(MICROSECOND));
+          writeValue(out, segment.dynamics());
+        }
+        segments.truncate(kept);
+      }
+    }
+
+    return new ResourceSegmentsSpill(file, realResources, discreteResources);
+  }
+
+  /**
+   * Append the spilled segments back to the segments kept in memory.
+   * @param realSegments the segments of the real resources, as left by {@link #write}
+   * @param discreteSegments the segments of the discrete resources, as left by {@link #write}
+   */
+  public void readInto(
+      final Map<String, RealResourceSegments> realSegments,
+      final Map<String, ResourceSegments<SerializedValue>> discreteSegments
+  ) throws IOException {
+    try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+      for (final var resource : this.realResources) {
+        realSegments.get(resource).readFrom(in);
+      }
+      for (final var resource : this.discreteResources) {
+        final var segments = discreteSegments.get(resource).segments();
+        final var size = in.readInt();
+        for (int i = 0; i < size; i++) {
+          final var startOffset = Duration.of(in.readLong(), MICROSECOND);
+          segments.add(new ResourceSegments.Segment<>(startOffset, readValue(in)));
+        }
+      }
+    }
+  }
+
+  /** Delete the file the segments were spilled to. */
+  public void delete() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  private static final byte NULL = 0;
+  private static final byte NUMERIC = 1;
+  private static final byte BOOLEAN = 2;
+  private static final byte STRING = 3;
+  private static final byte MAP = 4;
+  private static final byte LIST = 5;
+
+  private static void writeValue(final DataOutput out, final SerializedValue value) throws IOException {
+    try {
+      value.match(new SerializedValue.Visitor<Void>() {
+        @Override
+        public Void onNull() {
+          write(() -> out.writeByte(NULL));
+          return null;
+        }
+
+        @Override
+        public Void onNumeric(final BigDecimal value) {
+          write(() -> {
+            out.writeByte(NUMERIC);
+            writeString(out, value.toString());
+          });
+          return null;
+        }
+
+        @Override
+        public Void onBoolean(final boolean value) {
+          write(() -> {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(value);
+          });
+          return null;
+        }
+
+        @Override
+        public Void onString(final String value) {
+          write(() -> {
+            out.writeByte(STRING);
+            writeString(out, value);
+          });
+          return null;
+        }
+
+        @Override
+        public Void onMap(final Map<String, SerializedValue> value) {
+          write(() -> {
+            out.writeByte(MAP);
+            out.writeInt(value.size());
+            for (final var entry : value.entrySet()) {
+              writeString(out, entry.getKey());
+              writeValue(out, entry.getValue());
+            }
+          });
+          return null;
+        }
+
+        @Override
+        public Void onList(final List<SerializedValue> value) {
+          write(() -> {
+            out.writeByte(LIST);
+            out.writeInt(value.size());
+            for (final var element : value) writeValue(out, element);
+          });
+          return null;
+        }
+      });
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static SerializedValue readValue(final DataInput in) throws IOException {
+    final var tag = in.readByte();
+    return switch (tag) {
+      case NULL -> SerializedValue.NULL;
+      case NUMERIC -> SerializedValue.of(new BigDecimal(readString(in)));
+      case BOOLEAN -> SerializedValue.of(in.readBoolean());
+      case STRING -> SerializedValue.of(readString(in));
+      case MAP -> {
+        final var size = in.readInt();
+        final var map = new HashMap<String, SerializedValue>(size);
+        for (int i = 0; i < size; i++) map.put(readString(in), readValue(in));
+        yield SerializedValue.of(map);
+      }
+      case LIST -> {
+        final var size = in.readInt();
+        final var list = new ArrayList<SerializedValue>(size);
+        for (int i = 0; i < size; i++) list.add(readValue(in));
+        yield SerializedValue.of(list);
+      }
+      default -> throw new IOException("Unknown serialized value tag %d in spilled resource segments".formatted(tag));
+    };
+  }
+
+  // Unlike `DataOutput.writeUTF`, this is not limited to strings of 64KB.
+  private static void writeString(final DataOutput out, final String value) throws IOException {
+    final var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(final DataInput in) throws IOException {
+    final var bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private interface IOAction {
+    void run() throws IOException;
+  }
+
+  private static void write(final IOAction action) {
+    try {
+      action.run();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
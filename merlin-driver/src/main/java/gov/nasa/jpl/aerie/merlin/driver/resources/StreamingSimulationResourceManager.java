@@ -18,8 +18,9 @@ import java.util.function.Consumer;
  * The way it streams resources is determined by the Consumer passed to it during construction
  */
 public class StreamingSimulationResourceManager implements SimulationResourceManager {
-  private final HashMap<String, ResourceSegments<RealDynamics>> realResourceSegments;
+  private final HashMap<String, RealResourceSegments> realResourceSegments;
   private final HashMap<String, ResourceSegments<SerializedValue>> discreteResourceSegments;
+  private final DiscreteSegmentCompactor discreteSegmentCompactor;
 
   private final Consumer<ResourceProfiles> streamer;
 
@@ -28,7 +29,7 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
   // The threshold controls how many segments the longest resource must have before all completed segments are streamed.
   // When streaming occurs, all completed profile segments are streamed,
   //   not just those belonging to the resource that crossed the threshold.
-  private static final int DEFAULT_THRESHOLD = 1024;
+  public static final int DEFAULT_THRESHOLD = 1024;
   private final int threshold;
 
   public StreamingSimulationResourceManager(final Consumer<ResourceProfiles> streamer) {
@@ -36,8 +37,22 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
   }
 
   public StreamingSimulationResourceManager(final Consumer<ResourceProfiles> streamer, int threshold) {
+    this(streamer, threshold, true);
+  }
+
+  /**
+   * @param keepRawDiscreteSamples whether to keep every sample of a discrete resource as its own segment.
+   *     Otherwise, a sample equal to the latest segment of its resource extends that segment, even across streams,
+   *     and values that recur share a single instance.
+   */
+  public StreamingSimulationResourceManager(
+      final Consumer<ResourceProfiles> streamer,
+      final int threshold,
+      final boolean keepRawDiscreteSamples)
+  {
     realResourceSegments = new HashMap<>();
     discreteResourceSegments = new HashMap<>();
+    discreteSegmentCompactor = new DiscreteSegmentCompactor(keepRawDiscreteSamples);
     this.threshold = threshold;
     this.streamer = streamer;
     this.lastReceivedTime = Duration.ZERO;
@@ -54,13 +69,12 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
     // Compute final segment for real profiles
     for(final var resource : realResourceSegments.entrySet()) {
       final var name = resource.getKey();
-      final var segments = resource.getValue().segments();
-      final var finalSegment = segments.getFirst();
+      final var segments = resource.getValue();
 
       profiles.realProfiles()
               .get(name)
               .segments()
-              .add(new ProfileSegment<>(elapsedDuration.minus(finalSegment.startOffset()), finalSegment.dynamics()));
+              .add(segments.finalSegment(elapsedDuration));
 
       // Remove final segment
       segments.clear();
@@ -105,22 +119,12 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
     // Compute Real Profiles
     for(final var resource : realResourceSegments.entrySet()) {
       final var name = resource.getKey();
-      final var schema = resource.getValue().valueSchema();
-      final var segments = resource.getValue().segments();
-
-      profiles.realProfiles().put(name, new ResourceProfile<>(schema, new ArrayList<>(threshold)));
-      final var profile = profiles.realProfiles().get(name).segments();
+      final var segments = resource.getValue();
 
-      for(int i = 0; i < segments.size()-1; i++) {
-        final var segment = segments.get(i);
-        final var nextSegment = segments.get(i+1);
-        profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
-      }
+      profiles.realProfiles().put(name, new ResourceProfile<>(segments.valueSchema(), segments.completedSegments(threshold)));
 
       // Remove the completed segments, leaving only the final (incomplete) segment in the current set
-      final var finalSegment = segments.getLast();
-      segments.clear();
-      segments.add(finalSegment);
+      segments.removeCompletedSegments();
     }
 
     // Compute Discrete Profiles
@@ -132,10 +136,13 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
       profiles.discreteProfiles().put(name, new ResourceProfile<>(schema, new ArrayList<>(threshold)));
       final var profile = profiles.discreteProfiles().get(name).segments();
 
-      for(int i = 0; i < segments.size()-1; i++) {
-        final var segment = segments.get(i);
-        final var nextSegment = segments.get(i+1);
-        profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
+      // Segments are read in order, since their storage is shared with forks of this manager and not indexed.
+      ResourceSegments.Segment<SerializedValue> segment = null;
+      for(final var nextSegment : segments) {
+        if(segment != null) {
+          profile.add(new ProfileSegment<>(nextSegment.startOffset().minus(segment.startOffset()), segment.dynamics()));
+        }
+        segment = nextSegment;
       }
 
       // Remove the completed segments, leaving only the final (incomplete) segment in the current set
@@ -177,11 +184,10 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
       realResourceSegments
           .computeIfAbsent(
               resourceName,
-              r -> new ResourceSegments<>(resourceSegment.getLeft(), threshold))
-          .segments()
-          .add(new ResourceSegments.Segment<>(elapsedTime, resourceSegment.getRight()));
+              r -> new RealResourceSegments(resourceSegment.getLeft(), threshold))
+          .add(elapsedTime, resourceSegment.getRight());
 
-      if(realResourceSegments.get(resourceName).segments().size() >= threshold) {
+      if(realResourceSegments.get(resourceName).size() >= threshold) {
         readyToStream = true;
       }
     }
@@ -190,12 +196,12 @@ public class StreamingSimulationResourceManager implements SimulationResourceMan
       final var resourceName = e.getKey();
       final var resourceSegment = e.getValue();
 
-      discreteResourceSegments
-          .computeIfAbsent(
+      discreteSegmentCompactor.append(
+          discreteResourceSegments.computeIfAbsent(
               resourceName,
-              r -> new ResourceSegments<>(resourceSegment.getLeft(), threshold))
-          .segments()
-          .add(new ResourceSegments.Segment<>(elapsedTime, resourceSegment.getRight()));
+              r -> new ResourceSegments<>(resourceSegment.getLeft(), threshold)),
+          elapsedTime,
+          resourceSegment.getRight());
 
       if(discreteResourceSegments.get(resourceName).segments().size() >= threshold) {
         readyToStream = true;
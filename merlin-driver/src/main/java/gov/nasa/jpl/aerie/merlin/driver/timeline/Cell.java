@@ -5,6 +5,7 @@ import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
 import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -47,6 +48,10 @@ public final class Cell<State> {
     this.inner.apply(this.state, events, from, to);
   }
 
+  public boolean isStepAdditive() {
+    return this.inner.cellType.isStepAdditive();
+  }
+
   public Optional<Duration> getExpiry() {
     return this.inner.cellType.getExpiry(this.state);
   }
@@ -59,6 +64,11 @@ public final class Cell<State> {
     return this.inner.selector.matchesAny(topics);
   }
 
+  /** The topics whose events may affect this cell. */
+  public List<Topic<?>> getTopics() {
+    return this.inner.selector.topics();
+  }
+
   @Override
   public String toString() {
     return this.state.toString();
@@ -11,15 +11,23 @@ public final class LiveCells {
   private final Map<Query<?>, LiveCell<?>> cells = new HashMap<>();
   private final EventSource source;
   private final LiveCells parent;
+  /** Whether cells may be requested from several threads at once (so long as the source is not extended meanwhile). */
+  private final boolean shared;
 
   public LiveCells(final EventSource source) {
     this.source = source;
     this.parent = null;
+    this.shared = false;
   }
 
   public LiveCells(final EventSource source, final LiveCells parent) {
+    this(source, parent, false);
+  }
+
+  public LiveCells(final EventSource source, final LiveCells parent, final boolean shared) {
     this.source = source;
     this.parent = parent;
+    this.shared = shared;
   }
 
   public <State> Optional<State> getState(final Query<State> query) {
@@ -36,6 +44,16 @@ public final class LiveCells {
   }
 
   private <State> Optional<Cell<State>> getCell(final Query<State> query) {
+    if (!this.shared) return getCellUnsynchronized(query);
+
+    // Once a cell has caught up with the source, further reads leave it untouched,
+    //   so it is safe for readers to duplicate it after releasing the lock.
+    synchronized (this) {
+      return getCellUnsynchronized(query);
+    }
+  }
+
+  private <State> Optional<Cell<State>> getCellUnsynchronized(final Query<State> query) {
     // First, check if we have this cell already.
     {
       // SAFETY: By the invariant, if there is an entry for this query, it is of type Cell<State>.
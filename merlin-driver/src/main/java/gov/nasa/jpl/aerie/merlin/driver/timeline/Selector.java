@@ -3,7 +3,9 @@ package gov.nasa.jpl.aerie.merlin.driver.timeline;
 import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
 import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -43,6 +45,14 @@ public record Selector<Effect>(SelectorRow<?, Effect>... rows) {
     return false;
   }
 
+  public List<Topic<?>> topics() {
+    final var topics = new ArrayList<Topic<?>>(this.rows.length);
+    for (final var row : this.rows) {
+      if (!topics.contains(row.topic)) topics.add(row.topic);
+    }
+    return topics;
+  }
+
   public record SelectorRow<EventType, Effect>(Topic<EventType> topic, Function<EventType, Effect> transform) {
     public Optional<Effect> select(final Event event$) {
       return event$.extract(this.topic, this.transform);
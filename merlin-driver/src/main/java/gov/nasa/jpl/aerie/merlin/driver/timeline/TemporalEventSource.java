@@ -3,29 +3,190 @@ package gov.nasa.jpl.aerie.merlin.driver.timeline;
 import gov.nasa.jpl.aerie.merlin.driver.engine.SlabList;
 import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
-public record TemporalEventSource(SlabList<TimePoint> points) implements EventSource, Iterable<TemporalEventSource.TimePoint> {
+/**
+ * A timeline of time points, made of a shared prefix of frozen segments followed by the points appended to it.
+ *
+ * The prefix lets a timeline be extended from the timelines of another engine without copying their points,
+ * so that forking an engine costs time and memory in the number of forks leading up to it, not in its events.
+ *
+ * The commits among the timeline's own points are also indexed by topic, so that a cell read rarely can catch up
+ * by visiting only the commits it is interested in, rather than every commit since it was last read.
+ * Only cells whose type declares {@link gov.nasa.jpl.aerie.merlin.protocol.model.CellType#isStepAdditive()} use the index;
+ * other cells are stepped over every point in turn.
+ *
+ * The index lives as long as the timeline, like the points themselves. It holds one entry per topic emitted to
+ * by each commit: an ordinal, a time, and a reference to the commit already retained by the points, or about
+ * 16 bytes per entry. Since each commit's topic set and event graph already hold at least one object per topic,
+ * the index adds a constant fraction to the memory of the timeline, and is released together with it.
+ */
+public final class TemporalEventSource implements EventSource, Iterable<TemporalEventSource.TimePoint> {
+  /** The frozen segments preceding this timeline's own points, or null if there are none. */
+  private final Segment prefix;
+  /** The points appended to this timeline. */
+  private final SlabList<TimePoint> points = new SlabList<>();
+
+  /** The commits among this timeline's own points that emitted to each topic, in order. */
+  private final Map<Topic<?>, TopicIndex> commitsByTopic = new Reference2ObjectOpenHashMap<>();
+  /** The number of commits among this timeline's own points. */
+  private int commitCount = 0;
+  /** The time spanned by this timeline's own points, in microseconds. */
+  private long elapsedMicros = 0;
+
   public TemporalEventSource() {
-    this(new SlabList<>());
+    this(null);
+  }
+
+  private TemporalEventSource(final Segment prefix) {
+    this.prefix = prefix;
+  }
+
+  public Segment prefix() {
+    return this.prefix;
+  }
+
+  public SlabList<TimePoint> points() {
+    return this.points;
+  }
+
+  /**
+   * A run of points shared between timelines, linked back to the segments preceding it.
+   *
+   * Only the first `size` points of the list belong to the segment, so that a segment taken from a timeline
+   * still being appended to does not see the points appended after it was taken.
+   */
+  public record Segment(Segment previous, SlabList<TimePoint> points, int size) {}
+
+  /**
+   * Creates an empty timeline following the points of this timeline and then the points of another.
+   *
+   * Both timelines are shared rather than copied. Points appended to either of them afterward are not part of the result.
+   */
+  public TemporalEventSource followedBy(final TemporalEventSource suffix) {
+    var prefix = extend(this.prefix, this.points);
+
+    final var suffixSegments = suffix.segments();
+    for (final var segment : suffixSegments) prefix = extend(prefix, segment.points(), segment.size());
+    prefix = extend(prefix, suffix.points);
+
+    return new TemporalEventSource(prefix);
+  }
+
+  private static Segment extend(final Segment prefix, final SlabList<TimePoint> points) {
+    return extend(prefix, points, points.size());
+  }
+
+  private static Segment extend(final Segment prefix, final SlabList<TimePoint> points, final int size) {
+    if (size == 0) return prefix;
+    return new Segment(prefix, points, size);
+  }
+
+  /** The segments of the prefix, earliest first. */
+  private ArrayList<Segment> segments() {
+    final var segments = new ArrayList<Segment>();
+    for (var segment = this.prefix; segment != null; segment = segment.previous()) segments.add(segment);
+    Collections.reverse(segments);
+    return segments;
   }
 
   public void add(final Duration delta) {
     if (delta.isZero()) return;
     this.points.append(new TimePoint.Delta(delta));
+    this.elapsedMicros += delta.in(Duration.MICROSECONDS);
   }
 
   public void add(final EventGraph<Event> graph) {
     if (graph instanceof EventGraph.Empty) return;
-    this.points.append(new TimePoint.Commit(graph, extractTopics(graph)));
+    final var commit = new TimePoint.Commit(graph, extractTopics(graph));
+    this.points.append(commit);
+
+    for (final var topic : commit.topics()) {
+      this.commitsByTopic
+          .computeIfAbsent(topic, $ -> new TopicIndex())
+          .add(this.commitCount, this.elapsedMicros, commit);
+    }
+    this.commitCount += 1;
+  }
+
+  /** The commits that emitted to a topic, each with its position among all commits and the time at which it occurred. */
+  private static final class TopicIndex {
+    private final IntArrayList ordinals = new IntArrayList();
+    private final LongArrayList times = new LongArrayList();
+    private final ArrayList<TimePoint.Commit> commits = new ArrayList<>();
+
+    void add(final int ordinal, final long time, final TimePoint.Commit commit) {
+      this.ordinals.add(ordinal);
+      this.times.add(time);
+      this.commits.add(commit);
+    }
+
+    int size() {
+      return this.ordinals.size();
+    }
   }
 
+  /**
+   * Returns an iterator over the prefix and then this timeline's own points.
+   *
+   * Like the iterators of {@link SlabList}, it is stable through appends.
+   */
   @Override
-  public Iterator<TimePoint> iterator() {
-    return TemporalEventSource.this.points.iterator();
+  public PointIterator iterator() {
+    return new PointIterator();
+  }
+
+  public final class PointIterator implements Iterator<TimePoint> {
+    private final Iterator<Segment> segments = TemporalEventSource.this.segments().iterator();
+    private final SlabList<TimePoint>.SlabIterator points = TemporalEventSource.this.points.iterator();
+
+    private Iterator<TimePoint> segment = Collections.emptyIterator();
+    private int remainingInSegment = 0;
+
+    private PointIterator() {}
+
+    /** Whether any points of the prefix remain, not counting this timeline's own points. */
+    boolean hasNextInPrefix() {
+      while (this.remainingInSegment == 0) {
+        if (!this.segments.hasNext()) return false;
+
+        final var next = this.segments.next();
+        this.segment = next.points().iterator();
+        this.remainingInSegment = next.size();
+      }
+      return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.remainingInSegment == 0) {
+        if (!this.segments.hasNext()) return this.points.hasNext();
+
+        final var next = this.segments.next();
+        this.segment = next.points().iterator();
+        this.remainingInSegment = next.size();
+      }
+      return true;
+    }
+
+    @Override
+    public TimePoint next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      if (this.remainingInSegment == 0) return this.points.next();
+
+      this.remainingInSegment -= 1;
+      return this.segment.next();
+    }
   }
 
   @Override
@@ -33,28 +194,95 @@ public record TemporalEventSource(SlabList<TimePoint> points) implements EventSo
     return new TemporalCursor();
   }
 
+  /**
+   * A cursor that steps a cell up through the timeline.
+   *
+   * The prefix is visited point by point. Among this timeline's own points, the cursor visits only the commits
+   * emitting to the cell's topics if the cell steps additively, stepping the cell over the time between them in one step.
+   * Otherwise, every point is visited, so that the cell is stepped exactly as the timeline divides time.
+   */
   public final class TemporalCursor implements Cursor {
-    private final SlabList<TimePoint>.SlabIterator iterator = TemporalEventSource.this.points.iterator();
+    private final PointIterator iterator = TemporalEventSource.this.iterator();
+
+    /** The time the cell has been stepped up to among this timeline's own points, in microseconds. */
+    private long time = 0;
+    /** The topics of the cell, fixed on the first step. */
+    private Topic<?>[] topics = null;
+    /** Whether the cell steps additively, so that the index may be used to skip the points it is not interested in. */
+    private boolean indexed = false;
+    /** For each topic, the position in its index of the next commit to apply. */
+    private int[] nextCommits = null;
 
     private TemporalCursor() {}
 
     @Override
     public void stepUp(final Cell<?> cell) {
-      while (this.iterator.hasNext()) {
-        final var point = this.iterator.next();
-
-        if (point instanceof TimePoint.Delta p) {
-          cell.step(p.delta());
-        } else if (point instanceof TimePoint.Commit p) {
-          if (cell.isInterestedIn(p.topics())) cell.apply(p.events());
-        } else {
-          throw new IllegalStateException();
+      if (this.topics == null) {
+        this.topics = cell.getTopics().toArray(new Topic<?>[0]);
+        this.nextCommits = new int[this.topics.length];
+        this.indexed = cell.isStepAdditive();
+      }
+
+      if (!this.indexed) {
+        while (this.iterator.hasNext()) visit(cell, this.iterator.next());
+        return;
+      }
+
+      while (this.iterator.hasNextInPrefix()) visit(cell, this.iterator.next());
+
+      final var indices = new TopicIndex[this.topics.length];
+      for (var i = 0; i < this.topics.length; i += 1) {
+        indices[i] = TemporalEventSource.this.commitsByTopic.get(this.topics[i]);
+      }
+
+      while (true) {
+        // Find the earliest commit not yet applied, among all of the cell's topics.
+        var ordinal = Integer.MAX_VALUE;
+        var earliest = -1;
+        for (var i = 0; i < indices.length; i += 1) {
+          if (indices[i] == null || this.nextCommits[i] >= indices[i].size()) continue;
+
+          final var candidate = indices[i].ordinals.getInt(this.nextCommits[i]);
+          if (candidate < ordinal) {
+            ordinal = candidate;
+            earliest = i;
+          }
+        }
+        if (earliest < 0) break;
+
+        final var index = indices[earliest];
+        stepTo(cell, index.times.getLong(this.nextCommits[earliest]));
+        cell.apply(index.commits.get(this.nextCommits[earliest]).events());
+
+        // A commit emitting to several of the cell's topics is applied only once.
+        for (var i = 0; i < indices.length; i += 1) {
+          if (indices[i] == null || this.nextCommits[i] >= indices[i].size()) continue;
+          if (indices[i].ordinals.getInt(this.nextCommits[i]) == ordinal) this.nextCommits[i] += 1;
         }
       }
+
+      stepTo(cell, TemporalEventSource.this.elapsedMicros);
+    }
+
+    private void visit(final Cell<?> cell, final TimePoint point) {
+      if (point instanceof TimePoint.Delta p) {
+        cell.step(p.delta());
+      } else if (point instanceof TimePoint.Commit p) {
+        if (cell.isInterestedIn(p.topics())) cell.apply(p.events());
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+
+    private void stepTo(final Cell<?> cell, final long time) {
+      if (time <= this.time) return;
+      cell.step(Duration.of(time - this.time, Duration.MICROSECONDS));
+      this.time = time;
     }
   }
 
 
+
   private static Set<Topic<?>> extractTopics(final EventGraph<Event> graph) {
     final var set = new ReferenceOpenHashSet<Topic<?>>();
     extractTopics(set, graph);
@@ -90,4 +318,21 @@ public record TemporalEventSource(SlabList<TimePoint> points) implements EventSo
   public void freeze() {
     this.points.freeze();
   }
+
+  /**
+   * A rough estimate of the number of bytes of memory held by the points of this timeline, including those of its prefix.
+   * Lists of points shared with other timelines are only counted if they are not in {@code counted} yet,
+   * and are then added to it, so that passing the same set for several timelines counts each list once.
+   */
+  public long estimatedSizeInBytes(final Set<Object> counted) {
+    // A commit, its event graph, and its entries in the index of each topic it emits to, on average.
+    final long pointSize = 128;
+
+    long size = 0;
+    if (counted.add(this.points)) size += pointSize * this.points.size();
+    for (var segment = this.prefix; segment != null; segment = segment.previous()) {
+      if (counted.add(segment.points())) size += pointSize * segment.points().size();
+    }
+    return size;
+  }
 }
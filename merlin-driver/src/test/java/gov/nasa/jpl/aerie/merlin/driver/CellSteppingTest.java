@@ -0,0 +1,164 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Querier;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.model.OutputType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Resource;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public final class CellSteppingTest {
+  @Test
+  @DisplayName("Cells that do not step additively are stepped over every time point, however rarely they are read")
+  public void testNonAdditiveCellsAreSteppedOverEveryPoint() {
+    // Reading the cell on every tick steps it over every time point, as cells were stepped before steps were merged.
+    final var everyTick = simulate(false, true);
+    final var rarely = simulate(false, false);
+
+    assertEquals(everyTick, rarely);
+  }
+
+  @Test
+  @DisplayName("Merging steps changes the profile of a cell that wrongly declares its step additive")
+  public void testMergedStepsAreObservable() {
+    // Guards the test above against a model in which merging steps makes no difference.
+    assertNotEquals(simulate(true, true), simulate(true, false));
+  }
+
+  private static List<ProfileSegment<SerializedValue>> simulate(final boolean declaredAdditive, final boolean readOnEveryTick) {
+    final var model = makeModel(declaredAdditive, readOnEveryTick);
+    final var results = SimulationDriver.simulate(
+        model,
+        Map.of(),
+        Instant.EPOCH,
+        Duration.SECONDS.times(5),
+        Instant.EPOCH,
+        Duration.SECONDS.times(5),
+        () -> false);
+
+    return results.discreteProfiles.get("/decaying").segments();
+  }
+
+  /**
+   * A model with a cell that halves its state before adding the time elapsed, so that it depends on how time is divided.
+   * The cell expires every second, so its resource is sampled once per second, while a daemon ticks every 100 ms.
+   */
+  private static MissionModel<?> makeModel(final boolean declaredAdditive, final boolean readOnEveryTick) {
+    final var initializer = new MissionModelBuilder();
+
+    final var ref = initializer.allocate(
+        new long[1],
+        new CellType<Unit, long[]>() {
+          @Override
+          public EffectTrait<Unit> getEffectType() {
+            return new EffectTrait<>() {
+              @Override
+              public Unit empty() {
+                return Unit.UNIT;
+              }
+
+              @Override
+              public Unit sequentially(final Unit prefix, final Unit suffix) {
+                return Unit.UNIT;
+              }
+
+              @Override
+              public Unit concurrently(final Unit left, final Unit right) {
+                return Unit.UNIT;
+              }
+            };
+          }
+
+          @Override
+          public long[] duplicate(final long[] state) {
+            return state.clone();
+          }
+
+          @Override
+          public void apply(final long[] state, final Unit effect) {
+            // This cell is only changed by the passage of time.
+          }
+
+          @Override
+          public void step(final long[] state, final Duration duration) {
+            state[0] = state[0] / 2 + duration.in(MILLISECONDS);
+          }
+
+          @Override
+          public boolean isStepAdditive() {
+            return declaredAdditive;
+          }
+
+          @Override
+          public Optional<Duration> getExpiry(final long[] state) {
+            return Optional.of(Duration.SECOND);
+          }
+        },
+        $ -> Unit.UNIT,
+        new Topic<Unit>());
+
+    final var tick = new Topic<Unit>();
+    initializer.daemon(ticker(tick, ref, readOnEveryTick));
+
+    initializer.resource("/decaying", new Resource<Long>() {
+      @Override
+      public OutputType<Long> getOutputType() {
+        return new OutputType<>() {
+          @Override
+          public ValueSchema getSchema() {
+            return ValueSchema.INT;
+          }
+
+          @Override
+          public SerializedValue serialize(final Long value) {
+            return SerializedValue.of(value);
+          }
+        };
+      }
+
+      @Override
+      public String getType() {
+        return "discrete";
+      }
+
+      @Override
+      public Long getDynamics(final Querier querier) {
+        return querier.getState(ref)[0];
+      }
+    });
+
+    return initializer.build(ref, new DirectiveTypeRegistry<>(Map.of()));
+  }
+
+  private static TaskFactory<Unit> ticker(final Topic<Unit> tick, final CellId<long[]> ref, final boolean read) {
+    return executor -> new Task<>() {
+      @Override
+      public TaskStatus<Unit> step(final Scheduler scheduler) {
+        if (read) scheduler.get(ref);
+        scheduler.emit(Unit.UNIT, tick);
+        return TaskStatus.delayed(Duration.of(100, MILLISECONDS), this);
+      }
+    };
+  }
+}
@@ -0,0 +1,114 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class CheckpointSimulationDriverTest {
+  private static final ActivityDirective delayAtOneMinute =
+      directive("DelayActivityDirective", Duration.of(1, MINUTES));
+  private static final ActivityDirective decomposingAtFiveMinutes =
+      directive("DecomposingActivityDirective", Duration.of(5, MINUTES));
+
+  // Two cached simulations of the same plan, which numbered its directives differently.
+  // The plan holds two identical directives.
+  private static final Map<ActivityDirectiveId, ActivityDirective> earlyCache = Map.of(
+      new ActivityDirectiveId(10), delayAtOneMinute,
+      new ActivityDirectiveId(11), delayAtOneMinute,
+      new ActivityDirectiveId(12), decomposingAtFiveMinutes);
+  private static final Map<ActivityDirectiveId, ActivityDirective> lateCache = Map.of(
+      new ActivityDirectiveId(20), delayAtOneMinute,
+      new ActivityDirectiveId(21), delayAtOneMinute,
+      new ActivityDirectiveId(22), decomposingAtFiveMinutes);
+
+  private static final CachedSimulationEngine earlyEngine = engine(Duration.of(30, SECONDS), earlyCache);
+  private static final CachedSimulationEngine lateEngine = engine(Duration.of(2, MINUTES), lateCache);
+
+  @Test
+  public void matchesDuplicateDirectivesOneToOne() {
+    final var schedule = Map.of(
+        new ActivityDirectiveId(1), delayAtOneMinute,
+        new ActivityDirectiveId(2), delayAtOneMinute,
+        new ActivityDirectiveId(4), decomposingAtFiveMinutes);
+
+    // Nothing changed, so the plan is valid until its end, and the engine that got furthest wins.
+    final var best = CheckpointSimulationDriver
+        .bestCachedEngine(schedule, List.of(lateEngine, earlyEngine), Duration.HOUR)
+        .orElseThrow();
+
+    assertSame(lateEngine, best.getLeft());
+    assertEquals(
+        Set.of(new ActivityDirectiveId(1), new ActivityDirectiveId(2), new ActivityDirectiveId(4)),
+        best.getRight().keySet());
+    assertEquals(lateCache.keySet(), new HashSet<>(best.getRight().values()));
+    assertEquals(new ActivityDirectiveId(22), best.getRight().get(new ActivityDirectiveId(4)));
+  }
+
+  @Test
+  public void extraDuplicateInvalidatesAtItsStart() {
+    final var schedule = Map.of(
+        new ActivityDirectiveId(1), delayAtOneMinute,
+        new ActivityDirectiveId(2), delayAtOneMinute,
+        new ActivityDirectiveId(3), delayAtOneMinute,
+        new ActivityDirectiveId(4), decomposingAtFiveMinutes);
+
+    // The third copy has no cached counterpart, so the plan diverges at one minute.
+    // The late engine is past that point; the correspondence must be the early engine's, not the late one's.
+    final var best = CheckpointSimulationDriver
+        .bestCachedEngine(schedule, List.of(lateEngine, earlyEngine), Duration.HOUR)
+        .orElseThrow();
+
+    assertSame(earlyEngine, best.getLeft());
+    assertEquals(3, best.getRight().size());
+    assertEquals(earlyCache.keySet(), new HashSet<>(best.getRight().values()));
+    assertEquals(new ActivityDirectiveId(12), best.getRight().get(new ActivityDirectiveId(4)));
+  }
+
+  @Test
+  public void removedDuplicateInvalidatesAtItsStart() {
+    final var schedule = Map.of(
+        new ActivityDirectiveId(1), delayAtOneMinute,
+        new ActivityDirectiveId(4), decomposingAtFiveMinutes);
+
+    // One cached copy is left unmatched, so the plan diverges at one minute.
+    final var best = CheckpointSimulationDriver
+        .bestCachedEngine(schedule, List.of(lateEngine, earlyEngine), Duration.HOUR)
+        .orElseThrow();
+
+    assertSame(earlyEngine, best.getLeft());
+    assertEquals(Set.of(new ActivityDirectiveId(1), new ActivityDirectiveId(4)), best.getRight().keySet());
+    assertTrue(Set
+        .of(new ActivityDirectiveId(10), new ActivityDirectiveId(11))
+        .contains(best.getRight().get(new ActivityDirectiveId(1))));
+    assertEquals(new ActivityDirectiveId(12), best.getRight().get(new ActivityDirectiveId(4)));
+
+    // An engine that ends exactly at the invalidation time is no longer usable.
+    final var atInvalidation = engine(Duration.of(1, MINUTES), earlyCache);
+    assertTrue(CheckpointSimulationDriver.bestCachedEngine(schedule, List.of(atInvalidation), Duration.HOUR).isEmpty());
+  }
+
+  private static ActivityDirective directive(final String type, final Duration startOffset) {
+    return new ActivityDirective(startOffset, new SerializedActivity(type, Map.of()), null, true);
+  }
+
+  // Choosing an engine only looks at the directives it simulated and how far it got.
+  private static CachedSimulationEngine engine(
+      final Duration endsAt,
+      final Map<ActivityDirectiveId, ActivityDirective> directives)
+  {
+    return new CachedSimulationEngine(endsAt, directives, null, null, null, null);
+  }
+}
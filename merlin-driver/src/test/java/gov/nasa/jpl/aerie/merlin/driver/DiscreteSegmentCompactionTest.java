@@ -0,0 +1,143 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Querier;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.model.OutputType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Resource;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class DiscreteSegmentCompactionTest {
+  @Test
+  @DisplayName("Re-queried resource values equal to the previous ones extend the previous segment")
+  public void testUnchangedResourceProfileIsCompacted() {
+    final var actual = simulate(new InMemorySimulationResourceManager(false));
+    final var expected = List.of(new ProfileSegment<>(Duration.SECONDS.times(5), SerializedValue.of("value")));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  @DisplayName("Re-queried resource values are kept as their own segments when raw samples are kept")
+  public void testRawSamplesAreKept() {
+    final var actual = simulate(new InMemorySimulationResourceManager(true));
+
+    // One segment per expiry of the cell, and a last one at the end of the simulation.
+    assertEquals(11, actual.size());
+    for (final var segment : actual.subList(0, 10)) {
+      assertEquals(new ProfileSegment<>(MILLISECONDS.times(500), SerializedValue.of("value")), segment);
+    }
+    assertEquals(new ProfileSegment<>(Duration.ZERO, SerializedValue.of("value")), actual.get(10));
+  }
+
+  private static List<ProfileSegment<SerializedValue>> simulate(final SimulationResourceManager resourceManager) {
+    final var results = SimulationDriver.simulate(
+        makeModel(MILLISECONDS.times(500)),
+        Map.of(),
+        Instant.EPOCH,
+        Duration.SECONDS.times(5),
+        Instant.EPOCH,
+        Duration.SECONDS.times(5),
+        () -> false,
+        $ -> {},
+        resourceManager);
+
+    return results.discreteProfiles.get("/key").segments();
+  }
+
+  /** A model with a constant resource that is re-queried every time its stateless cell expires. */
+  private static MissionModel<?> makeModel(final Duration expiry) {
+    final var initializer = new MissionModelBuilder();
+
+    final var ref = initializer.allocate(
+        new Object(),
+        new CellType<>() {
+          @Override
+          public Object duplicate(final Object o) {
+            return o;
+          }
+
+          @Override
+          public void apply(final Object o, final Object o2) {
+          }
+
+          @Override
+          public void step(final Object o, final Duration duration) {
+          }
+
+          @Override
+          public Optional<Duration> getExpiry(final Object o) {
+            return Optional.of(expiry);
+          }
+
+          @Override
+          public EffectTrait<Object> getEffectType() {
+            return new EffectTrait<>() {
+              @Override
+              public Object empty() {
+                return new Object();
+              }
+
+              @Override
+              public Object sequentially(final Object prefix, final Object suffix) {
+                return empty();
+              }
+
+              @Override
+              public Object concurrently(final Object left, final Object right) {
+                return empty();
+              }
+            };
+          }
+        },
+        $ -> $,
+        new Topic<>());
+
+    initializer.resource("/key", new Resource<String>() {
+      @Override
+      public OutputType<String> getOutputType() {
+        return new OutputType<>() {
+          @Override
+          public ValueSchema getSchema() {
+            return ValueSchema.STRING;
+          }
+
+          @Override
+          public SerializedValue serialize(final String value) {
+            return SerializedValue.of(value);
+          }
+        };
+      }
+
+      @Override
+      public String getType() {
+        return "discrete";
+      }
+
+      @Override
+      public String getDynamics(final Querier querier) {
+        // Color this resource with the expiry of the cell.
+        querier.getState(ref);
+        return "value";
+      }
+    });
+
+    return initializer.build(ref, new DirectiveTypeRegistry<>(Map.of()));
+  }
+}
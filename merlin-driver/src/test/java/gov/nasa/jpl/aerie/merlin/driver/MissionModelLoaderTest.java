@@ -0,0 +1,129 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.protocol.model.MerlinPlugin;
+import gov.nasa.jpl.aerie.merlin.protocol.model.ModelType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class MissionModelLoaderTest {
+  /** A plugin for the JARs written by these tests. Its class is found through the loader's parent. */
+  public static final class StubPlugin implements MerlinPlugin {
+    @Override
+    public ModelType<?, ?> getModelType() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    this.directory = Files.createTempDirectory("mission-models");
+    // Empty the cache left by other tests.
+    MissionModelLoader.setCacheCapacity(0);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    MissionModelLoader.setCacheCapacity(0);
+    try (final var files = Files.list(this.directory)) {
+      for (final var file : files.toList()) Files.delete(file);
+    }
+    Files.delete(this.directory);
+  }
+
+  @Test
+  public void zeroCapacityDisablesCaching() throws Exception {
+    final var jar = writeJar("model.jar", "1");
+
+    final var first = MissionModelLoader.loadMissionModelProvider(jar, "model", "1");
+    assertNotSame(first, MissionModelLoader.loadMissionModelProvider(jar, "model", "1"));
+    assertEquals(0, MissionModelLoader.getCacheStatistics().size());
+  }
+
+  @Test
+  public void repeatedLoadsHitTheCache() throws Exception {
+    MissionModelLoader.setCacheCapacity(2);
+    final var jar = writeJar("model.jar", "1");
+    final var before = MissionModelLoader.getCacheStatistics();
+
+    final var first = MissionModelLoader.loadMissionModelProvider(jar, "model", "1");
+    assertSame(first, MissionModelLoader.loadMissionModelProvider(jar, "model", "1"));
+    // A different name or version is a different mission model, even from the same JAR.
+    assertNotSame(first, MissionModelLoader.loadMissionModelProvider(jar, "model", "2"));
+
+    final var after = MissionModelLoader.getCacheStatistics();
+    assertEquals(1, after.hits() - before.hits());
+    assertEquals(2, after.misses() - before.misses());
+    assertEquals(2, after.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedPluginsAreEvicted() throws Exception {
+    MissionModelLoader.setCacheCapacity(2);
+    final var a = writeJar("a.jar", "a");
+    final var b = writeJar("b.jar", "b");
+    final var c = writeJar("c.jar", "c");
+
+    final var pluginA = MissionModelLoader.loadMissionModelProvider(a, "model", "1");
+    final var pluginB = MissionModelLoader.loadMissionModelProvider(b, "model", "1");
+    // Using `a` again makes `b` the least recently used.
+    assertSame(pluginA, MissionModelLoader.loadMissionModelProvider(a, "model", "1"));
+    MissionModelLoader.loadMissionModelProvider(c, "model", "1");
+
+    assertEquals(2, MissionModelLoader.getCacheStatistics().size());
+    assertSame(pluginA, MissionModelLoader.loadMissionModelProvider(a, "model", "1"));
+    assertNotSame(pluginB, MissionModelLoader.loadMissionModelProvider(b, "model", "1"));
+
+    // Shrinking the cache evicts plugins immediately.
+    MissionModelLoader.setCacheCapacity(1);
+    assertEquals(1, MissionModelLoader.getCacheStatistics().size());
+  }
+
+  @Test
+  public void replacedJarsAreLoadedAnew() throws Exception {
+    MissionModelLoader.setCacheCapacity(2);
+    final var jar = writeJar("model.jar", "original");
+    final var original = MissionModelLoader.loadMissionModelProvider(jar, "model", "1");
+
+    writeJar("model.jar", "replacement");
+    final var replacement = MissionModelLoader.loadMissionModelProvider(jar, "model", "1");
+    assertNotSame(original, replacement);
+    assertSame(replacement, MissionModelLoader.loadMissionModelProvider(jar, "model", "1"));
+
+    // Restoring the original contents finds the original plugin, which is still cached.
+    writeJar("model.jar", "original");
+    assertSame(original, MissionModelLoader.loadMissionModelProvider(jar, "model", "1"));
+  }
+
+  /** Writes a JAR registering {@link StubPlugin}, with a resource holding the given contents to tell JARs apart. */
+  private Path writeJar(final String name, final String contents) throws IOException {
+    final var path = this.directory.resolve(name);
+    try (final var jar = new JarOutputStream(Files.newOutputStream(path))) {
+      writeEntry(jar, "META-INF/services/" + MerlinPlugin.class.getCanonicalName(), StubPlugin.class.getName());
+      writeEntry(jar, "contents.txt", contents);
+    }
+    return path;
+  }
+
+  private static void writeEntry(final JarOutputStream jar, final String name, final String contents) throws IOException {
+    final var entry = new JarEntry(name);
+    // Fix the modification time, so that JARs with the same contents are identical.
+    entry.setTime(0);
+    jar.putNextEntry(entry);
+    jar.write(contents.getBytes(StandardCharsets.UTF_8));
+    jar.closeEntry();
+  }
+}
@@ -0,0 +1,182 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Querier;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.model.OutputType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Resource;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Compares serial and parallel batch execution on a synthetic model in which every task and resource lands on the
+ * same simulation tick. Run with `width`, `work`, and `threads` arguments to vary the shape of the model.
+ */
+public class ParallelBatchBenchmark {
+  private static final Duration TICK = Duration.SECOND;
+
+  /**
+   * Builds a model of `width` independent workers. Each worker spins for `work` iterations, emits to its own topic,
+   * and waits for the next tick; a discrete resource per worker samples the worker's cell.
+   */
+  static MissionModel<?> wideFanoutModel(final int width, final int ticks, final int work) {
+    final var builder = new MissionModelBuilder();
+
+    for (var i = 0; i < width; i += 1) {
+      final var topic = new Topic<Long>();
+      final var cell = builder.allocate(new long[] {0}, new CounterCellType(), $ -> $, topic);
+
+      builder.resource("/worker/" + i, new CounterResource(cell));
+      final TaskFactory<Unit> worker = executor -> new WorkerTask(cell, topic, ticks, work);
+      builder.daemon(worker);
+    }
+
+    return builder.build(new Object(), new DirectiveTypeRegistry<>(Map.of()));
+  }
+
+  static SimulationResults simulate(final MissionModel<?> model, final Duration duration, final int parallelism) {
+    final var now = Instant.EPOCH;
+    return SimulationDriver.simulate(
+        model,
+        Map.of(),
+        now,
+        duration,
+        now,
+        duration,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager(),
+        Optional.empty(),
+        parallelism);
+  }
+
+  private static long timeSimulation(final int parallelism, final int width, final int ticks, final int work) {
+    final var model = wideFanoutModel(width, ticks, work);
+    final var before = System.nanoTime();
+    simulate(model, TICK.times(ticks), parallelism);
+    return System.nanoTime() - before;
+  }
+
+  public static void main(final String[] args) {
+    final var width = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+    final var work = (args.length > 1) ? Integer.parseInt(args[1]) : 20_000;
+    final var threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    final var ticks = 60;
+    final var nbRuns = 5;
+
+    // Warm up both paths before measuring.
+    timeSimulation(1, width, ticks, work);
+    timeSimulation(threads, width, ticks, work);
+
+    var totalSerial = 0L;
+    var totalParallel = 0L;
+    for (var i = 0; i < nbRuns; i++) {
+      totalSerial += timeSimulation(1, width, ticks, work);
+      totalParallel += timeSimulation(threads, width, ticks, work);
+    }
+
+    final var serialMillis = (float) totalSerial / nbRuns / 1_000_000;
+    final var parallelMillis = (float) totalParallel / nbRuns / 1_000_000;
+    System.out.println("width=%d work=%d threads=%d: serial %.1f ms, parallel %.1f ms, speedup = %.2f".formatted(
+        width, work, threads, serialMillis, parallelMillis, serialMillis / parallelMillis));
+  }
+
+  private record WorkerTask(CellId<long[]> cell, Topic<Long> topic, int remaining, int work) implements Task<Unit> {
+    @Override
+    public TaskStatus<Unit> step(final Scheduler scheduler) {
+      if (this.remaining == 0) return TaskStatus.completed(Unit.UNIT);
+
+      final var count = scheduler.get(this.cell)[0];
+      scheduler.emit(spin(count, this.work), this.topic);
+      return TaskStatus.delayed(TICK, new WorkerTask(this.cell, this.topic, this.remaining - 1, this.work));
+    }
+
+    @Override
+    public Task<Unit> duplicate(final Executor executor) {
+      return this;
+    }
+
+    private static long spin(final long seed, final int work) {
+      var x = seed + 1;
+      for (var i = 0; i < work; i++) {
+        x ^= (x << 13);
+        x ^= (x >>> 7);
+        x ^= (x << 17);
+      }
+      return (x & 0xFF) + 1;
+    }
+  }
+
+  private record CounterResource(CellId<long[]> cell) implements Resource<Long> {
+    @Override
+    public String getType() {
+      return "discrete";
+    }
+
+    @Override
+    public OutputType<Long> getOutputType() {
+      return new OutputType<>() {
+        @Override
+        public ValueSchema getSchema() {
+          return ValueSchema.INT;
+        }
+
+        @Override
+        public SerializedValue serialize(final Long value) {
+          return SerializedValue.of(value);
+        }
+      };
+    }
+
+    @Override
+    public Long getDynamics(final Querier querier) {
+      return querier.getState(this.cell)[0];
+    }
+  }
+
+  private static final class CounterCellType implements CellType<Long, long[]> {
+    @Override
+    public EffectTrait<Long> getEffectType() {
+      return new EffectTrait<>() {
+        @Override
+        public Long empty() {
+          return 0L;
+        }
+
+        @Override
+        public Long sequentially(final Long prefix, final Long suffix) {
+          return prefix + suffix;
+        }
+
+        @Override
+        public Long concurrently(final Long left, final Long right) {
+          return left + right;
+        }
+      };
+    }
+
+    @Override
+    public long[] duplicate(final long[] state) {
+      return state.clone();
+    }
+
+    @Override
+    public void apply(final long[] state, final Long effect) {
+      state[0] += effect;
+    }
+  }
+}
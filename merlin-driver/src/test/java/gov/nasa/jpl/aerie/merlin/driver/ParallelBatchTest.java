@@ -0,0 +1,168 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.ActivityInstance;
+import gov.nasa.jpl.aerie.types.ActivityInstanceId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelBatchTest {
+  private static final int SEEDS = 25;
+
+  @Test
+  void parallelBatchesMatchSerialOnWideFanout() {
+    for (var seed = 0; seed < SEEDS; seed++) {
+      final var random = new Random(seed);
+      final var width = 8 + random.nextInt(56);
+      final var ticks = 2 + random.nextInt(10);
+      final var work = 1 + random.nextInt(50);
+      final var duration = Duration.of(ticks, Duration.SECONDS);
+
+      final var expected = ParallelBatchBenchmark.simulate(
+          ParallelBatchBenchmark.wideFanoutModel(width, ticks, work), duration, 1);
+      final var actual = ParallelBatchBenchmark.simulate(
+          ParallelBatchBenchmark.wideFanoutModel(width, ticks, work), duration, 4);
+
+      assertEquals(serialize(expected), serialize(actual), "seed " + seed);
+    }
+  }
+
+  @Test
+  void parallelBatchesMatchSerialOnSpawningActivities() {
+    for (var seed = 0; seed < SEEDS; seed++) {
+      final var random = new Random(seed);
+      final var schedule = new HashMap<ActivityDirectiveId, ActivityDirective>();
+      final var count = 1 + random.nextInt(60);
+      for (var i = 0; i < count; i++) {
+        final var type = random.nextBoolean() ? "DecomposingActivityDirective" : "DelayActivityDirective";
+        schedule.put(
+            new ActivityDirectiveId(i),
+            new ActivityDirective(
+                Duration.of(random.nextInt(6), MINUTES),
+                new SerializedActivity(type, Map.of()),
+                null,
+                true));
+      }
+
+      final var expected = simulate(schedule, 1);
+      final var actual = simulate(schedule, 4);
+
+      assertEquals(serialize(expected), serialize(actual), "seed " + seed);
+    }
+  }
+
+  private static SimulationResults simulate(
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final int batchParallelism)
+  {
+    return SimulationDriver.simulate(
+        TestMissionModel.missionModel(),
+        schedule,
+        Instant.EPOCH,
+        Duration.HOUR,
+        Instant.EPOCH,
+        Duration.HOUR,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager(),
+        Optional.empty(),
+        batchParallelism);
+  }
+
+  /**
+   * Serializes simulation results into a form that does not depend on the IDs assigned to spans.
+   *
+   * Parallel batches allocate IDs in a different order than serial ones, so activities are identified by what they did,
+   * and the children of each activity are listed in sorted order.
+   */
+  private static String serialize(final SimulationResults results) {
+    final var labels = new HashMap<Long, String>();
+    results.simulatedActivities.forEach((id, activity) ->
+        labels.put(id.id(), "%s@%s".formatted(activity.type(), activity.start())));
+
+    final var activities = results.simulatedActivities
+        .entrySet()
+        .stream()
+        .filter($ -> $.getValue().parentId() == null)
+        .map($ -> serialize($.getValue(), results.simulatedActivities))
+        .sorted()
+        .collect(Collectors.joining("\n"));
+
+    final var events = new TreeMap<>(results.events)
+        .entrySet()
+        .stream()
+        .map($ -> $.getKey() + ": " + $.getValue().stream().map(graph -> serialize(graph, labels)).toList())
+        .collect(Collectors.joining("\n"));
+
+    return String.join(
+        "\n",
+        new TreeMap<>(results.realProfiles).toString(),
+        new TreeMap<>(results.discreteProfiles).toString(),
+        activities,
+        String.valueOf(results.unfinishedActivities.size()),
+        events);
+  }
+
+  /** Serializes an event graph, listing concurrent events in sorted order since their order depends on span IDs. */
+  private static String serialize(final EventGraph<EventRecord> graph, final Map<Long, String> labels) {
+    return switch (graph) {
+      case EventGraph.Empty<EventRecord> g -> "";
+      case EventGraph.Atom<EventRecord> g -> "%d:%s:%s".formatted(
+          g.atom().topicId(),
+          g.atom().spanId().map($ -> labels.getOrDefault($, "task")).orElse(""),
+          g.atom().value());
+      case EventGraph.Sequentially<EventRecord> g ->
+          "(" + serialize(g.prefix(), labels) + "; " + serialize(g.suffix(), labels) + ")";
+      case EventGraph.Concurrently<EventRecord> g -> {
+        final var branches = new ArrayList<String>();
+        collectBranches(g, labels, branches);
+        yield "(" + branches.stream().sorted().collect(Collectors.joining(" | ")) + ")";
+      }
+    };
+  }
+
+  private static void collectBranches(
+      final EventGraph<EventRecord> graph,
+      final Map<Long, String> labels,
+      final List<String> branches)
+  {
+    if (graph instanceof EventGraph.Concurrently<EventRecord> g) {
+      collectBranches(g.left(), labels, branches);
+      collectBranches(g.right(), labels, branches);
+    } else {
+      branches.add(serialize(graph, labels));
+    }
+  }
+
+  private static String serialize(final ActivityInstance activity, final Map<ActivityInstanceId, ActivityInstance> activities) {
+    return "%s %s %s %s %s [%s]".formatted(
+        activity.type(),
+        activity.start(),
+        activity.duration(),
+        activity.directiveId(),
+        activity.computedAttributes(),
+        activity.childIds()
+            .stream()
+            .map($ -> serialize(activities.get($), activities))
+            .sorted()
+            .collect(Collectors.joining(", ")));
+  }
+}
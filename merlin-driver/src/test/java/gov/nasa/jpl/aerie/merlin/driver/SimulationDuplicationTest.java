@@ -2,7 +2,10 @@ package gov.nasa.jpl.aerie.merlin.driver;
 
 import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 import gov.nasa.jpl.aerie.types.MissionModelId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -14,6 +17,7 @@ import java.util.Map;
 
 import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class SimulationDuplicationTest {
   CachedEngineStore store;
@@ -72,14 +76,59 @@ public class SimulationDuplicationTest {
     assertEquals(expected, newResults);
   }
 
+  @Test
+  void testDuplicateKeepsEvents() {
+    final Map<ActivityDirectiveId, ActivityDirective> schedule = Map.of(
+        new ActivityDirectiveId(1),
+        new ActivityDirective(Duration.of(1, MINUTES), new SerializedActivity("DelayActivityDirective", Map.of()), null, true),
+        new ActivityDirectiveId(2),
+        new ActivityDirective(Duration.of(10, MINUTES), new SerializedActivity("DecomposingActivityDirective", Map.of()), null, true));
+    final SimulationResults expected = SimulationDriver.simulate(
+        TestMissionModel.missionModel(),
+        schedule,
+        Instant.EPOCH,
+        Duration.HOUR,
+        Instant.EPOCH,
+        Duration.HOUR,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager());
+    assertFalse(expected.events.isEmpty());
+
+    // Without a reference timeline, all events come from the engine's own timeline.
+    final var results = simulateWithCheckpoints(
+        CachedSimulationEngine.empty(TestMissionModel.missionModel(), Instant.EPOCH),
+        List.of(Duration.of(5, MINUTES)),
+        schedule,
+        store);
+    assertEquals(expected.events, results.events);
+
+    // Resuming from the checkpoint, the events before it come from the cached reference timeline.
+    final var newResults = simulateWithCheckpoints(
+        store.getCachedEngines(mockConfiguration()).get(0),
+        List.of(),
+        schedule,
+        store);
+    assertEquals(expected.events, newResults.events);
+  }
+
   static SimulationResults simulateWithCheckpoints(
       final CachedSimulationEngine cachedEngine,
       final List<Duration> desiredCheckpoints,
       final CachedEngineStore engineStore
+  ) {
+    return simulateWithCheckpoints(cachedEngine, desiredCheckpoints, Map.of(), engineStore);
+  }
+
+  static SimulationResults simulateWithCheckpoints(
+      final CachedSimulationEngine cachedEngine,
+      final List<Duration> desiredCheckpoints,
+      final Map<ActivityDirectiveId, ActivityDirective> schedule,
+      final CachedEngineStore engineStore
   ) {
     return CheckpointSimulationDriver.simulateWithCheckpoints(
         TestMissionModel.missionModel(),
-        Map.of(),
+        schedule,
         Instant.EPOCH,
         Duration.HOUR,
         Instant.EPOCH,
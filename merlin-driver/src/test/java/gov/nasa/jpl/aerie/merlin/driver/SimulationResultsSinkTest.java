@@ -0,0 +1,99 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.ActivityInstance;
+import gov.nasa.jpl.aerie.types.ActivityInstanceId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SimulationResultsSinkTest {
+  private static final Map<ActivityDirectiveId, ActivityDirective> schedule = Map.of(
+      new ActivityDirectiveId(1),
+      new ActivityDirective(Duration.ZERO, new SerializedActivity("DecomposingActivityDirective", Map.of()), null, true),
+      new ActivityDirectiveId(2),
+      new ActivityDirective(Duration.of(30, Duration.MINUTES), new SerializedActivity("DelayActivityDirective", Map.of()), null, true),
+      new ActivityDirectiveId(3),
+      new ActivityDirective(Duration.of(3570, Duration.SECONDS), new SerializedActivity("DelayActivityDirective", Map.of()), null, true));
+
+  private static final class CollectingSink implements SimulationResultsSink {
+    List<Triple<Integer, String, ValueSchema>> topics = null;
+    final Map<ActivityInstanceId, ActivityInstance> simulatedActivities = new HashMap<>();
+    final Map<ActivityInstanceId, UnfinishedActivity> unfinishedActivities = new HashMap<>();
+    final TreeMap<Duration, List<EventGraph<EventRecord>>> events = new TreeMap<>();
+
+    @Override
+    public void acceptTopics(final List<Triple<Integer, String, ValueSchema>> topics) {
+      this.topics = topics;
+    }
+
+    @Override
+    public void acceptActivity(final ActivityInstanceId id, final ActivityInstance activity) {
+      assertTrue(this.events.isEmpty());
+      this.simulatedActivities.put(id, activity);
+    }
+
+    @Override
+    public void acceptUnfinishedActivity(final ActivityInstanceId id, final UnfinishedActivity activity) {
+      assertTrue(this.events.isEmpty());
+      this.unfinishedActivities.put(id, activity);
+    }
+
+    @Override
+    public void acceptEvents(final Duration time, final List<EventGraph<EventRecord>> events) {
+      assertTrue(this.events.isEmpty() || this.events.lastKey().shorterThan(time));
+      this.events.put(time, events);
+    }
+  }
+
+  @Test
+  public void streamedResultsMatchCollectedResults() {
+    final var expected = SimulationDriver.simulate(
+        TestMissionModel.missionModel(),
+        schedule,
+        Instant.EPOCH,
+        Duration.HOUR,
+        Instant.EPOCH,
+        Duration.HOUR,
+        () -> false);
+
+    final var sink = new CollectingSink();
+    final var duration = SimulationDriver.simulate(
+        TestMissionModel.missionModel(),
+        schedule,
+        Instant.EPOCH,
+        Duration.HOUR,
+        Instant.EPOCH,
+        Duration.HOUR,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager(),
+        sink,
+        Optional.empty());
+
+    assertFalse(expected.events.isEmpty());
+    assertFalse(expected.unfinishedActivities.isEmpty());
+    assertEquals(expected.topics, sink.topics);
+    assertEquals(expected.simulatedActivities, sink.simulatedActivities);
+    assertEquals(expected.unfinishedActivities, sink.unfinishedActivities);
+    assertEquals(expected.events, sink.events);
+    assertEquals(expected.duration, duration);
+  }
+}
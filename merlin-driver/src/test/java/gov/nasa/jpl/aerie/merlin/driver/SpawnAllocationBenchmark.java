@@ -0,0 +1,135 @@
+package gov.nasa.jpl.aerie.merlin.driver;
+
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.InSpan;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.apache.commons.lang3.mutable.MutableInt;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the memory allocated per spawned task, for a model whose daemon spawns many short-lived children.
+ *
+ * <p>
+ *   Reports the bytes allocated per spawn by a whole simulation, and the bytes allocated per spawn by the engine's
+ *   ID bookkeeping alone, using both the random string IDs the engine used to generate and the numeric IDs it
+ *   allocates now. Run with `fanout` and `ticks` arguments to vary the number of spawns.
+ * </p>
+ */
+public class SpawnAllocationBenchmark {
+  private static final Duration TICK = Duration.SECOND;
+
+  static MissionModel<?> spawningModel(final int fanout, final int ticks) {
+    final var builder = new MissionModelBuilder();
+    final TaskFactory<Unit> spawner = executor -> new SpawnerTask(fanout, ticks);
+    builder.daemon(spawner);
+    return builder.build(new Object(), new DirectiveTypeRegistry<>(Map.of()));
+  }
+
+  private static long allocatedBytes() {
+    final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return threads.getCurrentThreadAllocatedBytes();
+  }
+
+  private static double bytesPerSpawnInSimulation(final int fanout, final int ticks) {
+    final var model = spawningModel(fanout, ticks);
+    final var now = Instant.EPOCH;
+
+    final var before = allocatedBytes();
+    SimulationDriver.simulate(model, Map.of(), now, TICK.times(ticks), now, TICK.times(ticks), () -> false);
+    return (double) (allocatedBytes() - before) / ((long) fanout * ticks);
+  }
+
+  private record LegacySpanId(String id) {}
+  private record LegacyTaskId(String id) {}
+
+  /** Replays the bookkeeping the engine performed on every spawn when IDs were random UUID strings. */
+  private static double bytesPerSpawnWithStringIds(final int spawns) {
+    final var tasks = new LinkedHashMap<LegacyTaskId, Object>();
+    final var spanContributorCount = new LinkedHashMap<LegacySpanId, MutableInt>();
+
+    final var before = allocatedBytes();
+    for (var i = 0; i < spawns; i += 1) {
+      final var span = new LegacySpanId(UUID.randomUUID().toString());
+      final var task = new LegacyTaskId(UUID.randomUUID().toString());
+      spanContributorCount.put(span, new MutableInt(1));
+      tasks.put(task, Unit.UNIT);
+      tasks.remove(task);
+      spanContributorCount.remove(span);
+    }
+    return (double) (allocatedBytes() - before) / spawns;
+  }
+
+  /** Replays the same bookkeeping with numeric IDs and primitive-keyed maps. */
+  private static double bytesPerSpawnWithNumericIds(final int spawns) {
+    final var nextId = new AtomicLong(0);
+    final var tasks = new Long2ObjectOpenHashMap<Object>();
+    final var spanContributorCount = new Long2ObjectOpenHashMap<MutableInt>();
+
+    final var before = allocatedBytes();
+    for (var i = 0; i < spawns; i += 1) {
+      final var span = nextId.getAndIncrement();
+      final var task = nextId.getAndIncrement();
+      spanContributorCount.put(span, new MutableInt(1));
+      tasks.put(task, Unit.UNIT);
+      tasks.remove(task);
+      spanContributorCount.remove(span);
+    }
+    return (double) (allocatedBytes() - before) / spawns;
+  }
+
+  public static void main(final String[] args) {
+    final var fanout = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+    final var ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+    final var spawns = fanout * ticks;
+
+    // Warm up every path before measuring.
+    bytesPerSpawnInSimulation(fanout, ticks);
+    bytesPerSpawnWithStringIds(spawns);
+    bytesPerSpawnWithNumericIds(spawns);
+
+    System.out.println("spawns=%d: simulation %.1f bytes/spawn".formatted(
+        spawns, bytesPerSpawnInSimulation(fanout, ticks)));
+    System.out.println("spawns=%d: ID bookkeeping with string IDs %.1f bytes/spawn, with numeric IDs %.1f bytes/spawn".formatted(
+        spawns, bytesPerSpawnWithStringIds(spawns), bytesPerSpawnWithNumericIds(spawns)));
+  }
+
+  /** Spawns `fanout` children in fresh spans on every tick, each of which completes on its first step. */
+  private record SpawnerTask(int fanout, int remaining) implements Task<Unit> {
+    @Override
+    public TaskStatus<Unit> step(final Scheduler scheduler) {
+      if (this.remaining == 0) return TaskStatus.completed(Unit.UNIT);
+
+      for (var i = 0; i < this.fanout; i += 1) scheduler.spawn(InSpan.Fresh, CHILD);
+      return TaskStatus.delayed(TICK, new SpawnerTask(this.fanout, this.remaining - 1));
+    }
+
+    @Override
+    public Task<Unit> duplicate(final Executor executor) {
+      return this;
+    }
+  }
+
+  private static final TaskFactory<Unit> CHILD = executor -> new Task<>() {
+    @Override
+    public TaskStatus<Unit> step(final Scheduler scheduler) {
+      return TaskStatus.completed(Unit.UNIT);
+    }
+
+    @Override
+    public Task<Unit> duplicate(final Executor executor) {
+      return this;
+    }
+  };
+}
@@ -0,0 +1,53 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
+import gov.nasa.jpl.aerie.merlin.driver.TestMissionModel;
+import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import gov.nasa.jpl.aerie.types.SerializedActivity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class EngineProfilerTest {
+  @Test
+  public void taskStepsAreKeyedByActivityType() {
+    final var profiler = new EngineProfiler();
+    SimulationDriver.simulate(
+        TestMissionModel.missionModel(),
+        Map.of(
+            new ActivityDirectiveId(1),
+            new ActivityDirective(
+                Duration.ZERO,
+                new SerializedActivity("DecomposingActivityDirective", Map.of()),
+                null,
+                true)),
+        Instant.EPOCH,
+        Duration.HOUR,
+        Instant.EPOCH,
+        Duration.HOUR,
+        () -> false,
+        $ -> {},
+        new InMemorySimulationResourceManager(),
+        Optional.of(profiler));
+
+    final var tasks = profiler.entries().stream()
+        .filter($ -> $.kind() == EngineProfiler.JobKind.Task)
+        .collect(Collectors.toMap(EngineProfiler.Entry::key, $ -> $));
+
+    assertEquals(Set.of("DecomposingActivityDirective", "DelayActivityDirective", EngineProfiler.NO_ACTIVITY), tasks.keySet());
+    // The decomposing activity steps three times, and each of its two children steps twice.
+    assertEquals(3, tasks.get("DecomposingActivityDirective").calls());
+    assertEquals(4, tasks.get("DelayActivityDirective").calls());
+    assertTrue(tasks.values().stream().allMatch($ -> $.maxNanos() <= $.totalNanos()));
+  }
+}
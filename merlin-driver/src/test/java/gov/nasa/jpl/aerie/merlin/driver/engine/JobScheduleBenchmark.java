@@ -0,0 +1,178 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Replays a schedule trace against the engine's {@link JobSchedule} and against the map-based schedule it replaced.
+ *
+ * <p>
+ *   A trace is a text file with one operation per line:
+ *   {@code s <job> <micros> <priority>} schedules a job, {@code u <job>} unschedules it,
+ *   {@code x <micros>} extracts the next batch no later than the given time, and {@code d} duplicates the schedule.
+ *   Pass the path of a trace as the first argument, or pass nothing to replay a synthetic trace shaped like a
+ *   simulation of many periodic tasks, conditions, and resources.
+ * </p>
+ */
+public final class JobScheduleBenchmark {
+  private sealed interface Op {
+    record Schedule(int job, long micros, SubInstant priority) implements Op {}
+    record Unschedule(int job) implements Op {}
+    record Extract(long micros) implements Op {}
+    record Duplicate() implements Op {}
+  }
+
+  private static List<Op> readTrace(final Path path) throws IOException {
+    final var ops = new ArrayList<Op>();
+    for (final var line : Files.readAllLines(path)) {
+      final var fields = line.trim().split("\\s+");
+      switch (fields[0]) {
+        case "s" -> ops.add(new Op.Schedule(
+            Integer.parseInt(fields[1]),
+            Long.parseLong(fields[2]),
+            SubInstant.valueOf(fields[3])));
+        case "u" -> ops.add(new Op.Unschedule(Integer.parseInt(fields[1])));
+        case "x" -> ops.add(new Op.Extract(Long.parseLong(fields[1])));
+        case "d" -> ops.add(new Op.Duplicate());
+        case "" -> {}
+        default -> throw new IllegalArgumentException("Unrecognized trace operation: " + line);
+      }
+    }
+    return ops;
+  }
+
+  /**
+   * Tasks wake on their own periods, conditions are rescheduled at the current time when their cells change,
+   * and resources are queried after every batch that touches them, mirroring the traffic of a real simulation.
+   */
+  private static List<Op> syntheticTrace(final int tasks, final int steps) {
+    final var random = new Random(0);
+    final var ops = new ArrayList<Op>();
+    for (var task = 0; task < tasks; task += 1) {
+      ops.add(new Op.Schedule(task, random.nextInt(1_000_000), SubInstant.Tasks));
+      ops.add(new Op.Schedule(tasks + task, 0, SubInstant.Resources));
+    }
+
+    var now = 0L;
+    for (var step = 0; step < steps; step += 1) {
+      ops.add(new Op.Extract(Long.MAX_VALUE / 2));
+      now += 1 + random.nextInt(1_000);
+
+      final var task = random.nextInt(tasks);
+      ops.add(new Op.Schedule(task, now + 1 + random.nextInt(1_000_000), SubInstant.Tasks));
+      ops.add(new Op.Schedule(tasks + task, now, SubInstant.Resources));
+      if (random.nextInt(4) == 0) {
+        final var condition = 2 * tasks + random.nextInt(tasks);
+        ops.add(new Op.Unschedule(condition));
+        ops.add(new Op.Schedule(condition, now, SubInstant.Conditions));
+      }
+      if (step % 10_000 == 0) ops.add(new Op.Duplicate());
+    }
+    return ops;
+  }
+
+  private static long replay(final List<Op> trace) {
+    var schedule = new JobSchedule<Integer>();
+    var extracted = 0L;
+    for (final var op : trace) {
+      switch (op) {
+        case Op.Schedule s -> schedule.schedule(s.job(), s.micros(), s.priority());
+        case Op.Unschedule u -> schedule.unschedule(u.job());
+        case Op.Extract x -> extracted += schedule.extractNextJobs(Duration.of(x.micros(), Duration.MICROSECONDS)).jobs().size();
+        case Op.Duplicate d -> schedule = schedule.duplicate();
+      }
+    }
+    return extracted;
+  }
+
+  private static long replayLegacy(final List<Op> trace) {
+    var schedule = new LegacyJobSchedule();
+    var extracted = 0L;
+    for (final var op : trace) {
+      switch (op) {
+        case Op.Schedule s -> schedule.schedule(s.job(), s.priority().at(Duration.of(s.micros(), Duration.MICROSECONDS)));
+        case Op.Unschedule u -> schedule.unschedule(u.job());
+        case Op.Extract x -> extracted += schedule.extractNextJobs(Duration.of(x.micros(), Duration.MICROSECONDS)).size();
+        case Op.Duplicate d -> schedule = schedule.duplicate();
+      }
+    }
+    return extracted;
+  }
+
+  /** The schedule used by the engine before {@link JobSchedule} was specialized, kept here as a baseline. */
+  private static final class LegacyJobSchedule {
+    private final Map<Integer, SchedulingInstant> scheduledJobs = new HashMap<>();
+    private final ConcurrentSkipListMap<SchedulingInstant, Set<Integer>> queue = new ConcurrentSkipListMap<>();
+
+    void schedule(final Integer job, final SchedulingInstant time) {
+      final var oldTime = this.scheduledJobs.put(job, time);
+      if (oldTime != null) removeJobFromQueue(oldTime, job);
+      this.queue.computeIfAbsent(time, $ -> new HashSet<>()).add(job);
+    }
+
+    void unschedule(final Integer job) {
+      final var oldTime = this.scheduledJobs.remove(job);
+      if (oldTime != null) removeJobFromQueue(oldTime, job);
+    }
+
+    private void removeJobFromQueue(final SchedulingInstant time, final Integer job) {
+      final var jobsAtOldTime = this.queue.get(time);
+      jobsAtOldTime.remove(job);
+      if (jobsAtOldTime.isEmpty()) this.queue.remove(time);
+    }
+
+    Set<Integer> extractNextJobs(final Duration maximumTime) {
+      if (this.queue.isEmpty() || this.queue.firstKey().project().longerThan(maximumTime)) return Collections.emptySet();
+      final var entry = this.queue.pollFirstEntry();
+      entry.getValue().forEach(this.scheduledJobs::remove);
+      return entry.getValue();
+    }
+
+    LegacyJobSchedule duplicate() {
+      final var schedule = new LegacyJobSchedule();
+      for (final var entry : this.queue.entrySet()) {
+        schedule.queue.put(entry.getKey(), new HashSet<>(entry.getValue()));
+      }
+      schedule.scheduledJobs.putAll(this.scheduledJobs);
+      return schedule;
+    }
+  }
+
+  public static void main(final String[] args) throws IOException {
+    final var trace = (args.length > 0) ? readTrace(Path.of(args[0])) : syntheticTrace(10_000, 1_000_000);
+    final var nbRuns = 5;
+
+    // Warm up both paths before measuring, and check that they agree.
+    final var expected = replayLegacy(trace);
+    if (replay(trace) != expected) throw new AssertionError("Schedules disagree on the number of extracted jobs");
+
+    var totalLegacy = 0L;
+    var totalHeap = 0L;
+    for (var i = 0; i < nbRuns; i++) {
+      var before = System.nanoTime();
+      replayLegacy(trace);
+      totalLegacy += System.nanoTime() - before;
+
+      before = System.nanoTime();
+      replay(trace);
+      totalHeap += System.nanoTime() - before;
+    }
+
+    final var legacyMillis = (float) totalLegacy / nbRuns / 1_000_000;
+    final var heapMillis = (float) totalHeap / nbRuns / 1_000_000;
+    System.out.println("operations=%d: skip list %.1f ms, indexed heap %.1f ms, speedup = %.2f".formatted(
+        trace.size(), legacyMillis, heapMillis, legacyMillis / heapMillis));
+  }
+}
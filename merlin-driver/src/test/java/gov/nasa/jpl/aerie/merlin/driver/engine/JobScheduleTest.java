@@ -0,0 +1,123 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class JobScheduleTest {
+  private static final SubInstant[] PRIORITIES = SubInstant.values();
+
+  @Test
+  public void extractsJobsInTimeThenPriorityOrder() {
+    final var schedule = new JobSchedule<String>();
+    schedule.schedule("resource", SubInstant.Resources.at(Duration.of(1, Duration.SECOND)));
+    schedule.schedule("task", SubInstant.Tasks.at(Duration.of(1, Duration.SECOND)));
+    schedule.schedule("condition", SubInstant.Conditions.at(Duration.of(1, Duration.SECOND)));
+    schedule.schedule("early", SubInstant.Resources.at(Duration.ZERO));
+
+    assertEquals(Optional.of(Duration.ZERO), schedule.peekNextTime());
+    assertEquals(Set.of("early"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("condition"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("task"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("resource"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Optional.empty(), schedule.peekNextTime());
+  }
+
+  @Test
+  public void reschedulingMovesAJob() {
+    final var schedule = new JobSchedule<String>();
+    schedule.schedule("a", SubInstant.Tasks.at(Duration.of(5, Duration.SECOND)));
+    schedule.schedule("b", SubInstant.Tasks.at(Duration.of(3, Duration.SECOND)));
+    schedule.schedule("a", SubInstant.Tasks.at(Duration.of(1, Duration.SECOND)));
+
+    assertEquals(2, schedule.size());
+    final var batch = schedule.extractNextJobs(Duration.MAX_VALUE);
+    assertEquals(Duration.of(1, Duration.SECOND), batch.offsetFromStart());
+    assertEquals(Set.of("a"), batch.jobs());
+  }
+
+  @Test
+  public void doesNotExtractJobsPastTheMaximumTime() {
+    final var schedule = new JobSchedule<String>();
+    schedule.schedule("a", SubInstant.Tasks.at(Duration.of(5, Duration.SECOND)));
+
+    final var batch = schedule.extractNextJobs(Duration.of(4, Duration.SECOND));
+    assertEquals(Duration.of(4, Duration.SECOND), batch.offsetFromStart());
+    assertTrue(batch.jobs().isEmpty());
+    assertEquals(1, schedule.size());
+  }
+
+  @Test
+  public void duplicatesAreIndependent() {
+    final var schedule = new JobSchedule<String>();
+    schedule.schedule("a", SubInstant.Tasks.at(Duration.of(1, Duration.SECOND)));
+    schedule.schedule("b", SubInstant.Tasks.at(Duration.of(2, Duration.SECOND)));
+
+    final var copy = schedule.duplicate();
+    copy.unschedule("a");
+    copy.schedule("c", SubInstant.Tasks.at(Duration.ZERO));
+
+    assertEquals(Set.of("a"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("b"), schedule.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("c"), copy.extractNextJobs(Duration.MAX_VALUE).jobs());
+    assertEquals(Set.of("b"), copy.extractNextJobs(Duration.MAX_VALUE).jobs());
+  }
+
+  @Test
+  public void agreesWithASortedMapUnderRandomOperations() {
+    final var random = new Random(42);
+    final var schedule = new JobSchedule<Integer>();
+    final var scheduled = new HashMap<Integer, SchedulingInstant>();
+    final var model = new TreeMap<SchedulingInstant, Set<Integer>>();
+
+    for (var step = 0; step < 100_000; step += 1) {
+      final var job = random.nextInt(200);
+      final var choice = random.nextInt(10);
+      if (choice < 6) {
+        final var time = PRIORITIES[random.nextInt(PRIORITIES.length)].at(Duration.of(random.nextInt(50), Duration.SECOND));
+        schedule.schedule(job, time);
+        unscheduleFromModel(scheduled, model, job);
+        scheduled.put(job, time);
+        model.computeIfAbsent(time, $ -> new HashSet<>()).add(job);
+      } else if (choice < 8) {
+        schedule.unschedule(job);
+        unscheduleFromModel(scheduled, model, job);
+      } else {
+        final var maximumTime = Duration.of(random.nextInt(60), Duration.SECOND);
+        final var batch = schedule.extractNextJobs(maximumTime);
+        if (model.isEmpty() || model.firstKey().project().longerThan(maximumTime)) {
+          assertEquals(maximumTime, batch.offsetFromStart());
+          assertTrue(batch.jobs().isEmpty());
+        } else {
+          final var expected = model.pollFirstEntry();
+          expected.getValue().forEach(scheduled::remove);
+          assertEquals(expected.getKey().project(), batch.offsetFromStart());
+          assertEquals(expected.getValue(), batch.jobs());
+        }
+      }
+      assertEquals(scheduled.size(), schedule.size());
+    }
+  }
+
+  private static void unscheduleFromModel(
+      final Map<Integer, SchedulingInstant> scheduled,
+      final TreeMap<SchedulingInstant, Set<Integer>> model,
+      final Integer job)
+  {
+    final var oldTime = scheduled.remove(job);
+    if (oldTime == null) return;
+    final var jobs = model.get(oldTime);
+    jobs.remove(job);
+    if (jobs.isEmpty()) model.remove(oldTime);
+  }
+}
@@ -0,0 +1,68 @@
+package gov.nasa.jpl.aerie.merlin.driver.engine;
+
+import gov.nasa.jpl.aerie.merlin.driver.TestMissionModel;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.InSpan;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MINUTE;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECOND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class ParallelIdAllocationTest {
+  @Test
+  public void parallelBatchesAllocateTheSameIds() throws Throwable {
+    final var first = simulate(4);
+    final var second = simulate(4);
+
+    assertEquals(simulate(1).size(), first.size());
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void parallelBatchesAllocateTheSameIdsRegardlessOfThreadCount() throws Throwable {
+    assertEquals(simulate(2), simulate(8));
+  }
+
+  private static List<Map.Entry<SpanId, SimulationEngine.Span>> simulate(final int batchParallelism) throws Throwable {
+    final var model = TestMissionModel.missionModel();
+    try (final var engine = new SimulationEngine(model.getInitialCells(), Optional.empty(), batchParallelism)) {
+      engine.init(model.getResources(), model.getDaemon());
+
+      // Tasks that spawn different numbers of children, so that the jobs of a batch allocate different numbers of IDs.
+      for (var i = 0; i < 64; i++) {
+        engine.scheduleTask(Duration.of(i % 3, MINUTE), spawner(i % 5));
+      }
+
+      while (engine.step(Duration.HOUR) instanceof SimulationEngine.Status.Nominal) {}
+
+      return List.copyOf(engine.getSpans().entrySet());
+    }
+  }
+
+  private static TaskFactory<Unit> spawner(final int children) {
+    return executor -> new Task<>() {
+      @Override
+      public TaskStatus<Unit> step(final Scheduler scheduler) {
+        for (var i = 0; i < children; i++) {
+          scheduler.spawn(InSpan.Fresh, delay(Duration.of(i, SECOND)));
+        }
+        if (children % 2 == 0) return TaskStatus.completed(Unit.UNIT);
+        return TaskStatus.calling(InSpan.Fresh, delay(SECOND), spawner(children - 1).create(executor));
+      }
+    };
+  }
+
+  private static TaskFactory<Unit> delay(final Duration duration) {
+    return executor -> $ -> TaskStatus.delayed(duration, $$ -> TaskStatus.completed(Unit.UNIT));
+  }
+}
@@ -0,0 +1,62 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class ForkableListTest {
+  private static List<Integer> range(final int from, final int to) {
+    final var list = new ArrayList<Integer>();
+    for (int i = from; i < to; i++) list.add(i);
+    return list;
+  }
+
+  @Test
+  public void testAppendAcrossChunks() {
+    final var list = new ForkableList<Integer>();
+    list.addAll(range(0, 5000));
+
+    assertEquals(range(0, 5000), new ArrayList<>(list));
+    assertEquals(5000, list.size());
+    assertEquals(0, (int) list.getFirst());
+    assertEquals(4321, (int) list.get(4321));
+    assertEquals(4999, (int) list.getLast());
+  }
+
+  @Test
+  public void testForksDivergeIndependently() {
+    final var original = new ForkableList<Integer>();
+    original.addAll(range(0, 100));
+
+    final var fork = original.fork();
+    final var forkOfFork = fork.fork();
+    original.addAll(range(100, 200));
+    fork.addAll(range(1000, 1100));
+    forkOfFork.add(-1);
+
+    final var expectedFork = range(0, 100);
+    expectedFork.addAll(range(1000, 1100));
+    final var expectedForkOfFork = range(0, 100);
+    expectedForkOfFork.add(-1);
+
+    assertEquals(range(0, 200), new ArrayList<>(original));
+    assertEquals(expectedFork, new ArrayList<>(fork));
+    assertEquals(expectedForkOfFork, new ArrayList<>(forkOfFork));
+  }
+
+  @Test
+  public void testClearDoesNotAffectForks() {
+    final var original = new ForkableList<Integer>();
+    original.addAll(range(0, 10));
+
+    final var fork = original.fork();
+    original.clear();
+    original.add(42);
+
+    assertEquals(List.of(42), new ArrayList<>(original));
+    assertEquals(range(0, 10), new ArrayList<>(fork));
+  }
+}
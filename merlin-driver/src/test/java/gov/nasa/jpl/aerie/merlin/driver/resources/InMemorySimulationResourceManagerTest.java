@@ -0,0 +1,158 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class InMemorySimulationResourceManagerTest {
+  private static final List<SerializedValue> discreteValues = List.of(
+      SerializedValue.NULL,
+      SerializedValue.of(true),
+      SerializedValue.of(1.5),
+      SerializedValue.of("é".repeat(40_000)),
+      SerializedValue.of(Map.of("a", SerializedValue.of(3), "b", SerializedValue.of(List.of(SerializedValue.of("c"))))));
+
+  private static InMemorySimulationResourceManager getResourceManager() {
+    final var resourceManager = new InMemorySimulationResourceManager();
+    for (int i = 0; i < discreteValues.size(); i++) {
+      resourceManager.acceptUpdates(
+          Duration.of(i, SECONDS),
+          Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.linear(i, -i))),
+          Map.of("discrete", Pair.of(ValueSchema.ofStruct(Map.of()), discreteValues.get(i))));
+    }
+    return resourceManager;
+  }
+
+  @Test
+  public void testSpilledSegmentsAreReadBack() throws IOException {
+    final var expected = getResourceManager().computeProfiles(Duration.of(10, SECONDS));
+
+    final var resourceManager = getResourceManager();
+    final var file = Files.createTempFile("segments", ".bin");
+    resourceManager.spillTo(file);
+    assertTrue(resourceManager.isSpilled());
+    assertEquals(0, resourceManager.estimatedSizeInBytes());
+
+    // Using the manager reads its segments back and deletes the file they were spilled to.
+    assertEquals(expected, resourceManager.computeProfiles(Duration.of(10, SECONDS)));
+    assertFalse(resourceManager.isSpilled());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testSpilledManagerCanBeCopiedAndUpdated() throws IOException {
+    final var resourceManager = getResourceManager();
+    final var file = Files.createTempFile("segments", ".bin");
+    resourceManager.spillTo(file);
+
+    final var copy = new InMemorySimulationResourceManager(resourceManager);
+    assertFalse(resourceManager.isSpilled());
+    assertEquals(
+        getResourceManager().computeProfiles(Duration.of(10, SECONDS)),
+        copy.computeProfiles(Duration.of(10, SECONDS)));
+
+    resourceManager.spillTo(Files.createTempFile("segments", ".bin"));
+    resourceManager.acceptUpdates(
+        Duration.of(10, SECONDS),
+        Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.constant(0))),
+        Map.of());
+    assertFalse(resourceManager.isSpilled());
+    assertEquals(6, resourceManager.computeProfiles(Duration.of(20, SECONDS)).realProfiles().get("real").segments().size());
+  }
+
+  @Test
+  public void testClearDeletesSpill() throws IOException {
+    final var resourceManager = getResourceManager();
+    final var file = Files.createTempFile("segments", ".bin");
+    resourceManager.spillTo(file);
+    resourceManager.clear();
+
+    assertFalse(resourceManager.isSpilled());
+    assertFalse(Files.exists(file));
+    assertTrue(resourceManager.computeProfiles(Duration.of(10, SECONDS)).realProfiles().isEmpty());
+  }
+
+  @Test
+  public void testRepeatedDiscreteSamplesAreCompacted() {
+    final var schema = ValueSchema.ofVariant(List.of(new ValueSchema.Variant("ON", "ON"), new ValueSchema.Variant("OFF", "OFF")));
+    final var resourceManager = new InMemorySimulationResourceManager(false);
+    final var samples = List.of("ON", "ON", "OFF", "OFF", "OFF", "ON");
+    for (int i = 0; i < samples.size(); i++) {
+      resourceManager.acceptUpdates(
+          Duration.of(i, SECONDS),
+          Map.of(),
+          Map.of("a", Pair.of(schema, SerializedValue.of(samples.get(i))),
+                 "b", Pair.of(schema, SerializedValue.of(samples.get(i)))));
+    }
+
+    final var profiles = resourceManager.computeProfiles(Duration.of(10, SECONDS)).discreteProfiles();
+    final var a = profiles.get("a").segments();
+    final var b = profiles.get("b").segments();
+    assertEquals(
+        List.of(
+            new ProfileSegment<>(Duration.of(2, SECONDS), SerializedValue.of("ON")),
+            new ProfileSegment<>(Duration.of(3, SECONDS), SerializedValue.of("OFF")),
+            new ProfileSegment<>(Duration.of(5, SECONDS), SerializedValue.of("ON"))),
+        a);
+    assertEquals(a, b);
+
+    // Equal values share a single instance, within and across resources
+    assertSame(a.get(0).dynamics(), a.get(2).dynamics());
+    assertSame(a.get(1).dynamics(), b.get(1).dynamics());
+  }
+
+  @Test
+  public void testCopiesShareHistoryButNotUpdates() {
+    final var resourceManager = getResourceManager();
+    final var copy = new InMemorySimulationResourceManager(resourceManager);
+
+    resourceManager.acceptUpdates(
+        Duration.of(10, SECONDS),
+        Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.constant(1))),
+        Map.of("discrete", Pair.of(ValueSchema.ofStruct(Map.of()), SerializedValue.of("original"))));
+    copy.acceptUpdates(
+        Duration.of(20, SECONDS),
+        Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.constant(2))),
+        Map.of("discrete", Pair.of(ValueSchema.ofStruct(Map.of()), SerializedValue.of("copy"))));
+
+    final var originalProfiles = resourceManager.computeProfiles(Duration.of(30, SECONDS));
+    final var copyProfiles = copy.computeProfiles(Duration.of(30, SECONDS));
+    final var history = getResourceManager().computeProfiles(Duration.of(10, SECONDS));
+
+    assertEquals(
+        history.realProfiles().get("real").segments().subList(0, discreteValues.size()),
+        originalProfiles.realProfiles().get("real").segments().subList(0, discreteValues.size()));
+    assertEquals(
+        new ProfileSegment<>(Duration.of(20, SECONDS), RealDynamics.constant(1)),
+        originalProfiles.realProfiles().get("real").segments().getLast());
+    assertEquals(
+        new ProfileSegment<>(Duration.of(16, SECONDS), history.realProfiles().get("real").segments().getLast().dynamics()),
+        copyProfiles.realProfiles().get("real").segments().get(discreteValues.size() - 1));
+    assertEquals(
+        new ProfileSegment<>(Duration.of(10, SECONDS), RealDynamics.constant(2)),
+        copyProfiles.realProfiles().get("real").segments().getLast());
+
+    assertEquals(
+        SerializedValue.of("original"),
+        originalProfiles.discreteProfiles().get("discrete").segments().getLast().dynamics());
+    assertEquals(
+        SerializedValue.of("copy"),
+        copyProfiles.discreteProfiles().get("discrete").segments().getLast().dynamics());
+    assertEquals(discreteValues.size() + 1, copyProfiles.discreteProfiles().get("discrete").segments().size());
+  }
+}
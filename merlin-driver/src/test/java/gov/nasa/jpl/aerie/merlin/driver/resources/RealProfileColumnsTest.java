@@ -0,0 +1,78 @@
+package gov.nasa.jpl.aerie.merlin.driver.resources;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class RealProfileColumnsTest {
+  private static final List<ProfileSegment<RealDynamics>> expected = List.of(
+      new ProfileSegment<>(Duration.of(2, SECONDS), RealDynamics.linear(0, 1)),
+      new ProfileSegment<>(Duration.of(3, SECONDS), RealDynamics.linear(2, 0)),
+      new ProfileSegment<>(Duration.ZERO, RealDynamics.linear(2, -1)),
+      new ProfileSegment<>(Duration.of(5, SECONDS), RealDynamics.constant(7)));
+
+  private static void acceptUpdates(final SimulationResourceManager resourceManager) {
+    var elapsed = Duration.ZERO;
+    for (final var segment : expected) {
+      resourceManager.acceptUpdates(elapsed, Map.of("x", Pair.of(ValueSchema.REAL, segment.dynamics())), Map.of());
+      elapsed = elapsed.plus(segment.extent());
+    }
+  }
+
+  @Test
+  public void testColumnsBehaveAsList() {
+    final var columns = RealProfileColumns.of(expected);
+    assertEquals(expected, columns);
+    assertEquals(columns, expected);
+    assertEquals(expected.hashCode(), columns.hashCode());
+    assertSame(columns, RealProfileColumns.of(columns));
+
+    assertEquals(3_000_000, columns.extentMicros(1));
+    assertEquals(2.0, columns.initial(2));
+    assertEquals(-1.0, columns.rate(2));
+  }
+
+  @Test
+  public void testInMemoryManagerComputesColumns() {
+    final var resourceManager = new InMemorySimulationResourceManager();
+    acceptUpdates(resourceManager);
+
+    final var profile = resourceManager.computeProfiles(Duration.of(10, SECONDS)).realProfiles().get("x");
+    assertEquals(ValueSchema.REAL, profile.schema());
+    assertInstanceOf(RealProfileColumns.class, profile.segments());
+    assertEquals(expected, profile.segments());
+
+    // Copies of the manager must not share their columns with the original.
+    final var copy = new InMemorySimulationResourceManager(resourceManager);
+    resourceManager.acceptUpdates(Duration.of(10, SECONDS), Map.of("x", Pair.of(ValueSchema.REAL, RealDynamics.constant(0))), Map.of());
+    assertEquals(expected, copy.computeProfiles(Duration.of(10, SECONDS)).realProfiles().get("x").segments());
+  }
+
+  @Test
+  public void testStreamingManagerStreamsColumns() {
+    final var streamed = new ArrayList<ProfileSegment<RealDynamics>>();
+    final var resourceManager = new StreamingSimulationResourceManager(
+        profiles -> {
+          final var segments = profiles.realProfiles().get("x").segments();
+          assertInstanceOf(RealProfileColumns.class, segments);
+          streamed.addAll(segments);
+        },
+        2);
+    acceptUpdates(resourceManager);
+    resourceManager.computeProfiles(Duration.of(10, SECONDS));
+
+    assertEquals(expected, streamed);
+  }
+}
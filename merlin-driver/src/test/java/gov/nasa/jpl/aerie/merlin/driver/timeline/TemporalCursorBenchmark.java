@@ -0,0 +1,159 @@
+package gov.nasa.jpl.aerie.merlin.driver.timeline;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.SpanId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the topic-indexed {@link TemporalEventSource.TemporalCursor} against a cursor that visits every point,
+ * on a timeline shaped like a model with many resources, each on its own topic, of which only a few change per tick.
+ * Every cell is read once per `readInterval` ticks. Run with `topics`, `ticks`, `emittersPerTick`, and `readInterval`
+ * arguments to vary the shape of the timeline.
+ */
+public final class TemporalCursorBenchmark {
+  private static final SpanId ORIGIN = new SpanId(0);
+
+  /** The cursor used before commits were indexed by topic, kept here as a baseline. */
+  private static final class ScanningCursor implements EventSource.Cursor {
+    private final TemporalEventSource.PointIterator iterator;
+
+    ScanningCursor(final TemporalEventSource timeline) {
+      this.iterator = timeline.iterator();
+    }
+
+    @Override
+    public void stepUp(final Cell<?> cell) {
+      while (this.iterator.hasNext()) {
+        final var point = this.iterator.next();
+        if (point instanceof TemporalEventSource.TimePoint.Delta p) {
+          cell.step(p.delta());
+        } else if (point instanceof TemporalEventSource.TimePoint.Commit p) {
+          if (cell.isInterestedIn(p.topics())) cell.apply(p.events());
+        }
+      }
+    }
+  }
+
+  private interface CursorFactory {
+    EventSource.Cursor create(TemporalEventSource timeline);
+  }
+
+  private static long run(
+      final CursorFactory cursors,
+      final int nbTopics,
+      final int ticks,
+      final int emittersPerTick,
+      final int readInterval)
+  {
+    final var random = new Random(0);
+    final var timeline = new TemporalEventSource();
+    final var topics = new ArrayList<Topic<Long>>(nbTopics);
+    final var cells = new ArrayList<Cell<long[]>>(nbTopics);
+    final var liveCells = new ArrayList<EventSource.Cursor>(nbTopics);
+    for (var i = 0; i < nbTopics; i += 1) {
+      final var topic = new Topic<Long>();
+      topics.add(topic);
+      cells.add(new Cell<>(new CounterCellType(), new Selector<>(topic, $ -> $), new IterativeEventGraphEvaluator(), new long[2]));
+      liveCells.add(cursors.create(timeline));
+    }
+
+    var checksum = 0L;
+    for (var tick = 0; tick < ticks; tick += 1) {
+      final var branches = new ArrayList<EventGraph<Event>>(emittersPerTick);
+      for (var i = 0; i < emittersPerTick; i += 1) {
+        branches.add(EventGraph.atom(Event.create(topics.get(random.nextInt(nbTopics)), 1L, ORIGIN)));
+      }
+      timeline.add(EventGraph.concurrently(branches));
+      timeline.add(Duration.SECOND);
+
+      // Stagger the reads, so that a few cells catch up on every tick.
+      for (var i = tick % readInterval; i < nbTopics; i += readInterval) {
+        liveCells.get(i).stepUp(cells.get(i));
+        checksum += cells.get(i).getState()[1];
+      }
+    }
+    return checksum;
+  }
+
+  public static void main(final String[] args) {
+    final var nbTopics = (args.length > 0) ? Integer.parseInt(args[0]) : 5_000;
+    final var ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 5_000;
+    final var emittersPerTick = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+    final var readInterval = (args.length > 3) ? Integer.parseInt(args[3]) : 500;
+    final var nbRuns = 5;
+
+    final CursorFactory scanning = ScanningCursor::new;
+    final CursorFactory indexed = TemporalEventSource::cursor;
+
+    // Warm up both paths before measuring, and check that they agree.
+    final var expected = run(scanning, nbTopics, ticks, emittersPerTick, readInterval);
+    if (run(indexed, nbTopics, ticks, emittersPerTick, readInterval) != expected) {
+      throw new AssertionError("Cursors disagree on the state of the cells");
+    }
+
+    var totalScanning = 0L;
+    var totalIndexed = 0L;
+    for (var i = 0; i < nbRuns; i++) {
+      var before = System.nanoTime();
+      run(scanning, nbTopics, ticks, emittersPerTick, readInterval);
+      totalScanning += System.nanoTime() - before;
+
+      before = System.nanoTime();
+      run(indexed, nbTopics, ticks, emittersPerTick, readInterval);
+      totalIndexed += System.nanoTime() - before;
+    }
+
+    final var scanningMillis = (float) totalScanning / nbRuns / 1_000_000;
+    final var indexedMillis = (float) totalIndexed / nbRuns / 1_000_000;
+    System.out.println("topics=%d ticks=%d emitters=%d interval=%d: scanning %.1f ms, indexed %.1f ms, speedup = %.2f".formatted(
+        nbTopics, ticks, emittersPerTick, readInterval, scanningMillis, indexedMillis, scanningMillis / indexedMillis));
+  }
+
+  /** Counts the effects applied to a cell, and the time over which it has been stepped. */
+  private static final class CounterCellType implements CellType<Long, long[]> {
+    @Override
+    public EffectTrait<Long> getEffectType() {
+      return new EffectTrait<>() {
+        @Override
+        public Long empty() {
+          return 0L;
+        }
+
+        @Override
+        public Long sequentially(final Long prefix, final Long suffix) {
+          return prefix + suffix;
+        }
+
+        @Override
+        public Long concurrently(final Long left, final Long right) {
+          return left + right;
+        }
+      };
+    }
+
+    @Override
+    public long[] duplicate(final long[] state) {
+      return state.clone();
+    }
+
+    @Override
+    public void apply(final long[] state, final Long effect) {
+      state[1] += effect;
+    }
+
+    @Override
+    public void step(final long[] state, final Duration duration) {
+      state[0] += duration.in(Duration.MICROSECONDS);
+    }
+    @Override
+    public boolean isStepAdditive() {
+      return true;
+    }
+  }
+}
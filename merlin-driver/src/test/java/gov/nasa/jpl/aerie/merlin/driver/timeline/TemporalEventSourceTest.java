@@ -0,0 +1,202 @@
+package gov.nasa.jpl.aerie.merlin.driver.timeline;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.SpanId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.EffectTrait;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class TemporalEventSourceTest {
+  private static TemporalEventSource timeline(final long... deltas) {
+    final var timeline = new TemporalEventSource();
+    for (final var delta : deltas) timeline.add(Duration.of(delta, Duration.SECOND));
+    return timeline;
+  }
+
+  private static List<Long> deltas(final Iterable<TemporalEventSource.TimePoint> timeline) {
+    final var deltas = new ArrayList<Long>();
+    for (final var point : timeline) {
+      deltas.add(((TemporalEventSource.TimePoint.Delta) point).delta().in(Duration.SECOND));
+    }
+    return deltas;
+  }
+
+  @Test
+  public void followedByIteratesBothTimelinesInOrder() {
+    final var combined = timeline(1, 2).followedBy(timeline(3));
+    combined.add(Duration.of(4, Duration.SECOND));
+
+    assertEquals(List.of(1L, 2L, 3L, 4L), deltas(combined));
+  }
+
+  @Test
+  public void forksOfForksShareTheirPrefix() {
+    final var first = timeline(1).followedBy(timeline(2));
+    final var second = first.followedBy(timeline(3));
+    final var sibling = first.followedBy(timeline(5));
+
+    assertEquals(List.of(1L, 2L, 3L), deltas(second));
+    assertEquals(List.of(1L, 2L, 5L), deltas(sibling));
+    assertTrue(second.prefix().previous() == sibling.prefix().previous());
+  }
+
+  @Test
+  public void laterAppendsAreNotShared() {
+    final var reference = timeline(1);
+    final var live = timeline(2);
+    final var combined = reference.followedBy(live);
+    live.add(Duration.of(3, Duration.SECOND));
+
+    assertEquals(List.of(1L, 2L), deltas(combined));
+  }
+
+  @Test
+  public void iteratorIsStableThroughAppends() {
+    final var timeline = timeline(1).followedBy(timeline(2));
+    final var iterator = timeline.iterator();
+    iterator.next();
+    iterator.next();
+    assertFalse(iterator.hasNext());
+
+    timeline.add(Duration.of(3, Duration.SECOND));
+    assertTrue(iterator.hasNext());
+    assertEquals(Duration.of(3, Duration.SECOND), ((TemporalEventSource.TimePoint.Delta) iterator.next()).delta());
+  }
+
+  @Test
+  public void cursorsAgreeWithReplayingEveryPoint() {
+    assertCursorsAgreeWithReplay(new ClockCellType());
+  }
+
+  @Test
+  public void cursorsStepNonAdditiveCellsOverEveryPoint() {
+    assertCursorsAgreeWithReplay(new DecayingClockCellType());
+  }
+
+  private static void assertCursorsAgreeWithReplay(final CellType<Long, long[]> cellType) {
+    final var random = new Random(3);
+    final var topics = List.of(new Topic<Long>(), new Topic<Long>(), new Topic<Long>(), new Topic<Long>());
+    final List<Selector<Long>> selectors = List.of(
+        new Selector<>(topics.get(0), $ -> $),
+        new Selector<>(topics.get(1), $ -> $),
+        new Selector<>(new Selector.SelectorRow<>(topics.get(1), $ -> $), new Selector.SelectorRow<>(topics.get(2), $ -> -$)));
+
+    final var reference = new TemporalEventSource();
+    final var live = new TemporalEventSource();
+    appendRandomPoints(random, topics, reference, 200);
+    appendRandomPoints(random, topics, live, 200);
+    final var timeline = reference.followedBy(live);
+
+    final var cells = new ArrayList<Cell<long[]>>();
+    final var cursors = new ArrayList<EventSource.Cursor>();
+    for (final var selector : selectors) {
+      cells.add(new Cell<>(cellType, selector, new IterativeEventGraphEvaluator(), new long[2]));
+      cursors.add(timeline.cursor());
+    }
+
+    for (var round = 0; round < 20; round += 1) {
+      appendRandomPoints(random, topics, timeline, random.nextInt(50));
+
+      for (var i = 0; i < cells.size(); i += 1) {
+        if (random.nextBoolean()) continue;
+        cursors.get(i).stepUp(cells.get(i));
+
+        final var expected = new Cell<>(cellType, selectors.get(i), new IterativeEventGraphEvaluator(), new long[2]);
+        for (final var point : timeline) {
+          if (point instanceof TemporalEventSource.TimePoint.Delta p) {
+            expected.step(p.delta());
+          } else if (point instanceof TemporalEventSource.TimePoint.Commit p) {
+            if (expected.isInterestedIn(p.topics())) expected.apply(p.events());
+          }
+        }
+        assertEquals(List.of(expected.getState()[0], expected.getState()[1]), List.of(cells.get(i).getState()[0], cells.get(i).getState()[1]));
+      }
+    }
+  }
+
+  private static void appendRandomPoints(
+      final Random random,
+      final List<Topic<Long>> topics,
+      final TemporalEventSource timeline,
+      final int count)
+  {
+    for (var i = 0; i < count; i += 1) {
+      if (random.nextInt(3) == 0) {
+        timeline.add(Duration.of(random.nextInt(5), Duration.SECOND));
+      } else {
+        EventGraph<Event> graph = EventGraph.empty();
+        for (var j = random.nextInt(3); j >= 0; j -= 1) {
+          final var event = Event.create(topics.get(random.nextInt(topics.size())), (long) random.nextInt(100), new SpanId(0));
+          graph = random.nextBoolean()
+              ? EventGraph.sequentially(graph, EventGraph.atom(event))
+              : EventGraph.concurrently(graph, EventGraph.atom(event));
+        }
+        timeline.add(graph);
+      }
+    }
+  }
+
+  /** A cell that tracks the time elapsed, and folds each effect together with the time at which it was applied. */
+  private static class ClockCellType implements CellType<Long, long[]> {
+    @Override
+    public EffectTrait<Long> getEffectType() {
+      return new EffectTrait<>() {
+        @Override
+        public Long empty() {
+          return 0L;
+        }
+
+        @Override
+        public Long sequentially(final Long prefix, final Long suffix) {
+          return 31 * prefix + suffix;
+        }
+
+        @Override
+        public Long concurrently(final Long left, final Long right) {
+          return left + right;
+        }
+      };
+    }
+
+    @Override
+    public long[] duplicate(final long[] state) {
+      return state.clone();
+    }
+
+    @Override
+    public void apply(final long[] state, final Long effect) {
+      state[1] = 31 * state[1] + effect + state[0];
+    }
+
+    @Override
+    public void step(final long[] state, final Duration duration) {
+      state[0] += duration.in(Duration.MICROSECONDS);
+    }
+    @Override
+    public boolean isStepAdditive() {
+      return true;
+    }
+  }
+
+  /** A clock that halves on every step before advancing, so that its state depends on how time is divided. */
+  private static final class DecayingClockCellType extends ClockCellType {
+    @Override
+    public void step(final long[] state, final Duration duration) {
+      state[0] = state[0] / 2 + duration.in(Duration.MICROSECONDS);
+    }
+
+    @Override
+    public boolean isStepAdditive() {
+      return false;
+    }
+  }
+}
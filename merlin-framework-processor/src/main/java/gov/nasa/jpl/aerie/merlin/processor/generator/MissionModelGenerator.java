@@ -842,6 +842,7 @@ public record MissionModelGenerator(Elements elementUtils, Types typeUtils, Mess
                                 switch (effectModel.executor()) {
                                   case Threaded -> "threaded";
                                   case Replaying -> "replaying";
+                                  case Continuing -> "continuing";
                                 },
                                 effectModel.returnType()
                                     .map(returnType -> CodeBlock
@@ -0,0 +1,29 @@
+package gov.nasa.jpl.aerie.merlin.framework;
+
+/**
+ * Probes whether this JVM grants access to the continuation support that {@link ContinuationTask} needs.
+ *
+ * <p>
+ *   This class must not refer to anything in {@code jdk.internal.vm}, so that it can be loaded and initialized
+ *   whether or not that package is exported to us.
+ * </p>
+ */
+/* package-local */
+final class ContinuationSupport {
+  private ContinuationSupport() {}
+
+  private static final boolean SUPPORTED =
+      Object.class.getModule().isExported("jdk.internal.vm", ContinuationSupport.class.getModule());
+
+  static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  static void checkSupported() {
+    if (!SUPPORTED) {
+      throw new UnsupportedOperationException(
+          "Continuation tasks need access to the JDK's internal continuation support. "
+          + "Start the JVM with `--add-exports java.base/jdk.internal.vm=ALL-UNNAMED`.");
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package gov.nasa.jpl.aerie.merlin.framework;
+
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.InSpan;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import jdk.internal.vm.Continuation;
+import jdk.internal.vm.ContinuationScope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A task whose execution is suspended and resumed as a one-shot continuation on the thread that steps it.
+ *
+ * <p>
+ *   Like a {@link ThreadedTask}, the task body runs only once from start to finish, but it never leaves the
+ *   simulation thread, so no handoff between threads is needed to step it. Unlike a {@link ReplayingTask},
+ *   resuming a task does not re-execute the steps it has already taken.
+ * </p>
+ *
+ * <p>
+ *   Continuations are internal to the JDK, so the JVM must be started with
+ *   {@code --add-exports java.base/jdk.internal.vm=ALL-UNNAMED}; see {@link #isSupported()}.
+ *   A task cannot yield while it holds a monitor (e.g. inside a {@code synchronized} block);
+ *   attempting to do so throws an {@link IllegalStateException} from the yielding call.
+ * </p>
+ *
+ * <p>
+ *   Every task stepped on a thread runs on that same thread, so thread-local state is shared between them: a
+ *   {@link ThreadLocal} set by one task is visible to any other task stepped on the same thread afterward, and to the
+ *   simulation engine itself. Tasks must not rely on thread-locals to keep state private to themselves.
+ * </p>
+ */
+public final class ContinuationTask<Return> implements Task<Return> {
+  // Held apart from this class, so that loading it does not require access to `jdk.internal.vm`.
+  private static final class Scope {
+    static final ContinuationScope INSTANCE = new ContinuationScope("merlin-task");
+  }
+
+  private final boolean cacheReads = ThreadedTask.CACHE_READS;
+
+  private final Scoped<Context> rootContext;
+  private final Supplier<Return> task;
+
+  private Continuation continuation = null;
+  private Lifecycle lifecycle = Lifecycle.Inactive;
+  private Return returnValue;
+  private final List<Object> readLog = new ArrayList<>();
+  private int stepCount = 0;
+
+  // Values passed between the host and the task across a suspension point.
+  private Scheduler nextScheduler = null;
+  private boolean isAborting = false;
+  private TaskStatus<Return> status = null;
+  private Throwable failure = null;
+
+  public ContinuationTask(final Scoped<Context> rootContext, final Supplier<Return> task) {
+    ContinuationSupport.checkSupported();
+    this.rootContext = Objects.requireNonNull(rootContext);
+    this.task = Objects.requireNonNull(task);
+  }
+
+  /** Whether this JVM grants access to the continuation support that this task needs. */
+  public static boolean isSupported() {
+    return ContinuationSupport.isSupported();
+  }
+
+  @Override
+  public TaskStatus<Return> step(final Scheduler scheduler) {
+    this.stepCount++;
+    if (this.lifecycle == Lifecycle.Terminated) {
+      return TaskStatus.completed(this.returnValue);
+    } else if (this.lifecycle == Lifecycle.Inactive) {
+      this.lifecycle = Lifecycle.Running;
+      this.continuation = new Continuation(Scope.INSTANCE, new ContinuationTaskHandle()::run);
+    }
+
+    this.nextScheduler = scheduler;
+    this.continuation.run();
+    this.nextScheduler = null;
+
+    if (this.failure != null) {
+      this.lifecycle = Lifecycle.Terminated;
+      this.continuation = null;
+
+      // The task ran on this thread, so the exception already carries a complete stack trace.
+      final var ex = this.failure;
+      this.failure = null;
+      if (ex instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (ex instanceof Error error) {
+        throw error;
+      } else {
+        throw new RuntimeException("Unexpected checked exception escaped from task", ex);
+      }
+    }
+
+    final var status = Objects.requireNonNull(this.status, "Task status is null, but it should have been assigned a value on yield.");
+    this.status = null;
+
+    if (status instanceof TaskStatus.Completed<Return> s) {
+      this.lifecycle = Lifecycle.Terminated;
+      this.returnValue = s.returnValue();
+      this.continuation = null;
+    }
+
+    return status;
+  }
+
+  @Override
+  public void release() {
+    if (this.lifecycle == Lifecycle.Running) {
+      // Resume the task one last time, so that it unwinds its stack (and runs any `finally` blocks).
+      this.isAborting = true;
+      this.continuation.run();
+      this.status = null;
+      this.failure = null;
+      this.continuation = null;
+    }
+
+    this.lifecycle = Lifecycle.Inactive;
+  }
+
+  private final class ContinuationTaskHandle implements TaskHandle {
+    private Scoped.UndoToken<Context> restore = null;
+    private Context context = null;
+
+    public void run() {
+      final Consumer<Object> readLogger = cacheReads ? ContinuationTask.this.readLog::add : $ -> {};
+      this.context = new ThreadedReactionContext(
+          ContinuationTask.this.rootContext,
+          ContinuationTask.this.nextScheduler,
+          this,
+          readLogger);
+
+      this.restore = ContinuationTask.this.rootContext.set(this.context);
+      try {
+        ContinuationTask.this.status = TaskStatus.completed(ContinuationTask.this.task.get());
+      } catch (final TaskAbort ex) {
+        ContinuationTask.this.status = TaskStatus.completed(null);
+      } catch (final Throwable ex) {
+        ContinuationTask.this.failure = ex;
+      } finally {
+        this.restore.close();
+      }
+    }
+
+    private Scheduler yield(final TaskStatus<Return> status) {
+      // If we're in the middle of aborting, just keep trying to bail out.
+      if (ContinuationTask.this.isAborting) throw TaskAbort;
+
+      ContinuationTask.this.status = status;
+
+      // The host thread carries on with other work while we're suspended,
+      //   so hand it back the context it had before we were resumed.
+      this.restore.close();
+      try {
+        // If the task is pinned to its thread (e.g. by a held monitor), this throws instead of returning false.
+        Continuation.yield(Scope.INSTANCE);
+      } finally {
+        this.restore = ContinuationTask.this.rootContext.set(this.context);
+      }
+
+      // See `ThreadedTask` for a discussion of how aborting interacts with the task.
+      if (ContinuationTask.this.isAborting) throw TaskAbort;
+
+      return ContinuationTask.this.nextScheduler;
+    }
+
+    @Override
+    public Scheduler delay(final Duration delay) {
+      return this.yield(TaskStatus.delayed(delay, ContinuationTask.this));
+    }
+
+    @Override
+    public Scheduler call(final InSpan inSpan, final TaskFactory<?> child) {
+      return this.yield(TaskStatus.calling(inSpan, child, ContinuationTask.this));
+    }
+
+    @Override
+    public Scheduler await(final gov.nasa.jpl.aerie.merlin.protocol.model.Condition condition) {
+      return this.yield(TaskStatus.awaiting(condition, ContinuationTask.this));
+    }
+  }
+
+  private enum Lifecycle { Inactive, Running, Terminated }
+
+  private static final TaskAbort TaskAbort = new TaskAbort();
+  /**
+   * A control-flow exception for quickly aborting a task which will never proceed any further.
+   *
+   * This exception extends Error instead of RuntimeException to reduce the likelihood that
+   * it gets spuriously caught by an over-broad catch clause.
+   */
+  private static final class TaskAbort extends Error {
+    public TaskAbort() {
+      super(null, null, /* capture suppressed exceptions? */ true, /* capture stack trace? */ false);
+    }
+  }
+
+  @Override
+  public Task<Return> duplicate(Executor executor) {
+    if (!cacheReads) {
+      throw new RuntimeException("Cannot duplicate continuation task without cached reads");
+    }
+    final ContinuationTask<Return> continuationTask = new ContinuationTask<>(rootContext, task);
+    final var readIterator = readLog.iterator();
+    final Scheduler scheduler = new Scheduler() {
+      @Override
+      public <State> State get(final CellId<State> cellId) {
+        return (State) readIterator.next();
+      }
+
+      @Override
+      public <Event> void emit(final Event event, final Topic<Event> topic) {
+
+      }
+
+      @Override
+      public void spawn(final InSpan childSpan, final TaskFactory<?> task) {
+
+      }
+    };
+    for (int i = 0; i < stepCount; i++) {
+      continuationTask.step(scheduler);
+    }
+    return continuationTask;
+  }
+}
@@ -14,8 +14,14 @@ public /*non-final*/ class ModelActions {
   /* package-local */
   static final Scoped<Context> context = Scoped.create();
 
+  /**
+   * When set, tasks created with {@link #threaded(Supplier)} run as {@link ContinuationTask}s instead,
+   * provided that the JVM grants access to continuations.
+   */
+  public static boolean USE_CONTINUATIONS = false;
 
   public static <T> TaskFactory<T> threaded(final Supplier<T> task) {
+    if (USE_CONTINUATIONS && ContinuationSupport.isSupported()) return continuing(task);
     return executor -> new ThreadedTask<>(executor, ModelActions.context, task);
   }
 
@@ -37,6 +43,23 @@ public /*non-final*/ class ModelActions {
     });
   }
 
+  /**
+   * Creates tasks that run as {@link ContinuationTask}s.
+   *
+   * @throws UnsupportedOperationException If the JVM does not grant access to continuations.
+   */
+  public static <T> TaskFactory<T> continuing(final Supplier<T> task) {
+    ContinuationSupport.checkSupported();
+    return executor -> new ContinuationTask<>(ModelActions.context, task);
+  }
+
+  public static TaskFactory<Unit> continuing(final Runnable task) {
+    return continuing(() -> {
+      task.run();
+      return Unit.UNIT;
+    });
+  }
+
 
   public static <T> void emit(final T event, final Topic<T> topic) {
     context.get().emit(event, topic);
@@ -55,6 +55,18 @@ public final class Registrar {
       final ValueSchema valueSchema,
       final Function<Value, SerializedValue> serializer
   ) {
+    final var outputType = new OutputType<Value>() {
+      @Override
+      public ValueSchema getSchema() {
+        return valueSchema;
+      }
+
+      @Override
+      public SerializedValue serialize(final Value value) {
+        return serializer.apply(value);
+      }
+    };
+
     return new gov.nasa.jpl.aerie.merlin.protocol.model.Resource<>() {
       @Override
       public String getType() {
@@ -63,17 +75,7 @@ public final class Registrar {
 
       @Override
       public OutputType<Value> getOutputType() {
-        return new OutputType<>() {
-          @Override
-          public ValueSchema getSchema() {
-            return valueSchema;
-          }
-
-          @Override
-          public SerializedValue serialize(final Value value) {
-            return serializer.apply(value);
-          }
-        };
+        return outputType;
       }
 
       @Override
@@ -82,6 +84,13 @@ public final class Registrar {
           return resource.getDynamics();
         }
       }
+
+      @Override
+      public RealDynamics asRealDynamics(final Value dynamics) {
+        // Real resources registered here have RealDynamics as their dynamics, which need no round-trip through their serialized form.
+        if (dynamics instanceof RealDynamics realDynamics) return realDynamics;
+        return gov.nasa.jpl.aerie.merlin.protocol.model.Resource.super.asRealDynamics(dynamics);
+      }
     };
   }
 
@@ -19,7 +19,7 @@ public @interface ActivityType {
     Class<? extends ActivityMapper<?, ?, ?>> value();
   }
 
-  enum Executor { Threaded, Replaying }
+  enum Executor { Threaded, Replaying, Continuing }
 
   @Retention(RetentionPolicy.CLASS)
   @Target(ElementType.METHOD)
@@ -0,0 +1,111 @@
+package gov.nasa.jpl.aerie.merlin.framework;
+
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.InSpan;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public final class ContinuationTaskTest {
+  private static final Scheduler mockScheduler = new Scheduler() {
+    @Override
+    public <State> State get(final CellId<State> query) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <Event> void emit(final Event event, final Topic<Event> topic) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void spawn(final InSpan inSpan, final TaskFactory<?> task) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  @BeforeAll
+  public static void checkSupport() {
+    assumeTrue(ContinuationTask.isSupported(), "jdk.internal.vm is not exported to this module");
+  }
+
+  @Test
+  @DisplayName("Tasks resume where they left off")
+  public void testResumption() {
+    final var trace = new ArrayList<Integer>();
+    final var task = new ContinuationTask<>(ModelActions.context, () -> {
+      for (var i = 0; i < 3; i++) {
+        trace.add(i);
+        delay(Duration.SECOND);
+      }
+      return "done";
+    });
+
+    for (var i = 0; i < 3; i++) {
+      assertInstanceOf(TaskStatus.Delayed.class, task.step(mockScheduler));
+      assertEquals(i + 1, trace.size());
+    }
+
+    final var status = assertInstanceOf(TaskStatus.Completed.class, task.step(mockScheduler));
+    assertEquals("done", status.returnValue());
+    assertEquals(java.util.List.of(0, 1, 2), trace);
+  }
+
+  @Test
+  @DisplayName("Thrown exceptions can be caught transparently")
+  public void testTransparentExceptions() {
+    class TestException extends RuntimeException {}
+
+    final var task = new ContinuationTask<>(ModelActions.context, () -> { throw new TestException(); });
+
+    assertThrows(TestException.class, () -> task.step(mockScheduler));
+  }
+
+  @Test
+  @DisplayName("Tasks cannot yield while holding a monitor")
+  public void testPinnedYield() {
+    final var lock = new Object();
+    final var task = new ContinuationTask<>(ModelActions.context, () -> {
+      synchronized (lock) {
+        delay(Duration.SECOND);
+      }
+      return null;
+    });
+
+    assertThrows(IllegalStateException.class, () -> task.step(mockScheduler));
+  }
+
+  @Test
+  @DisplayName("Released tasks unwind their stack")
+  public void testRelease() {
+    final var unwound = new boolean[] {false};
+    final var task = new ContinuationTask<>(ModelActions.context, () -> {
+      try {
+        delay(Duration.SECOND);
+        delay(Duration.SECOND);
+      } finally {
+        unwound[0] = true;
+      }
+      return null;
+    });
+
+    task.step(mockScheduler);
+    task.release();
+
+    assertTrue(unwound[0]);
+  }
+}
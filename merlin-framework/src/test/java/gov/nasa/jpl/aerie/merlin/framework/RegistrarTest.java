@@ -0,0 +1,94 @@
+package gov.nasa.jpl.aerie.merlin.framework;
+
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Initializer;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Querier;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.CellType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.OutputType;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Resource;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RegistrarTest {
+  private static final class ResourceCollector implements Initializer {
+    final Map<String, Resource<?>> resources = new HashMap<>();
+
+    @Override
+    public <State> State getInitialState(final CellId<State> cellId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <Event, Effect, State> CellId<State> allocate(
+        final State initialState,
+        final CellType<Effect, State> cellType,
+        final Function<Event, Effect> interpretation,
+        final Topic<Event> topic)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void daemon(final TaskFactory<?> factory) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void resource(final String name, final Resource<?> resource) {
+      this.resources.put(name, resource);
+    }
+
+    @Override
+    public <Event> void topic(final String name, final Topic<Event> topic, final OutputType<Event> outputType) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Resource<RealDynamics> registerRealResource() {
+    final var initializer = new ResourceCollector();
+    new Registrar(initializer).real("real", () -> RealDynamics.constant(0));
+    return (Resource<RealDynamics>) initializer.resources.get("real");
+  }
+
+  @Test
+  public void realDynamicsSkipSerialization() {
+    final var resource = registerRealResource();
+    final var dynamics = RealDynamics.linear(1.5, -2);
+    assertSame(dynamics, resource.asRealDynamics(dynamics));
+  }
+
+  @Test
+  public void defaultRealDynamicsReadSerializedForm() {
+    final var registered = registerRealResource();
+
+    // A resource that does not override asRealDynamics, and so goes through the serialized form of its dynamics
+    final var serializedOnly = new Resource<RealDynamics>() {
+      @Override
+      public String getType() {
+        return registered.getType();
+      }
+
+      @Override
+      public OutputType<RealDynamics> getOutputType() {
+        return registered.getOutputType();
+      }
+
+      @Override
+      public RealDynamics getDynamics(final Querier querier) {
+        return registered.getDynamics(querier);
+      }
+    };
+
+    assertEquals(RealDynamics.linear(1.5, -2), serializedOnly.asRealDynamics(RealDynamics.linear(1.5, -2)));
+  }
+}
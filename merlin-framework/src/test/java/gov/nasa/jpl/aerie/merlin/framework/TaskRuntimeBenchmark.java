@@ -0,0 +1,84 @@
+package gov.nasa.jpl.aerie.merlin.framework;
+
+import gov.nasa.jpl.aerie.merlin.protocol.driver.CellId;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Scheduler;
+import gov.nasa.jpl.aerie.merlin.protocol.driver.Topic;
+import gov.nasa.jpl.aerie.merlin.protocol.model.Task;
+import gov.nasa.jpl.aerie.merlin.protocol.model.TaskFactory;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.InSpan;
+import gov.nasa.jpl.aerie.merlin.protocol.types.TaskStatus;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Unit;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
+
+/**
+ * Compares the cost of stepping a long-running task under each of the framework's task runtimes.
+ * Pass the number of steps per task as an argument. The JVM must be started with
+ * `--add-exports java.base/jdk.internal.vm=ALL-UNNAMED` to measure continuations.
+ */
+public final class TaskRuntimeBenchmark {
+  private static final Scheduler scheduler = new Scheduler() {
+    @Override
+    public <State> State get(final CellId<State> query) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <Event> void emit(final Event event, final Topic<Event> topic) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void spawn(final InSpan inSpan, final TaskFactory<?> task) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private static long timeTask(final Executor executor, final TaskFactory<Unit> factory) {
+    final var before = System.nanoTime();
+    Task<Unit> task = factory.create(executor);
+    while (true) {
+      final var status = task.step(scheduler);
+      if (status instanceof TaskStatus.Delayed<Unit> s) task = s.continuation();
+      else if (status instanceof TaskStatus.Completed<Unit>) break;
+      else throw new IllegalStateException("Unexpected task status: " + status);
+    }
+    task.release();
+    return System.nanoTime() - before;
+  }
+
+  private static void report(final String name, final Executor executor, final TaskFactory<Unit> factory, final int steps) {
+    final var nbRuns = 5;
+
+    // Warm up before measuring.
+    timeTask(executor, factory);
+
+    var total = 0L;
+    for (var i = 0; i < nbRuns; i++) total += timeTask(executor, factory);
+
+    final var micros = (float) total / nbRuns / 1_000;
+    System.out.println("%-12s %10.1f us total, %8.3f us/step".formatted(name, micros, micros / steps));
+  }
+
+  public static void main(final String[] args) {
+    final var steps = (args.length > 0) ? Integer.parseInt(args[0]) : 2_000;
+    final Runnable body = () -> {
+      for (var i = 0; i < steps; i++) delay(Duration.SECOND);
+    };
+
+    try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      System.out.println("steps=%d".formatted(steps));
+      report("threaded", executor, ModelActions.threaded(body), steps);
+      report("replaying", executor, ModelActions.replaying(body), steps);
+      if (ContinuationTask.isSupported()) {
+        report("continuing", executor, ModelActions.continuing(body), steps);
+      } else {
+        System.out.println("continuing   skipped: jdk.internal.vm is not exported to this module");
+      }
+    }
+  }
+}
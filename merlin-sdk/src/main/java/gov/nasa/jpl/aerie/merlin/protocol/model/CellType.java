@@ -10,10 +10,21 @@ public interface CellType<Effect, State> {
   State duplicate(State state);
   void apply(State state, Effect effect);
 
+  /** Advance a cell's state by the passage of time. */
   default void step(final State state, final Duration duration) {
     // Unless specified, a cell is unaffected by the passage of time.
   }
 
+  /**
+   * Whether stepping by a duration is exactly equivalent to stepping by any sequence of durations summing to it.
+   *
+   * If so, the driver may step a cell over several time points at once instead of over each one in turn.
+   * Cell types whose stepping accumulates round-off or otherwise depends on how time is divided must not opt in.
+   */
+  default boolean isStepAdditive() {
+    return false;
+  }
+
   /** Get the (positive) amount of time that this cell is valid for, or empty if it's valid forever. */
   default Optional<Duration> getExpiry(final State state) {
     return Optional.empty();
@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.merlin.protocol.model;
 
 import gov.nasa.jpl.aerie.merlin.protocol.driver.Querier;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 
@@ -16,4 +17,20 @@ public interface Resource<Dynamics> {
    * this resource. In other words, it cannot depend on any hidden state. </p>
    */
   Dynamics getDynamics(Querier querier);
+
+  /**
+   * Convert dynamics produced by a resource of type {@code "real"} to {@link RealDynamics}.
+   *
+   * <p> Real resources are sampled whenever their dynamics expire or are invalidated, so a simulation driver reads
+   * their samples through this method rather than through the serialized form of {@link #getOutputType()}. Resources
+   * whose dynamics are already linear should override it to skip serialization altogether. The default implementation
+   * reads the {@code initial} and {@code rate} fields of the serialized dynamics. </p>
+   */
+  default RealDynamics asRealDynamics(final Dynamics dynamics) {
+    final var serializedSegment = this.getOutputType().serialize(dynamics).asMap().orElseThrow();
+    final var initial = serializedSegment.get("initial").asReal().orElseThrow();
+    final var rate = serializedSegment.get("rate").asReal().orElseThrow();
+
+    return RealDynamics.linear(initial, rate);
+  }
 }
@@ -70,7 +70,10 @@ public final class AerieAppDriver {
 
     final ConstraintsDSLCompilationService constraintsDSLCompilationService;
     try {
-      constraintsDSLCompilationService = new ConstraintsDSLCompilationService(typescriptCodeGenerationService);
+      constraintsDSLCompilationService = new ConstraintsDSLCompilationService(
+          typescriptCodeGenerationService,
+          configuration.constraintsDslCompilerPoolSize(),
+          configuration.constraintsDslCacheSize());
     } catch (IOException e) {
       throw new Error("Failed to start ConstraintsDSLCompilationService", e);
     }
@@ -181,7 +184,9 @@ public final class AerieAppDriver {
         URI.create(getEnv("HASURA_GRAPHQL_URL", "http://localhost:8080/v1/graphql")),
         getEnv("HASURA_GRAPHQL_ADMIN_SECRET", ""),
         Boolean.parseBoolean(getEnv("ENABLE_CONTINUOUS_VALIDATION_THREAD", "true")),
-        Integer.parseInt(getEnv("VALIDATION_THREAD_POLLING_PERIOD", "500"))
+        Integer.parseInt(getEnv("VALIDATION_THREAD_POLLING_PERIOD", "500")),
+        Integer.parseInt(getEnv("CONSTRAINTS_DSL_COMPILER_POOL_SIZE", "1")),
+        Integer.parseInt(getEnv("CONSTRAINTS_DSL_CACHE_SIZE", "1024"))
     );
   }
 }
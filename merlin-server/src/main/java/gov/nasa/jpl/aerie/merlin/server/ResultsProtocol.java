@@ -2,9 +2,11 @@ package gov.nasa.jpl.aerie.merlin.server;
 
 import gov.nasa.jpl.aerie.merlin.driver.SimulationFailure;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResultsSink;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.models.SimulationResultsHandle;
 
+import java.time.Instant;
 import java.util.function.Consumer;
 
 public final class ResultsProtocol {
@@ -51,6 +53,28 @@ public final class ResultsProtocol {
     void reportIncompleteResults(SimulationResults results);
 
     void reportSimulationExtent(Duration extent);
+
+    /**
+     * Begin receiving the activity and event results of a simulation piece by piece, as they are extracted,
+     * instead of as a whole {@link SimulationResults}. Resource profiles are written separately.
+     * @param startTime the time at which the simulation starts
+     */
+    ResultsStream streamResults(Instant startTime);
+  }
+
+  /**
+   * The results of a simulation, received piece by piece. They are only recorded once the stream completes with
+   * {@link #succeed(Duration)} or {@link #reportIncomplete(Duration)}. Closing the stream otherwise discards them.
+   */
+  public interface ResultsStream extends SimulationResultsSink, AutoCloseable {
+    /** @param duration the amount of time that was simulated */
+    void succeed(Duration duration);
+
+    /** @param duration the amount of time that was simulated before the simulation was canceled */
+    void reportIncomplete(Duration duration);
+
+    @Override
+    void close();
   }
 
   public interface OwnerRole extends ReaderRole, WriterRole {}
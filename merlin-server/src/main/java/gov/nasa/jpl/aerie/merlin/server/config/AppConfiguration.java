@@ -14,7 +14,9 @@ public record AppConfiguration (
     URI hasuraGraphqlURI,
     String hasuraGraphQlAdminSecret,
     boolean enableContinuousValidationThread,
-    int validationThreadPollingPeriod
+    int validationThreadPollingPeriod,
+    int constraintsDslCompilerPoolSize,
+    int constraintsDslCacheSize
 ) {
   public AppConfiguration {
     Objects.requireNonNull(merlinFileStore);
@@ -43,6 +43,7 @@ import static gov.nasa.jpl.aerie.merlin.server.http.HasuraParsers.hasuraMissionM
 import static gov.nasa.jpl.aerie.merlin.server.http.HasuraParsers.hasuraMissionModelEventTriggerP;
 import static gov.nasa.jpl.aerie.merlin.server.http.HasuraParsers.hasuraPlanActionP;
 import static gov.nasa.jpl.aerie.merlin.server.http.HasuraParsers.hasuraExtendExternalDatasetActionP;
+import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.invalidatePermissionsP;
 import static io.javalin.apibuilder.ApiBuilder.before;
 import static io.javalin.apibuilder.ApiBuilder.path;
 import static io.javalin.apibuilder.ApiBuilder.post;
@@ -106,7 +107,8 @@ public final class MerlinBindings implements Plugin {
       path("addExternalDataset", () -> post(this::addExternalDataset));
       path("extendExternalDataset", () -> post(this::extendExternalDataset));
       path("constraintsDslTypescript", () -> post(this::getConstraintsDslTypescript));
-      path("health", () -> get(ctx -> ctx.status(200)));
+      path("invalidatePermissions", () -> post(this::postInvalidatePermissions));
+      path("health", () -> get(this::getHealth));
     });
 
     // This exception is expected when the request body entity is not a legal JsonValue.
@@ -116,6 +118,34 @@ public final class MerlinBindings implements Plugin {
         .contentType("application/json"));
   }
 
+  private void getHealth(final Context ctx) {
+    ctx.status(200).result(Json
+        .createObjectBuilder()
+        .add("permissionsCache", ResponseSerializers.serializePermissionsCacheStats(this.permissionsService.cacheStats()))
+        .build()
+        .toString());
+  }
+
+  /**
+   * Forgets the cached permissions of the users of a plan, or every cached permission if no plan is given,
+   * so that a change of permissions made through Hasura applies right away.
+   */
+  private void postInvalidatePermissions(final Context ctx) {
+    try {
+      final var planId = parseJson(ctx.body(), invalidatePermissionsP);
+      if (planId.isPresent()) {
+        this.permissionsService.invalidatePlan(new gov.nasa.jpl.aerie.permissions.gql.PlanId(planId.get().id()));
+      } else {
+        this.permissionsService.invalidateAll();
+      }
+      ctx.status(200);
+    } catch (final InvalidJsonException ex) {
+      ctx.status(400).result(ResponseSerializers.serializeInvalidJsonException(ex).toString());
+    } catch (final InvalidEntityException ex) {
+      ctx.status(400).result(ResponseSerializers.serializeInvalidEntityException(ex).toString());
+    }
+  }
+
   private void postRefreshModelParameters(final Context ctx) {
     try {
       final var missionModelId = parseJson(ctx.body(), hasuraMissionModelEventTriggerP).missionModelId();
@@ -81,6 +81,11 @@ public abstract class MerlinParsers {
           PlanId::new,
           PlanId::id);
 
+  /** The plan whose cached permissions to forget, or none to forget every cached permission. */
+  public static final JsonParser<Optional<PlanId>> invalidatePermissionsP
+      = productP
+      .optionalField("planId", planIdP);
+
   public static final JsonParser<SimulationDatasetId> simulationDatasetIdP
       = longP
       . map(
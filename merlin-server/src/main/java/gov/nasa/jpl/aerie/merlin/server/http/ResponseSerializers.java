@@ -26,6 +26,7 @@ import gov.nasa.jpl.aerie.merlin.server.services.MissionModelService;
 import gov.nasa.jpl.aerie.merlin.server.services.MissionModelService.BulkEffectiveArgumentResponse;
 import gov.nasa.jpl.aerie.merlin.server.services.MissionModelService.BulkArgumentValidationResponse;
 import gov.nasa.jpl.aerie.merlin.server.services.UnexpectedSubtypeError;
+import gov.nasa.jpl.aerie.permissions.PermissionsService;
 import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -103,6 +104,14 @@ public final class ResponseSerializers {
         .build();
   }
 
+  public static JsonValue serializePermissionsCacheStats(final PermissionsService.CacheStats stats) {
+    return Json
+        .createObjectBuilder()
+        .add("hits", stats.hits())
+        .add("misses", stats.misses())
+        .build();
+  }
+
   public static JsonValue serializeString(final String value) {
     if (value == null) return JsonValue.NULL;
     return Json.createValue(value);
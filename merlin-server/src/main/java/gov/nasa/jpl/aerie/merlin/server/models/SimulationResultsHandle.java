@@ -3,11 +3,13 @@ package gov.nasa.jpl.aerie.merlin.server.models;
 import gov.nasa.jpl.aerie.types.ActivityInstance;
 import gov.nasa.jpl.aerie.types.ActivityInstanceId;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface SimulationResultsHandle {
   SimulationDatasetId getSimulationDatasetId();
@@ -20,5 +22,17 @@ public interface SimulationResultsHandle {
 
   ProfileSet getProfiles(final List<String> profileNames);
 
+  /**
+   * Hand the named profiles to the consumer in time-ordered chunks, each continuing where the last one left off.
+   *
+   * By default, the profiles are loaded whole and handed off as a single chunk.
+   */
+  default void streamProfiles(final List<String> profileNames, final Consumer<ResourceProfiles> consumer) {
+    final var profiles = this.getProfiles(profileNames);
+    consumer.accept(new ResourceProfiles(
+        ProfileSet.unwrapOptional(profiles.realProfiles()),
+        ProfileSet.unwrapOptional(profiles.discreteProfiles())));
+  }
+
   Map<ActivityInstanceId, ActivityInstance> getSimulatedActivities();
 }
@@ -4,16 +4,21 @@ import gov.nasa.jpl.aerie.types.ActivityInstance;
 import gov.nasa.jpl.aerie.types.ActivityInstanceId;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationFailure;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.UnfinishedActivity;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
 import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
 import gov.nasa.jpl.aerie.merlin.server.exceptions.NoSuchPlanException;
 import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 import gov.nasa.jpl.aerie.merlin.server.models.ProfileSet;
 import gov.nasa.jpl.aerie.merlin.server.models.SimulationDatasetId;
 import gov.nasa.jpl.aerie.merlin.server.models.SimulationResultsHandle;
+import org.apache.commons.lang3.tuple.Triple;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -21,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 
 public final class InMemoryResultsCellRepository implements ResultsCellRepository {
   public record Key(PlanId planId, long planRevision) {}
@@ -147,6 +153,11 @@ public final class InMemoryResultsCellRepository implements ResultsCellRepositor
       System.out.println("Simulation extent: " + extent);
     }
 
+    @Override
+    public ResultsProtocol.ResultsStream streamResults(final Instant startTime) {
+      return new CollectingResultsStream(this, startTime);
+    }
+
     public boolean isEqualTo(final InMemoryCell other) {
       if (this.canceled != other.canceled) return false;
       return Objects.equals(this.state, other.state);
@@ -165,6 +176,67 @@ public final class InMemoryResultsCellRepository implements ResultsCellRepositor
     }
   }
 
+  /** Collects streamed results in memory, and writes them as a whole once the stream completes. */
+  private static final class CollectingResultsStream implements ResultsProtocol.ResultsStream {
+    private final ResultsProtocol.WriterRole writer;
+    private final Instant startTime;
+    private List<Triple<Integer, String, ValueSchema>> topics = List.of();
+    private final Map<ActivityInstanceId, ActivityInstance> simulatedActivities = new HashMap<>();
+    private final Map<ActivityInstanceId, UnfinishedActivity> unfinishedActivities = new HashMap<>();
+    private final TreeMap<Duration, List<EventGraph<EventRecord>>> events = new TreeMap<>();
+
+    CollectingResultsStream(final ResultsProtocol.WriterRole writer, final Instant startTime) {
+      this.writer = writer;
+      this.startTime = startTime;
+    }
+
+    @Override
+    public void acceptTopics(final List<Triple<Integer, String, ValueSchema>> topics) {
+      this.topics = topics;
+    }
+
+    @Override
+    public void acceptActivity(final ActivityInstanceId id, final ActivityInstance activity) {
+      this.simulatedActivities.put(id, activity);
+    }
+
+    @Override
+    public void acceptUnfinishedActivity(final ActivityInstanceId id, final UnfinishedActivity activity) {
+      this.unfinishedActivities.put(id, activity);
+    }
+
+    @Override
+    public void acceptEvents(final Duration time, final List<EventGraph<EventRecord>> events) {
+      this.events.put(time, events);
+    }
+
+    @Override
+    public void succeed(final Duration duration) {
+      this.writer.succeedWith(results(duration));
+    }
+
+    @Override
+    public void reportIncomplete(final Duration duration) {
+      this.writer.reportIncompleteResults(results(duration));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private SimulationResults results(final Duration duration) {
+      return new SimulationResults(
+          Map.of(),
+          Map.of(),
+          this.simulatedActivities,
+          this.unfinishedActivities,
+          this.startTime,
+          duration,
+          this.topics,
+          this.events);
+    }
+  }
+
   public static class InMemorySimulationResultsHandle implements SimulationResultsHandle {
 
     private final SimulationResults simulationResults;
@@ -24,7 +24,11 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
       values (?, ?::timestamptz - ?::timestamptz, ?, ?, ?, ?::jsonb,?)
     """;
 
+  /** The number of events after which {@link #add} sends its batch of events to the database. */
+  private static final int BATCH_SIZE = 10_000;
+
   private final PreparedStatement statement;
+  private int batchedEvents = 0;
 
   public InsertSimulationEventsAction(final Connection connection) throws SQLException {
     this.statement = connection.prepareStatement(sql);
@@ -47,6 +51,32 @@ import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatemen
     this.statement.executeBatch();
   }
 
+  /**
+   * Adds the events committed at a given time to the batch of events to insert,
+   * and sends the batch to the database once it holds enough events, so that the events can be released.
+   * {@link #flush()} must be called after the last events are added.
+   */
+  public void add(
+      final long datasetId,
+      final Duration time,
+      final List<EventGraph<EventRecord>> transactions,
+      final Timestamp simulationStart
+  ) throws SQLException {
+    for (int transactionIndex = 0; transactionIndex < transactions.size(); transactionIndex++) {
+      final var flattenedEventGraph = EventGraphFlattener.flatten(transactions.get(transactionIndex));
+      batchInsertEventGraph(datasetId, time, transactionIndex, simulationStart, flattenedEventGraph, this.statement);
+      this.batchedEvents += flattenedEventGraph.size();
+    }
+    if (this.batchedEvents >= BATCH_SIZE) flush();
+  }
+
+  /** Sends the events added since the last batch was sent to the database. */
+  public void flush() throws SQLException {
+    if (this.batchedEvents == 0) return;
+    this.statement.executeBatch();
+    this.batchedEvents = 0;
+  }
+
   private static void batchInsertEventGraph(
       final long datasetId,
       final Duration duration,
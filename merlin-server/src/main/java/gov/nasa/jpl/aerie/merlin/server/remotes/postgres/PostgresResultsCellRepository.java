@@ -7,6 +7,7 @@ import gov.nasa.jpl.aerie.merlin.driver.SimulationFailure;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
 import gov.nasa.jpl.aerie.merlin.driver.UnfinishedActivity;
 import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
 import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
@@ -38,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.SortedMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -407,22 +409,31 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       final Map<ActivityInstanceId, UnfinishedActivity> unfinishedActivities,
       final Timestamp simulationStart
   ) throws SQLException {
-    try (final var postActivitiesAction = new PostSpansAction(connection)) {
-      final var simulatedActivityRecords = simulatedActivities.entrySet().stream()
-          .collect(Collectors.toMap(
-              e -> e.getKey().id(),
-              e -> simulatedActivityToRecord(e.getValue())));
-
-      final var allActivityRecords = unfinishedActivities.entrySet().stream()
-          .collect(Collectors.toMap(
-              e -> e.getKey().id(),
-              e -> unfinishedActivityToRecord(e.getValue())));
-      allActivityRecords.putAll(simulatedActivityRecords);
+    final var simulatedActivityRecords = simulatedActivities.entrySet().stream()
+        .collect(Collectors.toMap(
+            e -> e.getKey().id(),
+            e -> simulatedActivityToRecord(e.getValue())));
+
+    final var allActivityRecords = unfinishedActivities.entrySet().stream()
+        .collect(Collectors.toMap(
+            e -> e.getKey().id(),
+            e -> unfinishedActivityToRecord(e.getValue())));
+    allActivityRecords.putAll(simulatedActivityRecords);
+
+    postSpans(connection, datasetId, allActivityRecords, simulationStart);
+  }
 
+  private static void postSpans(
+      final Connection connection,
+      final long datasetId,
+      final Map<Long, SpanRecord> spans,
+      final Timestamp simulationStart
+  ) throws SQLException {
+    try (final var postActivitiesAction = new PostSpansAction(connection)) {
       // Sorts the map by SpanRecord parent ID to ensure foreign key constraints are met.
       // Entries with null parent IDs are placed first to avoid foreign key violations
       // for the "span_has_parent_span" constraint.
-      final var sortedAllActivityRecords = topoSort(allActivityRecords, $ -> $.parentId().stream().toList());
+      final var sortedAllActivityRecords = topoSort(spans, $ -> $.parentId().stream().toList());
 
       postActivitiesAction.apply(
           datasetId,
@@ -593,14 +604,7 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     public void reportIncompleteResults(final SimulationResults results) {
       try (final var connection = dataSource.getConnection();
            final var transactionContext = new TransactionContext(connection)) {
-        final var reason = new SimulationFailure.Builder()
-            .type("SIMULATION_CANCELED")
-            .data(Json.createObjectBuilder()
-                    .add("elapsedTime", SimulationException.formatDuration(results.duration))
-                    .add("utcTimeDoy", SimulationException.formatInstant(Duration.addToInstant(results.startTime, results.duration)))
-                    .build())
-            .message("Simulation run was canceled")
-            .build();
+        final var reason = canceledReason(results.startTime, results.duration);
         postSimulationResults(connection, datasetId, results, SimulationStateRecord.incomplete(reason));
         deleteSimulationExtent(connection, datasetId);
         transactionContext.commit();
@@ -613,6 +617,11 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       }
     }
 
+    @Override
+    public ResultsProtocol.ResultsStream streamResults(final Instant startTime) {
+      return new PostgresResultsStream(this.dataSource, this.datasetId, new Timestamp(startTime));
+    }
+
     @Override
     public void reportSimulationExtent(final Duration extent) {
       try (final var connection = dataSource.getConnection()) {
@@ -627,7 +636,139 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
     }
   }
 
+  private static SimulationFailure canceledReason(final Instant startTime, final Duration duration) {
+    return new SimulationFailure.Builder()
+        .type("SIMULATION_CANCELED")
+        .data(Json.createObjectBuilder()
+                .add("elapsedTime", SimulationException.formatDuration(duration))
+                .add("utcTimeDoy", SimulationException.formatInstant(Duration.addToInstant(startTime, duration)))
+                .build())
+        .message("Simulation run was canceled")
+        .build();
+  }
+
+  /**
+   * Writes the results of a simulation as they are streamed, in one transaction that is committed once they are complete.
+   *
+   * <p>
+   *   Events are sent to the database in batches as they arrive, and are released once sent.
+   *   Spans have to be inserted after their parents, so their records are held until the first events arrive,
+   *   or until the results are complete, and are released once inserted.
+   *   What remains held at the peak is the simulation engine, with its timeline and per-activity bookkeeping,
+   *   and the span records; the number of span records is logged once they are inserted.
+   * </p>
+   * <p>
+   *   The transaction, and so the connection, is only opened when the first results arrive.
+   * </p>
+   */
+  private static final class PostgresResultsStream implements ResultsProtocol.ResultsStream {
+    private final DataSource dataSource;
+    private final long datasetId;
+    private final Timestamp simulationStart;
+
+    private Connection connection = null;
+    private TransactionContext transactionContext = null;
+    private InsertSimulationEventsAction insertSimulationEventsAction = null;
+    // The spans that have yet to be inserted, or null once they are.
+    private Map<Long, SpanRecord> spans = new HashMap<>();
+
+    PostgresResultsStream(final DataSource dataSource, final long datasetId, final Timestamp simulationStart) {
+      this.dataSource = dataSource;
+      this.datasetId = datasetId;
+      this.simulationStart = simulationStart;
+    }
+
+    @Override
+    public void acceptTopics(final List<Triple<Integer, String, ValueSchema>> topics) {
+      try {
+        insertSimulationTopics(connection(), this.datasetId, topics);
+      } catch (final SQLException ex) {
+        throw new DatabaseException("Failed to store simulation topics", ex);
+      }
+    }
+
+    @Override
+    public void acceptActivity(final ActivityInstanceId id, final ActivityInstance activity) {
+      this.spans.put(id.id(), simulatedActivityToRecord(activity));
+    }
+
+    @Override
+    public void acceptUnfinishedActivity(final ActivityInstanceId id, final UnfinishedActivity activity) {
+      this.spans.put(id.id(), unfinishedActivityToRecord(activity));
+    }
+
+    @Override
+    public void acceptEvents(final Duration time, final List<EventGraph<EventRecord>> events) {
+      try {
+        // Events refer to the spans they were emitted in.
+        postPendingSpans();
+        if (this.insertSimulationEventsAction == null) {
+          this.insertSimulationEventsAction = new InsertSimulationEventsAction(connection());
+        }
+        this.insertSimulationEventsAction.add(this.datasetId, time, events, this.simulationStart);
+      } catch (final SQLException ex) {
+        throw new DatabaseException("Failed to store simulation events", ex);
+      }
+    }
+
+    @Override
+    public void succeed(final Duration duration) {
+      complete(SimulationStateRecord.success());
+    }
+
+    @Override
+    public void reportIncomplete(final Duration duration) {
+      complete(SimulationStateRecord.incomplete(canceledReason(this.simulationStart.toInstant(), duration)));
+    }
+
+    private void complete(final SimulationStateRecord state) {
+      try {
+        postPendingSpans();
+        if (this.insertSimulationEventsAction != null) this.insertSimulationEventsAction.flush();
+        try (final var setSimulationStateAction = new SetSimulationStateAction(connection())) {
+          setSimulationStateAction.apply(this.datasetId, state);
+        }
+        deleteSimulationExtent(connection(), this.datasetId);
+        this.transactionContext.commit();
+      } catch (final SQLException ex) {
+        throw new DatabaseException("Failed to store simulation results", ex);
+      } catch (final NoSuchSimulationDatasetException ex) {
+        // A cell should only be created for a valid, existing dataset
+        // A dataset should only be deleted by its cell
+        throw new Error("Cell references nonexistent simulation dataset");
+      }
+    }
+
+    private void postPendingSpans() throws SQLException {
+      if (this.spans == null) return;
+      postSpans(connection(), this.datasetId, this.spans, this.simulationStart);
+      logger.info("Stored {} spans of simulation dataset {}", this.spans.size(), this.datasetId);
+      this.spans = null;
+    }
+
+    private Connection connection() throws SQLException {
+      if (this.connection == null) {
+        this.connection = this.dataSource.getConnection();
+        this.transactionContext = new TransactionContext(this.connection);
+      }
+      return this.connection;
+    }
+
+    @Override
+    public void close() {
+      try (final var connection = this.connection;
+           final var transactionContext = this.transactionContext;
+           final var insertSimulationEventsAction = this.insertSimulationEventsAction) {
+        // Closing the transaction context rolls back the results, unless they were committed.
+      } catch (final SQLException ex) {
+        throw new DatabaseException("Failed to release the connection storing simulation results", ex);
+      }
+    }
+  }
+
   public static class PostgresSimulationResultsHandle implements SimulationResultsHandle {
+    /** The number of profile segments read from the database at a time when streaming profiles. */
+    private static final int PROFILE_STREAM_CHUNK_SIZE = 10_000;
 
     SimulationDatasetRecord record;
     DataSource dataSource;
@@ -680,6 +821,15 @@ public final class PostgresResultsCellRepository implements ResultsCellRepositor
       }
     }
 
+    @Override
+    public void streamProfiles(final List<String> profileNames, final Consumer<ResourceProfiles> consumer) {
+      try (final var connection = this.dataSource.getConnection()) {
+        ProfileRepository.streamProfiles(connection, record.datasetId(), profileNames, PROFILE_STREAM_CHUNK_SIZE, consumer);
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     @Override
     public Map<ActivityInstanceId, ActivityInstance> getSimulatedActivities() {
       try (final var connection = this.dataSource.getConnection()) {
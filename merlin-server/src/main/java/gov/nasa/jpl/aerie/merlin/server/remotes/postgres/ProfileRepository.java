@@ -2,6 +2,7 @@ package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
 
 import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
 import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
@@ -16,6 +17,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static gov.nasa.jpl.aerie.merlin.driver.json.SerializedValueJsonParser.serializedValueP;
@@ -85,6 +87,32 @@ import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP
     return new ProfileSet(realProfiles, discreteProfiles);
   }
 
+  /**
+   * Streams the segments of the named profiles in time order, in chunks of about `chunkSize` segments.
+   *
+   * Unlike {@link #getProfiles(Connection, long, List)}, this never holds more than a chunk of segments in memory.
+   */
+  static void streamProfiles(
+      final Connection connection,
+      final long datasetId,
+      final List<String> names,
+      final int chunkSize,
+      final Consumer<ResourceProfiles> consumer
+  ) throws SQLException {
+    final var profileRecords = getProfileRecords(connection, datasetId, names);
+    if (profileRecords.isEmpty()) return;
+
+    // Postgres only reads from a cursor in batches within a transaction.
+    final var autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (final var streamProfileSegmentsAction = new StreamProfileSegmentsAction(connection)) {
+      streamProfileSegmentsAction.apply(datasetId, profileRecords, chunkSize, consumer);
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
   static Map<String, ValueSchema> getProfileSchemas(
       final Connection connection,
       final long datasetId
@@ -0,0 +1,139 @@
+package gov.nasa.jpl.aerie.merlin.server.remotes.postgres;
+
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import static gov.nasa.jpl.aerie.merlin.driver.json.SerializedValueJsonParser.serializedValueP;
+import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP;
+import static gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresParsers.getJsonColumn;
+
+/**
+ * Reads the segments of several profiles in time order, handing them off in chunks as they are read.
+ *
+ * The segments of every profile are read by a single cursor, so that all of the profiles advance together
+ * and no more than a chunk of segments is held in memory at once.
+ * The connection must not be in auto-commit mode, or the driver will read every row before returning any.
+ */
+/*package-local*/ final class StreamProfileSegmentsAction implements AutoCloseable {
+  private final @Language("SQL") String sql = """
+      select
+        seg.profile_id,
+        seg.start_offset,
+        seg.dynamics,
+        seg.is_gap
+      from merlin.profile_segment as seg
+      where
+        seg.dataset_id = ? and
+        seg.profile_id = any(?)
+      order by seg.start_offset asc, seg.profile_id asc
+    """;
+  private final PreparedStatement statement;
+
+  public StreamProfileSegmentsAction(final Connection connection) throws SQLException {
+    this.statement = connection.prepareStatement(sql);
+  }
+
+  public void apply(
+      final long datasetId,
+      final List<ProfileRecord> profiles,
+      final int chunkSize,
+      final Consumer<ResourceProfiles> consumer
+  ) throws SQLException {
+    final var profilesById = new HashMap<Long, ProfileRecord>();
+    for (final var profile : profiles) profilesById.put(profile.id(), profile);
+
+    PreparedStatements.setIntervalStyle(statement.getConnection(), PreparedStatements.PGIntervalStyle.ISO8601);
+    this.statement.setFetchSize(chunkSize);
+    this.statement.setLong(1, datasetId);
+    this.statement.setArray(2, this.statement.getConnection().createArrayOf("bigint", profilesById.keySet().toArray()));
+
+    // Each segment's extent is only known once the next segment of the same profile is read.
+    final var pending = new HashMap<Long, PendingSegment>();
+    var chunk = new Chunk();
+    try (final var resultSet = this.statement.executeQuery()) {
+      while (resultSet.next()) {
+        final var profile = profilesById.get(resultSet.getLong(1));
+        final var offset = PostgresParsers.parseDurationISO8601(resultSet.getString(2));
+        final var dynamics = getDynamics(resultSet, profile);
+
+        final var previous = pending.put(profile.id(), new PendingSegment(offset, dynamics));
+        if (previous != null) chunk.add(profile, offset.minus(previous.offset), previous.dynamics);
+
+        if (chunk.size >= chunkSize) {
+          consumer.accept(chunk.build());
+          chunk = new Chunk();
+        }
+      }
+    }
+
+    for (final var entry : pending.entrySet()) {
+      final var profile = profilesById.get(entry.getKey());
+      final var last = entry.getValue();
+      chunk.add(profile, profile.duration().minus(last.offset), last.dynamics);
+    }
+    consumer.accept(chunk.build());
+  }
+
+  private static Object getDynamics(final ResultSet resultSet, final ProfileRecord profile) throws SQLException {
+    if (resultSet.getBoolean("is_gap")) {
+      throw new NoSuchElementException("Profile `%s` has a gap".formatted(profile.name()));
+    }
+
+    return switch (profile.type().getLeft()) {
+      case "real" -> getJsonColumn(resultSet, "dynamics", realDynamicsP)
+          .getSuccessOrThrow(failureReason -> new Error("Corrupt profile dynamics: " + failureReason.reason()));
+      case "discrete" -> getJsonColumn(resultSet, "dynamics", serializedValueP)
+          .getSuccessOrThrow(failureReason -> new Error("Corrupt profile dynamics: " + failureReason.reason()));
+      default -> throw new Error("Unrecognized profile type");
+    };
+  }
+
+  private record PendingSegment(Duration offset, Object dynamics) {}
+
+  private static final class Chunk {
+    private final Map<String, ResourceProfile<RealDynamics>> realProfiles = new HashMap<>();
+    private final Map<String, ResourceProfile<SerializedValue>> discreteProfiles = new HashMap<>();
+    private int size = 0;
+
+    void add(final ProfileRecord profile, final Duration extent, final Object dynamics) {
+      switch (profile.type().getLeft()) {
+        case "real" -> this.realProfiles
+            .computeIfAbsent(profile.name(), $ -> ResourceProfile.of(profile.type().getRight(), new RealProfileColumns()))
+            .segments()
+            .add(new ProfileSegment<>(extent, (RealDynamics) dynamics));
+        case "discrete" -> this.discreteProfiles
+            .computeIfAbsent(profile.name(), $ -> ResourceProfile.of(profile.type().getRight(), new ArrayList<>()))
+            .segments()
+            .add(new ProfileSegment<>(extent, (SerializedValue) dynamics));
+        default -> throw new Error("Unrecognized profile type");
+      }
+      this.size += 1;
+    }
+
+    ResourceProfiles build() {
+      return new ResourceProfiles(this.realProfiles, this.discreteProfiles);
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    this.statement.close();
+  }
+}
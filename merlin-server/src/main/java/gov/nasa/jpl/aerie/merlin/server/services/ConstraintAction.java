@@ -5,6 +5,7 @@ import gov.nasa.jpl.aerie.constraints.model.DiscreteProfile;
 import gov.nasa.jpl.aerie.constraints.model.*;
 import gov.nasa.jpl.aerie.constraints.time.Interval;
 import gov.nasa.jpl.aerie.constraints.tree.Expression;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.exceptions.NoSuchPlanException;
 import gov.nasa.jpl.aerie.merlin.server.exceptions.SimulationDatasetMismatchException;
@@ -17,6 +18,12 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class ConstraintAction {
+  /**
+   * The span of plan time evaluated at once by constraints that are evaluated incrementally.
+   * Only the profile segments overlapping this window (plus one chunk read from the database) are held in memory.
+   */
+  private static final Duration INCREMENTAL_EVALUATION_WINDOW = Duration.DAY;
+
   private final ConstraintsDSLCompilationService constraintsDSLCompilationService;
   private final ConstraintService constraintService;
   private final PlanService planService;
@@ -124,27 +131,41 @@ public class ConstraintAction {
 
       final var realProfiles = new HashMap<String, LinearProfile>();
       final var discreteProfiles = new HashMap<String, DiscreteProfile>();
+      final Interval bounds = Interval.between(Duration.ZERO, simDuration);
+
+      // Constraints that only compare resources pointwise are evaluated as their profiles are streamed,
+      //   rather than after loading the whole of every profile they read.
+      final var incrementalRuns = new ArrayList<IncrementalRun>();
 
       // try to compile and run the constraint that were not
       // successful and cached in the past
-      for (final var entry : constraintCode.entrySet()) {
-        final var constraint = entry.getValue();
-        final Expression<ConstraintResult> expression;
-
-        final ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult constraintCompilationResult;
-        try {
-          constraintCompilationResult = constraintsDSLCompilationService.compileConstraintsDSL(
-              plan.missionModelId(),
-              Optional.of(planId),
-              Optional.of(simDatasetId),
-              constraint.definition()
-          );
-        } catch (MissionModelService.NoSuchMissionModelException | NoSuchPlanException ex) {
+      final var constraintsToCheck = new ArrayList<>(constraintCode.entrySet());
+
+      // Compile every constraint up front, so that the compiler can work on several of them at once.
+      final List<ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult> compilationResults;
+      try {
+        compilationResults = constraintsDSLCompilationService.compileConstraintsDSL(
+            plan.missionModelId(),
+            Optional.of(planId),
+            Optional.of(simDatasetId),
+            constraintsToCheck.stream().map(entry -> entry.getValue().definition()).toList()
+        );
+      } catch (MissionModelService.NoSuchMissionModelException | NoSuchPlanException ex) {
+        for (final var entry : constraintsToCheck) {
+          final var constraint = entry.getValue();
           constraintResultMap.put(
               constraint,
               Fallible.failure(new Error("Constraint " + constraint.name() + ": " + ex.getMessage())));
-          continue;
         }
+        return constraintResultMap;
+      }
+
+      for (int i = 0; i < constraintsToCheck.size(); i++) {
+        final var entry = constraintsToCheck.get(i);
+        final var constraint = entry.getValue();
+        final Expression<ConstraintResult> expression;
+
+        final var constraintCompilationResult = compilationResults.get(i);
 
         // Try to compile the constraint and capture failures
         if (constraintCompilationResult instanceof ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult.Success success) {
@@ -175,6 +196,15 @@ public class ConstraintAction {
         final var names = new HashSet<String>();
         expression.extractResources(names);
 
+        if (resultsHandle$.isPresent() && IncrementalConstraintEvaluator.supports(expression)) {
+          incrementalRuns.add(new IncrementalRun(
+              entry.getKey(),
+              constraint,
+              names,
+              new IncrementalConstraintEvaluator(expression, simStartTime, bounds, environment, INCREMENTAL_EVALUATION_WINDOW)));
+          continue;
+        }
+
         final var newNames = new HashSet<String>();
         for (final var name : names) {
           if (!realProfiles.containsKey(name) && !discreteProfiles.containsKey(name)) {
@@ -208,7 +238,6 @@ public class ConstraintAction {
           }
         }
 
-        final Interval bounds = Interval.between(Duration.ZERO, simDuration);
         final var preparedResults = new gov.nasa.jpl.aerie.constraints.model.SimulationResults(
             simStartTime,
             bounds,
@@ -227,6 +256,33 @@ public class ConstraintAction {
 
 
       }
+
+      if (!incrementalRuns.isEmpty()) {
+        final var names = new HashSet<String>();
+        for (final var run : incrementalRuns) names.addAll(run.resourceNames());
+
+        resultsHandle$.get().streamProfiles(new ArrayList<>(names), chunk -> {
+          for (final var run : incrementalRuns) run.accept(chunk);
+        });
+
+        for (final var run : incrementalRuns) {
+          final var constraint = run.constraint();
+          final ConstraintResult constraintResult;
+          try {
+            constraintResult = run.finish();
+          } catch (InputMismatchException ex) {
+            constraintResultMap.put(constraint, Fallible.failure(ex));
+            continue;
+          }
+
+          constraintResult.constraintName = constraint.name();
+          constraintResult.constraintRevision = constraint.revision();
+          constraintResult.constraintId = run.constraintId();
+          constraintResult.resourceIds = List.copyOf(run.resourceNames());
+
+          constraintResultMap.put(constraint, Fallible.of(constraintResult));
+        }
+      }
       // Filter for constraints that were compiled and ran with results
       // convert these successful failables to ConstraintResults
       final var compiledConstraintMap = constraintResultMap.entrySet().stream()
@@ -261,4 +317,51 @@ public class ConstraintAction {
 
     return constraintResultMap;
   }
+
+  /** A constraint being evaluated incrementally, which stops taking chunks once its evaluation fails. */
+  private static final class IncrementalRun {
+    private final Long constraintId;
+    private final Constraint constraint;
+    private final Set<String> resourceNames;
+    private final IncrementalConstraintEvaluator evaluator;
+    private InputMismatchException failure = null;
+
+    IncrementalRun(
+        final Long constraintId,
+        final Constraint constraint,
+        final Set<String> resourceNames,
+        final IncrementalConstraintEvaluator evaluator)
+    {
+      this.constraintId = constraintId;
+      this.constraint = constraint;
+      this.resourceNames = resourceNames;
+      this.evaluator = evaluator;
+    }
+
+    Long constraintId() {
+      return this.constraintId;
+    }
+
+    Constraint constraint() {
+      return this.constraint;
+    }
+
+    Set<String> resourceNames() {
+      return this.resourceNames;
+    }
+
+    void accept(final ResourceProfiles chunk) {
+      if (this.failure != null) return;
+      try {
+        this.evaluator.accept(chunk);
+      } catch (InputMismatchException ex) {
+        this.failure = ex;
+      }
+    }
+
+    ConstraintResult finish() {
+      if (this.failure != null) throw this.failure;
+      return this.evaluator.finish();
+    }
+  }
 }
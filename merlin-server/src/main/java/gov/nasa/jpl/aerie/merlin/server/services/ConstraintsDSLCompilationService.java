@@ -18,92 +18,297 @@ import javax.json.stream.JsonParsingException;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ConstraintsDSLCompilationService {
+  private static final int DEFAULT_CACHE_CAPACITY = 1024;
 
-  private final Process nodeProcess;
   private final TypescriptCodeGenerationServiceAdapter typescriptCodeGenerationService;
 
+  /** Idle compiler processes. A compilation takes exclusive use of one process for as long as it runs. */
+  private final BlockingQueue<CompilerProcess> idleProcesses;
+  private final List<CompilerProcess> processes;
+
+  /**
+   * Compiled constraints, keyed by a digest of the constraint's source and the mission model types it was compiled against.
+   * Only deterministic outcomes (successes and compilation errors) are cached.
+   */
+  private final Map<String, ConstraintsDSLCompilationResult> cache;
+
   public ConstraintsDSLCompilationService(final TypescriptCodeGenerationServiceAdapter typescriptCodeGenerationService)
   throws IOException
   {
+    this(typescriptCodeGenerationService, 1, DEFAULT_CACHE_CAPACITY);
+  }
+
+  public ConstraintsDSLCompilationService(
+      final TypescriptCodeGenerationServiceAdapter typescriptCodeGenerationService,
+      final int poolSize,
+      final int cacheCapacity
+  ) throws IOException
+  {
+    this(typescriptCodeGenerationService, poolSize, cacheCapacity, ConstraintsDSLCompilationService::launchNode);
+  }
+
+  /* package-private */ ConstraintsDSLCompilationService(
+      final TypescriptCodeGenerationServiceAdapter typescriptCodeGenerationService,
+      final int poolSize,
+      final int cacheCapacity,
+      final ProcessLauncher launcher
+  ) throws IOException
+  {
+    if (poolSize < 1) throw new IllegalArgumentException("The compiler pool needs at least one process");
+
     this.typescriptCodeGenerationService = typescriptCodeGenerationService;
-    final var constraintsDslCompilerRoot = System.getenv("CONSTRAINTS_DSL_COMPILER_ROOT");
-    final var constraintsDslCompilerCommand = System.getenv("CONSTRAINTS_DSL_COMPILER_COMMAND");
-    final var nodePath = System.getenv("NODE_PATH");
-    final var processBuilder = new ProcessBuilder(nodePath, "--experimental-vm-modules", constraintsDslCompilerCommand)
-        .redirectError(ProcessBuilder.Redirect.INHERIT)
-        .directory(new File(constraintsDslCompilerRoot));
-    processBuilder.environment().put("NODE_NO_WARNINGS", "1");
-    this.nodeProcess = processBuilder.start();
+    this.idleProcesses = new ArrayBlockingQueue<>(poolSize);
+    this.processes = new ArrayList<>(poolSize);
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<String, ConstraintsDSLCompilationResult>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, ConstraintsDSLCompilationResult> eldest) {
+        return this.size() > cacheCapacity;
+      }
+    });
 
-    final var inputStream = this.nodeProcess.outputWriter();
-    inputStream.write("ping\n");
-    inputStream.flush();
-    if (!Objects.equals(this.nodeProcess.inputReader().readLine(), "pong")) {
-      throw new Error("Could not create node subprocess");
+    try {
+      for (int i = 0; i < poolSize; i++) {
+        final var process = new CompilerProcess(launcher);
+        this.processes.add(process);
+        this.idleProcesses.add(process);
+      }
+    } catch (final IOException | Error ex) {
+      this.close();
+      throw ex;
     }
   }
 
   public void close() {
-    this.nodeProcess.destroy();
+    this.processes.forEach(CompilerProcess::destroy);
+  }
+
+  public ConstraintsDSLCompilationResult compileConstraintsDSL(
+      final MissionModelId missionModelId,
+      final Optional<PlanId> planId,
+      final Optional<SimulationDatasetId> simulationDatasetId,
+      final String constraintTypescript
+  ) throws MissionModelService.NoSuchMissionModelException, NoSuchPlanException
+  {
+    return compileConstraintsDSL(missionModelId, planId, simulationDatasetId, List.of(constraintTypescript)).getFirst();
   }
 
   /**
-   * NOTE: This method is not re-entrant (assumes only one call to this method is running at any given time)
+   * Compile several constraints against the same mission model types,
+   * spreading them across the pool of compiler processes.
+   *
+   * @return the compilation result of each constraint, in the order the constraints were given
    */
-  synchronized public ConstraintsDSLCompilationResult compileConstraintsDSL(
+  public List<ConstraintsDSLCompilationResult> compileConstraintsDSL(
       final MissionModelId missionModelId,
       final Optional<PlanId> planId,
       final Optional<SimulationDatasetId> simulationDatasetId,
-      final String constraintTypescript
+      final List<String> constraintsTypescript
   ) throws MissionModelService.NoSuchMissionModelException, NoSuchPlanException
   {
     final var missionModelGeneratedCode = this.typescriptCodeGenerationService.generateTypescriptTypes(missionModelId, planId, simulationDatasetId);
+    if (constraintsTypescript.size() == 1) {
+      return List.of(compileConstraintDSL(missionModelGeneratedCode, constraintsTypescript.getFirst()));
+    }
+
+    try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final var futures = new ArrayList<Future<ConstraintsDSLCompilationResult>>(constraintsTypescript.size());
+      for (final var constraintTypescript : constraintsTypescript) {
+        futures.add(executor.submit(() -> compileConstraintDSL(missionModelGeneratedCode, constraintTypescript)));
+      }
+
+      final var results = new ArrayList<ConstraintsDSLCompilationResult>(futures.size());
+      for (final var future : futures) {
+        try {
+          results.add(future.get());
+        } catch (final ExecutionException ex) {
+          if (ex.getCause() instanceof RuntimeException e) throw e;
+          if (ex.getCause() instanceof Error e) throw e;
+          throw new Error(ex.getCause());
+        } catch (final InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new Error(ex);
+        }
+      }
+      return results;
+    }
+  }
+
+  private ConstraintsDSLCompilationResult compileConstraintDSL(
+      final String missionModelGeneratedCode,
+      final String constraintTypescript
+  ) {
+    final var key = cacheKey(constraintTypescript, missionModelGeneratedCode);
+    final var cached = this.cache.get(key);
+    if (cached != null) return cached;
+
     final JsonObject messageJson = Json.createObjectBuilder()
         .add("constraintCode", constraintTypescript)
         .add("missionModelGeneratedCode", missionModelGeneratedCode)
         .add("expectedReturnType", "Constraint")
         .build();
-    /*
-     * PROTOCOL:
-     *   denote this java program as JAVA, and the node subprocess as NODE
-     *
-     *   JAVA -- stdin --> NODE: { "constraintCode": "sourcecode", "missionModelGeneratedCode": "generatedcode" } \n
-     *   NODE -- stdout --> JAVA: one of "success\n", "error\n", or "panic\n"
-     *   NODE -- stdout --> JAVA: payload associated with success, error, or panic, must be exactly one line terminated with \n
-     * */
-    final var inputWriter = this.nodeProcess.outputWriter();
-    final var outputReader = this.nodeProcess.inputReader();
+
+    final var process = acquireProcess();
     try {
-      inputWriter.write(messageJson +"\n");
-      inputWriter.flush();
-      final var status = outputReader.readLine();
-      return switch (status) {
-        case "panic" -> throw new Error(outputReader.readLine());
-        case "error" -> {
-          final var output = outputReader.readLine();
-          try {
-            yield new ConstraintsDSLCompilationResult.Error(parseJson(output, ConstraintsCompilationError.constraintsErrorJsonP));
-          } catch (InvalidJsonException | InvalidEntityException e) {
-            throw new Error("Could not parse error JSON returned from typescript: " + output, e);
-          }
+      final var result = process.compile(messageJson);
+      this.cache.put(key, result);
+      return result;
+    } catch (final Throwable ex) {
+      // The subprocess may be midway through a response, so it can't be trusted with another request.
+      process.discard();
+      throw ex;
+    } finally {
+      this.idleProcesses.add(process);
+    }
+  }
+
+  /** Take an idle compiler process, replacing it first if it has died or been discarded since it was last used. */
+  private CompilerProcess acquireProcess() {
+    final CompilerProcess process;
+    try {
+      process = this.idleProcesses.take();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new Error(ex);
+    }
+
+    try {
+      process.ensureHealthy();
+    } catch (final IOException | Error ex) {
+      this.idleProcesses.add(process);
+      throw new Error("Could not restart node subprocess", ex);
+    }
+    return process;
+  }
+
+  private static String cacheKey(final String constraintTypescript, final String missionModelGeneratedCode) {
+    try {
+      final var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(constraintTypescript.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(missionModelGeneratedCode.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (final NoSuchAlgorithmException ex) {
+      throw new Error(ex);
+    }
+  }
+
+  /** Starts a subprocess that speaks the compiler protocol described in {@link CompilerProcess#compile}. */
+  @FunctionalInterface
+  /* package-private */ interface ProcessLauncher {
+    Process launch() throws IOException;
+  }
+
+  /* package-private */ static Process launchNode() throws IOException {
+    final var constraintsDslCompilerRoot = System.getenv("CONSTRAINTS_DSL_COMPILER_ROOT");
+    final var constraintsDslCompilerCommand = System.getenv("CONSTRAINTS_DSL_COMPILER_COMMAND");
+    final var nodePath = System.getenv("NODE_PATH");
+    final var processBuilder = new ProcessBuilder(nodePath, "--experimental-vm-modules", constraintsDslCompilerCommand)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .directory(new File(constraintsDslCompilerRoot));
+    processBuilder.environment().put("NODE_NO_WARNINGS", "1");
+    return processBuilder.start();
+  }
+
+  /** A node subprocess running the constraints DSL compiler, which compiles one constraint at a time. */
+  private static final class CompilerProcess {
+    private final ProcessLauncher launcher;
+    private Process nodeProcess;
+
+    CompilerProcess(final ProcessLauncher launcher) throws IOException {
+      this.launcher = launcher;
+      this.nodeProcess = start(launcher);
+    }
+
+    private static Process start(final ProcessLauncher launcher) throws IOException {
+      final var nodeProcess = launcher.launch();
+
+      try {
+        final var inputStream = nodeProcess.outputWriter();
+        inputStream.write("ping\n");
+        inputStream.flush();
+        if (!Objects.equals(nodeProcess.inputReader().readLine(), "pong")) {
+          throw new Error("Could not create node subprocess");
         }
-        case "success" -> {
-          final var output = outputReader.readLine();
-          try {
-            yield new ConstraintsDSLCompilationResult.Success(parseJson(output, ConstraintParsers.constraintP));
-          } catch (InvalidJsonException | InvalidEntityException e) {
-            throw new Error("Could not parse success JSON returned from typescript: " + output, e);
+      } catch (final IOException | Error ex) {
+        nodeProcess.destroyForcibly();
+        throw ex;
+      }
+      return nodeProcess;
+    }
+
+    void ensureHealthy() throws IOException {
+      if (this.nodeProcess != null && this.nodeProcess.isAlive()) return;
+      this.nodeProcess = start(this.launcher);
+    }
+
+    /** Kill the subprocess, so that it is replaced before it is next used. */
+    void discard() {
+      if (this.nodeProcess == null) return;
+      this.nodeProcess.destroyForcibly();
+      this.nodeProcess = null;
+    }
+
+    void destroy() {
+      if (this.nodeProcess != null) this.nodeProcess.destroy();
+    }
+
+    ConstraintsDSLCompilationResult compile(final JsonObject messageJson) {
+      /*
+       * PROTOCOL:
+       *   denote this java program as JAVA, and the node subprocess as NODE
+       *
+       *   JAVA -- stdin --> NODE: { "constraintCode": "sourcecode", "missionModelGeneratedCode": "generatedcode" } \n
+       *   NODE -- stdout --> JAVA: one of "success\n", "error\n", or "panic\n"
+       *   NODE -- stdout --> JAVA: payload associated with success, error, or panic, must be exactly one line terminated with \n
+       * */
+      final var inputWriter = this.nodeProcess.outputWriter();
+      final var outputReader = this.nodeProcess.inputReader();
+      try {
+        inputWriter.write(messageJson +"\n");
+        inputWriter.flush();
+        final var status = outputReader.readLine();
+        return switch (status) {
+          case "panic" -> throw new Error(outputReader.readLine());
+          case "error" -> {
+            final var output = outputReader.readLine();
+            try {
+              yield new ConstraintsDSLCompilationResult.Error(parseJson(output, ConstraintsCompilationError.constraintsErrorJsonP));
+            } catch (InvalidJsonException | InvalidEntityException e) {
+              throw new Error("Could not parse error JSON returned from typescript: " + output, e);
+            }
           }
-        }
-        default -> throw new Error("constraints dsl compiler returned unexpected status: " + status);
-      };
-    } catch (IOException e) {
-      throw new Error(e);
+          case "success" -> {
+            final var output = outputReader.readLine();
+            try {
+              yield new ConstraintsDSLCompilationResult.Success(parseJson(output, ConstraintParsers.constraintP));
+            } catch (InvalidJsonException | InvalidEntityException e) {
+              throw new Error("Could not parse success JSON returned from typescript: " + output, e);
+            }
+          }
+          case null -> throw new Error("constraints dsl compiler exited unexpectedly");
+          default -> throw new Error("constraints dsl compiler returned unexpected status: " + status);
+        };
+      } catch (IOException e) {
+        throw new Error(e);
+      }
     }
   }
 
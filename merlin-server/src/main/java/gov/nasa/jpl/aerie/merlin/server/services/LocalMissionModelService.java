@@ -9,6 +9,8 @@ import gov.nasa.jpl.aerie.types.Plan;
 import gov.nasa.jpl.aerie.types.SerializedActivity;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResultsSink;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.Parameter;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.ValidationNotice;
@@ -49,15 +51,30 @@ public final class LocalMissionModelService implements MissionModelService {
   private final Path missionModelDataPath;
   private final MissionModelRepository missionModelRepository;
   private final Instant untruePlanStart;
+  private final int batchParallelism;
 
   public LocalMissionModelService(
       final Path missionModelDataPath,
       final MissionModelRepository missionModelRepository,
       final Instant untruePlanStart
+  ) {
+    this(missionModelDataPath, missionModelRepository, untruePlanStart, 1);
+  }
+
+  /**
+   * @param batchParallelism The number of threads on which to perform each batch of simulation jobs.
+   *   Values greater than 1 are only safe for mission models whose tasks and resources are thread-safe.
+   */
+  public LocalMissionModelService(
+      final Path missionModelDataPath,
+      final MissionModelRepository missionModelRepository,
+      final Instant untruePlanStart,
+      final int batchParallelism
   ) {
     this.missionModelDataPath = missionModelDataPath;
     this.missionModelRepository = missionModelRepository;
     this.untruePlanStart = untruePlanStart;
+    this.batchParallelism = batchParallelism;
   }
 
   @Override
@@ -289,7 +306,8 @@ public final class LocalMissionModelService implements MissionModelService {
       final Plan plan,
       final Consumer<Duration> simulationExtentConsumer,
       final Supplier<Boolean> canceledListener,
-      final SimulationResourceManager resourceManager)
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler)
   throws NoSuchMissionModelException
   {
     final var config = plan.simulationConfiguration();
@@ -311,7 +329,43 @@ public final class LocalMissionModelService implements MissionModelService {
         plan.duration(),
         canceledListener,
         simulationExtentConsumer,
-        resourceManager);
+        resourceManager,
+        profiler,
+        this.batchParallelism);
+  }
+
+  @Override
+  public Duration runSimulation(
+      final Plan plan,
+      final Consumer<Duration> simulationExtentConsumer,
+      final Supplier<Boolean> canceledListener,
+      final SimulationResourceManager resourceManager,
+      final SimulationResultsSink resultsSink,
+      final Optional<EngineProfiler> profiler)
+  throws NoSuchMissionModelException
+  {
+    final var config = plan.simulationConfiguration();
+    if (config.isEmpty()) {
+      log.warn(
+          "No mission model configuration defined for mission model. Simulations will receive an empty set of configuration arguments.");
+    }
+
+    return SimulationDriver.simulate(
+        loadAndInstantiateMissionModel(
+            plan.missionModelId(),
+            plan.planStartInstant(),
+            SerializedValue.of(config)),
+        plan.activityDirectives(),
+        plan.simulationStartInstant(),
+        plan.simulationDuration(),
+        plan.planStartInstant(),
+        plan.duration(),
+        canceledListener,
+        simulationExtentConsumer,
+        resourceManager,
+        resultsSink,
+        profiler,
+        this.batchParallelism);
   }
 
   @Override
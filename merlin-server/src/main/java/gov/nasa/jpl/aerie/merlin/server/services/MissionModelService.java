@@ -6,6 +6,8 @@ import gov.nasa.jpl.aerie.types.MissionModelId;
 import gov.nasa.jpl.aerie.types.Plan;
 import gov.nasa.jpl.aerie.types.SerializedActivity;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResultsSink;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.Parameter;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.ValidationNotice;
@@ -18,6 +20,7 @@ import gov.nasa.jpl.aerie.merlin.server.models.MissionModelJar;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -68,7 +71,23 @@ public interface MissionModelService {
       final Plan plan,
       final Consumer<Duration> writer,
       final Supplier<Boolean> canceledListener,
-      final SimulationResourceManager resourceManager
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler
+  ) throws NoSuchMissionModelException, MissionModelService.NoSuchActivityTypeException;
+
+  /**
+   * Simulates a plan, streaming its activities and events to a sink rather than collecting them into
+   * {@link SimulationResults}. Resource profiles are streamed by the resource manager.
+   *
+   * @return the amount of time that was simulated, which is shorter than the plan if simulation was canceled
+   */
+  Duration runSimulation(
+      final Plan plan,
+      final Consumer<Duration> writer,
+      final Supplier<Boolean> canceledListener,
+      final SimulationResourceManager resourceManager,
+      final SimulationResultsSink resultsSink,
+      final Optional<EngineProfiler> profiler
   ) throws NoSuchMissionModelException, MissionModelService.NoSuchActivityTypeException;
 
   void refreshModelParameters(MissionModelId missionModelId) throws NoSuchMissionModelException;
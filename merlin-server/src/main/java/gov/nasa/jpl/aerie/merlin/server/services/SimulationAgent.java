@@ -1,7 +1,7 @@
 package gov.nasa.jpl.aerie.merlin.server.services;
 
 import gov.nasa.jpl.aerie.merlin.driver.SimulationException;
-import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
@@ -12,6 +12,7 @@ import gov.nasa.jpl.aerie.types.Plan;
 
 import javax.json.Json;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -25,7 +26,8 @@ public record SimulationAgent (
       final RevisionData revisionData,
       final ResultsProtocol.WriterRole writer,
       final Supplier<Boolean> canceledListener,
-      final SimulationResourceManager resourceManager
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler
   ) {
     final Plan plan;
     try {
@@ -49,8 +51,8 @@ public record SimulationAgent (
       return;
     }
 
-    final SimulationResults results;
-    try {
+    // Activities and events are written as they are extracted from the engine, rather than collected into results.
+    try (final var resultsStream = writer.streamResults(plan.simulationStartInstant())) {
       // Validate plan activity construction
       final var failures = this.missionModelService.validateActivityInstantiations(
           plan.missionModelId(),
@@ -66,16 +68,25 @@ public record SimulationAgent (
         return;
       }
 
+      final Duration simulatedDuration;
       try (final var extentListener = FixedRateListener.callAtFixedRate(
           writer::reportSimulationExtent,
           Duration.ZERO,
           simulationProgressPollPeriod)
       ) {
-        results = this.missionModelService.runSimulation(
-           plan,
+        simulatedDuration = this.missionModelService.runSimulation(
+            plan,
             extentListener::updateValue,
             canceledListener,
-            resourceManager);
+            resourceManager,
+            resultsStream,
+            profiler);
+      }
+
+      if(canceledListener.get()) {
+        resultsStream.reportIncomplete(simulatedDuration);
+      } else {
+        resultsStream.succeed(simulatedDuration);
       }
     } catch (SimulationException ex) {
       final var errorMsgBuilder = Json.createObjectBuilder()
@@ -89,27 +100,18 @@ public record SimulationAgent (
           .message(ex.cause.getMessage())
           .data(errorMsgBuilder.build())
           .trace(ex.cause));
-      return;
     } catch (final MissionModelService.NoSuchMissionModelException ex) {
       writer.failWith(b -> b
           .type("NO_SUCH_MISSION_MODEL")
           .message(ex.toString())
           .data(ResponseSerializers.serializeNoSuchMissionModelException(ex))
           .trace(ex));
-      return;
     } catch (final MissionModelService.NoSuchActivityTypeException ex) {
       writer.failWith(b -> b
           .type("NO_SUCH_ACTIVITY_TYPE")
           .message("Activity of type `%s` could not be instantiated".formatted(ex.activityTypeId))
           .data(ResponseSerializers.serializeNoSuchActivityTypeException(ex))
           .trace(ex));
-      return;
-    }
-
-    if(canceledListener.get()) {
-      writer.reportIncompleteResults(results);
-    } else {
-      writer.succeedWith(results);
     }
   }
 }
@@ -4,6 +4,7 @@ import gov.nasa.jpl.aerie.json.JsonParser;
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.aerie.merlin.server.models.HasuraAction;
 import gov.nasa.jpl.aerie.merlin.server.models.HasuraMissionModelEvent;
+import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 import gov.nasa.jpl.aerie.types.MissionModelId;
 import org.junit.jupiter.api.Test;
 
@@ -11,12 +12,14 @@ import javax.json.Json;
 import javax.json.JsonValue;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static gov.nasa.jpl.aerie.json.BasicParsers.listP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.longP;
 import static gov.nasa.jpl.aerie.json.BasicParsers.recursiveP;
 import static gov.nasa.jpl.aerie.merlin.driver.json.SerializedValueJsonParser.serializedValueP;
 import static gov.nasa.jpl.aerie.merlin.server.http.HasuraParsers.*;
+import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsers.invalidatePermissionsP;
 import static gov.nasa.jpl.aerie.merlin.server.http.MerlinParsersTest.NestedLists.nestedList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -152,4 +155,16 @@ public final class MerlinParsersTest {
 
     assertEquals(expected, hasuraMissionModelEventTriggerP.parse(json).getSuccessOrThrow());
   }
+
+  @Test
+  public void testInvalidatePermissionsParser() {
+    final var plan = Json.createObjectBuilder().add("planId", 1).build();
+    assertEquals(Optional.of(new PlanId(1L)), invalidatePermissionsP.parse(plan).getSuccessOrThrow());
+
+    final var everything = Json.createObjectBuilder().build();
+    assertEquals(Optional.empty(), invalidatePermissionsP.parse(everything).getSuccessOrThrow());
+
+    final var unexpected = Json.createObjectBuilder().add("role", "user").build();
+    assertTrue(invalidatePermissionsP.parse(unexpected).isFailure());
+  }
 }
@@ -5,6 +5,8 @@ import gov.nasa.jpl.aerie.types.MissionModelId;
 import gov.nasa.jpl.aerie.types.Plan;
 import gov.nasa.jpl.aerie.types.SerializedActivity;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResultsSink;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.Parameter;
 import gov.nasa.jpl.aerie.merlin.protocol.model.InputType.ValidationNotice;
@@ -22,6 +24,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -198,7 +201,8 @@ public final class StubMissionModelService implements MissionModelService {
       final Plan plan,
       final Consumer<Duration> simulationExtentConsumer,
       final Supplier<Boolean> canceledListener,
-      final SimulationResourceManager resourceManager
+      final SimulationResourceManager resourceManager,
+      final Optional<EngineProfiler> profiler
   ) throws NoSuchMissionModelException {
     if (!Objects.equals(plan.missionModelId(), EXISTENT_MISSION_MODEL_ID)) {
       throw new NoSuchMissionModelException(plan.missionModelId());
@@ -207,6 +211,27 @@ public final class StubMissionModelService implements MissionModelService {
     return SUCCESSFUL_SIMULATION_RESULTS;
   }
 
+  @Override
+  public Duration runSimulation(
+      final Plan plan,
+      final Consumer<Duration> simulationExtentConsumer,
+      final Supplier<Boolean> canceledListener,
+      final SimulationResourceManager resourceManager,
+      final SimulationResultsSink resultsSink,
+      final Optional<EngineProfiler> profiler
+  ) throws NoSuchMissionModelException {
+    if (!Objects.equals(plan.missionModelId(), EXISTENT_MISSION_MODEL_ID)) {
+      throw new NoSuchMissionModelException(plan.missionModelId());
+    }
+
+    final var results = SUCCESSFUL_SIMULATION_RESULTS;
+    resultsSink.acceptTopics(results.topics);
+    results.simulatedActivities.forEach(resultsSink::acceptActivity);
+    results.unfinishedActivities.forEach(resultsSink::acceptUnfinishedActivity);
+    results.events.forEach(resultsSink::acceptEvents);
+    return results.duration;
+  }
+
   @Override
   public void refreshModelParameters(final MissionModelId missionModelId) {}
 
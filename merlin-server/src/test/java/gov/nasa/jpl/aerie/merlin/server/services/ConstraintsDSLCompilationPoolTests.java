@@ -0,0 +1,135 @@
+package gov.nasa.jpl.aerie.merlin.server.services;
+
+import gov.nasa.jpl.aerie.merlin.server.mocks.StubMissionModelService;
+import gov.nasa.jpl.aerie.merlin.server.mocks.StubPlanService;
+import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
+import gov.nasa.jpl.aerie.types.MissionModelId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstraintsDSLCompilationPoolTests {
+  private static final MissionModelId MISSION_MODEL_ID = new MissionModelId(1L);
+  private static final PlanId PLAN_ID = new PlanId(1L);
+
+  private final List<Process> launched = Collections.synchronizedList(new ArrayList<>());
+
+  private ConstraintsDSLCompilationService service(
+      final int poolSize,
+      final int cacheCapacity,
+      final ConstraintsDSLCompilationService.ProcessLauncher launcher
+  ) throws IOException
+  {
+    return new ConstraintsDSLCompilationService(
+        new TypescriptCodeGenerationServiceAdapter(new StubMissionModelService(), new StubPlanService()),
+        poolSize,
+        cacheCapacity,
+        () -> {
+          final var process = launcher.launch();
+          this.launched.add(process);
+          return process;
+        });
+  }
+
+  private static String constraint(final double threshold) {
+    return """
+        export default () => {
+          return Real.Resource("state of charge").lessThan(%s)
+        }
+        """.formatted(threshold);
+  }
+
+  private static ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult compile(
+      final ConstraintsDSLCompilationService service,
+      final String constraint
+  ) throws Exception
+  {
+    return service.compileConstraintsDSL(MISSION_MODEL_ID, Optional.of(PLAN_ID), Optional.empty(), constraint);
+  }
+
+  @Test
+  void compilationsReuseThePooledProcesses() throws Exception {
+    final var service = service(2, 0, ConstraintsDSLCompilationService::launchNode);
+    try {
+      final var constraints = new ArrayList<String>();
+      for (var i = 0; i < 6; i++) constraints.add(constraint(i));
+
+      final var results = service.compileConstraintsDSL(MISSION_MODEL_ID, Optional.of(PLAN_ID), Optional.empty(), constraints);
+
+      assertEquals(6, results.size());
+      results.forEach($ -> assertInstanceOf(ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult.Success.class, $));
+      assertEquals(2, this.launched.size());
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  void repeatedCompilationsHitTheCache() throws Exception {
+    final var service = service(1, 1, ConstraintsDSLCompilationService::launchNode);
+    try {
+      final var first = compile(service, constraint(0.3));
+      assertSame(first, compile(service, constraint(0.3)));
+
+      // The cache holds one entry, so compiling another constraint evicts the first.
+      final var other = compile(service, constraint(0.5));
+      assertSame(other, compile(service, constraint(0.5)));
+      final var recompiled = compile(service, constraint(0.3));
+      assertNotSame(first, recompiled);
+      assertEquals(first, recompiled);
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  void crashedProcessesAreReplaced() throws Exception {
+    final var service = service(1, 0, ConstraintsDSLCompilationService::launchNode);
+    try {
+      compile(service, constraint(0.3));
+
+      final var crashed = this.launched.getFirst();
+      crashed.destroyForcibly();
+      crashed.waitFor();
+
+      assertInstanceOf(
+          ConstraintsDSLCompilationService.ConstraintsDSLCompilationResult.Success.class,
+          compile(service, constraint(0.3)));
+      assertEquals(2, this.launched.size());
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  void processesThatMisbehaveAreDiscarded() throws Exception {
+    // A stand-in for the compiler that completes the handshake, then answers every request with an unknown status.
+    final var service = service(1, 16, () -> new ProcessBuilder(
+        "sh", "-c", "read line; echo pong; while read line; do echo garbage; done").start());
+    try {
+      assertThrows(Error.class, () -> compile(service, constraint(0.3)));
+      final var misbehaved = this.launched.getFirst();
+      assertTrue(misbehaved.waitFor(10, TimeUnit.SECONDS));
+
+      // The failure is not cached, and the next compilation starts a fresh process.
+      assertThrows(Error.class, () -> compile(service, constraint(0.3)));
+      assertEquals(2, this.launched.size());
+      assertFalse(misbehaved.isAlive());
+    } finally {
+      service.close();
+    }
+  }
+}
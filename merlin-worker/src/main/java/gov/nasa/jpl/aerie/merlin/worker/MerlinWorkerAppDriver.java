@@ -2,29 +2,25 @@ package gov.nasa.jpl.aerie.merlin.worker;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
-import gov.nasa.jpl.aerie.merlin.driver.resources.StreamingSimulationResourceManager;
-import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
+import gov.nasa.jpl.aerie.merlin.driver.MissionModelLoader;
 import gov.nasa.jpl.aerie.merlin.server.config.PostgresStore;
 import gov.nasa.jpl.aerie.merlin.server.config.Store;
-import gov.nasa.jpl.aerie.merlin.server.models.DatasetId;
-import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
 import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresMissionModelRepository;
 import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresPlanRepository;
-import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresPlanRevisionData;
 import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresResultsCellRepository;
 import gov.nasa.jpl.aerie.merlin.server.services.LocalMissionModelService;
 import gov.nasa.jpl.aerie.merlin.server.services.LocalPlanService;
 import gov.nasa.jpl.aerie.merlin.server.services.SimulationAgent;
 import gov.nasa.jpl.aerie.merlin.server.services.UnexpectedSubtypeError;
-import gov.nasa.jpl.aerie.merlin.worker.postgres.PostgresProfileStreamer;
 import gov.nasa.jpl.aerie.merlin.worker.postgres.PostgresSimulationNotificationPayload;
 import io.javalin.Javalin;
 
+import javax.json.Json;
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.ArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public final class MerlinWorkerAppDriver {
   public static void main(String[] args) throws InterruptedException {
@@ -42,7 +38,9 @@ public final class MerlinWorkerAppDriver {
     hikariConfig.addDataSourceProperty("applicationName", "Merlin Server");
     hikariConfig.setUsername(postgresStore.user());
     hikariConfig.setPassword(postgresStore.password());
-    hikariConfig.setMaximumPoolSize(3);
+    // Each slot holds a connection for its profile streamer while it simulates, and takes another while it writes results.
+    // One more connection is held by the thread listening for simulation requests.
+    hikariConfig.setMaximumPoolSize(1 + 2 * configuration.simulationSlots());
 
     hikariConfig.setConnectionInitSql("set time zone 'UTC'");
 
@@ -53,10 +51,12 @@ public final class MerlinWorkerAppDriver {
         new PostgresMissionModelRepository(hikariDataSource),
         new PostgresResultsCellRepository(hikariDataSource));
 
+    MissionModelLoader.setCacheCapacity(configuration.missionModelCacheSize());
     final var missionModelController = new LocalMissionModelService(
         configuration.merlinFileStore(),
         stores.missionModels(),
-        configuration.untruePlanStart()
+        configuration.untruePlanStart(),
+        configuration.batchParallelism()
     );
     final var planController = new LocalPlanService(stores.plans());
     final var simulationAgent = new SimulationAgent(
@@ -66,54 +66,71 @@ public final class MerlinWorkerAppDriver {
 
     final var notificationQueue = new LinkedBlockingQueue<PostgresSimulationNotificationPayload>();
     final var listenAction = new ListenSimulationCapability(hikariDataSource, notificationQueue);
-    final var canceledListener = new SimulationCanceledListener();
-    final var listenThread = listenAction.registerListener(canceledListener);
+
+    // Every slot shares the listening thread, so the thread is started only once the slots exist.
+    final var listenThread = new AtomicReference<Thread>();
+    final var slots = new ArrayList<SimulationSlot>(configuration.simulationSlots());
+    for (int i = 0; i < configuration.simulationSlots(); i++) {
+      slots.add(new SimulationSlot(
+          stores,
+          simulationAgent,
+          hikariDataSource,
+          notificationQueue,
+          () -> listenThread.get().isAlive(),
+          configuration.profileStreamingQueueCapacity(),
+          configuration.simulationProfiling(),
+          configuration.keepRawDiscreteSamples()));
+    }
+    listenThread.set(listenAction.registerListener(slots.stream().map(SimulationSlot::canceledListener).toList()));
 
     try (final var app = Javalin.create().start(8080)) {
       app.get("/health", ctx -> ctx.status(200));
-
-      while (listenThread.isAlive()) {
-        final var notification = notificationQueue.poll(1, TimeUnit.MINUTES);
-        if(notification == null) continue;
-        final var planId = new PlanId(notification.planId());
-        final var datasetId = notification.datasetId();
-
-        // Register as early as possible to avoid potentially missing a canceled signal
-        canceledListener.register(new DatasetId(datasetId));
-
-        final Optional<ResultsProtocol.OwnerRole> owner = stores.results().claim(planId, datasetId);
-        if (owner.isEmpty()) {
-          canceledListener.unregister();
-          continue;
+      app.get("/metrics", ctx -> {
+        final var streamers = Json.createArrayBuilder();
+        for (final var slot : slots) {
+          slot.activeStreamer().ifPresent(streamer -> streamers.add(Json
+              .createObjectBuilder()
+              .add("queueDepth", streamer.queueDepth())
+              .add("segmentsWritten", streamer.segmentsWritten())
+              .add("segmentsPerSecond", streamer.segmentsPerSecond())));
         }
 
-        final var revisionData = new PostgresPlanRevisionData(
-            notification.modelRevision(),
-            notification.planRevision(),
-            notification.simulationRevision(),
-            notification.simulationTemplateRevision());
-        final ResultsProtocol.WriterRole writer = owner.get();
-        try(final var streamer = new PostgresProfileStreamer(hikariDataSource, datasetId)) {
-          simulationAgent.simulate(
-              planId,
-              revisionData,
-              writer,
-              canceledListener,
-              new StreamingSimulationResourceManager(streamer));
-        } catch (final Throwable ex) {
-          ex.printStackTrace(System.err);
-          writer.failWith(b -> b
-              .type("UNEXPECTED_SIMULATION_EXCEPTION")
-              .message("Something went wrong while simulating")
-              .trace(ex));
-        }
-        finally {
-          canceledListener.unregister();
+        final var engineProfiles = Json.createArrayBuilder();
+        for (final var slot : slots) {
+          slot.lastEngineProfile().ifPresent(profiler -> engineProfiles.add(profiler.toJson()));
         }
+
+        final var missionModelCache = MissionModelLoader.getCacheStatistics();
+
+        ctx.contentType("application/json").result(Json
+            .createObjectBuilder()
+            .add("simulationSlots", slots.size())
+            .add("activeSimulations", slots.stream().filter(SimulationSlot::isBusy).count())
+            .add("queuedSimulations", notificationQueue.size())
+            .add("profileStreamers", streamers)
+            .add("engineProfiles", engineProfiles)
+            .add("missionModelCache", Json
+                .createObjectBuilder()
+                .add("hits", missionModelCache.hits())
+                .add("misses", missionModelCache.misses())
+                .add("size", missionModelCache.size())
+                .add("capacity", missionModelCache.capacity()))
+            .build()
+            .toString());
+      });
+
+      final var slotThreads = new ArrayList<Thread>(slots.size());
+      for (int i = 0; i < slots.size(); i++) {
+        slotThreads.add(Thread.ofPlatform().name("simulation-slot-" + i).start(slots.get(i)));
+      }
+      try {
+        for (final var slotThread : slotThreads) slotThread.join();
+      } finally {
+        slotThreads.forEach(Thread::interrupt);
       }
     } finally {
       // Kill the listening thread
-      listenThread.interrupt();
+      listenThread.get().interrupt();
     }
   }
 
@@ -123,6 +140,8 @@ public final class MerlinWorkerAppDriver {
   }
 
   private static WorkerAppConfiguration loadConfiguration() {
+    final var simulationSlots = Integer.parseInt(getEnv("MERLIN_WORKER_SIMULATION_SLOTS", "1"));
+
     return new WorkerAppConfiguration(
         Path.of(getEnv("MERLIN_WORKER_LOCAL_STORE", "/usr/src/app/merlin_file_store")),
         new PostgresStore(getEnv("AERIE_DB_HOST", "postgres"),
@@ -131,7 +150,13 @@ public final class MerlinWorkerAppDriver {
                           getEnv("MERLIN_DB_PASSWORD", ""),
                           "aerie"),
         Integer.parseInt(getEnv("SIMULATION_PROGRESS_POLL_PERIOD_MILLIS", "5000")),
-        Instant.parse(getEnv("UNTRUE_PLAN_START", ""))
+        Instant.parse(getEnv("UNTRUE_PLAN_START", "")),
+        Integer.parseInt(getEnv("PROFILE_STREAMING_QUEUE_CAPACITY", "0")),
+        simulationSlots,
+        Boolean.parseBoolean(getEnv("SIMULATION_PROFILING", "false")),
+        Integer.parseInt(getEnv("MISSION_MODEL_CACHE_SIZE", "0")),
+        Integer.parseInt(getEnv("SIMULATION_BATCH_PARALLELISM", "1")),
+        Boolean.parseBoolean(getEnv("SIMULATION_KEEP_RAW_DISCRETE_SAMPLES", "false"))
     );
   }
 }
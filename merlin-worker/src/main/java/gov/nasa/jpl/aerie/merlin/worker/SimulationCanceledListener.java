@@ -19,7 +19,7 @@ public class SimulationCanceledListener implements Supplier<Boolean> {
    * All signals that are not for this object's registered simulation will be ignored.
    * @param payload The payload of the signal
    */
-  public void receiveSignal(DatasetId payload){
+  public synchronized void receiveSignal(DatasetId payload){
     if (registeredSimulation.isEmpty() || !registeredSimulation.get().equals(payload)) return;
     canceled = true;
   }
@@ -28,7 +28,7 @@ public class SimulationCanceledListener implements Supplier<Boolean> {
    * Register the listener to a specific simulation run
    * @param id the id of the simulation run
    */
-  public void register(DatasetId id) {
+  public synchronized void register(DatasetId id) {
     registeredSimulation = Optional.of(id);
     canceled = false;
   }
@@ -36,7 +36,7 @@ public class SimulationCanceledListener implements Supplier<Boolean> {
   /**
    * Unregister the listener
    */
-  public void unregister(){
+  public synchronized void unregister(){
     registeredSimulation = Optional.empty();
     canceled = false;
   }
@@ -44,7 +44,7 @@ public class SimulationCanceledListener implements Supplier<Boolean> {
   /**
    * @return if the current registered simulation has been canceled
    */
-  public boolean isCanceled() {
+  public synchronized boolean isCanceled() {
     return registeredSimulation.isPresent() && canceled;
   }
 
@@ -0,0 +1,242 @@
+package gov.nasa.jpl.aerie.merlin.worker;
+
+import gov.nasa.jpl.aerie.merlin.driver.SimulationFailure;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.UnfinishedActivity;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EventRecord;
+import gov.nasa.jpl.aerie.merlin.driver.resources.StreamingSimulationResourceManager;
+import gov.nasa.jpl.aerie.merlin.driver.timeline.EventGraph;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.merlin.server.ResultsProtocol;
+import gov.nasa.jpl.aerie.merlin.server.models.DatasetId;
+import gov.nasa.jpl.aerie.merlin.server.models.PlanId;
+import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PostgresPlanRevisionData;
+import gov.nasa.jpl.aerie.merlin.server.services.SimulationAgent;
+import gov.nasa.jpl.aerie.merlin.worker.postgres.AsyncProfileStreamer;
+import gov.nasa.jpl.aerie.merlin.worker.postgres.PostgresProfileStreamer;
+import gov.nasa.jpl.aerie.merlin.worker.postgres.PostgresSimulationNotificationPayload;
+import gov.nasa.jpl.aerie.types.ActivityInstance;
+import gov.nasa.jpl.aerie.types.ActivityInstanceId;
+import org.apache.commons.lang3.tuple.Triple;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs simulation requests from a shared queue, one at a time.
+ *
+ * A worker runs several slots side by side. Each slot has its own canceled listener and profile streamer,
+ * while the stores and the simulation agent (and so the loaded mission models) are shared between slots.
+ */
+public final class SimulationSlot implements Runnable {
+  private final Stores stores;
+  private final SimulationAgent simulationAgent;
+  private final DataSource dataSource;
+  private final BlockingQueue<PostgresSimulationNotificationPayload> notificationQueue;
+  private final BooleanSupplier isListening;
+  private final int profileStreamingQueueCapacity;
+  private final boolean simulationProfiling;
+  private final boolean keepRawDiscreteSamples;
+
+  private final SimulationCanceledListener canceledListener = new SimulationCanceledListener();
+
+  // The streamer of the simulation in progress, if it streams profiles in the background.
+  private volatile Optional<AsyncProfileStreamer> activeStreamer = Optional.empty();
+  private volatile boolean isBusy = false;
+  // The engine profile of the last simulation this slot ran, if simulations are profiled.
+  private volatile Optional<EngineProfiler> lastEngineProfile = Optional.empty();
+
+  public SimulationSlot(
+      final Stores stores,
+      final SimulationAgent simulationAgent,
+      final DataSource dataSource,
+      final BlockingQueue<PostgresSimulationNotificationPayload> notificationQueue,
+      final BooleanSupplier isListening,
+      final int profileStreamingQueueCapacity,
+      final boolean simulationProfiling,
+      final boolean keepRawDiscreteSamples)
+  {
+    this.stores = stores;
+    this.simulationAgent = simulationAgent;
+    this.dataSource = dataSource;
+    this.notificationQueue = notificationQueue;
+    this.isListening = isListening;
+    this.profileStreamingQueueCapacity = profileStreamingQueueCapacity;
+    this.simulationProfiling = simulationProfiling;
+    this.keepRawDiscreteSamples = keepRawDiscreteSamples;
+  }
+
+  public SimulationCanceledListener canceledListener() {
+    return this.canceledListener;
+  }
+
+  /** Whether this slot is running a simulation right now. */
+  public boolean isBusy() {
+    return this.isBusy;
+  }
+
+  public Optional<AsyncProfileStreamer> activeStreamer() {
+    return this.activeStreamer;
+  }
+
+  public Optional<EngineProfiler> lastEngineProfile() {
+    return this.lastEngineProfile;
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (this.isListening.getAsBoolean()) {
+        final var notification = this.notificationQueue.poll(1, TimeUnit.MINUTES);
+        if (notification == null) continue;
+
+        this.isBusy = true;
+        try {
+          simulate(notification);
+        } finally {
+          this.isBusy = false;
+        }
+      }
+    } catch (final InterruptedException ex) {
+      // The worker interrupts its slots when it shuts down.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void simulate(final PostgresSimulationNotificationPayload notification) {
+    final var planId = new PlanId(notification.planId());
+    final var datasetId = notification.datasetId();
+
+    // Register as early as possible to avoid potentially missing a canceled signal
+    this.canceledListener.register(new DatasetId(datasetId));
+
+    final Optional<ResultsProtocol.OwnerRole> owner = this.stores.results().claim(planId, datasetId);
+    if (owner.isEmpty()) {
+      this.canceledListener.unregister();
+      return;
+    }
+
+    final var revisionData = new PostgresPlanRevisionData(
+        notification.modelRevision(),
+        notification.planRevision(),
+        notification.simulationRevision(),
+        notification.simulationTemplateRevision());
+    final ResultsProtocol.WriterRole writer = owner.get();
+    final var streamingCapacity = this.profileStreamingQueueCapacity;
+    final var profiler = this.simulationProfiling ? Optional.of(new EngineProfiler()) : Optional.<EngineProfiler>empty();
+    try (final var streamer = new PostgresProfileStreamer(this.dataSource, datasetId, streamingCapacity > 0);
+         final var asyncStreamer = (streamingCapacity > 0) ? new AsyncProfileStreamer(streamer, streamingCapacity) : null)
+    {
+      this.activeStreamer = Optional.ofNullable(asyncStreamer);
+
+      this.simulationAgent.simulate(
+          planId,
+          revisionData,
+          (asyncStreamer != null) ? new FlushingWriter(writer, asyncStreamer) : writer,
+          this.canceledListener,
+          new StreamingSimulationResourceManager(
+              (asyncStreamer != null) ? asyncStreamer : streamer,
+              StreamingSimulationResourceManager.DEFAULT_THRESHOLD,
+              this.keepRawDiscreteSamples),
+          profiler);
+    } catch (final Throwable ex) {
+      ex.printStackTrace(System.err);
+      writer.failWith(b -> b
+          .type("UNEXPECTED_SIMULATION_EXCEPTION")
+          .message("Something went wrong while simulating")
+          .trace(ex));
+    }
+    finally {
+      profiler.ifPresent(EngineProfiler::emitJfrEvents);
+      if (profiler.isPresent()) this.lastEngineProfile = profiler;
+      this.activeStreamer = Optional.empty();
+      this.canceledListener.unregister();
+    }
+  }
+
+  /** Flushes streamed profiles before recording the outcome of a simulation, so that the results are never observed without them. */
+  private record FlushingWriter(ResultsProtocol.WriterRole writer, AsyncProfileStreamer streamer)
+      implements ResultsProtocol.WriterRole
+  {
+    @Override
+    public boolean isCanceled() {
+      return this.writer.isCanceled();
+    }
+
+    @Override
+    public void succeedWith(final SimulationResults results) {
+      this.streamer.flush();
+      this.writer.succeedWith(results);
+    }
+
+    @Override
+    public void failWith(final SimulationFailure reason) {
+      this.writer.failWith(reason);
+    }
+
+    @Override
+    public void reportIncompleteResults(final SimulationResults results) {
+      this.streamer.flush();
+      this.writer.reportIncompleteResults(results);
+    }
+
+    @Override
+    public void reportSimulationExtent(final Duration extent) {
+      this.writer.reportSimulationExtent(extent);
+    }
+
+    @Override
+    public ResultsProtocol.ResultsStream streamResults(final Instant startTime) {
+      return new FlushingResultsStream(this.writer.streamResults(startTime), this.streamer);
+    }
+  }
+
+  /** Flushes streamed profiles before completing a stream of results, like {@link FlushingWriter}. */
+  private record FlushingResultsStream(ResultsProtocol.ResultsStream stream, AsyncProfileStreamer streamer)
+      implements ResultsProtocol.ResultsStream
+  {
+    @Override
+    public void acceptTopics(final List<Triple<Integer, String, ValueSchema>> topics) {
+      this.stream.acceptTopics(topics);
+    }
+
+    @Override
+    public void acceptActivity(final ActivityInstanceId id, final ActivityInstance activity) {
+      this.stream.acceptActivity(id, activity);
+    }
+
+    @Override
+    public void acceptUnfinishedActivity(final ActivityInstanceId id, final UnfinishedActivity activity) {
+      this.stream.acceptUnfinishedActivity(id, activity);
+    }
+
+    @Override
+    public void acceptEvents(final Duration time, final List<EventGraph<EventRecord>> events) {
+      this.stream.acceptEvents(time, events);
+    }
+
+    @Override
+    public void succeed(final Duration duration) {
+      this.streamer.flush();
+      this.stream.succeed(duration);
+    }
+
+    @Override
+    public void reportIncomplete(final Duration duration) {
+      this.streamer.flush();
+      this.stream.reportIncomplete(duration);
+    }
+
+    @Override
+    public void close() {
+      this.stream.close();
+    }
+  }
+}
@@ -10,11 +10,20 @@ public record WorkerAppConfiguration(
     Path merlinFileStore,
     Store store,
     long simulationProgressPollPeriodMillis,
-    Instant untruePlanStart
+    Instant untruePlanStart,
+    int profileStreamingQueueCapacity,
+    int simulationSlots,
+    boolean simulationProfiling,
+    int missionModelCacheSize,
+    int batchParallelism,
+    boolean keepRawDiscreteSamples
 ) {
   public WorkerAppConfiguration {
     Objects.requireNonNull(merlinFileStore);
     Objects.requireNonNull(store);
     Objects.requireNonNull(untruePlanStart);
+    if (simulationSlots < 1) throw new IllegalArgumentException("A worker needs at least one simulation slot");
+    if (missionModelCacheSize < 0) throw new IllegalArgumentException("The mission model cache size cannot be negative");
+    if (batchParallelism < 1) throw new IllegalArgumentException("Batch parallelism must be at least 1");
   }
 }
@@ -0,0 +1,132 @@
+package gov.nasa.jpl.aerie.merlin.worker.postgres;
+
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfiles;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hands profile chunks off to a background writer, so that the simulation thread does not wait on the database.
+ *
+ * At most `capacity` chunks may be waiting to be written at once.
+ * When the writer falls that far behind, {@link #accept} blocks until it catches up.
+ * A failure on the writer thread is rethrown on the next call to {@link #accept}, {@link #flush}, or {@link #close}.
+ *
+ * Closing this streamer stops the writer, but does not close the underlying {@link PostgresProfileStreamer}.
+ */
+public final class AsyncProfileStreamer implements Consumer<ResourceProfiles>, AutoCloseable {
+  private final PostgresProfileStreamer delegate;
+  private final BlockingQueue<ResourceProfiles> queue;
+  private final Thread writerThread;
+  private final long startNanos = System.nanoTime();
+
+  // Guarded by `this`.
+  private int pendingChunks = 0;
+  private boolean closed = false;
+  private RuntimeException failure = null;
+
+  private volatile long segmentsWritten = 0;
+
+  public AsyncProfileStreamer(final PostgresProfileStreamer delegate, final int capacity) {
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.writerThread = Thread.ofPlatform()
+        .name("profile-streamer")
+        .daemon()
+        .start(this::writeChunks);
+  }
+
+  @Override
+  public void accept(final ResourceProfiles resourceProfiles) {
+    synchronized (this) {
+      rethrowFailure();
+      if (this.closed) throw new IllegalStateException("Profile streamer is closed");
+      this.pendingChunks += 1;
+    }
+
+    try {
+      this.queue.put(resourceProfiles);
+    } catch (final InterruptedException ex) {
+      synchronized (this) {
+        this.pendingChunks -= 1;
+        this.notifyAll();
+      }
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting to stream profiles", ex);
+    }
+  }
+
+  /** Block until every chunk accepted so far has been written to the database. */
+  public synchronized void flush() {
+    try {
+      while (this.pendingChunks > 0 && this.failure == null) this.wait();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while flushing profiles", ex);
+    }
+    rethrowFailure();
+  }
+
+  /** The number of chunks waiting to be written, including any chunk being written right now. */
+  public synchronized int queueDepth() {
+    return this.pendingChunks;
+  }
+
+  /** The number of profile segments written to the database so far. */
+  public long segmentsWritten() {
+    return this.segmentsWritten;
+  }
+
+  /** The average number of profile segments written per second since this streamer was created. */
+  public double segmentsPerSecond() {
+    final var elapsedSeconds = (System.nanoTime() - this.startNanos) / 1e9;
+    return (elapsedSeconds > 0) ? this.segmentsWritten / elapsedSeconds : 0;
+  }
+
+  private void writeChunks() {
+    while (true) {
+      final ResourceProfiles chunk;
+      try {
+        chunk = this.queue.take();
+      } catch (final InterruptedException ex) {
+        return;
+      }
+
+      try {
+        // Keep draining after a failure, so that a producer blocked on a full queue can observe the failure.
+        synchronized (this) {
+          if (this.failure != null) continue;
+        }
+        this.delegate.accept(chunk);
+        this.segmentsWritten = this.delegate.segmentsWritten();
+      } catch (final RuntimeException ex) {
+        synchronized (this) {
+          if (this.failure == null) this.failure = ex;
+        }
+      } finally {
+        synchronized (this) {
+          this.pendingChunks -= 1;
+          this.notifyAll();
+        }
+      }
+    }
+  }
+
+  private void rethrowFailure() {
+    if (this.failure != null) throw this.failure;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    try {
+      synchronized (this) {
+        this.closed = true;
+      }
+      flush();
+    } finally {
+      this.writerThread.interrupt();
+      this.writerThread.join();
+    }
+  }
+}
@@ -11,8 +11,11 @@ import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.FailedInsertException;
 import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.FailedUpdateException;
 import gov.nasa.jpl.aerie.merlin.server.remotes.postgres.PreparedStatements;
 import org.apache.commons.lang3.tuple.Pair;
+import org.postgresql.PGConnection;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -28,6 +31,7 @@ import static gov.nasa.jpl.aerie.merlin.server.http.ProfileParsers.realDynamicsP
 
 public class PostgresProfileStreamer implements Consumer<ResourceProfiles>, AutoCloseable {
   private final Connection connection;
+  private final long datasetId;
   private final HashMap<String, Integer> profileIds;
   private final HashMap<String, Duration> profileDurations;
 
@@ -35,8 +39,22 @@ public class PostgresProfileStreamer implements Consumer<ResourceProfiles>, Auto
   private final PreparedStatement postSegmentsStatement;
   private final PreparedStatement updateDurationStatement;
 
+  /**
+   * When set, profile segments are loaded with the COPY protocol rather than with batched inserts.
+   * Rows are buffered in {@link #copyBuffer} in COPY's text format until they are posted.
+   */
+  private final boolean copySegments;
+  private final StringBuilder copyBuffer = new StringBuilder();
+  private long segmentsWritten = 0;
+
   public PostgresProfileStreamer(DataSource dataSource, long datasetId) throws SQLException {
+    this(dataSource, datasetId, false);
+  }
+
+  public PostgresProfileStreamer(DataSource dataSource, long datasetId, boolean copySegments) throws SQLException {
     this.connection = dataSource.getConnection();
+    this.datasetId = datasetId;
+    this.copySegments = copySegments;
     profileIds = new HashMap<>();
     profileDurations = new HashMap<>();
 
@@ -136,10 +154,63 @@ public class PostgresProfileStreamer implements Consumer<ResourceProfiles>, Auto
   }
 
   private void postProfileSegments() throws SQLException {
+    if (this.copySegments) {
+      copyProfileSegments();
+      return;
+    }
+
     final var results = this.postSegmentsStatement.executeBatch();
     for (final var result : results) {
       if (result == Statement.EXECUTE_FAILED) throw new FailedInsertException("merlin.profile_segment");
     }
+    this.segmentsWritten += results.length;
+  }
+
+  private void copyProfileSegments() throws SQLException {
+    if (this.copyBuffer.isEmpty()) return;
+
+    final var copyManager = this.connection.unwrap(PGConnection.class).getCopyAPI();
+    try {
+      this.segmentsWritten += copyManager.copyIn(
+          //language=sql
+          """
+          copy merlin.profile_segment (dataset_id, profile_id, start_offset, dynamics, is_gap) from stdin
+          """,
+          new StringReader(this.copyBuffer.toString()));
+    } catch (final IOException ex) {
+      throw new SQLException("Failed to copy profile segments", ex);
+    } finally {
+      this.copyBuffer.setLength(0);
+    }
+  }
+
+  private void addProfileSegmentToCopy(final int profileId, final Duration startOffset, final String dynamics) {
+    final var micros = startOffset.in(Duration.MICROSECONDS);
+    this.copyBuffer
+        .append(this.datasetId).append('\t')
+        .append(profileId).append('\t')
+        .append("PT%d.%06dS".formatted(micros / 1_000_000, micros % 1_000_000)).append('\t');
+    appendCopyText(this.copyBuffer, dynamics);
+    this.copyBuffer.append("\tf\n");
+  }
+
+  /** Escape a value for COPY's text format, in which backslashes and row/column delimiters are significant. */
+  private static void appendCopyText(final StringBuilder builder, final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      final var c = value.charAt(i);
+      switch (c) {
+        case '\\' -> builder.append("\\\\");
+        case '\t' -> builder.append("\\t");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        default -> builder.append(c);
+      }
+    }
+  }
+
+  /** The number of profile segments written to the database so far. */
+  public long segmentsWritten() {
+    return this.segmentsWritten;
   }
 
   private void updateProfileDurations() throws SQLException {
@@ -155,10 +226,14 @@ public class PostgresProfileStreamer implements Consumer<ResourceProfiles>, Auto
 
     var newDuration = profileDurations.get(name);
     for (final var segment : profile.segments()) {
-      PreparedStatements.setDuration(this.postSegmentsStatement, 2, newDuration);
       final var dynamics = dynamicsP.unparse(segment.dynamics()).toString();
-      this.postSegmentsStatement.setString(3, dynamics);
-      this.postSegmentsStatement.addBatch();
+      if (this.copySegments) {
+        addProfileSegmentToCopy(id, newDuration, dynamics);
+      } else {
+        PreparedStatements.setDuration(this.postSegmentsStatement, 2, newDuration);
+        this.postSegmentsStatement.setString(3, dynamics);
+        this.postSegmentsStatement.addBatch();
+      }
 
       newDuration = newDuration.plus(segment.extent());
     }
@@ -7,6 +7,7 @@ import gov.nasa.jpl.aerie.merlin.driver.MissionModelLoader;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationException;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
 import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.driver.resources.SimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.driver.resources.StreamingSimulationResourceManager;
@@ -22,6 +23,7 @@ import java.io.StringWriter;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -125,6 +127,25 @@ public class SimulationUtility implements AutoCloseable {
       Plan plan,
       Supplier<Boolean> canceledListener,
       Consumer<Duration> extentConsumer
+  ) {
+    return simulate(model, plan, canceledListener, extentConsumer, Optional.empty());
+  }
+
+  /**
+   * Simulate a plan, recording the time spent on each of the simulation engine's jobs
+   * @param model The mission model to be used during simulation
+   * @param plan The plan to simulate. Contains the simulation configuration
+   * @param canceledListener A boolean supplier to permit canceling of the simulation
+   * @param extentConsumer A duration consumer to receive updates on how much time has elapsed within the simulation
+   * @param profiler A profiler to record the engine's jobs into, or empty to not profile the simulation
+   * @return A Future to get the SimulationResults
+   */
+  public Future<SimulationResults> simulate(
+      MissionModel<?> model,
+      Plan plan,
+      Supplier<Boolean> canceledListener,
+      Consumer<Duration> extentConsumer,
+      Optional<EngineProfiler> profiler
   ) {
     final var simulationDuration = Duration.of(plan.simulationStartTimestamp
                                                    .microsUntil(plan.simulationEndTimestamp), Duration.MICROSECOND);
@@ -140,7 +161,8 @@ public class SimulationUtility implements AutoCloseable {
             plan.duration(),
             canceledListener,
             extentConsumer,
-            rmgr);
+            rmgr,
+            profiler);
       }
     };
 
@@ -0,0 +1,76 @@
+package gov.nasa.jpl.aerie.permissions;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A bounded, concurrent cache whose entries expire a fixed time after they were put.
+ *
+ * <p> Only successful lookups are cached, so that a missing plan or a failed request is looked up again next time. </p>
+ */
+final class PermissionsCache<K, V> {
+  private record Entry<V>(V value, long expiresAtNanos) {}
+
+  private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final int maxEntries;
+  private final LongSupplier nanoTime;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /** @param nanoTime the clock entries expire by, as read by {@link System#nanoTime()} */
+  PermissionsCache(final Duration ttl, final int maxEntries, final LongSupplier nanoTime) {
+    this.ttlNanos = ttl.toNanos();
+    this.maxEntries = maxEntries;
+    this.nanoTime = nanoTime;
+  }
+
+  Optional<V> get(final K key) {
+    final var entry = this.entries.get(key);
+    if (entry == null || entry.expiresAtNanos() - this.nanoTime.getAsLong() <= 0) {
+      this.misses.increment();
+      return Optional.empty();
+    }
+    this.hits.increment();
+    return Optional.of(entry.value());
+  }
+
+  void put(final K key, final V value) {
+    if (this.ttlNanos <= 0) return;
+
+    if (this.entries.size() >= this.maxEntries) evict();
+    this.entries.put(key, new Entry<>(value, this.nanoTime.getAsLong() + this.ttlNanos));
+  }
+
+  void invalidateIf(final Predicate<K> predicate) {
+    this.entries.keySet().removeIf(predicate);
+  }
+
+  void invalidateAll() {
+    this.entries.clear();
+  }
+
+  long hits() {
+    return this.hits.sum();
+  }
+
+  long misses() {
+    return this.misses.sum();
+  }
+
+  /** Drops the expired entries, and then as many other entries as needed to make room for a new one. */
+  private void evict() {
+    final var now = this.nanoTime.getAsLong();
+    this.entries.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+
+    final var keys = this.entries.keySet().iterator();
+    while (this.entries.size() >= this.maxEntries && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
@@ -9,13 +9,89 @@ import gov.nasa.jpl.aerie.permissions.gql.PlanId;
 import gov.nasa.jpl.aerie.permissions.gql.SchedulingSpecificationId;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
 
+/**
+ * Checks whether users may perform actions, looking up their permissions through Hasura.
+ *
+ * <p>
+ *   Lookups are cached for a short time, so that bursts of requests from the same user on the same plan only reach
+ *   Hasura once. Permissions are changed through Hasura, out of sight of this service, so a change of a plan's owner
+ *   or collaborators, or of a role's action permissions, takes up to that time to apply unless it is invalidated here.
+ *   A lookup still in flight when its entries are invalidated may cache what it read, until that entry expires.
+ * </p>
+ */
 public final class PermissionsService {
+  private static final Duration DEFAULT_CACHE_TTL = Duration.ofSeconds(5);
+  private static final int DEFAULT_CACHE_MAX_ENTRIES = 10_000;
+
+  private record ActionRole(Action action, String role) {}
+  private record PlanUser(PlanId planId, String username) {}
+
+  /** The number of lookups answered from the caches of a {@link PermissionsService}, and of those that were not. */
+  public record CacheStats(long hits, long misses) {}
+
   private final GraphQLPermissionsService gqlService;
+  private final PermissionsCache<ActionRole, PermissionType> actionPermissions;
+  private final PermissionsCache<PlanUser, PlanOwnerOrCollaborator> planPermissions;
+  private final PermissionsCache<PlanUser, Boolean> missionModelOwners;
+  private final PermissionsCache<SchedulingSpecificationId, PlanId> specificationPlans;
 
   public PermissionsService(final GraphQLPermissionsService gqlService) {
+    this(gqlService, DEFAULT_CACHE_TTL, DEFAULT_CACHE_MAX_ENTRIES);
+  }
+
+  /**
+   * @param cacheTtl how long a lookup is cached for, and so how long a change of permissions may take to apply.
+   *     Lookups are not cached if this is zero.
+   * @param cacheMaxEntries the maximum number of lookups of each kind to cache
+   */
+  public PermissionsService(final GraphQLPermissionsService gqlService, final Duration cacheTtl, final int cacheMaxEntries) {
+    this(gqlService, cacheTtl, cacheMaxEntries, System::nanoTime);
+  }
+
+  /* package-private */ PermissionsService(
+      final GraphQLPermissionsService gqlService,
+      final Duration cacheTtl,
+      final int cacheMaxEntries,
+      final LongSupplier nanoTime)
+  {
+    if (cacheMaxEntries <= 0) throw new IllegalArgumentException("cacheMaxEntries must be positive, but was " + cacheMaxEntries);
     this.gqlService = gqlService;
+    this.actionPermissions = new PermissionsCache<>(cacheTtl, cacheMaxEntries, nanoTime);
+    this.planPermissions = new PermissionsCache<>(cacheTtl, cacheMaxEntries, nanoTime);
+    this.missionModelOwners = new PermissionsCache<>(cacheTtl, cacheMaxEntries, nanoTime);
+    this.specificationPlans = new PermissionsCache<>(cacheTtl, cacheMaxEntries, nanoTime);
+  }
+
+  /** Forget the cached permissions of users on a plan, e.g. once its owner or collaborators have changed. */
+  public void invalidatePlan(final PlanId planId) {
+    this.planPermissions.invalidateIf(key -> key.planId().equals(planId));
+    this.missionModelOwners.invalidateIf(key -> key.planId().equals(planId));
   }
+
+  /** Forget the cached plan of a scheduling specification. */
+  public void invalidateSchedulingSpecification(final SchedulingSpecificationId specificationId) {
+    this.specificationPlans.invalidateIf(key -> key.equals(specificationId));
+  }
+
+  /** Forget every cached lookup, e.g. once the action permissions of a role have changed. */
+  public void invalidateAll() {
+    this.actionPermissions.invalidateAll();
+    this.planPermissions.invalidateAll();
+    this.missionModelOwners.invalidateAll();
+    this.specificationPlans.invalidateAll();
+  }
+
+  public CacheStats cacheStats() {
+    return new CacheStats(
+        this.actionPermissions.hits() + this.planPermissions.hits()
+        + this.missionModelOwners.hits() + this.specificationPlans.hits(),
+        this.actionPermissions.misses() + this.planPermissions.misses()
+        + this.missionModelOwners.misses() + this.specificationPlans.misses());
+  }
+
   public void check(final Action action, final String role, final String username, final PlanId planId)
   throws Unauthorized, IOException, PermissionsServiceException, NoSuchPlanException {
     final var permissionType = getActionPermission(action, role);
@@ -31,7 +107,14 @@ public final class PermissionsService {
   throws Unauthorized, IOException, PermissionsServiceException, NoSuchSchedulingSpecificationException,
          NoSuchPlanException
   {
-    final var planId = gqlService.getPlanIdFromSchedulingSpecificationId(specificationId);
+    final var cachedPlanId = specificationPlans.get(specificationId);
+    final PlanId planId;
+    if (cachedPlanId.isPresent()) {
+      planId = cachedPlanId.get();
+    } else {
+      planId = gqlService.getPlanIdFromSchedulingSpecificationId(specificationId);
+      specificationPlans.put(specificationId, planId);
+    }
     check(action, role, username, planId);
   }
 
@@ -41,7 +124,13 @@ public final class PermissionsService {
     if (role.equals("aerie_admin")) {
       return PermissionType.NO_CHECK;
     }
-    return gqlService.getActionPermission(action, role);
+    final var key = new ActionRole(action, role);
+    final var cached = actionPermissions.get(key);
+    if (cached.isPresent()) return cached.get();
+
+    final var permission = gqlService.getActionPermission(action, role);
+    actionPermissions.put(key, permission);
+    return permission;
   }
 
   private boolean canPerformAction(
@@ -51,7 +140,7 @@ public final class PermissionsService {
   throws IOException, PermissionsServiceException, NoSuchPlanException {
     return switch (permissionType) {
       case NO_CHECK -> true;
-      case MISSION_MODEL_OWNER -> gqlService.checkMissionModelOwner(planId, username);
+      case MISSION_MODEL_OWNER -> isMissionModelOwner(username, planId);
       case OWNER, PLAN_OWNER -> getPlanPermissions(username, planId).isPlanOwner();
       case PLAN_COLLABORATOR -> getPlanPermissions(username, planId).isPlanCollaborator();
       case PLAN_OWNER_COLLABORATOR -> getPlanPermissions(username, planId).isPlanOwnerOrCollaborator();
@@ -61,7 +150,25 @@ public final class PermissionsService {
   private PlanOwnerOrCollaborator getPlanPermissions(final String username, final PlanId planId)
   throws IOException, PermissionsServiceException, NoSuchPlanException
   {
-    return gqlService.checkPlanOwnerCollaborator(planId, username);
+    final var key = new PlanUser(planId, username);
+    final var cached = planPermissions.get(key);
+    if (cached.isPresent()) return cached.get();
+
+    final var permissions = gqlService.checkPlanOwnerCollaborator(planId, username);
+    planPermissions.put(key, permissions);
+    return permissions;
+  }
+
+  private boolean isMissionModelOwner(final String username, final PlanId planId)
+  throws IOException, PermissionsServiceException, NoSuchPlanException
+  {
+    final var key = new PlanUser(planId, username);
+    final var cached = missionModelOwners.get(key);
+    if (cached.isPresent()) return cached.get();
+
+    final var isOwner = gqlService.checkMissionModelOwner(planId, username);
+    missionModelOwners.put(key, isOwner);
+    return isOwner;
   }
 
 }
@@ -0,0 +1,265 @@
+package gov.nasa.jpl.aerie.permissions;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import gov.nasa.jpl.aerie.permissions.exceptions.NoSuchPlanException;
+import gov.nasa.jpl.aerie.permissions.exceptions.PermissionsServiceException;
+import gov.nasa.jpl.aerie.permissions.exceptions.Unauthorized;
+import gov.nasa.jpl.aerie.permissions.gql.GraphQLPermissionsService;
+import gov.nasa.jpl.aerie.permissions.gql.PlanId;
+import gov.nasa.jpl.aerie.permissions.gql.SchedulingSpecificationId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class PermissionsServiceTest {
+  private static final Duration TTL = Duration.ofSeconds(5);
+  private static final String ROLE = "user";
+  private static final PlanId PLAN = new PlanId(1);
+
+  private FakeHasura hasura;
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    this.hasura = new FakeHasura();
+    this.hasura.plans.put(PLAN.id(), new Plan("owner", Set.of("collaborator")));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.hasura.close();
+  }
+
+  @Test
+  public void lookupsAreCachedUntilTheyExpire() throws Exception {
+    final var service = service(TTL, 100);
+
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+    assertEquals(1, this.hasura.requests("getActionPermission"));
+    assertEquals(1, this.hasura.requests("getPlanOwnerCollaborators"));
+    assertEquals(new PermissionsService.CacheStats(2, 2), service.cacheStats());
+
+    this.nanoTime.addAndGet(TTL.toNanos());
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+    assertEquals(2, this.hasura.requests("getActionPermission"));
+    assertEquals(2, this.hasura.requests("getPlanOwnerCollaborators"));
+  }
+
+  @Test
+  public void revokedCollaboratorLosesAccessOnceTheCacheExpires() throws Exception {
+    final var service = service(TTL, 100);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+
+    this.hasura.plans.put(PLAN.id(), new Plan("owner", Set.of()));
+
+    // The revocation takes up to the TTL to apply.
+    this.nanoTime.addAndGet(TTL.toNanos() - 1);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+
+    this.nanoTime.addAndGet(1);
+    assertThrows(Unauthorized.class, () -> service.check(Action.simulate, ROLE, "collaborator", PLAN));
+    // The owner is unaffected.
+    service.check(Action.simulate, ROLE, "owner", PLAN);
+  }
+
+  @Test
+  public void zeroTtlDisablesCaching() throws Exception {
+    final var service = service(Duration.ZERO, 100);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+
+    this.hasura.plans.put(PLAN.id(), new Plan("owner", Set.of()));
+    assertThrows(Unauthorized.class, () -> service.check(Action.simulate, ROLE, "collaborator", PLAN));
+  }
+
+  @Test
+  public void failedLookupsAreNotCached() throws Exception {
+    final var service = service(TTL, 100);
+    final var missingPlan = new PlanId(2);
+
+    assertThrows(NoSuchPlanException.class, () -> service.check(Action.simulate, ROLE, "owner", missingPlan));
+    this.hasura.plans.put(missingPlan.id(), new Plan("owner", Set.of()));
+    service.check(Action.simulate, ROLE, "owner", missingPlan);
+    assertEquals(2, this.hasura.requests("getPlanOwnerCollaborators"));
+
+    this.hasura.failing = true;
+    assertThrows(PermissionsServiceException.class, () -> service.check(Action.schedule, ROLE, "owner", PLAN));
+    this.hasura.failing = false;
+    service.check(Action.schedule, ROLE, "owner", PLAN);
+    // simulate once, then schedule twice.
+    assertEquals(3, this.hasura.requests("getActionPermission"));
+  }
+
+  @Test
+  public void lookupsAreEvictedBeyondMaxEntries() throws Exception {
+    for (var id = 1; id <= 3; id++) this.hasura.plans.put((long) id, new Plan("owner", Set.of()));
+
+    // Each plan is looked up once while all of them fit in the cache...
+    checkEachPlanTwice(service(TTL, 3));
+    assertEquals(3, this.hasura.requests("getPlanOwnerCollaborators"));
+
+    // ...but some are looked up again once they do not.
+    this.hasura.requests.clear();
+    checkEachPlanTwice(service(TTL, 2));
+    assertTrue(this.hasura.requests("getPlanOwnerCollaborators") > 3);
+  }
+
+  @Test
+  public void invalidatingAPlanAppliesARevocationRightAway() throws Exception {
+    final var otherPlan = new PlanId(2);
+    this.hasura.plans.put(otherPlan.id(), new Plan("owner", Set.of("collaborator")));
+    final var service = service(TTL, 100);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+    service.check(Action.simulate, ROLE, "collaborator", otherPlan);
+
+    this.hasura.plans.put(PLAN.id(), new Plan("owner", Set.of()));
+    service.invalidatePlan(PLAN);
+
+    assertThrows(Unauthorized.class, () -> service.check(Action.simulate, ROLE, "collaborator", PLAN));
+    // The lookups on other plans are kept.
+    service.check(Action.simulate, ROLE, "collaborator", otherPlan);
+    assertEquals(3, this.hasura.requests("getPlanOwnerCollaborators"));
+  }
+
+  @Test
+  public void invalidatingASchedulingSpecificationLooksUpItsPlanAgain() throws Exception {
+    final var specification = new SchedulingSpecificationId(1);
+    final var otherPlan = new PlanId(2);
+    this.hasura.plans.put(otherPlan.id(), new Plan("other", Set.of()));
+    this.hasura.specifications.put(specification.id(), PLAN.id());
+    final var service = service(TTL, 100);
+    service.check(Action.schedule, ROLE, "owner", specification);
+
+    this.hasura.specifications.put(specification.id(), otherPlan.id());
+    service.check(Action.schedule, ROLE, "owner", specification);
+    service.invalidateSchedulingSpecification(specification);
+
+    assertThrows(Unauthorized.class, () -> service.check(Action.schedule, ROLE, "owner", specification));
+    assertEquals(2, this.hasura.requests("planIdFromSpecId"));
+  }
+
+  @Test
+  public void invalidatingEverythingLooksUpEverythingAgain() throws Exception {
+    final var service = service(TTL, 100);
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+    service.invalidateAll();
+    service.check(Action.simulate, ROLE, "collaborator", PLAN);
+
+    assertEquals(2, this.hasura.requests("getActionPermission"));
+    assertEquals(2, this.hasura.requests("getPlanOwnerCollaborators"));
+    assertEquals(new PermissionsService.CacheStats(0, 4), service.cacheStats());
+  }
+
+  private static void checkEachPlanTwice(final PermissionsService service) throws Exception {
+    for (var pass = 0; pass < 2; pass++) {
+      for (var id = 1; id <= 3; id++) service.check(Action.simulate, ROLE, "owner", new PlanId(id));
+    }
+  }
+
+  private PermissionsService service(final Duration ttl, final int maxEntries) {
+    return new PermissionsService(this.hasura.client(), ttl, maxEntries, this.nanoTime::get);
+  }
+
+  private record Plan(String owner, Set<String> collaborators) {}
+
+  /** Answers the permission queries of {@link GraphQLPermissionsService} from in-memory plans. */
+  private static final class FakeHasura implements AutoCloseable {
+    private static final Pattern OPERATION = Pattern.compile("query\\s+(\\w+)");
+
+    final Map<Long, Plan> plans = new ConcurrentHashMap<>();
+    // The plan of each scheduling specification.
+    final Map<Long, Long> specifications = new ConcurrentHashMap<>();
+    final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    volatile boolean failing = false;
+
+    private final HttpServer server;
+
+    FakeHasura() throws IOException {
+      this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      this.server.createContext("/", this::handle);
+      this.server.start();
+    }
+
+    GraphQLPermissionsService client() {
+      final var address = this.server.getAddress();
+      return new GraphQLPermissionsService(
+          URI.create("http://%s:%d/v1/graphql".formatted(address.getHostString(), address.getPort())),
+          "secret");
+    }
+
+    int requests(final String operation) {
+      final var count = this.requests.get(operation);
+      return (count == null) ? 0 : count.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+      final var request = Json.createReader(exchange.getRequestBody()).readObject();
+      final var matcher = OPERATION.matcher(request.getString("query"));
+      final var operation = matcher.find() ? matcher.group(1) : "";
+      final var variables = request.getJsonObject("variables");
+      this.requests.computeIfAbsent(operation, $ -> new AtomicInteger()).incrementAndGet();
+
+      final String response;
+      if (this.failing) {
+        response = """
+            {"errors": [{"message": "unavailable"}]}""";
+      } else if (operation.equals("getActionPermission")) {
+        response = """
+            {"data": {"check": {"permission": "PLAN_OWNER_COLLABORATOR"}}}""";
+      } else if (operation.equals("getPlanOwnerCollaborators")) {
+        final var plan = this.plans.get(variables.getJsonNumber("id").longValue());
+        final var username = variables.getString("username");
+        if (plan == null) {
+          response = """
+              {"data": {"plan": null}}""";
+        } else {
+          response = """
+              {"data": {"plan": {"owner": "%s", "collaborators": [%s]}}}""".formatted(
+              plan.owner(),
+              plan.collaborators().contains(username) ? "{\"collaborator\": \"%s\"}".formatted(username) : "");
+        }
+      } else if (operation.equals("planIdFromSpecId")) {
+        final var planId = this.specifications.get(variables.getJsonNumber("id").longValue());
+        response = (planId == null)
+            ? """
+              {"data": {"spec": null}}"""
+            : """
+              {"data": {"spec": {"plan_id": %d}}}""".formatted(planId);
+      } else {
+        response = """
+            {"errors": [{"message": "unexpected query"}]}""";
+      }
+
+      final var bytes = response.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, bytes.length);
+      try (final var body = exchange.getResponseBody()) {
+        body.write(bytes);
+      }
+    }
+
+    @Override
+    public void close() {
+      this.server.stop(0);
+    }
+  }
+}
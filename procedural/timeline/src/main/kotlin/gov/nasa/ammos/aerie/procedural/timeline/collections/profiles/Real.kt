@@ -1,5 +1,6 @@
 package gov.nasa.ammos.aerie.procedural.timeline.collections.profiles
 
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue
 import gov.nasa.ammos.aerie.procedural.timeline.*
@@ -9,6 +10,7 @@ import gov.nasa.ammos.aerie.procedural.timeline.payloads.Segment
 import gov.nasa.ammos.aerie.procedural.timeline.ops.numeric.SerialNumericOps
 import gov.nasa.ammos.aerie.procedural.timeline.payloads.LinearEquation
 import gov.nasa.ammos.aerie.procedural.timeline.payloads.transpose
+import gov.nasa.ammos.aerie.procedural.timeline.util.coalesceList
 import gov.nasa.ammos.aerie.procedural.timeline.util.preprocessList
 import gov.nasa.ammos.aerie.procedural.timeline.util.truncateList
 import gov.nasa.ammos.aerie.procedural.timeline.util.duration.unaryMinus
@@ -210,7 +212,9 @@ data class Real(private val timeline: Timeline<Segment<LinearEquation>, Real>):
      * While plain numbers are acceptable and will be converted to a [LinearEquation] without warning, consider using [Numbers]
      * to keep the precision.
      */
-    @JvmStatic fun deserializer() = { list: List<Segment<SerializedValue>> ->
+    @JvmStatic fun deserializer() = deserializer
+
+    private val deserializer = { list: List<Segment<SerializedValue>> ->
       val converted: List<Segment<LinearEquation>> = list.map { s ->
         s.value.asReal().getOrNull()?.let { return@map s.withNewValue(LinearEquation(it)) }
         val map = s.value.asMap().orElseThrow { RealDeserializeException("value was not a map or plain number: $s") }
@@ -226,6 +230,70 @@ data class Real(private val timeline: Timeline<Segment<LinearEquation>, Real>):
 
     /***/ class RealDeserializeException(message: String): Exception(message)
 
+    /**
+     * Creates a real profile that reads its segments straight out of the columns of a simulated profile.
+     *
+     * Unlike [deserializer], this does not create a segment for every point in the profile up front. Segments
+     * are only created for the bounds that the profile is collected on, so a profile collected on a small window
+     * costs little more than that window, no matter how long the simulation was. Adjacent segments with equal
+     * equations are still coalesced, as they are by [deserializer].
+     *
+     * @param columns the simulated profile
+     * @param start the time at which the first segment of the profile starts
+     */
+    @JvmStatic fun fromColumns(columns: RealProfileColumns, start: Duration): Real {
+      val size = columns.size
+      val starts = LongArray(size + 1)
+      starts[0] = start.`in`(Duration.MICROSECOND)
+      for (i in 0 until size) starts[i + 1] = Math.addExact(starts[i], columns.extentMicros(i))
+
+      // The index of the first segment that starts strictly after the given time, or `size` if there is none.
+      fun firstStartAfter(time: Duration): Int {
+        val micros = time.`in`(Duration.MICROSECOND)
+        var low = 0
+        var high = size
+        while (low < high) {
+          val middle = (low + high) ushr 1
+          if (starts[middle] <= micros) low = middle + 1
+          else high = middle
+        }
+        return low
+      }
+
+      fun isEmpty(i: Int) = starts[i] == starts[i + 1]
+      fun equation(i: Int) = LinearEquation(Duration.of(starts[i], Duration.MICROSECOND), columns.initial(i), columns.rate(i))
+
+      return Real(BaseTimeline(::Real) { opts ->
+        var first = maxOf(firstStartAfter(opts.bounds.start) - 1, 0)
+        var last = firstStartAfter(opts.bounds.end)
+
+        // Widen the window over the neighbours equal to the segments at its edges, so that they are
+        // coalesced into the same segments as the whole profile would be, ignoring empty segments like [coalesceList].
+        while (first in 1 until last) {
+          var previous = first - 1
+          while (previous > 0 && isEmpty(previous)) previous--
+          if (isEmpty(previous) || equation(previous) != equation(first)) break
+          first = previous
+        }
+        while (last in 1 until size) {
+          var next = last
+          while (next < size - 1 && isEmpty(next)) next++
+          if (isEmpty(next) || equation(next) != equation(last - 1)) break
+          last = next + 1
+        }
+
+        val result = ArrayList<Segment<LinearEquation>>(maxOf(last - first, 0))
+        for (i in first until last) {
+          if (isEmpty(i)) continue
+          result.add(Segment(
+              Interval.betweenClosedOpen(Duration.of(starts[i], Duration.MICROSECOND), Duration.of(starts[i + 1], Duration.MICROSECOND)),
+              equation(i)
+          ))
+        }
+        truncateList(coalesceList(result, Segment<LinearEquation>::valueEquals), opts, true, true)
+      })
+    }
+
     /**
      * Creates a real profile step function.
      *
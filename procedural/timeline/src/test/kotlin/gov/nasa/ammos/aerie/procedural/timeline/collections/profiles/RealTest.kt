@@ -1,6 +1,9 @@
 package gov.nasa.ammos.aerie.procedural.timeline.collections.profiles
 
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECOND
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration.seconds
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue
 import gov.nasa.ammos.aerie.procedural.timeline.Interval
 import gov.nasa.ammos.aerie.procedural.timeline.Interval.Companion.at
 import gov.nasa.ammos.aerie.procedural.timeline.Interval.Companion.between
@@ -58,4 +61,81 @@ class RealTest {
     assertEquals(null, profile.sample(seconds(10)))
     assertEquals(3.0, profile.sample(seconds(21)))
   }
+
+  @Test
+  fun fromColumns() {
+    val columns = RealProfileColumns()
+    columns.append(seconds(2).`in`(MICROSECOND), 0.0, 1.0)
+    columns.append(0, 5.0, 0.0)
+    columns.append(seconds(3).`in`(MICROSECOND), 2.0, 0.0)
+    columns.append(seconds(5).`in`(MICROSECOND), 2.0, -1.0)
+
+    val expected = listOf(
+        Segment(seconds(10)..<seconds(12), LinearEquation(seconds(10), 0.0, 1.0)),
+        Segment(seconds(12)..<seconds(15), LinearEquation(seconds(12), 2.0, 0.0)),
+        Segment(seconds(15)..<seconds(20), LinearEquation(seconds(15), 2.0, -1.0))
+    )
+    val profile = Real.fromColumns(columns, seconds(10))
+
+    assertIterableEquals(expected, profile.collect())
+    assertIterableEquals(
+        listOf(
+            Segment(seconds(12)..<seconds(15), LinearEquation(seconds(12), 2.0, 0.0)),
+            Segment(seconds(15)..seconds(16), LinearEquation(seconds(15), 2.0, -1.0))
+        ),
+        profile.collect(seconds(12)..seconds(16))
+    )
+    assertIterableEquals(listOf<Segment<LinearEquation>>(), profile.collect(seconds(0)..<seconds(10)))
+    assertEquals(-1.0, profile.sample(seconds(18)))
+    assertEquals(null, profile.sample(seconds(20)))
+  }
+
+  @Test
+  fun fromColumnsCoalescesLikeDeserializer() {
+    val columns = RealProfileColumns()
+    columns.append(seconds(2).`in`(MICROSECOND), 1.0, 0.0)
+    columns.append(seconds(1).`in`(MICROSECOND), 1.0, 0.0)
+    columns.append(0, 3.0, 0.0)
+    columns.append(seconds(2).`in`(MICROSECOND), 1.0, 0.0)
+    columns.append(seconds(2).`in`(MICROSECOND), 0.0, 1.0)
+    // Continues the line of the previous segment.
+    columns.append(seconds(1).`in`(MICROSECOND), 2.0, 1.0)
+    columns.append(seconds(3).`in`(MICROSECOND), 5.0, 0.0)
+
+    var start = seconds(0)
+    val serialized = columns.map {
+      val segment = Segment(
+          Interval.betweenClosedOpen(start, start.plus(it.extent())),
+          SerializedValue.of(mapOf(
+              "initial" to SerializedValue.of(it.dynamics().initial),
+              "rate" to SerializedValue.of(it.dynamics().rate)
+          ))
+      )
+      start = start.plus(it.extent())
+      segment
+    }
+    val deserialized = Real.deserializer()(serialized)
+    val profile = Real.fromColumns(columns, seconds(0))
+
+    assertIterableEquals(
+        listOf(
+            Segment(seconds(0)..<seconds(5), LinearEquation(seconds(0), 1.0, 0.0)),
+            Segment(seconds(5)..<seconds(8), LinearEquation(seconds(5), 0.0, 1.0)),
+            Segment(seconds(8)..<seconds(11), LinearEquation(seconds(8), 5.0, 0.0))
+        ),
+        profile.collect()
+    )
+    for (bounds in listOf(
+        seconds(1)..seconds(2),
+        seconds(2)..<seconds(3),
+        seconds(3)..seconds(4),
+        seconds(6)..<seconds(7),
+        seconds(7)..seconds(9),
+        seconds(5)..seconds(5),
+        seconds(11)..seconds(12),
+        seconds(-1)..<seconds(0)
+    )) {
+      assertIterableEquals(deserialized.collect(bounds), profile.collect(bounds), "bounds $bounds")
+    }
+  }
 }
@@ -7,7 +7,12 @@ import org.apache.commons.collections4.map.ListOrderedMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,6 +25,8 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
   private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryCachedEngineStore.class);
   private final ListOrderedMap<CachedSimulationEngine, CachedEngineMetadata> cachedEngines;
   private final int capacity;
+  private final long memoryBudget;
+  private final Optional<Path> spillDirectory;
   private Duration savedSimulationTime;
 
   /**
@@ -27,9 +34,33 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
    * @param capacity the maximum number of engines that can be stored in memory
    */
   public InMemoryCachedEngineStore(final int capacity) {
+    this(capacity, Long.MAX_VALUE, Optional.empty());
+  }
+
+  /**
+   * Creates a store whose number of engines is bounded by the memory they hold rather than by a count.
+   *
+   * Once the estimated size of the engines held in memory exceeds the budget, the resource profiles of the least
+   * recently used engines are spilled to files in the given directory, and read back when these engines are used again.
+   * The rest of an engine, i.e. its cells, tasks and timeline, refers to mission model objects and cannot be spilled,
+   * so if the engines are still over budget once their profiles are spilled, the least recently used ones are removed.
+   *
+   * @param capacity the number of engines that the checkpoint policies of a simulation aim to store, which does not
+   *                 bound the number of engines stored
+   * @param memoryBudget the number of bytes that the stored engines may hold in memory
+   * @param spillDirectory the directory in which to spill the resource profiles of the least recently used engines
+   */
+  public InMemoryCachedEngineStore(final int capacity, final long memoryBudget, final Path spillDirectory) {
+    this(capacity, memoryBudget, Optional.of(spillDirectory));
+  }
+
+  private InMemoryCachedEngineStore(final int capacity, final long memoryBudget, final Optional<Path> spillDirectory) {
     if(capacity <= 0) throw new IllegalArgumentException("Capacity of the cached engine store must be greater than 0");
+    if(memoryBudget < 0) throw new IllegalArgumentException("Memory budget of the cached engine store must not be negative");
     this.cachedEngines = new ListOrderedMap<>();
     this.capacity = capacity;
+    this.memoryBudget = memoryBudget;
+    this.spillDirectory = spillDirectory;
     this.savedSimulationTime = Duration.ZERO;
   }
 
@@ -39,7 +70,10 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
 
   @Override
   public void close() {
-    cachedEngines.forEach((cachedEngine, metadata) -> cachedEngine.simulationEngine().close());
+    cachedEngines.forEach((cachedEngine, metadata) -> {
+      cachedEngine.simulationEngine().close();
+      if (cachedEngine.resourceManager().isSpilled()) cachedEngine.resourceManager().clear();
+    });
     cachedEngines.clear();
   }
 
@@ -52,6 +86,11 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
     if(engineMetadata != null){
       this.cachedEngines.put(0, cachedSimulationEngine, engineMetadata);
       this.savedSimulationTime = this.savedSimulationTime.plus(cachedSimulationEngine.endsAt());
+      if (cachedSimulationEngine.resourceManager().isSpilled()) {
+        LOGGER.info("Reading back the spilled resource profiles of a cached simulation engine");
+        cachedSimulationEngine.resourceManager().restore();
+      }
+      enforceMemoryBudget(cachedSimulationEngine);
     }
   }
 
@@ -59,15 +98,74 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
       final CachedSimulationEngine engine,
       final SimulationEngineConfiguration configuration) {
     if (shouldWeSave(engine, configuration)) {
-      if (cachedEngines.size() + 1 > capacity) {
+      // With a memory budget, the budget decides how many engines are kept.
+      if (this.spillDirectory.isEmpty() && cachedEngines.size() + 1 > capacity) {
         removeLast();
       }
       final var metadata = new CachedEngineMetadata(configuration, Instant.now());
       cachedEngines.put(cachedEngines.size(), engine, metadata);
-      LOGGER.info("Added a cached simulation engine to the store. Current occupation ratio: " + cachedEngines.size() + "/" + this.capacity);
+      if (this.spillDirectory.isEmpty()) {
+        LOGGER.info("Added a cached simulation engine to the store. Current occupation ratio: " + cachedEngines.size() + "/" + this.capacity);
+      } else {
+        LOGGER.info("Added a cached simulation engine to the store. Current number of engines: " + cachedEngines.size());
+      }
+      enforceMemoryBudget(engine);
+    }
+  }
+
+  /**
+   * Frees memory held by the least recently used engines until the engines left in memory fit the budget.
+   *
+   * An engine is first relieved of its resource profiles, which are spilled to disk. If that would not be enough,
+   * the engine is removed from the store altogether, before any more recently used engine is touched.
+   *
+   * The engines of a simulation are forks of each other, whose profiles and timelines share the storage of their
+   * common history. That storage is counted once, and is only spilled along with the last engine in memory that holds it.
+   *
+   * @param engine an engine that was just saved or used, which is never spilled nor removed
+   */
+  private void enforceMemoryBudget(final CachedSimulationEngine engine) {
+    if (this.spillDirectory.isEmpty()) return;
+
+    var residentSize = residentSizeInBytes();
+    for (int i = this.cachedEngines.size() - 1; i >= 0 && residentSize > this.memoryBudget; i--) {
+      final var cached = this.cachedEngines.get(i);
+      final var resourceManager = cached.resourceManager();
+      if (cached == engine) continue;
+
+      // The storage that the other engines keep in memory, whether or not this one is spilled.
+      final var retained = new HashSet<Object>();
+      for (final var other : this.cachedEngines.keyList()) {
+        if (other != cached) other.resourceManager().estimatedSizeInBytes(retained);
+      }
+      final var freedSize = resourceManager.isSpilled() ? 0 : resourceManager.estimatedSizeInBytes(new HashSet<>(retained));
+
+      if (residentSize - freedSize > this.memoryBudget) {
+        remove(i);
+        residentSize = residentSizeInBytes();
+      } else if (freedSize > 0) {
+        try {
+          resourceManager.spillTo(Files.createTempFile(this.spillDirectory.get(), "cached-engine-", ".segments"), retained);
+        } catch (final IOException e) {
+          throw new UncheckedIOException("Unable to spill the resource profiles of a cached simulation engine", e);
+        }
+        residentSize -= freedSize;
+        LOGGER.info("Spilled the resource profiles of a cached simulation engine to disk");
+      }
     }
   }
 
+  /** The estimated number of bytes held in memory by the stored engines, counting their shared storage once. */
+  private long residentSizeInBytes() {
+    long size = 0;
+    final var counted = new HashSet<Object>();
+    for (final var cached : this.cachedEngines.keyList()) {
+      size += cached.simulationEngine().estimatedSizeInBytes(counted);
+      size += cached.resourceManager().estimatedSizeInBytes(counted);
+    }
+    return size;
+  }
+
   @Override
   public int capacity(){
     return capacity;
@@ -114,7 +212,13 @@ public class InMemoryCachedEngineStore implements AutoCloseable, CachedEngineSto
    * Least-recently-used removal policy
    */
   private void removeLast(){
+    remove(this.cachedEngines.size() - 1);
+  }
+
+  private void remove(final int index){
     LOGGER.info("Cleaning cached simulation engine from the store");
-    this.cachedEngines.remove(this.cachedEngines.size() - 1);
+    final var removed = this.cachedEngines.get(index);
+    this.cachedEngines.remove(index);
+    if (removed.resourceManager().isSpilled()) removed.resourceManager().clear();
   }
 }
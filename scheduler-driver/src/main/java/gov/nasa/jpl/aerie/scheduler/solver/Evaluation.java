@@ -132,6 +132,14 @@ public class Evaluation {
     public java.util.Collection<SchedulingActivity> getAssociatedActivities() {
       return java.util.Collections.unmodifiableSet(acts.keySet());
     }
+    /**
+     * fetches the conflicts detected for the goal, along with how each was solved
+     *
+     * @return the conflicts detected for the goal, along with how each was solved
+     */
+    public java.util.Map<Conflict, ConflictSolverResult> getConflicts() {
+      return java.util.Collections.unmodifiableMap(conflicts);
+    }
     /**
      * fetches the set of all activities that this goal inserted in the plan
      *
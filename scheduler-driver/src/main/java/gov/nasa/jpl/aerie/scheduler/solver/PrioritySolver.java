@@ -41,6 +41,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -67,6 +71,26 @@ public class PrioritySolver implements Solver {
 
   private SimulationData cachedSimulationResultsBeforeGoalEvaluation;
 
+  /**
+   * The number of threads on which the conflicts of upcoming goals are detected concurrently (1 for serially).
+   *
+   * Only analysis-only runs detect conflicts ahead of time, since they never insert activities between two goals.
+   */
+  private final int conflictDetectionParallelism;
+
+  /**
+   * The conflicts of a goal, detected before the goals ahead of it in the queue were satisfied,
+   * along with the simulation results the solver held once they had been detected.
+   */
+  private record DetectedConflicts(Collection<Conflict> conflicts, SimulationData cachedSimulationResults) {}
+
+  /**
+   * Conflicts detected ahead of time for upcoming goals.
+   *
+   * Only valid for as long as the plan and its evaluation have not changed since they were detected.
+   */
+  private final Map<Goal, DetectedConflicts> detectedConflicts = new IdentityHashMap<>();
+
   /**
    * boolean stating whether only conflict analysis should be performed or not
    */
@@ -136,15 +160,22 @@ public class PrioritySolver implements Solver {
    *
    * @param problem IN, STORED description of the planning problem to be
    *     solved, which must not change
+   * @param analysisOnly IN whether the solver only evaluates the goals, without inserting activities
+   * @param conflictDetectionParallelism IN the number of threads on which an analysis-only run
+   *     detects the conflicts of upcoming goals (1 for serially)
    */
-  public PrioritySolver(final Problem problem, final boolean analysisOnly) {
+  public PrioritySolver(final Problem problem, final boolean analysisOnly, final int conflictDetectionParallelism) {
     checkNotNull(problem, "creating solver with null input problem descriptor");
+    if (conflictDetectionParallelism < 1) {
+      throw new IllegalArgumentException("The conflict detection parallelism must be at least 1");
+    }
     this.checkSimBeforeInsertingActivities = true;
     this.checkSimBeforeEvaluatingGoal = true;
     this.atLeastOneSimulateAfter = false;
     this.problem = problem;
     this.simulationFacade = problem.getSimulationFacade();
     this.analysisOnly = analysisOnly;
+    this.conflictDetectionParallelism = conflictDetectionParallelism;
 
     this.idGenerator = new DirectiveIdGenerator(
         problem
@@ -159,6 +190,10 @@ public class PrioritySolver implements Solver {
     );
   }
 
+  public PrioritySolver(final Problem problem, final boolean analysisOnly) {
+    this(problem, analysisOnly, 1);
+  }
+
   public PrioritySolver(final Problem problem) {
     this(problem, false);
   }
@@ -271,13 +306,109 @@ public class PrioritySolver implements Solver {
     final var goalQ = getGoalQueue();
     assert goalQ != null;
 
-    //process each goal independently in that order
-    while (!goalQ.isEmpty()) {
-      var goal = goalQ.remove();
-      assert goal != null;
+    final var conflictDetectionExecutor = createConflictDetectionExecutor();
+    try {
+      //process each goal independently in that order
+      while (!goalQ.isEmpty()) {
+        if (conflictDetectionExecutor.isPresent() && this.detectedConflicts.isEmpty()) {
+          detectConflictsConcurrently(conflictDetectionExecutor.get(), goalQ);
+        }
 
-      //update the output solution plan directly to satisfy goal
-      satisfyGoal(goal);
+        var goal = goalQ.remove();
+        assert goal != null;
+
+        //update the output solution plan directly to satisfy goal
+        satisfyGoal(goal);
+      }
+    } finally {
+      this.detectedConflicts.clear();
+      conflictDetectionExecutor.ifPresent(ExecutorService::shutdownNow);
+    }
+  }
+
+  private Optional<ExecutorService> createConflictDetectionExecutor() {
+    if (!this.analysisOnly || this.conflictDetectionParallelism <= 1) return Optional.empty();
+    return Optional.of(Executors.newFixedThreadPool(this.conflictDetectionParallelism, runnable -> {
+      final var thread = new Thread(runnable, "scheduler-conflict-detection");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /** Whether a goal's conflicts can be detected before the goals ahead of it are satisfied. */
+  private boolean canDetectConflictsAhead(final Goal goal) {
+    return this.analysisOnly
+           && !(goal instanceof CompositeAndGoal)
+           && !(goal instanceof OptionGoal)
+           && !(goal instanceof Procedure);
+  }
+
+  /**
+   * Detects the conflicts of the leading goals of the queue concurrently, before any of them is satisfied.
+   *
+   * In an analysis-only run, satisfying a goal leaves the plan untouched unless it associates existing activities to
+   * the goal, so every goal of the run would see the same plan. The simulation results each goal would have used are
+   * still fetched one goal at a time and in order, exactly as {@link #getConflicts} would, and only the evaluation of
+   * the goals against those results runs concurrently. The detected conflicts are discarded as soon as a goal
+   * changes the plan or its evaluation, and the remaining goals are then detected again.
+   *
+   * Neither the plan nor its evaluation are safe to share between threads, so each goal is evaluated against its own
+   * copy of them, taken before any goal starts. The copies hold the same activities as the plan, so the conflicts refer
+   * to the plan's own activities.
+   */
+  private void detectConflictsConcurrently(final ExecutorService executor, final LinkedList<Goal> goalQ)
+  throws SchedulingInterruptedException
+  {
+    final var goals = new ArrayList<Goal>();
+    for (final var goal : goalQ) {
+      if (!canDetectConflictsAhead(goal)) break;
+      goals.add(goal);
+    }
+    if (goals.size() < 2) return;
+
+    logger.info("Detecting conflicts of the next " + goals.size() + " goals concurrently");
+    final var simulationResults = new ArrayList<SimulationData>(goals.size());
+    final var cachedSimulationResults = new ArrayList<SimulationData>(goals.size());
+    final var checkSimConfig = this.checkSimBeforeEvaluatingGoal;
+    try {
+      for (var i = 0; i < goals.size(); i++) {
+        final var goal = goals.get(i);
+        if (i > 0) this.checkSimBeforeEvaluatingGoal = goals.get(i - 1).simulateAfter;
+        simulationResults.add(getSimulationResultsForConflicts(goal));
+        cachedSimulationResults.add(this.cachedSimulationResultsBeforeGoalEvaluation);
+        // Goals read their own evaluation while detecting conflicts, which creates it if it does not exist yet.
+        plan.getEvaluation().forGoal(goal);
+      }
+    } finally {
+      this.checkSimBeforeEvaluatingGoal = checkSimConfig;
+    }
+
+    final var futures = new ArrayList<Future<Collection<Conflict>>>(goals.size());
+    for (var i = 0; i < goals.size(); i++) {
+      final var goal = goals.get(i);
+      final var results = simulationResults.get(i).constraintsResults();
+      final var snapshot = plan.duplicate();
+      final var evaluationEnvironment = new EvaluationEnvironment(this.problem.getRealExternalProfiles(), this.problem.getDiscreteExternalProfiles());
+      futures.add(executor.submit(() -> goal.getConflicts(snapshot, results, evaluationEnvironment, this.problem.getSchedulerModel())));
+    }
+
+    for (var i = 0; i < goals.size(); i++) {
+      final Collection<Conflict> conflicts;
+      try {
+        conflicts = futures.get(i).get();
+      } catch (final InterruptedException e) {
+        futures.forEach(future -> future.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new SchedulingInterruptedException("detecting conflicts");
+      } catch (final ExecutionException e) {
+        futures.forEach(future -> future.cancel(true));
+        if (e.getCause() instanceof SchedulingInterruptedException cause) throw cause;
+        if (e.getCause() instanceof RuntimeException cause) throw cause;
+        if (e.getCause() instanceof Error cause) throw cause;
+        throw new RuntimeException(e.getCause());
+      }
+      assert conflicts != null;
+      this.detectedConflicts.put(goals.get(i), new DetectedConflicts(conflicts, cachedSimulationResults.get(i)));
     }
   }
 
@@ -402,6 +533,7 @@ public class PrioritySolver implements Solver {
   }
 
   private void rollback(Goal goal){
+    this.detectedConflicts.clear();
     var evalForGoal = plan.getEvaluation().forGoal(goal);
     var associatedActivities = evalForGoal.getAssociatedActivities();
     var insertedActivities = evalForGoal.getInsertedActivities();
@@ -498,6 +630,8 @@ public class PrioritySolver implements Solver {
       } else if (!analysisOnly && (missing instanceof MissingActivityTemplateConflict missingActivityTemplateConflict)) {
         conflictSolverReturn = solveActivityTemplateConflict(missingActivityTemplateConflict, goal, false);
       } else if (missing instanceof MissingAssociationConflict missingAssociationConflict) {
+        // Associating activities to this goal may change the plan and its evaluation under the conflicts detected ahead of time.
+        this.detectedConflicts.clear();
         conflictSolverReturn = solveMissingAssociationConflict(missingAssociationConflict, goal);
       } else if(!analysisOnly && missing instanceof MissingActivityNetworkConflict missingActivityNetworkConflict){
         conflictSolverReturn = solveActivityNetworkConflict(missingActivityNetworkConflict, goal, ScheduleAt.EARLIEST);
@@ -876,11 +1010,14 @@ public class PrioritySolver implements Solver {
   {
     assert goal != null;
     assert plan != null;
+    final var detected = this.detectedConflicts.remove(goal);
+    if (detected != null) {
+      this.cachedSimulationResultsBeforeGoalEvaluation = detected.cachedSimulationResults();
+      return detected.conflicts();
+    }
+
     //REVIEW: maybe should have way to request only certain kinds of conflicts
-    logger.debug("Computing simulation results until "+ this.problem.getPlanningHorizon().getEndAerie() + " (planning horizon end) in order to compute conflicts");
-    final var resources = new HashSet<String>();
-    goal.extractResources(resources);
-    final var simulationResults = this.getLatestSimResultsUpTo(this.problem.getPlanningHorizon().getEndAerie(), resources);
+    final var simulationResults = getSimulationResultsForConflicts(goal);
     final var evaluationEnvironment = new EvaluationEnvironment(this.problem.getRealExternalProfiles(), this.problem.getDiscreteExternalProfiles());
     final var rawConflicts = goal.getConflicts(
         plan,
@@ -891,6 +1028,13 @@ public class PrioritySolver implements Solver {
     return rawConflicts;
   }
 
+  private SimulationData getSimulationResultsForConflicts(final Goal goal) throws SchedulingInterruptedException {
+    logger.debug("Computing simulation results until "+ this.problem.getPlanningHorizon().getEndAerie() + " (planning horizon end) in order to compute conflicts");
+    final var resources = new HashSet<String>();
+    goal.extractResources(resources);
+    return this.getLatestSimResultsUpTo(this.problem.getPlanningHorizon().getEndAerie(), resources);
+  }
+
   /**
    * determines the best activity instances to add to improve the plan
    *
@@ -1,6 +1,7 @@
 package gov.nasa.jpl.aerie.scheduler.plan
 
 import gov.nasa.jpl.aerie.merlin.driver.MissionModel
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration
 import gov.nasa.ammos.aerie.procedural.scheduling.plan.Edit
 import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan
@@ -34,9 +35,17 @@ data class InMemoryEditablePlan(
   val totalDiff: List<Edit>
     get() = commits.flatMap { it.diff }
 
+  // Reused for as long as the simulation data is unchanged, so that the profiles it has converted are kept.
+  private var latestResultsAdapter: Pair<SimulationResults, MerlinToProcedureSimulationResultsAdapter>? = null
+
   override fun latestResults() =
-    simulationFacade.latestSimulationData.getOrNull()
-      ?.let { MerlinToProcedureSimulationResultsAdapter(it.driverResults, false, plan) }
+    simulationFacade.latestSimulationData.getOrNull()?.let { data ->
+      latestResultsAdapter
+        ?.takeIf { it.first === data.driverResults }
+        ?.second
+        ?: MerlinToProcedureSimulationResultsAdapter(data.driverResults, false, plan)
+          .also { latestResultsAdapter = Pair(data.driverResults, it) }
+    }
 
   override fun create(directive: NewDirective): ActivityDirectiveId {
     class ParentSearchException(id: ActivityDirectiveId, size: Int): Exception("Expected one parent activity with id $id, found $size")
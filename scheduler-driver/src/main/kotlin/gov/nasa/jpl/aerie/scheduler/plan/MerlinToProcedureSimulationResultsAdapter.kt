@@ -1,19 +1,22 @@
 package gov.nasa.jpl.aerie.scheduler.plan
 
+import gov.nasa.ammos.aerie.procedural.timeline.BaseTimeline
 import gov.nasa.ammos.aerie.procedural.timeline.Interval
 import gov.nasa.ammos.aerie.procedural.timeline.collections.Instances
+import gov.nasa.ammos.aerie.procedural.timeline.collections.profiles.Real
 import gov.nasa.ammos.aerie.procedural.timeline.ops.SerialSegmentOps
 import gov.nasa.ammos.aerie.procedural.timeline.payloads.Segment
 import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.Instance
 import gov.nasa.ammos.aerie.procedural.timeline.plan.Plan
 import gov.nasa.ammos.aerie.procedural.timeline.plan.SimulationResults
 import gov.nasa.ammos.aerie.procedural.timeline.util.duration.rangeTo
-import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment
+import gov.nasa.jpl.aerie.merlin.driver.resources.RealProfileColumns
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration
 import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue
 import gov.nasa.jpl.aerie.types.ActivityDirectiveId
 import gov.nasa.jpl.aerie.types.ActivityInstanceId
 import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
 import kotlin.jvm.optionals.getOrNull
 
 class MerlinToProcedureSimulationResultsAdapter(
@@ -30,32 +33,115 @@ class MerlinToProcedureSimulationResultsAdapter(
     return start .. end
   }
 
-  companion object {
-    private inline fun <D: Any> convertProfileWithoutGaps(old: List<ProfileSegment<D>>, converter: (D) -> SerializedValue): List<Segment<SerializedValue>> {
-      val result: MutableList<Segment<SerializedValue>> = ArrayList(old.size)
-      var elapsedTime = Duration.ZERO
-      for (segment in old) {
-        result.add(Segment(
-            Interval.betweenClosedOpen(elapsedTime, elapsedTime + segment.extent),
-            converter(segment.dynamics)
-        ))
-        elapsedTime += segment.extent
+  /**
+   * A simulated profile, converted to serialized segments lazily and only where it is read.
+   *
+   * Converted segments are kept, so reading the same part of a profile again does not convert it again.
+   */
+  private class SerializedProfile(
+      private val size: Int,
+      extentMicros: (Int) -> Long,
+      private val dynamics: (Int) -> SerializedValue
+  ) {
+    private val starts = LongArray(size + 1)
+    private val segments = arrayOfNulls<Segment<SerializedValue>>(size)
+
+    init {
+      for (i in 0 until size) starts[i + 1] = Math.addExact(starts[i], extentMicros(i))
+    }
+
+    // The index of the first segment that starts strictly after the given time, or `size` if there is none.
+    private fun firstStartAfter(time: Duration): Int {
+      val micros = time.`in`(Duration.MICROSECOND)
+      var low = 0
+      var high = size
+      while (low < high) {
+        val middle = (low + high) ushr 1
+        if (starts[middle] <= micros) low = middle + 1
+        else high = middle
+      }
+      return low
+    }
+
+    private fun segment(index: Int) = segments[index] ?: Segment(
+        Interval.betweenClosedOpen(Duration.of(starts[index], Duration.MICROSECOND), Duration.of(starts[index + 1], Duration.MICROSECOND)),
+        dynamics(index)
+    ).also { segments[index] = it }
+
+    /**
+     * The non-empty segments that overlap the given bounds.
+     *
+     * The range is widened to take in neighbouring segments with the same value, so that a profile
+     * that coalesces its segments sees the same segments at the edges of the bounds as it would for the whole profile.
+     */
+    fun overlapping(bounds: Interval): List<Segment<SerializedValue>> {
+      var first = maxOf(firstStartAfter(bounds.start) - 1, 0)
+      var last = firstStartAfter(bounds.end)
+      if (first >= last) return listOf()
+      // Empty segments are skipped, as they are when the segments are coalesced.
+      while (first > 0) {
+        var previous = first - 1
+        while (previous > 0 && isEmpty(previous)) previous--
+        if (isEmpty(previous) || segment(previous).value != segment(first).value) break
+        first = previous
+      }
+      while (last < size) {
+        var next = last
+        while (next < size - 1 && isEmpty(next)) next++
+        if (isEmpty(next) || segment(next).value != segment(last - 1).value) break
+        last = next + 1
+      }
+
+      val result = ArrayList<Segment<SerializedValue>>(last - first)
+      for (i in first until last) {
+        if (!isEmpty(i)) result.add(segment(i))
       }
       return result
     }
+
+    private fun isEmpty(index: Int) = starts[index] == starts[index + 1]
+  }
+
+  private val serializedProfiles = ConcurrentHashMap<String, SerializedProfile>()
+  private val realProfiles = ConcurrentHashMap<String, Real>()
+
+  private fun serializedProfile(name: String) = serializedProfiles.computeIfAbsent(name) {
+    val discreteProfile = results.discreteProfiles[name]
+    val realProfile = results.realProfiles[name]
+    if (discreteProfile != null) {
+      val segments = discreteProfile.segments
+      SerializedProfile(segments.size, { segments[it].extent.`in`(Duration.MICROSECOND) }, { segments[it].dynamics })
+    } else if (realProfile != null) {
+      val columns = RealProfileColumns.of(realProfile.segments)
+      SerializedProfile(columns.size, columns::extentMicros) {
+        SerializedValue.of(mapOf(
+            "initial" to SerializedValue.of(columns.initial(it)),
+            "rate" to SerializedValue.of(columns.rate(it))
+        ))
+      }
+    }
+    else throw IllegalArgumentException("No such resource $name")
   }
 
+  /**
+   * Reads a resource profile lazily.
+   *
+   * The deserializer is only ever given the segments that overlap the bounds the profile is collected on,
+   * and those segments are converted once per resource and reused by later queries.
+   */
   override fun <V: Any, TL: SerialSegmentOps<V, TL>> resource(name: String, deserializer: (List<Segment<SerializedValue>>) -> TL): TL {
-    val profile =
-        if (results.discreteProfiles.containsKey(name)) convertProfileWithoutGaps(results.discreteProfiles[name]!!.segments) { it }
-        else if (results.realProfiles.containsKey(name)) convertProfileWithoutGaps(results.realProfiles[name]!!.segments) {
-          SerializedValue.of(mapOf(
-              "initial" to SerializedValue.of(it.initial),
-              "rate" to SerializedValue.of(it.rate)
-          ))
-        }
-        else throw IllegalArgumentException("No such resource $name")
-    return deserializer.invoke(profile)
+    // Real profiles read with the default deserializer skip the round trip through serialized values,
+    // and are read straight out of their columns instead.
+    if (deserializer === Real.deserializer() && !results.discreteProfiles.containsKey(name) && results.realProfiles.containsKey(name)) {
+      @Suppress("UNCHECKED_CAST")
+      return realProfiles.computeIfAbsent(name) {
+        Real.fromColumns(RealProfileColumns.of(results.realProfiles[name]!!.segments), Duration.ZERO)
+      } as TL
+    }
+
+    val profile = serializedProfile(name)
+    val ctor = deserializer(listOf()).ctor
+    return BaseTimeline(ctor) { opts -> deserializer(profile.overlapping(opts.bounds)).collect(opts) }.specialize()
   }
 
   private data class FinishedActivityAttributes(val duration: Duration, val computedAttributes: SerializedValue)
@@ -7,10 +7,13 @@ import gov.nasa.jpl.aerie.constraints.tree.WindowsWrapperExpression;
 import gov.nasa.jpl.aerie.merlin.driver.MissionModel;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.aerie.scheduler.constraints.activities.ActivityExpression;
+import gov.nasa.jpl.aerie.scheduler.conflicts.Conflict;
+import gov.nasa.jpl.aerie.scheduler.conflicts.MissingAssociationConflict;
 import gov.nasa.jpl.aerie.scheduler.constraints.timeexpressions.TimeAnchor;
 import gov.nasa.jpl.aerie.scheduler.goals.CardinalityGoal;
 import gov.nasa.jpl.aerie.scheduler.goals.ChildCustody;
 import gov.nasa.jpl.aerie.scheduler.goals.CoexistenceGoal;
+import gov.nasa.jpl.aerie.scheduler.goals.Goal;
 import gov.nasa.jpl.aerie.scheduler.goals.ProceduralCreationGoal;
 import gov.nasa.jpl.aerie.scheduler.goals.RecurrenceGoal;
 import gov.nasa.jpl.aerie.scheduler.model.SchedulingActivity;
@@ -21,12 +24,14 @@ import gov.nasa.jpl.aerie.scheduler.simulation.InMemoryCachedEngineStore;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationEngineConfiguration;
 import gov.nasa.jpl.aerie.scheduler.simulation.CheckpointSimulationFacade;
 import gov.nasa.jpl.aerie.scheduler.simulation.SimulationFacade;
+import gov.nasa.jpl.aerie.scheduler.solver.ConflictSolverResult;
 import gov.nasa.jpl.aerie.scheduler.solver.Evaluation;
 import gov.nasa.jpl.aerie.scheduler.solver.PrioritySolver;
 import gov.nasa.jpl.aerie.types.MissionModelId;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -316,4 +321,78 @@ public class PrioritySolverTest {
     //will insert an activity at the beginning of the plan in addition of the two already-present activities
     assertEquals(3, plan.getActivities().size());
   }
+
+  @Test
+  public void analysisOnly_concurrentConflictDetectionMatchesSerial() throws SchedulingInterruptedException {
+    final var serial = analyzeWithConflictDetectionParallelism(1);
+    final var concurrent = analyzeWithConflictDetectionParallelism(4);
+
+    assertEquals(serial, concurrent);
+  }
+
+  /** Runs several analysis-only goals over the same plan, and describes the conflicts and evaluation of each goal. */
+  private static List<String> analyzeWithConflictDetectionParallelism(final int parallelism)
+  throws SchedulingInterruptedException
+  {
+    final var problem = makeTestMissionAB();
+    problem.setInitialPlan(makePlanAB012(problem));
+    final var actTypeA = problem.getActivityType("ControllableDurationActivity");
+    final var actTypeB = problem.getActivityType("OtherControllableDurationActivity");
+
+    final var goals = new ArrayList<Goal>();
+    for (final var actType : List.of(actTypeA, actTypeB)) {
+      goals.add(new RecurrenceGoal.Builder()
+          .named("recurrence of " + actType.getName())
+          .startingAt(t0)
+          .endingAt(t2hr.plus(Duration.of(10, Duration.MINUTE)))
+          .separatedByAtLeast(d1hr)
+          .separatedByAtMost(d1hr)
+          .thereExistsOne(new ActivityExpression.Builder().ofType(actType).durationIn(d1min).build())
+          .withinPlanHorizon(h)
+          .build());
+    }
+    for (final var actTypes : List.of(List.of(actTypeA, actTypeB), List.of(actTypeB, actTypeA))) {
+      goals.add(new CoexistenceGoal.Builder()
+          .named("coexistence of " + actTypes.get(0).getName() + " with " + actTypes.get(1).getName())
+          .forAllTimeIn(new WindowsWrapperExpression(new Windows(false).set(h.getHor(), true)))
+          .forEach(new ActivityExpression.Builder().ofType(actTypes.get(0)).build())
+          .thereExistsOne(new ActivityExpression.Builder().ofType(actTypes.get(1)).durationIn(d1min).build())
+          .startsAt(TimeAnchor.START)
+          .aliasForAnchors("anchor")
+          .withinPlanHorizon(h)
+          .build());
+    }
+    problem.setGoals(goals);
+
+    final var evaluation = new PrioritySolver(problem, true, parallelism).getNextSolution().orElseThrow().getEvaluation();
+
+    final var descriptions = new ArrayList<String>();
+    for (final var goal : goals) {
+      final var goalEvaluation = evaluation.forGoal(goal);
+      descriptions.add("%s: score %s, %s, associated %s, conflicts %s".formatted(
+          goal.getName(),
+          goalEvaluation.getScore(),
+          goalEvaluation.getSatisfaction(),
+          goalEvaluation.getAssociatedActivities().stream().map(PrioritySolverTest::describe).sorted().toList(),
+          goalEvaluation.getConflicts().entrySet().stream().map(PrioritySolverTest::describe).sorted().toList()));
+    }
+    return descriptions;
+  }
+
+  /** Describes an activity without its ID, which differs between solver runs. */
+  private static String describe(final SchedulingActivity activity) {
+    return activity.type().getName() + "@" + activity.startOffset();
+  }
+
+  private static String describe(final Map.Entry<Conflict, ConflictSolverResult> conflict) {
+    final var candidates = (conflict.getKey() instanceof MissingAssociationConflict c)
+        ? c.getActivityInstancesToChooseFrom().stream().map(PrioritySolverTest::describe).sorted().toList()
+        : List.of();
+    return "%s %s %s -> %s %s".formatted(
+        conflict.getKey().getClass().getSimpleName(),
+        conflict.getKey().getTemporalContext(),
+        candidates,
+        conflict.getValue().satisfaction(),
+        conflict.getValue().activitiesCreated().stream().map(PrioritySolverTest::describe).sorted().toList());
+  }
 }
@@ -0,0 +1,78 @@
+package gov.nasa.jpl.aerie.scheduler.plan;
+
+import gov.nasa.ammos.aerie.procedural.timeline.Interval;
+import gov.nasa.ammos.aerie.procedural.timeline.collections.profiles.Strings;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.Segment;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.scheduler.DirectiveIdGenerator;
+import gov.nasa.jpl.aerie.scheduler.SimulationUtility;
+import gov.nasa.jpl.aerie.scheduler.model.PlanInMemory;
+import gov.nasa.jpl.aerie.scheduler.model.PlanningHorizon;
+import gov.nasa.jpl.aerie.scheduler.simulation.SimulationData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class InMemoryEditablePlanTest {
+  private static final PlanningHorizon HORIZON = new PlanningHorizon(Instant.EPOCH, Instant.EPOCH.plusSeconds(10));
+
+  private static SimulationResults results(final String value) {
+    return new SimulationResults(
+        Map.of(),
+        Map.of("/discrete", ResourceProfile.of(
+            ValueSchema.STRING,
+            List.of(new ProfileSegment<>(Duration.of(10, SECONDS), SerializedValue.of(value))))),
+        Map.of(),
+        Map.of(),
+        Instant.EPOCH,
+        Duration.of(10, SECONDS),
+        List.of(),
+        new TreeMap<>());
+  }
+
+  @Test
+  public void latestResultsAreReusedWhileTheSimulationResultsAreUnchanged() {
+    final var problem = SimulationUtility.buildProblemFromFoo(HORIZON);
+    final var facade = problem.getSimulationFacade();
+    final var schedulerPlan = new PlanInMemory();
+    final var editablePlan = new InMemoryEditablePlan(
+        problem.getMissionModel(),
+        new DirectiveIdGenerator(0),
+        new SchedulerToProcedurePlanAdapter(schedulerPlan, HORIZON, Map.of(), Map.of()),
+        facade,
+        problem::getActivityType);
+
+    assertNull(editablePlan.latestResults());
+
+    final var first = results("a");
+    facade.setInitialSimResults(new SimulationData(schedulerPlan, first, null));
+    final var firstAdapter = editablePlan.latestResults();
+    assertSame(firstAdapter, editablePlan.latestResults());
+
+    // New simulation data holding the same results keeps the adapter, along with the profiles it has converted.
+    facade.setInitialSimResults(new SimulationData(schedulerPlan, first, null));
+    assertSame(firstAdapter, editablePlan.latestResults());
+
+    facade.setInitialSimResults(new SimulationData(schedulerPlan, results("b"), null));
+    final var secondAdapter = editablePlan.latestResults();
+    assertNotSame(firstAdapter, secondAdapter);
+    final var bounds = Interval.between(Duration.ZERO, Duration.of(5, SECONDS));
+    assertEquals(
+        List.of(new Segment<>(bounds, "b")),
+        secondAdapter.resource("/discrete", Strings.deserializer()).collect(bounds));
+  }
+}
@@ -0,0 +1,169 @@
+package gov.nasa.jpl.aerie.scheduler.plan;
+
+import gov.nasa.ammos.aerie.procedural.timeline.Interval;
+import gov.nasa.ammos.aerie.procedural.timeline.collections.profiles.Real;
+import gov.nasa.ammos.aerie.procedural.timeline.collections.profiles.Strings;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.Segment;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.driver.engine.ProfileSegment;
+import gov.nasa.jpl.aerie.merlin.driver.resources.ResourceProfile;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.scheduler.model.PlanInMemory;
+import gov.nasa.jpl.aerie.scheduler.model.PlanningHorizon;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class MerlinToProcedureSimulationResultsAdapterTest {
+  private static final List<ProfileSegment<SerializedValue>> DISCRETE = List.of(
+      segment(2, SerializedValue.of("a")),
+      segment(1, SerializedValue.of("a")),
+      segment(0, SerializedValue.of("b")),
+      segment(2, SerializedValue.of("a")),
+      segment(3, SerializedValue.of("b")),
+      segment(0, SerializedValue.of("c")),
+      segment(1, SerializedValue.of("b")),
+      segment(2, SerializedValue.of("c")));
+
+  private static final List<ProfileSegment<RealDynamics>> REAL = List.of(
+      segment(2, RealDynamics.constant(1)),
+      segment(1, RealDynamics.constant(1)),
+      segment(0, RealDynamics.constant(3)),
+      segment(2, RealDynamics.constant(1)),
+      segment(2, RealDynamics.linear(0, 1)),
+      // Continues the line of the previous segment.
+      segment(1, RealDynamics.linear(2, 1)),
+      segment(0, RealDynamics.constant(4)),
+      segment(2, RealDynamics.constant(5)));
+
+  // Windows over the edges of runs of equal segments, over the empty segments, and outside of the profiles.
+  private static final List<Interval> BOUNDS = List.of(
+      Interval.between(seconds(1), seconds(2)),
+      Interval.betweenClosedOpen(seconds(2), seconds(3)),
+      Interval.between(seconds(3), seconds(4)),
+      Interval.at(seconds(3)),
+      Interval.between(seconds(4), seconds(6)),
+      Interval.betweenClosedOpen(seconds(6), seconds(7)),
+      Interval.between(seconds(7), seconds(9)),
+      Interval.at(seconds(8)),
+      Interval.between(seconds(0), seconds(10)),
+      Interval.between(seconds(10), seconds(12)),
+      Interval.betweenClosedOpen(seconds(-2), seconds(0)),
+      Interval.MIN_MAX);
+
+  private static Duration seconds(final long quantity) {
+    return Duration.of(quantity, SECONDS);
+  }
+
+  private static <T> ProfileSegment<T> segment(final long extentSeconds, final T dynamics) {
+    return new ProfileSegment<>(seconds(extentSeconds), dynamics);
+  }
+
+  private static MerlinToProcedureSimulationResultsAdapter adapter() {
+    final var results = new SimulationResults(
+        Map.of("/real", ResourceProfile.of(ValueSchema.REAL, REAL)),
+        Map.of("/discrete", ResourceProfile.of(ValueSchema.STRING, DISCRETE)),
+        Map.of(),
+        Map.of(),
+        Instant.EPOCH,
+        seconds(10),
+        List.of(),
+        new TreeMap<>());
+    final var plan = new SchedulerToProcedurePlanAdapter(
+        new PlanInMemory(),
+        new PlanningHorizon(Instant.EPOCH, Instant.EPOCH.plusSeconds(10)),
+        Map.of(),
+        Map.of());
+    return new MerlinToProcedureSimulationResultsAdapter(results, false, plan);
+  }
+
+  /** Converts a whole profile to serialized segments at once, as the adapter used to. */
+  private static <T> List<Segment<SerializedValue>> serializeAll(
+      final List<ProfileSegment<T>> profile,
+      final Function<T, SerializedValue> serialize)
+  {
+    final var result = new ArrayList<Segment<SerializedValue>>(profile.size());
+    var start = Duration.ZERO;
+    for (final var segment : profile) {
+      final var end = start.plus(segment.extent());
+      result.add(new Segment<>(Interval.betweenClosedOpen(start, end), serialize.apply(segment.dynamics())));
+      start = end;
+    }
+    return result;
+  }
+
+  private static SerializedValue serializeReal(final RealDynamics dynamics) {
+    return SerializedValue.of(Map.of(
+        "initial", SerializedValue.of(dynamics.initial),
+        "rate", SerializedValue.of(dynamics.rate)));
+  }
+
+  @Test
+  public void discreteProfilesCollectLikeTheWholeProfile() {
+    final var expected = Strings.deserializer().invoke(serializeAll(DISCRETE, $ -> $));
+    final var profile = adapter().resource("/discrete", Strings.deserializer());
+
+    for (final var bounds : BOUNDS) {
+      assertEquals(expected.collect(bounds), profile.collect(bounds), "bounds " + bounds);
+    }
+  }
+
+  @Test
+  public void realProfilesCollectLikeTheWholeProfile() {
+    final var expected = Real.deserializer().invoke(serializeAll(REAL, MerlinToProcedureSimulationResultsAdapterTest::serializeReal));
+    final var adapter = adapter();
+    // Read straight out of the columns.
+    final var fromColumns = adapter.resource("/real", Real.deserializer());
+    // Read through serialized segments, since this is not the default deserializer.
+    final var fromSerialized = adapter.resource("/real", segments -> Real.deserializer().invoke(segments));
+
+    for (final var bounds : BOUNDS) {
+      assertEquals(expected.collect(bounds), fromColumns.collect(bounds), "columns, bounds " + bounds);
+      assertEquals(expected.collect(bounds), fromSerialized.collect(bounds), "serialized, bounds " + bounds);
+    }
+  }
+
+  @Test
+  public void equalSegmentsAreCoalescedAcrossEmptySegments() {
+    final var profile = adapter().resource("/discrete", Strings.deserializer());
+
+    // The window overlaps three "a" segments, the last of which follows an empty "b" segment.
+    final var bounds = Interval.between(seconds(1), seconds(4));
+    assertEquals(
+        List.of(new Segment<>(bounds, "a")),
+        profile.collect(bounds));
+    assertEquals(
+        List.of(
+            new Segment<>(Interval.betweenClosedOpen(seconds(0), seconds(5)), "a"),
+            new Segment<>(Interval.betweenClosedOpen(seconds(5), seconds(9)), "b"),
+            new Segment<>(Interval.betweenClosedOpen(seconds(9), seconds(11)), "c")),
+        profile.collect(Interval.between(seconds(0), seconds(11))));
+  }
+
+  @Test
+  public void emptyWindowsCollectNothing() {
+    final var adapter = adapter();
+    final var discrete = adapter.resource("/discrete", Strings.deserializer());
+    final var real = adapter.resource("/real", Real.deserializer());
+
+    for (final var bounds : List.of(
+        Interval.betweenClosedOpen(seconds(-2), seconds(0)),
+        Interval.between(seconds(11), seconds(12))))
+    {
+      assertTrue(discrete.collect(bounds).isEmpty(), "discrete, bounds " + bounds);
+      assertTrue(real.collect(bounds).isEmpty(), "real, bounds " + bounds);
+    }
+  }
+}
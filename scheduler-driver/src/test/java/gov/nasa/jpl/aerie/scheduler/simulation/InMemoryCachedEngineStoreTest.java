@@ -5,18 +5,27 @@ import gov.nasa.jpl.aerie.merlin.driver.SimulationEngineConfiguration;
 import gov.nasa.jpl.aerie.merlin.driver.engine.SimulationEngine;
 import gov.nasa.jpl.aerie.merlin.driver.resources.InMemorySimulationResourceManager;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.RealDynamics;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
 import gov.nasa.jpl.aerie.scheduler.SimulationUtility;
 import gov.nasa.jpl.aerie.types.ActivityDirective;
 import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 import gov.nasa.jpl.aerie.types.MissionModelId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class InMemoryCachedEngineStoreTest {
   SimulationEngineConfiguration simulationEngineConfiguration;
@@ -108,4 +117,157 @@ public class InMemoryCachedEngineStoreTest {
     assertEquals(cachedAfterRemoveLast.get(0).activityDirectives(), cachedEngine2.activityDirectives());
     assertEquals(cachedAfterRemoveLast.get(1).activityDirectives(), cachedEngine3.activityDirectives());
   }
+
+  @Test
+  public void spillsLeastRecentlyUsedProfiles() throws IOException {
+    final var spillDirectory = Files.createTempDirectory("cached-engines");
+    final var cachedEngine1 = getCachedEngine1();
+    final var cachedEngine2 = getCachedEngine2();
+    for (final var cachedEngine : new CachedSimulationEngine[] {cachedEngine1, cachedEngine2}) {
+      cachedEngine.resourceManager().acceptUpdates(
+          Duration.ZERO,
+          Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.linear(1, 2))),
+          Map.of());
+    }
+
+    //the budget fits the state of both engines, but the profiles of only one of them
+    final var budget = engineStateSize(cachedEngine1, cachedEngine2) + cachedEngine1.resourceManager().estimatedSizeInBytes();
+    try (final var store = new InMemoryCachedEngineStore(2, budget, spillDirectory)) {
+      store.save(cachedEngine1, this.simulationEngineConfiguration);
+      assertFalse(cachedEngine1.resourceManager().isSpilled());
+      //engine1 has to be spilled to make room for the profiles of engine2
+      store.save(cachedEngine2, this.simulationEngineConfiguration);
+      assertTrue(cachedEngine1.resourceManager().isSpilled());
+      assertFalse(cachedEngine2.resourceManager().isSpilled());
+      //using engine1 reads its profiles back, and engine2 becomes the least recently used
+      store.registerUsed(cachedEngine1);
+      assertFalse(cachedEngine1.resourceManager().isSpilled());
+      assertTrue(cachedEngine2.resourceManager().isSpilled());
+      assertEquals(
+          1,
+          cachedEngine1.resourceManager().computeProfiles(Duration.SECOND).realProfiles().get("real").segments().size());
+    }
+    //closing the store deletes the spilled profiles
+    try (final var files = Files.list(spillDirectory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void forksShareTheirProfilesInTheBudget() throws IOException {
+    final var spillDirectory = Files.createTempDirectory("cached-engines");
+    final var end = Duration.of(5001, Duration.SECONDS);
+
+    // Two checkpoints of the same simulation, which only diverge after a long common history.
+    final var history = new InMemorySimulationResourceManager();
+    for (int i = 0; i < 5000; i++) {
+      history.acceptUpdates(
+          Duration.of(i, Duration.SECONDS),
+          Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.linear(i, 1))),
+          Map.of("discrete", Pair.of(ValueSchema.INT, SerializedValue.of(i % 3))));
+    }
+    final var resourceManager1 = new InMemorySimulationResourceManager(history);
+    final var resourceManager2 = new InMemorySimulationResourceManager(history);
+    resourceManager1.acceptUpdates(end.minus(Duration.SECOND), Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.constant(-1))), Map.of());
+    resourceManager2.acceptUpdates(end.minus(Duration.SECOND), Map.of("real", Pair.of(ValueSchema.REAL, RealDynamics.constant(-2))), Map.of());
+    final var profiles1 = resourceManager1.computeProfiles(end);
+    final var profiles2 = resourceManager2.computeProfiles(end);
+
+    final var counted = new HashSet<Object>();
+    final var combinedSize = resourceManager1.estimatedSizeInBytes(counted) + resourceManager2.estimatedSizeInBytes(counted);
+    //the common history is only counted once
+    assertTrue(combinedSize > history.estimatedSizeInBytes());
+    assertTrue(combinedSize < 2 * history.estimatedSizeInBytes());
+
+    final var fittingEngine1 = cachedEngine(1, resourceManager1);
+    final var fittingEngine2 = cachedEngine(2, resourceManager2);
+    final var fittingBudget = engineStateSize(fittingEngine1, fittingEngine2) + combinedSize;
+    try (final var store = new InMemoryCachedEngineStore(2, fittingBudget, spillDirectory)) {
+      store.save(fittingEngine1, this.simulationEngineConfiguration);
+      store.save(fittingEngine2, this.simulationEngineConfiguration);
+      assertFalse(resourceManager1.isSpilled());
+      assertFalse(resourceManager2.isSpilled());
+    }
+
+    final var cachedEngine1 = cachedEngine(1, resourceManager1);
+    final var cachedEngine2 = cachedEngine(2, resourceManager2);
+    //one byte short of holding both forks, so that only the profiles engine1 does not share with engine2 are spilled
+    final var budget = engineStateSize(cachedEngine1, cachedEngine2) + combinedSize - 1;
+    try (final var store = new InMemoryCachedEngineStore(2, budget, spillDirectory)) {
+      store.save(cachedEngine1, this.simulationEngineConfiguration);
+      store.save(cachedEngine2, this.simulationEngineConfiguration);
+      assertEquals(2, store.getCachedEngines(this.simulationEngineConfiguration).size());
+      assertTrue(resourceManager1.isSpilled());
+      //only the profiles that engine1 does not share with engine2 have been released
+      final var retained = new HashSet<Object>();
+      resourceManager2.estimatedSizeInBytes(retained);
+      assertTrue(resourceManager1.estimatedSizeInBytes() > 0);
+      assertEquals(0, resourceManager1.estimatedSizeInBytes(retained));
+
+      store.registerUsed(cachedEngine1);
+      assertFalse(resourceManager1.isSpilled());
+      assertTrue(resourceManager2.isSpilled());
+      assertEquals(profiles1, resourceManager1.computeProfiles(end));
+      //reading back the profiles of engine1 did not copy the history it shares with engine2
+      final var restored = new HashSet<Object>();
+      resourceManager1.estimatedSizeInBytes(restored);
+      assertTrue(resourceManager2.estimatedSizeInBytes() > 0);
+      assertEquals(0, resourceManager2.estimatedSizeInBytes(restored));
+
+      store.registerUsed(cachedEngine2);
+      assertEquals(profiles2, resourceManager2.computeProfiles(end));
+    }
+    //closing the store deletes the spilled profiles
+    try (final var files = Files.list(spillDirectory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void budgetDecidesHowManyEnginesAreKept() throws IOException {
+    final var spillDirectory = Files.createTempDirectory("cached-engines");
+    final var engineSize = engineStateSize(getCachedEngine1()) + getCachedEngine1().resourceManager().estimatedSizeInBytes();
+
+    //a capacity of one engine does not prevent the budget from keeping three
+    try (final var store = new InMemoryCachedEngineStore(1, 3 * engineSize, spillDirectory)) {
+      store.save(getCachedEngine1(), this.simulationEngineConfiguration);
+      store.save(getCachedEngine2(), this.simulationEngineConfiguration);
+      store.save(getCachedEngine3(), this.simulationEngineConfiguration);
+      assertEquals(3, store.getCachedEngines(this.simulationEngineConfiguration).size());
+    }
+
+    //the state of an engine cannot be spilled, so an engine beyond the budget removes the least recently used one
+    final var cachedEngine1 = getCachedEngine1();
+    final var cachedEngine2 = getCachedEngine2();
+    final var cachedEngine3 = getCachedEngine3();
+    try (final var store = new InMemoryCachedEngineStore(3, 2 * engineSize, spillDirectory)) {
+      store.save(cachedEngine1, this.simulationEngineConfiguration);
+      store.save(cachedEngine2, this.simulationEngineConfiguration);
+      store.registerUsed(cachedEngine2);
+      store.save(cachedEngine3, this.simulationEngineConfiguration);
+      final var cached = store.getCachedEngines(this.simulationEngineConfiguration);
+      assertEquals(2, cached.size());
+      assertEquals(cachedEngine2.activityDirectives(), cached.get(0).activityDirectives());
+      assertEquals(cachedEngine3.activityDirectives(), cached.get(1).activityDirectives());
+    }
+  }
+
+  private static long engineStateSize(final CachedSimulationEngine... cachedEngines) {
+    long size = 0;
+    for (final var cachedEngine : cachedEngines) {
+      size += cachedEngine.simulationEngine().estimatedSizeInBytes(new HashSet<>());
+    }
+    return size;
+  }
+
+  private static CachedSimulationEngine cachedEngine(final long id, final InMemorySimulationResourceManager resourceManager) {
+    return new CachedSimulationEngine(
+        Duration.SECOND,
+        Map.of(new ActivityDirectiveId(id), new ActivityDirective(Duration.HOUR, "ActivityType" + id, Map.of(), null, true)),
+        new SimulationEngine(SimulationUtility.getFooMissionModel().getInitialCells()),
+        null,
+        SimulationUtility.getFooMissionModel(),
+        resourceManager
+    );
+  }
 }
@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import gov.nasa.jpl.aerie.json.JsonParseResult;
 import gov.nasa.jpl.aerie.merlin.driver.json.ValueSchemaJsonParser;
 import gov.nasa.jpl.aerie.merlin.protocol.types.ValueSchema;
+import gov.nasa.jpl.aerie.permissions.PermissionsService;
 import gov.nasa.jpl.aerie.scheduler.server.exceptions.NoSuchPlanException;
 import gov.nasa.jpl.aerie.scheduler.server.exceptions.NoSuchSpecificationException;
 import gov.nasa.jpl.aerie.scheduler.server.models.GoalId;
@@ -152,6 +153,14 @@ public class ResponseSerializers {
    * @param e the exception to generate json report for
    * @return a json serialization of the exception details
    */
+  public static JsonValue serializePermissionsCacheStats(final PermissionsService.CacheStats stats) {
+    return Json
+        .createObjectBuilder()
+        .add("hits", stats.hits())
+        .add("misses", stats.misses())
+        .build();
+  }
+
   public static JsonValue serializeException(final Exception e) {
     //TODO: stack trace or other details back to ui / client?
     return Json.createObjectBuilder()
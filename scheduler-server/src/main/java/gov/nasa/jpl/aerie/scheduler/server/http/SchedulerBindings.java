@@ -10,6 +10,7 @@ import static gov.nasa.jpl.aerie.scheduler.server.http.ResponseSerializers.*;
 import static gov.nasa.jpl.aerie.scheduler.server.http.SchedulerParsers.hasuraSchedulingDSLTypescriptActionP;
 import static gov.nasa.jpl.aerie.scheduler.server.http.SchedulerParsers.hasuraSchedulingGoalEventTriggerP;
 import static gov.nasa.jpl.aerie.scheduler.server.http.SchedulerParsers.hasuraSpecificationActionP;
+import static gov.nasa.jpl.aerie.scheduler.server.http.SchedulerParsers.invalidatePermissionsP;
 import static io.javalin.apibuilder.ApiBuilder.*;
 import gov.nasa.jpl.aerie.json.JsonParser;
 import gov.nasa.jpl.aerie.permissions.Action;
@@ -19,6 +20,7 @@ import gov.nasa.jpl.aerie.permissions.exceptions.NoSuchPlanException;
 import gov.nasa.jpl.aerie.permissions.exceptions.NoSuchSchedulingSpecificationException;
 import gov.nasa.jpl.aerie.permissions.exceptions.PermissionsServiceException;
 import gov.nasa.jpl.aerie.permissions.exceptions.Unauthorized;
+import gov.nasa.jpl.aerie.permissions.gql.PlanId;
 import gov.nasa.jpl.aerie.permissions.gql.SchedulingSpecificationId;
 import gov.nasa.jpl.aerie.scheduler.server.exceptions.NoSuchSpecificationException;
 import gov.nasa.jpl.aerie.scheduler.server.services.GenerateSchedulingLibAction;
@@ -66,7 +68,8 @@ public record SchedulerBindings(
       before(ctx -> ctx.contentType("application/json"));
 
       path("schedule", () -> post(this::schedule));
-      path("health", () -> get(ctx -> ctx.status(200)));
+      path("health", () -> get(this::getHealth));
+      path("invalidatePermissions", () -> post(this::invalidatePermissions));
       path("schedulingDslTypescript", () -> post(this::getSchedulingDslTypescript));
       path("refreshSchedulingProcedureParameterTypes", () -> post(this::refreshSchedulingProcedureParameterTypes));
     });
@@ -178,6 +181,43 @@ public record SchedulerBindings(
     }
   }
 
+  /**
+   * action bound to the /health endpoint: reports the server as healthy, along with the hits and misses of its
+   * permissions cache
+   *
+   * @param ctx the http context of the request from which to read input or post results
+   */
+  private void getHealth(final Context ctx) {
+    ctx.status(200).result(Json
+        .createObjectBuilder()
+        .add("permissionsCache", serializePermissionsCacheStats(this.permissionsService.cacheStats()))
+        .build()
+        .toString());
+  }
+
+  /**
+   * action bound to the /invalidatePermissions endpoint: forgets the cached permissions of the given plan and
+   * scheduling specification, or every cached permission if neither is given, so that a change of permissions made
+   * through Hasura applies right away
+   *
+   * @param ctx the http context of the request from which to read input or post results
+   */
+  private void invalidatePermissions(final Context ctx) {
+    try {
+      final var body = parseJson(ctx.body(), invalidatePermissionsP);
+      final var planId = body.getLeft();
+      final var specificationId = body.getRight();
+      planId.ifPresent($ -> this.permissionsService.invalidatePlan(new PlanId($.id())));
+      specificationId.ifPresent($ -> this.permissionsService.invalidateSchedulingSpecification(new SchedulingSpecificationId($.id())));
+      if (planId.isEmpty() && specificationId.isEmpty()) this.permissionsService.invalidateAll();
+      ctx.status(200);
+    } catch (final InvalidEntityException ex) {
+      ctx.status(400).result(serializeInvalidEntityException(ex).toString());
+    } catch (final InvalidJsonException ex) {
+      ctx.status(400).result(serializeInvalidJsonException(ex).toString());
+    }
+  }
+
   /**
    * parses the provided json string into the object type understood by the given parser
    *
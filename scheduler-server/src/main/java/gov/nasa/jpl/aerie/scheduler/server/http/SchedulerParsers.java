@@ -7,6 +7,7 @@ import gov.nasa.jpl.aerie.scheduler.server.models.SpecificationId;
 import gov.nasa.jpl.aerie.scheduler.server.services.ScheduleFailure;
 import gov.nasa.jpl.aerie.types.MissionModelId;
 import gov.nasa.jpl.aerie.types.Timestamp;
+import org.apache.commons.lang3.tuple.Pair;
 
 import javax.json.Json;
 import javax.json.stream.JsonParsingException;
@@ -48,6 +49,14 @@ public final class SchedulerParsers {
           PlanId::new,
           PlanId::id);
 
+  /**
+   * parser for the plan and scheduling specification whose cached permissions to forget,
+   * where neither means to forget every cached permission
+   */
+  public static final JsonParser<Pair<Optional<PlanId>, Optional<SpecificationId>>> invalidatePermissionsP = productP
+      .optionalField("planId", planIdP)
+      .optionalField("specificationId", specificationIdP);
+
   public static final JsonParser<ScheduleFailure> scheduleFailureP = productP
       .field("type", stringP)
       .field("message", stringP)
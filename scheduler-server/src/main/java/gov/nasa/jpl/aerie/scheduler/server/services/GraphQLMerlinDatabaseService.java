@@ -45,6 +45,8 @@ import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
 import gov.nasa.jpl.aerie.types.MissionModelId;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.json.Json;
 import javax.json.JsonArray;
@@ -62,10 +64,12 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static gov.nasa.jpl.aerie.json.BasicParsers.chooseP;
@@ -91,11 +95,56 @@ import static gov.nasa.jpl.aerie.scheduler.server.graphql.ProfileParsers.realVal
  */
 public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGraphQlAdminSecret) implements MerlinDatabaseService.OwnerRole {
 
+  private static final Logger logger = LoggerFactory.getLogger(GraphQLMerlinDatabaseService.class);
+
   /**
    * timeout for http graphql requests issued to aerie
    */
   private static final java.time.Duration httpTimeout = java.time.Duration.ofSeconds(60);
 
+  /**
+   * client shared by every request, so that connections to aerie are kept alive and reused rather than re-established
+   * for each query
+   */
+  private static final HttpClient httpClient = HttpClient
+      .newBuilder()
+      .version(HttpClient.Version.HTTP_2)
+      .connectTimeout(httpTimeout)
+      .build();
+
+  /**
+   * maximum number of rows inserted by a single bulk mutation
+   */
+  private static final int maxRowsPerMutation = 10_000;
+
+  private static final Pattern operationPattern = Pattern.compile("^\\s*(query|mutation)?\\s*(\\w+)?[^{]*\\{\\s*(\\w+)");
+  private static final Map<String, OperationLatency> operationLatencies = new ConcurrentHashMap<>();
+
+  /**
+   * accumulated latency of the requests issued for one kind of graphql operation
+   *
+   * @param operation the operation name, or the first root field of anonymous operations
+   * @param count the number of requests issued
+   * @param total the total time spent waiting on those requests
+   * @param max the longest time spent waiting on a single request
+   */
+  public record OperationLatency(String operation, long count, java.time.Duration total, java.time.Duration max) {
+    private OperationLatency plus(final java.time.Duration latency) {
+      return new OperationLatency(
+          this.operation,
+          this.count + 1,
+          this.total.plus(latency),
+          (latency.compareTo(this.max) > 0) ? latency : this.max);
+    }
+  }
+
+  /**
+   * @return the latency of every kind of graphql operation issued by this process so far
+   */
+  public static List<OperationLatency> operationLatencies() {
+    return operationLatencies.values().stream().sorted(Comparator.comparing(OperationLatency::operation)).toList();
+  }
+
   public record DatasetMetadata(DatasetId datasetId, Duration offsetFromPlanStart){}
 
   private record SimulationId(long id){}
@@ -131,46 +180,26 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
    * @return the json response returned by aerie, or an empty optional in case of io errors
    */
   protected Optional<JsonObject> postRequest(final String gqlStr) throws IOException, MerlinServiceException {
-    try {
-      //TODO: (mem optimization) use streams here to avoid several copies of strings
-      final var reqBody = Json.createObjectBuilder().add("query", gqlStr).build();
-      final var httpReq = HttpRequest
-          .newBuilder().uri(merlinGraphqlURI).timeout(httpTimeout)
-          .header("Content-Type", "application/json")
-          .header("Accept", "application/json")
-          .header("Origin", merlinGraphqlURI.toString())
-          .header("x-hasura-admin-secret", hasuraGraphQlAdminSecret)
-          .POST(HttpRequest.BodyPublishers.ofString(reqBody.toString()))
-          .build();
-      //TODO: (net optimization) gzip compress the request body if large enough (eg for createAllActs)
-      final var httpResp = HttpClient
-          .newHttpClient().send(httpReq, HttpResponse.BodyHandlers.ofInputStream());
-      if (httpResp.statusCode() != 200) {
-        //TODO: how severely to error out if aerie cannot be reached or has a 500 error or json is garbled etc etc?
-        return Optional.empty();
-      }
-      final var respBody = Json.createReader(httpResp.body()).readObject();
-      if (respBody.containsKey("errors")) {
-        throw new MerlinServiceException(respBody.toString());
-      }
-      return Optional.of(respBody);
-    } catch (final InterruptedException e) {
-      //TODO: maybe retry if interrupted? but depends on semantics (eg don't duplicate mutation if not idempotent)
-      return Optional.empty();
-    } catch (final JsonException e) { // or also JsonParsingException
-      throw new IOException("json parse error on graphql response:" + e.getMessage(), e);
-    }
+    //TODO: (mem optimization) use streams here to avoid several copies of strings
+    return postRequestBody(gqlStr, Json.createObjectBuilder().add("query", gqlStr).build());
   }
 
   protected Optional<JsonObject> postRequest(final String query, final JsonObject variables)
   throws IOException, MerlinServiceException {
+    //TODO: (mem optimization) use streams here to avoid several copies of strings
+    final var reqBody = Json
+        .createObjectBuilder()
+        .add("query", query)
+        .add("variables", variables)
+        .build();
+    return postRequestBody(query, reqBody);
+  }
+
+  private Optional<JsonObject> postRequestBody(final String query, final JsonObject reqBody)
+  throws IOException, MerlinServiceException {
+    final var operation = operationName(query);
+    final var start = System.nanoTime();
     try {
-      //TODO: (mem optimization) use streams here to avoid several copies of strings
-      final var reqBody = Json
-          .createObjectBuilder()
-          .add("query", query)
-          .add("variables", variables)
-          .build();
       final var httpReq = HttpRequest
           .newBuilder().uri(merlinGraphqlURI).timeout(httpTimeout)
           .header("Content-Type", "application/json")
@@ -180,8 +209,7 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
           .POST(HttpRequest.BodyPublishers.ofString(reqBody.toString()))
           .build();
       //TODO: (net optimization) gzip compress the request body if large enough (eg for createAllActs)
-      final var httpResp = HttpClient
-          .newHttpClient().send(httpReq, HttpResponse.BodyHandlers.ofInputStream());
+      final var httpResp = httpClient.send(httpReq, HttpResponse.BodyHandlers.ofInputStream());
       if (httpResp.statusCode() != 200) {
         //TODO: how severely to error out if aerie cannot be reached or has a 500 error or json is garbled etc etc?
         return Optional.empty();
@@ -196,9 +224,23 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
       return Optional.empty();
     } catch (final JsonException e) { // or also JsonParsingException
       throw new IOException("json parse error on graphql response:" + e.getMessage(), e);
+    } finally {
+      final var latency = java.time.Duration.ofNanos(System.nanoTime() - start);
+      operationLatencies.compute(operation, ($, previous) -> (previous == null)
+          ? new OperationLatency(operation, 1, latency, latency)
+          : previous.plus(latency));
+      logger.debug("graphql {} took {} ms", operation, latency.toMillis());
     }
   }
 
+  private static String operationName(final String query) {
+    final var matcher = operationPattern.matcher(query);
+    if (!matcher.find()) return "unknown";
+    final var kind = Objects.requireNonNullElse(matcher.group(1), "query");
+    final var name = Objects.requireNonNullElse(matcher.group(2), matcher.group(3));
+    return kind + " " + name;
+  }
+
   //TODO: maybe use fancy aerie typed json parsers/serializers, ala BasicParsers.productP use in MerlinParsers
   //TODO: or upgrade to gson or similar modern library with registered object mappings
 
@@ -821,8 +863,7 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
         profileSet.discreteProfiles());
     postProfileSegments(datasetIds.datasetId(), profileRecords, profileSet);
     postActivities(datasetIds.datasetId(), results.simulatedActivities, results.unfinishedActivities, results.startTime, uploadIdMap);
-    insertSimulationTopics(datasetIds.datasetId(), results.topics);
-    insertSimulationEvents(datasetIds.datasetId(), results.events);
+    insertSimulationTopicsAndEvents(datasetIds.datasetId(), results.topics, results.events);
     setSimulationDatasetStatus(datasetIds.simulationDatasetId(), SimulationStateRecord.success());
     return datasetIds.datasetId();
   }
@@ -1369,6 +1410,11 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
     return profileRecords;
   }
 
+  /**
+   * insert the segments of every profile, packing the segments of several profiles into each mutation
+   *
+   * segments are sent in mutations of at most {@link #maxRowsPerMutation} rows, instead of one mutation per profile
+   */
   private void postProfileSegments(
       final DatasetId datasetId,
       final Map<String, ProfileRecord> records,
@@ -1377,38 +1423,37 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
   {
     final var realProfiles = profileSet.realProfiles();
     final var discreteProfiles = profileSet.discreteProfiles();
+    final var batch = new ProfileSegmentBatch();
     for (final var entry : records.entrySet()) {
       final ProfileRecord record =  entry.getValue();
       final var resource =  entry.getKey();
       switch (record.type().getLeft()) {
-        case "real" -> postRealProfileSegments(
+        case "real" -> addProfileSegments(
+            batch,
             datasetId,
             record,
-            realProfiles.get(resource).segments());
-        case "discrete" -> postDiscreteProfileSegments(
+            realProfiles.get(resource).segments(),
+            realDynamicsP);
+        case "discrete" -> addProfileSegments(
+            batch,
             datasetId,
             record,
-            discreteProfiles.get(resource).segments());
+            discreteProfiles.get(resource).segments(),
+            serializedValueP);
         default -> throw new Error("Unrecognized profile type " + record.type().getLeft());
       }
     }
+    batch.flush();
   }
 
-  private <Dynamics> void postProfileSegment(
+  private <Dynamics> void addProfileSegments(
+      final ProfileSegmentBatch batch,
       final DatasetId datasetId,
       final ProfileRecord profileRecord,
       final List<ProfileSegment<Optional<Dynamics>>> segments,
       final JsonParser<Dynamics> dynamicsP
   ) throws MerlinServiceException, IOException
   {
-    final var req = """
-        mutation($profileSegments:[profile_segment_insert_input!]!) {
-          insert_profile_segment(objects: $profileSegments) {
-            affected_rows
-          }
-        }
-        """;
-    final var profiles = Json.createArrayBuilder();
     var accumulatedOffset = Duration.ZERO;
     for (final var pair : segments) {
       final var duration = pair.extent();
@@ -1423,7 +1468,7 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
         serializedDynamics = null;
         stringIsGap = true;
       }
-      profiles.add(Json.createObjectBuilder()
+      batch.add(Json.createObjectBuilder()
           .add("dataset_id", datasetId.id())
           .add("profile_id", profileRecord.id())
           .add("start_offset", graphQLIntervalFromDuration(accumulatedOffset).toString())
@@ -1432,48 +1477,69 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
           .build());
       accumulatedOffset = Duration.add(accumulatedOffset, duration);
     }
+  }
 
-    final var arguments = Json.createObjectBuilder()
-                              .add("profileSegments", profiles)
-                              .build();
+  /** Profile segment rows waiting to be inserted, sent as soon as a full mutation's worth has accumulated. */
+  private final class ProfileSegmentBatch {
+    private static final String req = """
+        mutation($profileSegments:[profile_segment_insert_input!]!) {
+          insert_profile_segment(objects: $profileSegments) {
+            affected_rows
+          }
+        }
+        """;
 
-    final JsonObject response;
-    try {
-      response = postRequest(req, arguments).get();
-    } catch (MerlinServiceException e) {
-      throw new MerlinServiceException(e.toString());
-    }
-    final var affected_rows = response.getJsonObject("data").getJsonObject("insert_profile_segment").getInt("affected_rows");
-    if(affected_rows!=segments.size()) {
-      throw new MerlinServiceException("not the same size");
+    private JsonArrayBuilder rows = Json.createArrayBuilder();
+    private int size = 0;
+
+    void add(final JsonObject row) throws MerlinServiceException, IOException {
+      this.rows.add(row);
+      this.size += 1;
+      if (this.size >= maxRowsPerMutation) flush();
     }
-  }
 
-  private void postRealProfileSegments(final DatasetId datasetId,
-                                              final ProfileRecord profileRecord,
-                                              final List<ProfileSegment<Optional<RealDynamics>>> segments)
-  throws MerlinServiceException, IOException
-  {
-    postProfileSegment(datasetId, profileRecord, segments, realDynamicsP);
-  }
+    void flush() throws MerlinServiceException, IOException {
+      if (this.size == 0) return;
 
-  private void postDiscreteProfileSegments(final DatasetId datasetId,
-                                                  final ProfileRecord profileRecord,
-                                                  final List<ProfileSegment<Optional<SerializedValue>>> segments)
-  throws MerlinServiceException, IOException
-  {
-    postProfileSegment(datasetId, profileRecord, segments, serializedValueP);
+      final var arguments = Json.createObjectBuilder()
+                                .add("profileSegments", this.rows)
+                                .build();
+      final var expectedRows = this.size;
+      this.rows = Json.createArrayBuilder();
+      this.size = 0;
+
+      final JsonObject response;
+      try {
+        response = postRequest(req, arguments).get();
+      } catch (MerlinServiceException e) {
+        throw new MerlinServiceException(e.toString());
+      }
+      final var affected_rows = response.getJsonObject("data").getJsonObject("insert_profile_segment").getInt("affected_rows");
+      if(affected_rows!=expectedRows) {
+        throw new MerlinServiceException("not the same size");
+      }
+    }
   }
 
-  private void insertSimulationTopics(
+  /**
+   * insert the topics and events of a simulation in a single mutation
+   *
+   * hasura runs the root fields of a mutation in order within one transaction, so the topics exist by the time the
+   * events referring to them are inserted
+   */
+  private void insertSimulationTopicsAndEvents(
       DatasetId datasetId,
-      final List<Triple<Integer, String, ValueSchema>> topics) throws MerlinServiceException, IOException
+      final List<Triple<Integer, String, ValueSchema>> topics,
+      Map<Duration, List<EventGraph<EventRecord>>> eventPoints) throws MerlinServiceException, IOException
   {
     final var req = """
-        mutation($topics:[topic_insert_input!]!) {
+        mutation($topics:[topic_insert_input!]!, $events:[event_insert_input!]!) {
           insert_topic(objects: $topics){
             affected_rows
           }
+          insert_event(objects: $events) {
+            affected_rows
+          }
         }
         """;
     final var jsonTopics = Json.createArrayBuilder();
@@ -1487,23 +1553,6 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
               .build()
       );
     }
-    final var arguments = Json.createObjectBuilder()
-                              .add("topics", jsonTopics.build())
-                              .build();
-    postRequest(req, arguments);
-  }
-
-  private void insertSimulationEvents(
-      DatasetId datasetId,
-      Map<Duration, List<EventGraph<EventRecord>>> eventPoints) throws MerlinServiceException, IOException
-  {
-    final var req = """
-            mutation($events:[event_insert_input!]!){
-                  insert_event(objects: $events) {
-                    affected_rows
-                  }
-            }
-        """;
     final var events = Json.createArrayBuilder();
     for (final var eventPoint : eventPoints.entrySet()) {
       final var time = eventPoint.getKey();
@@ -1515,6 +1564,7 @@ public record GraphQLMerlinDatabaseService(URI merlinGraphqlURI, String hasuraGr
       }
     }
     final var arguments = Json.createObjectBuilder()
+                              .add("topics", jsonTopics.build())
                               .add("events", events)
                               .build();
     postRequest(req, arguments);
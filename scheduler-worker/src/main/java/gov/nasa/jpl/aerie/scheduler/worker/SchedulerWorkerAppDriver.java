@@ -28,6 +28,8 @@ import io.javalin.Javalin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.json.Json;
+
 public final class SchedulerWorkerAppDriver {
   private static final Logger logger = LoggerFactory.getLogger(SchedulerWorkerAppDriver.class);
 
@@ -72,7 +74,10 @@ public final class SchedulerWorkerAppDriver {
         merlinDatabaseService,
         config.merlinFileStore(),
         config.outputMode(),
-        schedulingDSLCompilationService);
+        schedulingDSLCompilationService,
+        config.conflictDetectionParallelism(),
+        config.cachedEnginesMemoryBudget(),
+        config.cachedEnginesSpillDirectory());
 
     final var notificationQueue = new LinkedBlockingQueue<PostgresSchedulingRequestNotificationPayload>();
     final var listenAction = new ListenSchedulerCapability(hikariDataSource, notificationQueue);
@@ -81,6 +86,23 @@ public final class SchedulerWorkerAppDriver {
 
     try(final var app = Javalin.create().start(8080)) {
       app.get("/health", ctx -> ctx.status(200));
+      app.get("/metrics", ctx -> {
+        final var operations = Json.createArrayBuilder();
+        for (final var latency : GraphQLMerlinDatabaseService.operationLatencies()) {
+          operations.add(Json
+              .createObjectBuilder()
+              .add("operation", latency.operation())
+              .add("count", latency.count())
+              .add("totalMillis", latency.total().toMillis())
+              .add("maxMillis", latency.max().toMillis()));
+        }
+
+        ctx.contentType("application/json").result(Json
+            .createObjectBuilder()
+            .add("graphqlOperations", operations)
+            .build()
+            .toString());
+      });
 
       while (listenThread.isAlive()) {
         final var notification = notificationQueue.poll(1, TimeUnit.MINUTES);
@@ -135,6 +157,21 @@ public final class SchedulerWorkerAppDriver {
       logger.warn("MAX_NB_CACHED_SIMULATION_ENGINES is " + maxNbCachedSimulationEngine + " but minimum is 1. Setting to 1.");
       maxNbCachedSimulationEngine = 1;
     }
+    int conflictDetectionParallelism = Integer.parseInt(getEnv("SCHEDULER_CONFLICT_DETECTION_PARALLELISM", "1"));
+    if (conflictDetectionParallelism < 1) {
+      logger.warn("SCHEDULER_CONFLICT_DETECTION_PARALLELISM is " + conflictDetectionParallelism + " but minimum is 1. Setting to 1.");
+      conflictDetectionParallelism = 1;
+    }
+    Optional<Long> cachedEnginesMemoryBudget = Optional.empty();
+    final var cachedEnginesMemoryBudgetMegabytes = System.getenv("CACHED_SIMULATION_ENGINES_MEMORY_BUDGET_MB");
+    if (cachedEnginesMemoryBudgetMegabytes != null) {
+      final var megabytes = Long.parseLong(cachedEnginesMemoryBudgetMegabytes);
+      if (megabytes < 0) {
+        logger.warn("CACHED_SIMULATION_ENGINES_MEMORY_BUDGET_MB is " + megabytes + " but minimum is 0. Bounding cached simulation engines by MAX_NB_CACHED_SIMULATION_ENGINES only.");
+      } else {
+        cachedEnginesMemoryBudget = Optional.of(megabytes * 1024 * 1024);
+      }
+    }
     return new WorkerAppConfiguration(
         new PostgresStore(getEnv("AERIE_DB_HOST", "postgres"),
                           getEnv("SCHEDULER_DB_USER", ""),
@@ -145,7 +182,10 @@ public final class SchedulerWorkerAppDriver {
         Path.of(getEnv("MERLIN_LOCAL_STORE", "/usr/src/app/merlin_file_store")),
         PlanOutputMode.valueOf((getEnv("SCHEDULER_OUTPUT_MODE", "CreateNewOutputPlan"))),
         getEnv("HASURA_GRAPHQL_ADMIN_SECRET", ""),
-        maxNbCachedSimulationEngine
+        maxNbCachedSimulationEngine,
+        conflictDetectionParallelism,
+        cachedEnginesMemoryBudget,
+        Path.of(getEnv("CACHED_SIMULATION_ENGINES_SPILL_DIRECTORY", System.getProperty("java.io.tmpdir")))
     );
   }
 }
@@ -2,6 +2,7 @@ package gov.nasa.jpl.aerie.scheduler.worker;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Optional;
 import gov.nasa.jpl.aerie.scheduler.server.config.PlanOutputMode;
 import gov.nasa.jpl.aerie.scheduler.server.config.Store;
 
@@ -11,5 +12,8 @@ public record WorkerAppConfiguration(
     Path merlinFileStore,
     PlanOutputMode outputMode,
     String hasuraGraphQlAdminSecret,
-    int maxCachedSimulationEngines
+    int maxCachedSimulationEngines,
+    int conflictDetectionParallelism,
+    Optional<Long> cachedEnginesMemoryBudget,
+    Path cachedEnginesSpillDirectory
 ) { }
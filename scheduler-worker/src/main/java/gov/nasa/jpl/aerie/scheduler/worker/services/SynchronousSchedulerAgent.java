@@ -82,6 +82,10 @@ import org.slf4j.LoggerFactory;
  * @param merlinDatabaseService interface for querying plan and mission model details from merlin
  * @param modelJarsDir path to parent directory for mission model jars (interim backdoor jar file access)
  * @param outputMode how the scheduling output should be returned to aerie (eg overwrite or new container)
+ * @param conflictDetectionParallelism number of threads on which analysis-only requests detect goal conflicts
+ * @param cachedEnginesMemoryBudget number of bytes that the simulation engines cached during a request may hold in
+ *                                  memory, if their number is to be bounded by memory rather than by a count
+ * @param cachedEnginesSpillDirectory directory in which cached engines spill their resource profiles to stay in budget
  */
 //TODO: will eventually need scheduling goal service arg to pull goals from scheduler's own data store
 public record SynchronousSchedulerAgent(
@@ -89,7 +93,10 @@ public record SynchronousSchedulerAgent(
     MerlinDatabaseService.OwnerRole merlinDatabaseService,
     Path modelJarsDir,
     PlanOutputMode outputMode,
-    SchedulingDSLCompilationService schedulingDSLCompilationService
+    SchedulingDSLCompilationService schedulingDSLCompilationService,
+    int conflictDetectionParallelism,
+    Optional<Long> cachedEnginesMemoryBudget,
+    Path cachedEnginesSpillDirectory
 )
     implements SchedulerAgent
 {
@@ -99,6 +106,21 @@ public record SynchronousSchedulerAgent(
     Objects.requireNonNull(merlinDatabaseService);
     Objects.requireNonNull(modelJarsDir);
     Objects.requireNonNull(schedulingDSLCompilationService);
+    if (conflictDetectionParallelism < 1) {
+      throw new IllegalArgumentException("The conflict detection parallelism must be at least 1");
+    }
+    Objects.requireNonNull(cachedEnginesMemoryBudget);
+    Objects.requireNonNull(cachedEnginesSpillDirectory);
+  }
+
+  /**
+   * Creates the store of the simulation engines cached during a request.
+   * With a memory budget, the budget rather than the capacity bounds the number of engines kept.
+   */
+  private InMemoryCachedEngineStore newCachedEngineStore(final int capacity) {
+    return cachedEnginesMemoryBudget
+        .map(budget -> new InMemoryCachedEngineStore(capacity, budget, cachedEnginesSpillDirectory))
+        .orElseGet(() -> new InMemoryCachedEngineStore(capacity));
   }
 
   /**
@@ -116,7 +138,7 @@ public record SynchronousSchedulerAgent(
       final Supplier<Boolean> canceledListener,
       final int sizeCachedEngineStore
   ) {
-    try(final var cachedEngineStore = new InMemoryCachedEngineStore(sizeCachedEngineStore)) {
+    try(final var cachedEngineStore = newCachedEngineStore(sizeCachedEngineStore)) {
       //confirm requested plan to schedule from/into still exists at targeted version (request could be stale)
       //TODO: maybe some kind of high level db transaction wrapping entire read/update of target plan revision
 
@@ -233,7 +255,7 @@ public record SynchronousSchedulerAgent(
         }
         problem.setGoals(orderedGoals);
 
-      final var scheduler = new PrioritySolver(problem, specification.analysisOnly());
+      final var scheduler = new PrioritySolver(problem, specification.analysisOnly(), conflictDetectionParallelism);
       //run the scheduler to find a solution to the posed problem, if any
       final var solutionPlan = scheduler.getNextSolution().orElseThrow(
           () -> new ResultsProtocolFailure("scheduler returned no solution"));
@@ -2216,7 +2216,10 @@ public class SchedulingEdslIntegrationTests {
         mockMerlinService,
         desc.libPath(),
         PlanOutputMode.UpdateInputPlanWithNewActivities,
-        schedulingDSLCompiler);
+        schedulingDSLCompiler,
+        1,
+        Optional.empty(),
+        Path.of(System.getProperty("java.io.tmpdir")));
     // Scheduling Goals -> Scheduling Specification
     final var writer = new MockResultsProtocolWriter();
     agent.schedule(new ScheduleRequest(new SpecificationId(1L), new SpecificationRevisionData(1L, 1L)), writer, () -> false, cachedEngineStoreCapacity);
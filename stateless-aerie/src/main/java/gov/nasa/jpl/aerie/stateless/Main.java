@@ -8,6 +8,10 @@ import gov.nasa.jpl.aerie.orchestration.simulation.SimulationResultsWriter;
 import gov.nasa.jpl.aerie.merlin.driver.MissionModel;
 import gov.nasa.jpl.aerie.merlin.driver.MissionModelLoader;
 import gov.nasa.jpl.aerie.merlin.driver.SimulationException;
+import gov.nasa.jpl.aerie.merlin.driver.engine.EngineProfiler;
+
+import java.io.FileWriter;
+import java.io.IOException;
 
 import java.nio.file.Path;
 import java.util.Map;
@@ -33,7 +37,8 @@ public class Main {
         Plan plan,
         boolean verbose,
         Optional<Path> outputFilePath,
-        long extentUpdatePeriod
+        long extentUpdatePeriod,
+        Optional<Path> profilePath
     ) implements Arguments {}
   }
 
@@ -65,6 +70,7 @@ public class Main {
     final boolean verbose;
     final Optional<Path> outputFilePath;
     final long extentUpdatePeriod;
+    final Optional<Path> profilePath;
 
     // Parse the command line arguments
     final Options simulationOptions = createSimulationOptions();
@@ -81,6 +87,7 @@ public class Main {
       configJsonPath = cmd.getParsedOptionValue('s', Optional.empty());
       outputFilePath = cmd.getParsedOptionValue('f', Optional.empty());
       extentUpdatePeriod = cmd.getParsedOptionValue('i', 500L);
+      profilePath = cmd.getParsedOptionValue("profile", Optional.empty());
     } catch (ParseException e) {
       simulationOptions.addOption(HELP_OPTION);
       new HelpFormatter().printHelp(
@@ -112,7 +119,7 @@ public class Main {
           plan.simulationConfiguration()
       );
 
-      return new Arguments.SimulationArguments<>(model, plan, verbose, outputFilePath, extentUpdatePeriod);
+      return new Arguments.SimulationArguments<>(model, plan, verbose, outputFilePath, extentUpdatePeriod, profilePath);
     } catch (MissionModelLoader.MissionModelLoadException | MissionModelLoader.MissionModelInstantiationException e) {
       throw new RuntimeException("Error while loading mission model: "+modelJarPath, e);
     }
@@ -124,6 +131,7 @@ public class Main {
     Thread shutdownHook = null;
     final var rfs = new ResourceFileStreamer();
     final var canceledListener = new CanceledListener();
+    final var profiler = simArgs.profilePath().map($ -> new EngineProfiler());
 
     // Cancel support
     try (final var extentConsumer = simArgs.verbose
@@ -135,7 +143,8 @@ public class Main {
           simArgs.missionModel(),
           simArgs.plan(),
           canceledListener,
-          extentConsumer
+          extentConsumer,
+          profiler
       );
 
       shutdownHook = new Thread(() -> {
@@ -186,12 +195,29 @@ public class Main {
       // If this is the message, it must've come from Runtime.getRuntime().removeShutdownHook and can be safely ignored
       if (!ise.getMessage().contains("Shutdown in progress")) throw ise;
     } finally {
+      simArgs.profilePath().ifPresent(path -> writeProfile(profiler.get(), path));
+
       // Try-catch wrapping in case this is executed while the shutdown hook is running.
       try { Runtime.getRuntime().removeShutdownHook(shutdownHook); }
       catch (IllegalStateException ise) {}
     }
   }
 
+  /**
+   * Write the time the simulation engine spent on each of its jobs to a JSON file,
+   * and emit it as flight recorder events in case a recording is in progress.
+   */
+  private static void writeProfile(EngineProfiler profiler, Path path) {
+    profiler.emitJfrEvents();
+
+    final Map<String,String> config = Map.of(JsonGenerator.PRETTY_PRINTING, "");
+    try (final var jsonWriter = Json.createWriterFactory(config).createWriter(new FileWriter(path.toFile()))) {
+      jsonWriter.writeObject(profiler.toJson());
+    } catch (IOException e) {
+      throw new RuntimeException("Error while writing simulation profile: "+path, e);
+    }
+  }
+
   /**
    * Display top-level help for the application
    */
@@ -228,6 +254,10 @@ public class Main {
     outputFile.setRequired(false);
     outputFile.setConverter(f -> Optional.of(Path.of(f)));
 
+    final Option profilePath = new Option(null, "profile", true, "path to write a profile of the time spent simulating each activity type, condition, and resource");
+    profilePath.setRequired(false);
+    profilePath.setConverter(p -> Optional.of(Path.of(p)));
+
     // Other Optional Args
     final Option verbose = new Option("v", "verbose", false, "verbosity of simulation");
 
@@ -241,6 +271,7 @@ public class Main {
     simulationOptions.addOption(planPath);
     simulationOptions.addOption(simConfigPath);
     simulationOptions.addOption(outputFile);
+    simulationOptions.addOption(profilePath);
     simulationOptions.addOption(extentUpdateFrequency);
     return simulationOptions;
   }
@@ -102,7 +102,7 @@ public class CLIArgumentsTest {
       final var helpString =
        """
        usage: stateless-aerie simulate [-f <arg>] [-h] [-i <arg>] -m <arg> -p
-              <arg> [-s <arg>] [-v]
+              <arg> [--profile <arg>] [-s <arg>] [-v]
        Simulate a plan using the specified model and configuration
         -f,--file <arg>              output file path
         -h,--help                    display this message and exit
@@ -110,6 +110,9 @@ public class CLIArgumentsTest {
                                      updates are posted, in milliseconds
         -m,--model <arg>             path to model jar
         -p,--plan <arg>              path to plan json
+           --profile <arg>           path to write a profile of the time spent
+                                     simulating each activity type, condition,
+                                     and resource
         -s,--sim_config <arg>        path to simulation configuration json
         -v,--verbose                 verbosity of simulation
 